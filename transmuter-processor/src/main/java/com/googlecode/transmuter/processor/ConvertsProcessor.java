@@ -0,0 +1,446 @@
+package com.googlecode.transmuter.processor;
+
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.annotation.processing.SupportedOptions;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.AnnotationMirror;
+import javax.lang.model.element.AnnotationValue;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.NestingKind;
+import javax.lang.model.element.PackageElement;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.type.ArrayType;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.ExecutableType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.type.WildcardType;
+import javax.lang.model.util.ElementFilter;
+import javax.tools.Diagnostic.Kind;
+import javax.tools.StandardLocation;
+
+/**
+ * Generates, at compile time, a converter provider for every concrete class with public methods marked with
+ * {@code @Converts}.
+ * <p>
+ * The generated provider, named after the class with a {@value #PROVIDER_SUFFIX} suffix (nested classes have their
+ * names joined by underscores), is an {@code Iterable<Converter>} just like {@code Converts.EagerProvider}, and
+ * provides the same converters, with a few differences:
+ * <ul>
+ * <li>it takes an instance of the scanned class, instead of any object;</li>
+ * <li>it knows which methods are converter methods, so it looks up only those, instead of scanning all public
+ * methods and their annotations;</li>
+ * <li>it knows the converter type of each method, which is given to the {@code Converter} as is, so no generic
+ * type resolution is done at runtime.</li>
+ * </ul>
+ * The methods are the ones known by the scanned class: if an instance of a subclass overrides them, it is the
+ * overriding code which will run, but with the converter types seen in the scanned class.
+ * <p>
+ * The same checks made at runtime by {@code Converter} are made here, and any errors are reported as compilation
+ * errors on the offending methods. In that case, no provider is generated for the class. Marked methods which aren't
+ * public are ignored at runtime, and therefore reported as warnings.
+ * <p>
+ * With the {@value #INDEX_OPTION} option set to {@code true}, this processor also writes an index file, listing the
+ * classes whose providers were generated and which can be instantiated with a public no-arg constructor, for
+ * {@code Converts.IndexProvider} to read. That provider then uses the generated providers of the listed classes.
+ * <p>
+ * This processor claims no annotations, since classes which only inherit converter methods have none to claim.
+ *
+ * @author Humberto S. N. dos Anjos
+ */
+@SupportedAnnotationTypes("*")
+@SupportedOptions(ConvertsProcessor.INDEX_OPTION)
+public class ConvertsProcessor extends AbstractProcessor {
+  /**
+   * The fully qualified name of the {@code Converts} annotation.
+   */
+  public static final String CONVERTS = "com.googlecode.transmuter.converter.Converts";
+
+  /**
+   * The suffix of the generated providers' names.
+   */
+  public static final String PROVIDER_SUFFIX = "_ConverterProvider";
+
+  /**
+   * The option which enables the generation of the index file.
+   */
+  public static final String INDEX_OPTION = "transmuter.index";
+
+  /**
+   * The resource name of the index file, as read by {@code Converts.IndexProvider}.
+   */
+  public static final String INDEX = "META-INF/transmuter/converters";
+
+  private static final String CONVERTER = "com.googlecode.transmuter.converter.Converter";
+  private static final String CONVERTER_TYPE = "com.googlecode.transmuter.converter.ConverterType";
+  private static final String PROVIDER_EXCEPTION = "com.googlecode.transmuter.converter.exception.ConverterProviderException";
+  private static final String MULTIPLE_CAUSES_EXCEPTION = "com.googlecode.transmuter.util.exception.MultipleCausesException";
+  private static final String TYPE_TOKEN = "com.googlecode.transmuter.type.TypeToken";
+
+  private final Set<String> indexedClasses = new TreeSet<String>();
+
+  @Override
+  public SourceVersion getSupportedSourceVersion() {
+    return SourceVersion.latestSupported();
+  }
+
+  @Override
+  public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+    for(TypeElement type : ElementFilter.typesIn(roundEnv.getRootElements()))
+      processAll(type);
+
+    if(roundEnv.processingOver() && Boolean.parseBoolean(processingEnv.getOptions().get(INDEX_OPTION)))
+      writeIndex();
+
+    return false;
+  }
+
+  // helper methods
+  /* (non-Javadoc)
+   * Processes the given type and all types nested in it.
+   */
+  private void processAll(TypeElement type) {
+    process(type);
+
+    for(TypeElement nested : ElementFilter.typesIn(type.getEnclosedElements()))
+      processAll(nested);
+  }
+
+  /* (non-Javadoc)
+   * Checks the converter methods of the given type, generating its provider if they're all valid.
+   */
+  private void process(TypeElement type) {
+    warnAboutNonPublicConverterMethods(type);
+
+    if(type.getKind() != ElementKind.CLASS && type.getKind() != ElementKind.ENUM)
+      return;
+
+    if(type.getModifiers().contains(Modifier.ABSTRACT))
+      return; // no instances to provide converters from
+
+    List<ConverterMethod> methods = new ArrayList<ConverterMethod>();
+    boolean valid = true;
+
+    for(ExecutableElement method : ElementFilter.methodsIn(processingEnv.getElementUtils().getAllMembers(type))) {
+      if(! isConverterMethod(method) || ! method.getModifiers().contains(Modifier.PUBLIC))
+        continue;
+
+      ConverterMethod converterMethod = check(type, method);
+      if(converterMethod != null)
+        methods.add(converterMethod);
+      else
+        valid = false;
+    }
+
+    if(methods.isEmpty() || ! valid)
+      return;
+
+    if(! isReachable(type)) {
+      processingEnv.getMessager().printMessage(Kind.WARNING,
+          "no converter provider generated, since " + type + " is not visible to its package", type);
+      return;
+    }
+
+    if(isInstantiable(type))
+      indexedClasses.add(processingEnv.getElementUtils().getBinaryName(type).toString());
+
+    try {
+      generateProvider(type, methods);
+    } catch (IOException e) {
+      processingEnv.getMessager().printMessage(Kind.ERROR,
+          "could not generate the converter provider of " + type + ": " + e, type);
+    }
+  }
+
+  /* (non-Javadoc)
+   * Non-public methods are never scanned, so marking them is probably a mistake.
+   */
+  private void warnAboutNonPublicConverterMethods(TypeElement type) {
+    for(ExecutableElement method : ElementFilter.methodsIn(type.getEnclosedElements()))
+      if(isConverterMethod(method) && ! method.getModifiers().contains(Modifier.PUBLIC))
+        processingEnv.getMessager().printMessage(Kind.WARNING,
+            "only public methods are converter methods; this one will be ignored", method);
+  }
+
+  /* (non-Javadoc)
+   * Makes the same checks as ConverterType.from and Converter, as seen from the given type. Returns null if the
+   * method isn't valid, after reporting why.
+   */
+  private ConverterMethod check(TypeElement type, ExecutableElement method) {
+    List<String> errors = new ArrayList<String>();
+
+    ExecutableType resolved =
+      (ExecutableType) processingEnv.getTypeUtils().asMemberOf((DeclaredType) type.asType(), method);
+
+    List<? extends TypeMirror> parameterTypes = resolved.getParameterTypes();
+    TypeMirror parameterType = null;
+    if(parameterTypes.size() != 1)
+      errors.add("converter methods must have 1 parameter, not " + parameterTypes.size());
+    else if(! isFullyResolved(parameterType = parameterTypes.get(0)))
+      errors.add("invalid parameter type in " + type + ": " + parameterType);
+
+    TypeMirror returnType = resolved.getReturnType();
+    if(returnType.getKind() == TypeKind.VOID)
+      errors.add("converter methods cannot return void");
+    else if(! isFullyResolved(returnType))
+      errors.add("invalid return type in " + type + ": " + returnType);
+
+    int cost = costOf(method);
+    if(cost < 1)
+      errors.add("the cost must be positive: " + cost);
+
+    for(String error : errors)
+      report(type, method, error);
+
+    if(! errors.isEmpty())
+      return null;
+
+    TypeMirror erasedParameterType = processingEnv.getTypeUtils().erasure(method.getParameters().get(0).asType());
+    return new ConverterMethod(method.getSimpleName().toString(), erasedParameterType, parameterType, returnType);
+  }
+
+  /* (non-Javadoc)
+   * Reports the error on the method itself if it is declared in the given type, or on the type otherwise.
+   */
+  private void report(TypeElement type, ExecutableElement method, String error) {
+    if(method.getEnclosingElement().equals(type))
+      processingEnv.getMessager().printMessage(Kind.ERROR, error, method);
+    else
+      processingEnv.getMessager().printMessage(Kind.ERROR, method.getEnclosingElement() + "." + method + ": " + error, type);
+  }
+
+  /* (non-Javadoc)
+   * Returns true if the given type has no type variables in it.
+   */
+  private static boolean isFullyResolved(TypeMirror type) {
+    switch(type.getKind()) {
+      case TYPEVAR:
+        return false;
+      case ARRAY:
+        return isFullyResolved(((ArrayType) type).getComponentType());
+      case WILDCARD:
+        WildcardType wildcard = (WildcardType) type;
+        return (wildcard.getExtendsBound() == null || isFullyResolved(wildcard.getExtendsBound()))
+            && (wildcard.getSuperBound() == null || isFullyResolved(wildcard.getSuperBound()));
+      case DECLARED:
+        DeclaredType declared = (DeclaredType) type;
+        for(TypeMirror argument : declared.getTypeArguments())
+          if(! isFullyResolved(argument))
+            return false;
+
+        return isFullyResolved(declared.getEnclosingType());
+      default:
+        return true;
+    }
+  }
+
+  /* (non-Javadoc)
+   * Returns true if the given type has type arguments anywhere, and therefore needs a TypeToken subclass.
+   */
+  private static boolean isParameterized(TypeMirror type) {
+    switch(type.getKind()) {
+      case ARRAY:
+        return isParameterized(((ArrayType) type).getComponentType());
+      case DECLARED:
+        DeclaredType declared = (DeclaredType) type;
+        return ! declared.getTypeArguments().isEmpty() || isParameterized(declared.getEnclosingType());
+      default:
+        return false;
+    }
+  }
+
+  private static boolean isConverterMethod(ExecutableElement method) {
+    return findConverts(method) != null;
+  }
+
+  private static AnnotationMirror findConverts(ExecutableElement method) {
+    for(AnnotationMirror annotation : method.getAnnotationMirrors())
+      if(((TypeElement) annotation.getAnnotationType().asElement()).getQualifiedName().contentEquals(CONVERTS))
+        return annotation;
+
+    return null;
+  }
+
+  private int costOf(ExecutableElement method) {
+    Map<? extends ExecutableElement, ? extends AnnotationValue> values =
+      processingEnv.getElementUtils().getElementValuesWithDefaults(findConverts(method));
+
+    for(Map.Entry<? extends ExecutableElement, ? extends AnnotationValue> entry : values.entrySet())
+      if(entry.getKey().getSimpleName().contentEquals("cost"))
+        return ((Number) entry.getValue().getValue()).intValue();
+
+    return 1;
+  }
+
+  /* (non-Javadoc)
+   * Returns true if the given type can be named by code in its package.
+   */
+  private static boolean isReachable(TypeElement type) {
+    for(Element e = type; e instanceof TypeElement; e = e.getEnclosingElement()) {
+      TypeElement t = (TypeElement) e;
+      if(t.getModifiers().contains(Modifier.PRIVATE)
+      || t.getNestingKind() == NestingKind.LOCAL
+      || t.getNestingKind() == NestingKind.ANONYMOUS)
+        return false;
+    }
+
+    return true;
+  }
+
+  /* (non-Javadoc)
+   * Returns true if the given type can be instantiated reflectively from another package, with no arguments.
+   */
+  private static boolean isInstantiable(TypeElement type) {
+    if(type.getNestingKind() == NestingKind.MEMBER && ! type.getModifiers().contains(Modifier.STATIC))
+      return false; // inner classes need an enclosing instance
+
+    for(Element e = type; e instanceof TypeElement; e = e.getEnclosingElement())
+      if(! e.getModifiers().contains(Modifier.PUBLIC))
+        return false;
+
+    for(ExecutableElement constructor : ElementFilter.constructorsIn(type.getEnclosedElements()))
+      if(constructor.getModifiers().contains(Modifier.PUBLIC) && constructor.getParameters().isEmpty())
+        return true;
+
+    return false;
+  }
+
+  private void writeIndex() {
+    if(indexedClasses.isEmpty())
+      return;
+
+    try {
+      PrintWriter out = new PrintWriter(new OutputStreamWriter(
+          processingEnv.getFiler().createResource(StandardLocation.CLASS_OUTPUT, "", INDEX).openOutputStream(),
+          "UTF-8"));
+      try {
+        out.println("# Generated by " + getClass().getName() + "; do not edit.");
+        for(String className : indexedClasses)
+          out.println(className);
+      } finally {
+        out.close();
+      }
+    } catch (IOException e) {
+      processingEnv.getMessager().printMessage(Kind.ERROR, "could not write " + INDEX + ": " + e);
+    }
+  }
+
+  private void generateProvider(TypeElement type, List<ConverterMethod> methods) throws IOException {
+    PackageElement pkg = processingEnv.getElementUtils().getPackageOf(type);
+    String packageName = pkg.isUnnamed() ? "" : pkg.getQualifiedName().toString();
+    String providerName = providerNameFor(type);
+    String sourceType = processingEnv.getTypeUtils().erasure(type.asType()).toString();
+
+    String qualifiedName = packageName.isEmpty() ? providerName : packageName + "." + providerName;
+    PrintWriter out = new PrintWriter(processingEnv.getFiler().createSourceFile(qualifiedName, type).openWriter());
+    try {
+      if(! packageName.isEmpty()) {
+        out.println("package " + packageName + ";");
+        out.println();
+      }
+
+      out.println("/**");
+      out.println(" * Provides the converters of {@link " + sourceType + "}, as found at compile time.");
+      out.println(" * <p>");
+      out.println(" * Generated by {@code " + getClass().getName() + "}; do not edit.");
+      out.println(" */");
+      out.println("public class " + providerName + " implements java.lang.Iterable<" + CONVERTER + "> {");
+      out.println("  private final java.util.List<" + CONVERTER + "> converters;");
+      out.println();
+      out.println("  /**");
+      out.println("   * Binds the converter methods of {@code source}. If {@code source} is null, no converters are provided.");
+      out.println("   *");
+      out.println("   * @param source an object with converter methods.");
+      out.println("   * @throws " + PROVIDER_EXCEPTION + " if any converter could not be made.");
+      out.println("   */");
+      out.println("  public " + providerName + "(" + sourceType + " source) throws " + PROVIDER_EXCEPTION + " {");
+      out.println("    java.util.List<" + CONVERTER + "> converters = new java.util.ArrayList<" + CONVERTER + ">();");
+      out.println();
+      out.println("    if(source != null) {");
+      out.println("      java.util.List<java.lang.Exception> exceptions = new java.util.ArrayList<java.lang.Exception>();");
+      out.println();
+      for(ConverterMethod method : methods) {
+        out.println("      add(converters, exceptions, source, " + sourceType + ".class, \"" + method.name + "\", "
+            + method.erasedParameterType + ".class,");
+        out.println("          new " + CONVERTER_TYPE + "(" + tokenFor(method.parameterType) + ", "
+            + tokenFor(method.returnType) + "));");
+      }
+      out.println();
+      out.println("      if(! exceptions.isEmpty())");
+      out.println("        throw new " + PROVIDER_EXCEPTION + "(exceptions);");
+      out.println("    }");
+      out.println();
+      out.println("    this.converters = java.util.Collections.unmodifiableList(converters);");
+      out.println("  }");
+      out.println();
+      out.println("  @Override");
+      out.println("  public java.util.Iterator<" + CONVERTER + "> iterator() {");
+      out.println("    return converters.iterator();");
+      out.println("  }");
+      out.println();
+      out.println("  private static void add(java.util.List<" + CONVERTER + "> converters, java.util.List<java.lang.Exception> exceptions, ");
+      out.println("      java.lang.Object source, java.lang.Class<?> sourceType, java.lang.String name, java.lang.Class<?> parameterType, ");
+      out.println("      " + CONVERTER_TYPE + " type) {");
+      out.println("    try {");
+      out.println("      converters.add(new " + CONVERTER + "(source, sourceType.getMethod(name, parameterType), type));");
+      out.println("    } catch (" + MULTIPLE_CAUSES_EXCEPTION + " e) {");
+      out.println("      exceptions.addAll(e.getCauses());");
+      out.println("    } catch (java.lang.Exception e) {");
+      out.println("      exceptions.add(e);");
+      out.println("    }");
+      out.println("  }");
+      out.println("}");
+    } finally {
+      out.close();
+    }
+  }
+
+  /* (non-Javadoc)
+   * The simple name of the given type's provider, with nested names joined by underscores.
+   */
+  static String providerNameFor(TypeElement type) {
+    StringBuilder name = new StringBuilder(type.getSimpleName());
+    for(Element e = type.getEnclosingElement(); e instanceof TypeElement; e = e.getEnclosingElement())
+      name.insert(0, e.getSimpleName() + "_");
+
+    return name.append(PROVIDER_SUFFIX).toString();
+  }
+
+  private static String tokenFor(TypeMirror type) {
+    if(isParameterized(type))
+      return "new " + TYPE_TOKEN + "<" + type + ">() { /**/ }";
+
+    return TYPE_TOKEN + ".get(" + type + ".class)";
+  }
+
+  /* (non-Javadoc)
+   * A checked converter method, with the types needed to generate its lookup.
+   */
+  private static class ConverterMethod {
+    final String name;
+    final TypeMirror erasedParameterType;
+    final TypeMirror parameterType;
+    final TypeMirror returnType;
+
+    ConverterMethod(String name, TypeMirror erasedParameterType, TypeMirror parameterType, TypeMirror returnType) {
+      this.name = name;
+      this.erasedParameterType = erasedParameterType;
+      this.parameterType = parameterType;
+      this.returnType = returnType;
+    }
+  }
+}
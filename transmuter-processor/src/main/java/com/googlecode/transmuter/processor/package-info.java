@@ -0,0 +1,4 @@
+/**
+ * Defines an annotation processor which extracts converters at compile time.
+ */
+package com.googlecode.transmuter.processor;
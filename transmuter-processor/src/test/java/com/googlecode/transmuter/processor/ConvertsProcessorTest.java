@@ -0,0 +1,259 @@
+package com.googlecode.transmuter.processor;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.lang.reflect.Method;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import javax.tools.Diagnostic;
+import javax.tools.DiagnosticCollector;
+import javax.tools.JavaCompiler;
+import javax.tools.JavaFileObject;
+import javax.tools.SimpleJavaFileObject;
+import javax.tools.ToolProvider;
+
+import org.junit.Test;
+
+import com.googlecode.transmuter.converter.Converter;
+import com.googlecode.transmuter.converter.ConverterType;
+import com.googlecode.transmuter.converter.Converts;
+import com.googlecode.transmuter.processor.fixture.AssortedConverter;
+import com.googlecode.transmuter.processor.fixture.AssortedConverter_ConverterProvider;
+import com.googlecode.transmuter.processor.fixture.AssortedConverter_Nested_ConverterProvider;
+import com.googlecode.transmuter.processor.fixture.IntegerStringifier;
+import com.googlecode.transmuter.processor.fixture.IntegerStringifier_ConverterProvider;
+
+public class ConvertsProcessorTest {
+  private final Set<String> generated = new HashSet<String>();
+  private List<String> index;
+
+  @Test
+  public void generatedProviderMatchesEagerProvider() {
+    AssortedConverter assorted = new AssortedConverter();
+    assertSameConverters(new Converts.EagerProvider(assorted), new AssortedConverter_ConverterProvider(assorted));
+
+    AssortedConverter.Nested nested = new AssortedConverter.Nested();
+    assertSameConverters(new Converts.EagerProvider(nested), new AssortedConverter_Nested_ConverterProvider(nested));
+
+    // inherited converter methods have their types resolved as well
+    IntegerStringifier stringifier = new IntegerStringifier();
+    assertSameConverters(new Converts.EagerProvider(stringifier), new IntegerStringifier_ConverterProvider(stringifier));
+  }
+
+  @Test
+  public void indexProviderWithGeneratedProviders() {
+    // the index provider makes its own instances, so only the methods and types can be compared
+    assertEquals(typesOf(new Converts.EagerProvider(new AssortedConverter())),
+        typesOf(new Converts.IndexProvider(Arrays.asList(AssortedConverter.class.getName()), null)));
+
+    assertEquals(typesOf(new Converts.EagerProvider(new AssortedConverter.Nested())),
+        typesOf(new Converts.IndexProvider(Arrays.asList(AssortedConverter.Nested.class.getName()), null)));
+  }
+
+  @Test
+  public void generatedProviderWithNull() {
+    assertFalse(new AssortedConverter_ConverterProvider(null).iterator().hasNext());
+  }
+
+  @Test
+  public void generatedProviderKeepsCosts() {
+    for(Converter converter : new AssortedConverter_ConverterProvider(new AssortedConverter()))
+      assertEquals(converter.getMethod().getName().equals("split") ? 3 : Converts.DEFAULT_COST, converter.getCost());
+  }
+
+  @Test
+  public void invalidConverterMethods() {
+    List<Diagnostic<? extends JavaFileObject>> diagnostics = compile("Invalid",
+        "import com.googlecode.transmuter.converter.Converts;\n" +
+        "public class Invalid<T> {\n" +
+        "  @Converts public String generic(T t) { return null; }\n" +
+        "  @Converts public void nothing(String s) { }\n" +
+        "  @Converts public String tooMany(String a, String b) { return null; }\n" +
+        "  @Converts public <U> String method(U u) { return null; }\n" +
+        "  @Converts(cost = 0) public String free(String s) { return s; }\n" +
+        "  @Converts String hidden(String s) { return s; }\n" +
+        "}\n");
+
+    assertEquals(5, count(diagnostics, Diagnostic.Kind.ERROR));
+    assertEquals(1, count(diagnostics, Diagnostic.Kind.WARNING));
+  }
+
+  @Test
+  public void providerNames() {
+    List<Diagnostic<? extends JavaFileObject>> diagnostics = compile("Outer",
+        "import com.googlecode.transmuter.converter.Converts;\n" +
+        "public class Outer {\n" +
+        "  public class Inner {\n" +
+        "    @Converts public String convert(Integer i) { return String.valueOf(i); }\n" +
+        "  }\n" +
+        "  private static class Private {\n" +
+        "    @Converts public String convert(Integer i) { return String.valueOf(i); }\n" +
+        "  }\n" +
+        "  public static abstract class Abstract {\n" +
+        "    @Converts public String convert(Integer i) { return String.valueOf(i); }\n" +
+        "  }\n" +
+        "  public static class Concrete extends Abstract { }\n" +
+        "}\n");
+
+    assertEquals(0, count(diagnostics, Diagnostic.Kind.ERROR));
+    assertEquals(1, count(diagnostics, Diagnostic.Kind.WARNING)); // Private is not visible
+
+    assertEquals(
+        new HashSet<String>(Arrays.asList("Outer_Inner_ConverterProvider", "Outer_Concrete_ConverterProvider")),
+        generated);
+  }
+
+  @Test
+  public void index() {
+    String source =
+      "import com.googlecode.transmuter.converter.Converts;\n" +
+      "public class Indexed {\n" +
+      "  @Converts public String convert(Integer i) { return String.valueOf(i); }\n" +
+      "  public static class Nested {\n" +
+      "    @Converts public String convert(Integer i) { return String.valueOf(i); }\n" +
+      "  }\n" +
+      "  public class Inner {\n" +
+      "    @Converts public String convert(Integer i) { return String.valueOf(i); }\n" +
+      "  }\n" +
+      "  public static class WithArguments {\n" +
+      "    public WithArguments(int i) { }\n" +
+      "    @Converts public String convert(Integer i) { return String.valueOf(i); }\n" +
+      "  }\n" +
+      "  public static class Empty { }\n" +
+      "}\n";
+
+    compile("Indexed", source);
+    assertNull(index); // not asked for
+
+    assertEquals(0, count(compile("Indexed", source, "-A" + ConvertsProcessor.INDEX_OPTION + "=true"), Diagnostic.Kind.ERROR));
+    assertEquals(Arrays.asList("Indexed", "Indexed$Nested"), index);
+  }
+
+  // helper methods
+  private static void assertSameConverters(Iterable<Converter> expected, Iterable<Converter> actual) {
+    Map<Converter, Converter> expectedConverters = new HashMap<Converter, Converter>();
+    for(Converter converter : expected)
+      expectedConverters.put(converter, converter);
+
+    int count = 0;
+    for(Converter converter : actual) {
+      assertTrue(expectedConverters.containsKey(converter));
+      assertEquals(expectedConverters.get(converter).getType(), converter.getType());
+      count++;
+    }
+
+    assertEquals(expectedConverters.size(), count);
+  }
+
+  private static Map<Method, ConverterType> typesOf(Iterable<Converter> converters) {
+    Map<Method, ConverterType> types = new HashMap<Method, ConverterType>();
+    for(Converter converter : converters)
+      types.put(converter.getMethod(), converter.getType());
+
+    return types;
+  }
+
+  private static int count(List<Diagnostic<? extends JavaFileObject>> diagnostics, Diagnostic.Kind kind) {
+    int count = 0;
+    for(Diagnostic<? extends JavaFileObject> diagnostic : diagnostics)
+      if(diagnostic.getKind() == kind)
+        count++;
+
+    return count;
+  }
+
+  /* (non-Javadoc)
+   * Compiles the given source with ConvertsProcessor, remembering the names of the generated sources and the contents
+   * of the generated index, if any.
+   */
+  private List<Diagnostic<? extends JavaFileObject>> compile(String className, final String source, String... options) {
+    JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+    DiagnosticCollector<JavaFileObject> diagnostics = new DiagnosticCollector<JavaFileObject>();
+
+    File output = new File(System.getProperty("java.io.tmpdir"), "converts-processor-test-" + System.nanoTime());
+    assertTrue(output.mkdirs());
+
+    try {
+      JavaFileObject file = new SimpleJavaFileObject(URI.create("string:///" + className + ".java"), JavaFileObject.Kind.SOURCE) {
+        @Override
+        public CharSequence getCharContent(boolean ignoreEncodingErrors) {
+          return source;
+        }
+      };
+
+      List<String> arguments = new ArrayList<String>(Arrays.asList(
+          "-classpath", classpathOf(Converts.class),
+          "-d", output.getPath(),
+          "-s", output.getPath()));
+      arguments.addAll(Arrays.asList(options));
+
+      JavaCompiler.CompilationTask task = compiler.getTask(null, null, diagnostics, arguments, null, Arrays.asList(file));
+      task.setProcessors(Arrays.asList(new ConvertsProcessor()));
+      task.call();
+
+      index = readIndex(new File(output, ConvertsProcessor.INDEX));
+
+      for(String name : output.list())
+        if(name.endsWith(ConvertsProcessor.PROVIDER_SUFFIX + ".java"))
+          generated.add(name.substring(0, name.length() - ".java".length()));
+
+      return new ArrayList<Diagnostic<? extends JavaFileObject>>(diagnostics.getDiagnostics());
+    } finally {
+      delete(output);
+    }
+  }
+
+  private static List<String> readIndex(File file) {
+    if(! file.exists())
+      return null;
+
+    try {
+      List<String> lines = new ArrayList<String>();
+      BufferedReader reader = new BufferedReader(new InputStreamReader(new FileInputStream(file), "UTF-8"));
+      try {
+        String line;
+        while((line = reader.readLine()) != null)
+          if(! line.startsWith("#"))
+            lines.add(line);
+      } finally {
+        reader.close();
+      }
+
+      return lines;
+    } catch (IOException e) {
+      throw new RuntimeException(e);
+    }
+  }
+
+  private static String classpathOf(Class<?> cls) {
+    try {
+      return new File(cls.getProtectionDomain().getCodeSource().getLocation().toURI()).getPath();
+    } catch (Exception e) {
+      throw new RuntimeException(e);
+    }
+  }
+
+  private static void delete(File file) {
+    File[] children = file.listFiles();
+    if(children != null)
+      for(File child : children)
+        delete(child);
+
+    file.delete();
+  }
+}
@@ -0,0 +1,40 @@
+package com.googlecode.transmuter.processor.fixture;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import com.googlecode.transmuter.converter.Converts;
+
+public class AssortedConverter {
+  @Converts
+  public String concatenate(List<String> list) {
+    return String.valueOf(list);
+  }
+  
+  @Converts(cost = 3)
+  public List<String> split(String string) {
+    return new ArrayList<String>(Arrays.asList(string.split(",")));
+  }
+  
+  @Converts
+  public String[] wrap(int i) {
+    return new String[] { String.valueOf(i) };
+  }
+  
+  @Converts
+  public static Integer parse(String[] strings) {
+    return Integer.valueOf(strings[0]);
+  }
+  
+  public String notAConverter(Object o) {
+    return String.valueOf(o);
+  }
+  
+  public static class Nested {
+    @Converts
+    public double half(int i) {
+      return i / 2.0;
+    }
+  }
+}
@@ -0,0 +1,5 @@
+package com.googlecode.transmuter.processor.fixture;
+
+public class IntegerStringifier extends Stringifier<Integer> {
+  // inherits its converter method
+}
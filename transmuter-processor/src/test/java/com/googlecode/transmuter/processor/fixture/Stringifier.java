@@ -0,0 +1,10 @@
+package com.googlecode.transmuter.processor.fixture;
+
+import com.googlecode.transmuter.converter.Converts;
+
+public abstract class Stringifier<T> {
+  @Converts
+  public String stringify(T object) {
+    return String.valueOf(object);
+  }
+}
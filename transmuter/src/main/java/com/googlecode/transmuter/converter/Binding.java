@@ -10,7 +10,6 @@ import com.googlecode.transmuter.util.exception.MultipleCausesException;
 import com.googlecode.transmuter.util.exception.NotificationNotFoundException;
 import com.googlecode.transmuter.util.exception.ObjectInstantiationException;
 
-import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
 import java.lang.reflect.Modifier;
 
@@ -34,6 +33,13 @@ import static com.googlecode.transmuter.util.ReflectionUtils.*;
 public class Binding {
   private Object instance;
   private Method method;
+  private Invoker invoker;
+  
+  /**
+   * Makes a new, uninitialized {@code Binding} object, for subclasses which need to prepare themselves before calling 
+   * {@link #initialize(Object, Method) initialize} on their own.
+   */
+  protected Binding() { /* empty block */ }
   
   /**
    * Makes a new {@code Binding} object which holds a static method.
@@ -141,13 +147,38 @@ public class Binding {
     
     this.instance = instance;
     this.method = method;
+    this.invoker = bind(instance, method);
     
     return notification;
   }
 
+  /**
+   * Makes the invoker which will handle all of this binding's {@link #invoke(Object...) invoke} calls. Called only 
+   * once, during initialization, after the given arguments have been validated. 
+   * <p>
+   * This implementation returns an invoker which uses reflection, and works for any valid method. The JVM's 
+   * reflection already generates bytecode accessors for methods called often, so this is close to a direct call 
+   * once warmed up; what's left is the argument array and boxing. Subclasses may override this method to provide a 
+   * direct route for the methods they know about (as {@link Converter} does for 
+   * {@linkplain Converter#isPrimitive() primitive converters}), falling back to this one otherwise.
+   * 
+   * @param instance an object, or {@code null} if {@code method} is static.
+   * @param method a validated method object.
+   * @return an invoker for the given arguments. Cannot be null.
+   */
+  protected Invoker bind(final Object instance, final Method method) {
+    return new Invoker() {
+      @Override
+      public Object invoke(Object... args) throws Exception {
+        return method.invoke(instance, args);
+      }
+    };
+  }
+
   // operations
   /**
-   * Invokes this binding's method object on this binding's instance with the given arguments.
+   * Invokes this binding's method object on this binding's instance with the given arguments, through this binding's 
+   * {@linkplain #getInvoker() invoker}.
    * 
    * @param args the arguments for the method call.
    * @return the result of this binding's method invoked on this binding's instance with the given arguments.
@@ -155,14 +186,9 @@ public class Binding {
    */
   public Object invoke(Object... args) throws InvocationException {
     try {
-      return getMethod().invoke(getInstance(), args);
-    } catch(IllegalArgumentException e) {
-      throw new InvocationException(this, e);
-    } catch(IllegalAccessException e) { 
-      // should never happen if the validator does its job properly, 
-      // but we all know how that goes... 
-      throw new InvocationException(this, e);
-    } catch(InvocationTargetException e) {
+      return invoker.invoke(args);
+    } catch(Exception e) { 
+      // either the method threw something (wrapped in an InvocationTargetException) or it couldn't be called 
       throw new InvocationException(this, e);
     }
   }
@@ -250,4 +276,14 @@ public class Binding {
   public Method getMethod() {
     return method;
   }
+  
+  /**
+   * Returns the invoker which handles this binding's {@link #invoke(Object...) invoke} calls.
+   * 
+   * @return this binding's invoker.
+   * @see #bind(Object, Method)
+   */
+  public Invoker getInvoker() {
+    return invoker;
+  }
 }
@@ -1,20 +1,31 @@
 package com.googlecode.transmuter.converter;
 
+import com.googlecode.transmuter.converter.exception.ConverterTypeIncompatibleWithConverterException;
+import com.googlecode.transmuter.converter.exception.WrongParameterCountException;
 import com.googlecode.transmuter.core.Transmuter;
+import com.googlecode.transmuter.type.TypeToken;
 import com.googlecode.transmuter.util.Notification;
 import com.googlecode.transmuter.util.exception.MultipleCausesException;
 import com.googlecode.transmuter.util.exception.ObjectInstantiationException;
 
+import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
 
 /**
  * A {@linkplain Binding binding} which has a {@linkplain ConverterType converter type}, and so can safely be used 
- * by a {@linkplain Transmuter transmuter}.
+ * by a {@linkplain Transmuter transmuter}. Converters also have a {@linkplain #getCost() cost}, which may be used to 
+ * pick the cheapest of several converters.
  * 
  * @author Humberto S. N. dos Anjos
  */
 public class Converter extends Binding {
   private ConverterType type;
+  private ConverterType trustedType;
+  private int cost;
+  private boolean primitive;
   
   /**
    * Makes a new {@code Converter} object holding a static method.
@@ -39,6 +50,32 @@ public class Converter extends Binding {
     super(instance, method);
   }
 
+  /**
+   * Constructs a new {@code Converter} object with a converter type known beforehand, skipping its extraction from 
+   * the given method. Meant for generated code, such as the providers made by Transmuter's annotation processor, 
+   * which extracted and validated the converter type at compile time.
+   * <p>
+   * The given converter type is trusted to match the method's generic signature, which is <em>not checked</em>; only 
+   * a cheap check against the method's erased signature is made, to catch types which plainly don't fit. Everything 
+   * else is validated as usual.
+   * 
+   * @param instance an object.
+   * @param method a method object.
+   * @param type {@code method}'s converter type. 
+   * @throws ObjectInstantiationException if {@code type} is {@code null} or doesn't fit {@code method}'s erased 
+   * signature, or if the given instance, method, or their combination is not deemed valid.
+   * @see #initialize(Object, Method)
+   */
+  public Converter(Object instance, Method method, ConverterType type) throws ObjectInstantiationException {
+    super();
+    
+    if(type == null)
+      throw new ObjectInstantiationException(getClass(), new IllegalArgumentException("type cannot be null!"));
+    
+    this.trustedType = type;
+    initialize(instance, method);
+  }
+
   /**
    * On top of {@link Binding}'s validation, this class needs to see if the given method is a proper converter method,
    * i.e. it has a converter type.
@@ -50,9 +87,9 @@ public class Converter extends Binding {
     // do all previous validation...
     Notification notification = super.tryInitialize(instance, method);
     
-    // ...and try to extract the type from the given arguments
+    // ...and try to extract the type from the given arguments, unless it is already known
     try {
-      this.type = ConverterType.from(instance, method);
+      this.type = (trustedType != null) ? trustedType : ConverterType.from(instance, method);
     } catch (MultipleCausesException e) {
       // errors were found; snitch immediately 
       notification.add(e.getCauses());
@@ -61,9 +98,36 @@ public class Converter extends Binding {
       notification.add(e);
     }
     
+    // a trusted type still has to fit the method, as far as erasure lets us see
+    if(trustedType != null && ! notification.hasErrors())
+      checkErasures(trustedType, method, notification);
+    
+    // the cost comes from the annotation, if there is one
+    Converts converts = (method != null) ? method.getAnnotation(Converts.class) : null;
+    this.cost = (converts != null) ? converts.cost() : Converts.DEFAULT_COST;
+    
+    if(cost < 1)
+      notification.add(new IllegalArgumentException("the cost must be positive: " + cost));
+    
+    this.primitive = implementsPrimitiveConverter(instance, method);
+    
     return notification;
   }
 
+  /**
+   * {@linkplain #isPrimitive() Primitive converters} are called directly through their {@link PrimitiveConverter} 
+   * interfaces, with no reflection involved. All others are left to {@link Binding}'s reflective invoker.
+   * 
+   * @see Binding#bind(Object, Method)
+   */
+  @Override
+  protected Invoker bind(Object instance, Method method) {
+    if(implementsPrimitiveConverter(instance, method))
+      return primitiveInvoker(instance, method);
+    
+    return super.bind(instance, method);
+  }
+
   /**
    * Returns this instance's converter type.
    * 
@@ -72,4 +136,149 @@ public class Converter extends Binding {
   public ConverterType getType() {
     return type;
   }
+  
+  /**
+   * Returns how expensive this converter is to run, relative to other converters. Taken from the method's 
+   * {@link Converts#cost()}, or {@link Converts#DEFAULT_COST} if it has no such annotation.
+   * 
+   * @return this instance's cost. Always positive.
+   */
+  public int getCost() {
+    return cost;
+  }
+  
+  /**
+   * Checks if this converter's method implements one of the {@link PrimitiveConverter} interfaces on its instance, 
+   * and therefore may be called through it, without boxing.
+   * 
+   * @return {@code true} if this converter is a primitive converter.
+   */
+  public boolean isPrimitive() {
+    return primitive;
+  }
+  
+  // helper methods
+  /* (non-Javadoc)
+   * Checks if the given converter type fits the given method's erased signature: the parameter must take the from 
+   * type, and the return type must be related to the to type, since a generic return type is erased to one of its 
+   * supertypes.
+   */
+  private void checkErasures(ConverterType type, Method method, Notification notification) {
+    Class<?>[] parameterTypes = method.getParameterTypes();
+    if(parameterTypes.length != 1) {
+      notification.add(new WrongParameterCountException(method, 1));
+      return;
+    }
+    
+    Class<?> from = type.getFromType().getRawType();
+    Class<?> to = type.getToType().getRawType();
+    Class<?> returnType = method.getReturnType();
+    
+    if(! TypeToken.get(parameterTypes[0]).isAssignableFrom(from)
+        || ! (TypeToken.get(to).isAssignableFrom(returnType) || TypeToken.get(returnType).isAssignableFrom(to)))
+      notification.add(new ConverterTypeIncompatibleWithConverterException(type, this));
+  }
+  
+  private static boolean implementsPrimitiveConverter(Object instance, Method method) {
+    if(! (instance instanceof PrimitiveConverter) || method == null)
+      return false;
+    
+    for(Class<?> primitiveConverter : PrimitiveConverter.class.getClasses()) {
+      if(! primitiveConverter.isInstance(instance))
+        continue;
+      
+      Method implemented = primitiveConverter.getMethods()[0]; // these interfaces have a single method
+      if(implemented.getName().equals(method.getName())
+          && Arrays.equals(implemented.getParameterTypes(), method.getParameterTypes()))
+        return true;
+    }
+    
+    return false;
+  }
+  
+  private static Invoker primitiveInvoker(Object instance, Method method) {
+    return new PrimitiveInvoker(instance, method.getParameterTypes()[0], method.getReturnType());
+  }
+  
+  /* (non-Javadoc)
+   * Calls a primitive converter's method directly, checking and widening the arguments and wrapping exceptions as 
+   * Method.invoke would.
+   */
+  private static final class PrimitiveInvoker implements Invoker {
+    // how far each wrapper's primitive can be widened: a primitive widens to any other of a higher rank, except that 
+    // char doesn't widen to short. The parameter types of primitive converters are never short, so that's moot here
+    private static final Map<Class<?>, Integer> RANKS = new HashMap<Class<?>, Integer>();
+    
+    static {
+      RANKS.put(Byte.class, 1);
+      RANKS.put(Short.class, 2);
+      RANKS.put(Character.class, 2);
+      RANKS.put(Integer.class, 3);
+      RANKS.put(Long.class, 4);
+      RANKS.put(Float.class, 5);
+      RANKS.put(Double.class, 6);
+    }
+    
+    private final Object instance;
+    private final Class<?> from;
+    private final Class<?> to;
+    private final int rank;
+    
+    PrimitiveInvoker(Object instance, Class<?> from, Class<?> to) {
+      this.instance = instance;
+      this.from = from;
+      this.to = to;
+      this.rank = RANKS.get(TypeToken.ValueType.valueOf(from).wrapper.getRawType());
+    }
+    
+    @Override
+    public Object invoke(Object... args) throws Exception {
+      if(args == null || args.length != 1)
+        throw new IllegalArgumentException("wrong number of arguments");
+      
+      Integer argRank = (args[0] != null) ? RANKS.get(args[0].getClass()) : null;
+      if(argRank == null || argRank > rank)
+        throw new IllegalArgumentException("argument type mismatch");
+      
+      try {
+        return call(args[0]);
+      } catch(Throwable t) {
+        throw new InvocationTargetException(t);
+      }
+    }
+    
+    private Object call(Object arg) {
+      if(from == int.class) {
+        if(to == long.class)
+          return ((PrimitiveConverter.IntToLong) instance).convertToLong(intValue(arg));
+        
+        return ((PrimitiveConverter.IntToDouble) instance).convertToDouble(intValue(arg));
+      }
+      
+      if(from == long.class) {
+        if(to == int.class)
+          return ((PrimitiveConverter.LongToInt) instance).convertToInt(longValue(arg));
+        
+        return ((PrimitiveConverter.LongToDouble) instance).convertToDouble(longValue(arg));
+      }
+      
+      // the only one left
+      if(to == int.class)
+        return ((PrimitiveConverter.DoubleToInt) instance).convertToInt(doubleValue(arg));
+      
+      return ((PrimitiveConverter.DoubleToLong) instance).convertToLong(doubleValue(arg));
+    }
+    
+    static int intValue(Object arg) {
+      return (arg instanceof Character) ? ((Character) arg).charValue() : ((Number) arg).intValue();
+    }
+    
+    static long longValue(Object arg) {
+      return (arg instanceof Character) ? ((Character) arg).charValue() : ((Number) arg).longValue();
+    }
+    
+    static double doubleValue(Object arg) {
+      return (arg instanceof Character) ? ((Character) arg).charValue() : ((Number) arg).doubleValue();
+    }
+  }
 }
@@ -0,0 +1,135 @@
+package com.googlecode.transmuter.converter;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import com.googlecode.transmuter.converter.exception.InvocationException;
+import com.googlecode.transmuter.util.StringUtils;
+import com.googlecode.transmuter.util.exception.ObjectInstantiationException;
+
+/**
+ * A {@linkplain Converter converter} made by chaining other converters, so that each one converts the result of the 
+ * one before it. Its converter type goes from the first converter's input type to the last converter's output type, 
+ * and its cost is the sum of the chained converters' costs.
+ * <p>
+ * Chains are invoked directly, converter by converter; the {@linkplain #getMethod() method} bound here is just a 
+ * placeholder, required by {@link Binding}.
+ * 
+ * @author Humberto S. N. dos Anjos
+ */
+public class ConverterChain extends Converter {
+  private static final Method PLACEHOLDER;
+  
+  static {
+    try {
+      PLACEHOLDER = ConverterChain.class.getMethod("identity", Object.class);
+    } catch(NoSuchMethodException e) {
+      throw new ExceptionInInitializerError(e);
+    }
+  }
+  
+  private final List<Converter> converters;
+  private final ConverterType type;
+  private final int cost;
+  
+  /**
+   * Constructs a new chain with the given converters, in the given order.
+   * 
+   * @param converters the converters to chain.
+   * @throws ObjectInstantiationException if {@code converters} is {@code null} or empty, or holds a {@code null}. 
+   */
+  public ConverterChain(List<? extends Converter> converters) throws ObjectInstantiationException {
+    super(PLACEHOLDER);
+    
+    if(converters == null || converters.isEmpty() || converters.contains(null))
+      throw new ObjectInstantiationException(getClass(), 
+          new IllegalArgumentException("converters cannot be null or empty, or hold nulls: " + converters));
+    
+    this.converters = Collections.unmodifiableList(new ArrayList<Converter>(converters));
+    this.type = new ConverterType(
+        converters.get(0).getType().getFromType(), 
+        converters.get(converters.size() - 1).getType().getToType());
+    
+    int sum = 0;
+    for(Converter converter : converters)
+      sum += converter.getCost();
+    
+    this.cost = sum;
+  }
+  
+  /**
+   * The placeholder method bound to every chain. Not meant to be called.
+   * 
+   * @param object an object.
+   * @return the given object.
+   */
+  public static Object identity(Object object) {
+    return object;
+  }
+  
+  /**
+   * Invokes the chained converters in order, starting with the given arguments.
+   * 
+   * @throws InvocationException if an exception is thrown during the invocation of any converter.
+   */
+  @Override
+  public Object invoke(Object... args) throws InvocationException {
+    Object result = converters.get(0).invoke(args);
+    
+    for(int i = 1; i < converters.size(); i++)
+      result = converters.get(i).invoke(result);
+    
+    return result;
+  }
+  
+  /**
+   * Returns the converter type from the first converter's input type to the last converter's output type.
+   */
+  @Override
+  public ConverterType getType() {
+    return type;
+  }
+  
+  /**
+   * Returns the sum of the chained converters' costs.
+   */
+  @Override
+  public int getCost() {
+    return cost;
+  }
+  
+  /**
+   * Returns the chained converters, in order.
+   * 
+   * @return an unmodifiable list with the chained converters.
+   */
+  public List<Converter> getConverters() {
+    return converters;
+  }
+  
+  @Override
+  public String toString() {
+    return "chain[" + StringUtils.concatenate(" | ", converters) + "]";
+  }
+  
+  /**
+   * Two chains are equal if they chain equal converters in the same order.
+   */
+  @Override
+  public boolean equals(Object obj) {
+    if(this == obj)
+      return true;
+    
+    if(obj == null || getClass() != obj.getClass())
+      return false;
+    
+    return converters.equals(((ConverterChain) obj).converters);
+  }
+  
+  @Override
+  public int hashCode() {
+    return converters.hashCode();
+  }
+}
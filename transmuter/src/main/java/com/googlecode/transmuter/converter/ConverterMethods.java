@@ -0,0 +1,106 @@
+package com.googlecode.transmuter.converter;
+
+import com.googlecode.transmuter.util.exception.ObjectInstantiationException;
+
+import java.lang.ref.Reference;
+import java.lang.ref.SoftReference;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+/**
+ * The public methods of a class marked with {@link Converts}, along with their converter types, as seen from that
+ * class. Providers use it to bind several instances of the same class without scanning the class and extracting its
+ * converter types all over again.
+ * <p>
+ * Analyses are cached per class. The cache holds its classes weakly and its analyses softly, so that neither
+ * prevents classes from being unloaded, and the cache may be emptied when memory runs low.
+ *
+ * @author Humberto S. N. dos Anjos
+ */
+class ConverterMethods {
+  private static final Map<Class<?>, Reference<ConverterMethods>> CACHE =
+    new WeakHashMap<Class<?>, Reference<ConverterMethods>>();
+
+  private final Method[] methods;
+  private final ConverterType[] types;
+
+  private ConverterMethods(Class<?> cls) {
+    List<Method> methods = new ArrayList<Method>();
+    List<ConverterType> types = new ArrayList<ConverterType>();
+
+    // all public methods
+    for(Method method : cls.getMethods()) {
+      if(! method.isAnnotationPresent(Converts.class))
+        continue;
+
+      methods.add(method);
+      types.add(typeOf(method, cls));
+    }
+
+    this.methods = methods.toArray(new Method[methods.size()]);
+    this.types = types.toArray(new ConverterType[types.size()]);
+  }
+
+  /**
+   * Returns the analysis of the given class, making it if it isn't cached.
+   *
+   * @param cls a class. Cannot be null.
+   * @return the converter methods of {@code cls}.
+   */
+  static ConverterMethods of(Class<?> cls) {
+    synchronized(CACHE) {
+      Reference<ConverterMethods> cached = CACHE.get(cls);
+      ConverterMethods methods = (cached != null) ? cached.get() : null;
+      if(methods != null)
+        return methods;
+    }
+
+    // scanning out of the lock; at worst, some other thread will do the same work
+    ConverterMethods methods = new ConverterMethods(cls);
+    synchronized(CACHE) {
+      CACHE.put(cls, new SoftReference<ConverterMethods>(methods));
+    }
+
+    return methods;
+  }
+
+  /**
+   * Returns how many converter methods there are.
+   *
+   * @return how many converter methods there are.
+   */
+  int size() {
+    return methods.length;
+  }
+
+  /**
+   * Binds the converter method at the given index to the given instance, which must be of the analysed class.
+   * Methods whose converter types could not be extracted are bound the usual way, so that the same errors are
+   * reported.
+   *
+   * @param instance an instance of the analysed class.
+   * @param index the index of a converter method.
+   * @return a new converter.
+   * @throws ObjectInstantiationException if the converter could not be made.
+   */
+  Converter bind(Object instance, int index) {
+    return (types[index] != null)
+         ? new Converter(instance, methods[index], types[index])
+         : new Converter(instance, methods[index]);
+  }
+
+  // helper methods
+  /* (non-Javadoc)
+   * Returns the converter type of the given method as seen from the given class, or null if it doesn't have one.
+   */
+  private static ConverterType typeOf(Method method, Class<?> cls) {
+    try {
+      return ConverterType.from(method, cls);
+    } catch (Exception e) {
+      return null;
+    }
+  }
+}
@@ -0,0 +1,656 @@
+package com.googlecode.transmuter.converter;
+
+import com.googlecode.transmuter.util.StringUtils;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.*;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.jar.JarEntry;
+import java.util.jar.JarFile;
+
+import static com.googlecode.transmuter.util.ObjectUtils.nonNull;
+
+/**
+ * Finds classes with converter methods in jars and directories by reading their class files directly, without
+ * loading any classes. Meant for places with no {@linkplain Converts.IndexProvider index files}, such as plugin
+ * directories; the class names found may be fed to an {@link Converts.IndexProvider}, which loads only those.
+ * <p>
+ * Each class file is parsed just enough to find its name, its superclass, its enclosing classes, whether it has a
+ * public no-arg constructor, and whether any of its public methods is marked with {@link Converts}. The classes found
+ * are the public, concrete ones with a public no-arg constructor which have converter methods, declared or inherited
+ * from another class found in the same scan. Converter methods inherited from classes outside the scan can't be seen.
+ * Nested classes must be static, and public as declared in the source code, as must be all their enclosing classes;
+ * the top-level one must be found in the same scan.
+ * <p>
+ * Each jar or directory is scanned by its own task, run by the given executor, if any; the time taken by each one
+ * is {@linkplain Result#getElapsedTimes() reported}. A task which is interrupted stops early, and reports an
+ * {@link InterruptedIOException} among the errors.
+ *
+ * @author Humberto S. N. dos Anjos
+ */
+public class ConverterScanner {
+  private static final String CONVERTS_DESCRIPTOR = "L" + Converts.class.getName().replace('.', '/') + ";";
+  private static final String ANNOTATIONS_ATTRIBUTE = "RuntimeVisibleAnnotations";
+  private static final String INNER_CLASSES_ATTRIBUTE = "InnerClasses";
+
+  private static final int ACC_PUBLIC = 0x0001;
+  private static final int ACC_STATIC = 0x0008;
+  private static final int ACC_INTERFACE = 0x0200;
+  private static final int ACC_ABSTRACT = 0x0400;
+
+  private final ExecutorService executor;
+
+  /**
+   * Makes a scanner which scans everything in the calling thread.
+   */
+  public ConverterScanner() {
+    this(null);
+  }
+
+  /**
+   * Makes a scanner which scans each jar or directory in a task run by the given executor.
+   *
+   * @param executor the executor which will run the tasks. If null, everything is scanned in the calling thread.
+   */
+  public ConverterScanner(ExecutorService executor) {
+    this.executor = executor;
+  }
+
+  /**
+   * Scans the given jars and directories for classes with converter methods. Errors don't stop the scan; they are
+   * {@linkplain Result#getErrors() reported} along with the results.
+   *
+   * @param roots jar files and class directories (as in a class path).
+   * @return the results of the scan.
+   * @throws IllegalArgumentException if {@code roots} is null.
+   * @throws InterruptedException if the calling thread was interrupted while scanning, or while waiting for the
+   * tasks. The remaining tasks are cancelled.
+   */
+  public Result scan(List<File> roots) throws InterruptedException {
+    nonNull(roots, "roots");
+
+    List<RootScan> scans = new ArrayList<RootScan>();
+    for(File root : roots)
+      scans.add(new RootScan(root));
+
+    if(executor == null) {
+      for(RootScan scan : scans) {
+        scan.call();
+
+        if(Thread.interrupted()) // the scan stopped early, so the results would be incomplete
+          throw new InterruptedException("interrupted while scanning " + scan.root);
+      }
+    } else {
+      runAll(scans);
+    }
+
+    return new Result(scans);
+  }
+
+  // helper methods
+  private void runAll(List<RootScan> scans) throws InterruptedException {
+    List<Future<RootScan>> futures = new ArrayList<Future<RootScan>>();
+    try {
+      for(RootScan scan : scans)
+        futures.add(executor.submit(scan));
+
+      for(Future<RootScan> future : futures)
+        future.get();
+    } catch(ExecutionException e) { // scans report their errors, so this is something unexpected
+      if(e.getCause() instanceof RuntimeException)
+        throw (RuntimeException) e.getCause();
+      if(e.getCause() instanceof Error)
+        throw (Error) e.getCause();
+
+      throw new IllegalStateException(e.getCause());
+    } finally {
+      for(Future<?> future : futures) // does nothing for finished tasks
+        future.cancel(true);
+    }
+  }
+
+  /**
+   * The results of a {@linkplain ConverterScanner#scan(List) scan}.
+   *
+   * @author Humberto S. N. dos Anjos
+   */
+  public static class Result {
+    private final List<String> classNames;
+    private final Map<File, Long> elapsedTimes;
+    private final List<Exception> errors;
+
+    Result(List<RootScan> scans) {
+      Map<String, ScannedClass> classes = new LinkedHashMap<String, ScannedClass>();
+      Map<File, Long> elapsedTimes = new LinkedHashMap<File, Long>();
+      List<Exception> errors = new ArrayList<Exception>();
+
+      for(RootScan scan : scans) {
+        for(ScannedClass cls : scan.classes)
+          if(! classes.containsKey(cls.name)) // the first one found wins, as in a class path
+            classes.put(cls.name, cls);
+
+        elapsedTimes.put(scan.root, scan.elapsedTime);
+        errors.addAll(scan.errors);
+      }
+
+      List<String> classNames = new ArrayList<String>();
+      for(ScannedClass cls : classes.values())
+        if(cls.instantiable && isAccessible(cls, classes) && hasConverterMethods(cls, classes))
+          classNames.add(cls.name);
+
+      this.classNames = Collections.unmodifiableList(classNames);
+      this.elapsedTimes = Collections.unmodifiableMap(elapsedTimes);
+      this.errors = Collections.unmodifiableList(errors);
+    }
+
+    /* (non-Javadoc)
+     * Nested classes know if their enclosing classes are public, except for the top-level one, which must be found.
+     */
+    private static boolean isAccessible(ScannedClass cls, Map<String, ScannedClass> classes) {
+      if(cls.topLevelName == null) // not even a member class
+        return false;
+
+      if(cls.topLevelName.equals(cls.name))
+        return cls.isPublic;
+
+      ScannedClass topLevel = classes.get(cls.topLevelName);
+      return topLevel != null && topLevel.isPublic;
+    }
+
+    private static boolean hasConverterMethods(ScannedClass cls, Map<String, ScannedClass> classes) {
+      Set<String> seen = new HashSet<String>(); // just in case of broken class files
+      for(ScannedClass c = cls; c != null && seen.add(c.name); c = classes.get(c.superName))
+        if(c.hasConverterMethods)
+          return true;
+
+      return false;
+    }
+
+    /**
+     * Returns the (binary) names of the classes found, in the order they were found.
+     *
+     * @return the names of the classes found.
+     */
+    public List<String> getClassNames() {
+      return classNames;
+    }
+
+    /**
+     * Returns how long the scan of each jar or directory took, in nanoseconds.
+     *
+     * @return the time taken by each jar or directory, in the order they were given.
+     */
+    public Map<File, Long> getElapsedTimes() {
+      return elapsedTimes;
+    }
+
+    /**
+     * Returns the errors found during the scan, such as unreadable files, malformed class files or interrupted tasks.
+     *
+     * @return the errors found during the scan.
+     */
+    public List<Exception> getErrors() {
+      return errors;
+    }
+
+    @Override
+    public String toString() {
+      return "ConverterScanner.Result[classes: " + classNames + ", elapsed times (ns): " + elapsedTimes
+           + ", errors: " + StringUtils.concatenate(", ", errors) + "]";
+    }
+  }
+
+  /* (non-Javadoc)
+   * The scan of a single jar or directory.
+   */
+  static class RootScan implements Callable<RootScan> {
+    final File root;
+    final List<ScannedClass> classes = new ArrayList<ScannedClass>();
+    final List<Exception> errors = new ArrayList<Exception>();
+    long elapsedTime;
+    boolean interrupted;
+
+    RootScan(File root) {
+      this.root = root;
+    }
+
+    @Override
+    public RootScan call() {
+      long start = System.nanoTime();
+      try {
+        if(root == null)
+          errors.add(new IllegalArgumentException("root cannot be null!"));
+        else if(root.isDirectory())
+          scanDirectory(root);
+        else if(root.isFile())
+          scanJar(root);
+        else
+          errors.add(new IOException("no such jar or directory: " + root));
+      } finally {
+        elapsedTime = System.nanoTime() - start;
+      }
+
+      return this;
+    }
+
+    private void scanDirectory(File directory) {
+      File[] files = directory.listFiles();
+      if(files == null) {
+        errors.add(new IOException("could not list " + directory));
+        return;
+      }
+
+      for(File file : files) {
+        if(isInterrupted())
+          return;
+
+        if(file.isDirectory()) {
+          scanDirectory(file);
+        } else if(file.getName().endsWith(".class")) {
+          try {
+            scanClass(readFile(file), file.getPath());
+          } catch(IOException e) {
+            errors.add(e);
+          }
+        }
+      }
+    }
+
+    private void scanJar(File jar) {
+      try {
+        JarFile jarFile = new JarFile(jar);
+        try {
+          for(Enumeration<JarEntry> entries = jarFile.entries(); entries.hasMoreElements();) {
+            if(isInterrupted())
+              return;
+
+            JarEntry entry = entries.nextElement();
+            if(entry.isDirectory() || ! entry.getName().endsWith(".class"))
+              continue;
+
+            scanClass(readEntry(jarFile, entry), jar + "!/" + entry.getName());
+          }
+        } finally {
+          jarFile.close();
+        }
+      } catch(IOException e) {
+        errors.add(e);
+      }
+    }
+
+    /* (non-Javadoc)
+     * Checks if this scan's thread was interrupted, reporting it the first time. The interrupt status is left alone,
+     * for whoever runs this scan to see.
+     */
+    private boolean isInterrupted() {
+      if(! Thread.currentThread().isInterrupted())
+        return false;
+
+      if(! interrupted) {
+        interrupted = true;
+        errors.add(new InterruptedIOException("interrupted while scanning " + root + "; the results are incomplete"));
+      }
+
+      return true;
+    }
+
+    private void scanClass(ByteBuffer buffer, String location) {
+      try {
+        ScannedClass cls = ClassFileParser.parse(buffer);
+        if(cls != null)
+          classes.add(cls);
+      } catch(BufferUnderflowException e) {
+        errors.add(new IOException("truncated class file: " + location));
+      } catch(IllegalArgumentException e) {
+        errors.add(new IOException("malformed class file: " + location + " (" + e.getMessage() + ")"));
+      }
+    }
+
+    private static ByteBuffer readFile(File file) throws IOException {
+      FileInputStream in = new FileInputStream(file);
+      try {
+        FileChannel channel = in.getChannel();
+        ByteBuffer buffer = ByteBuffer.allocate((int) channel.size());
+        while(buffer.hasRemaining() && channel.read(buffer) >= 0) {
+          // keep reading
+        }
+
+        buffer.flip();
+        return buffer;
+      } finally {
+        in.close();
+      }
+    }
+
+    private static ByteBuffer readEntry(JarFile jarFile, JarEntry entry) throws IOException {
+      InputStream in = jarFile.getInputStream(entry);
+      try {
+        byte[] bytes = new byte[(entry.getSize() > 0) ? (int) entry.getSize() : 4096];
+        int length = 0;
+        for(int read; (read = in.read(bytes, length, bytes.length - length)) >= 0;) {
+          length += read;
+          if(length == bytes.length) {
+            int next = in.read();
+            if(next < 0)
+              break;
+
+            bytes = Arrays.copyOf(bytes, bytes.length * 2);
+            bytes[length++] = (byte) next;
+          }
+        }
+
+        return ByteBuffer.wrap(bytes, 0, length);
+      } finally {
+        in.close();
+      }
+    }
+  }
+
+  /* (non-Javadoc)
+   * What the scan needs to know about a class.
+   */
+  static class ScannedClass {
+    final String name;
+    final String superName;
+    final boolean isPublic;
+    final String topLevelName;
+    final boolean instantiable;
+    final boolean hasConverterMethods;
+
+    ScannedClass(String name, String superName, boolean isPublic, String topLevelName, boolean instantiable,
+                 boolean hasConverterMethods) {
+      this.name = name;
+      this.superName = superName;
+      this.isPublic = isPublic;
+      this.topLevelName = topLevelName;
+      this.instantiable = instantiable;
+      this.hasConverterMethods = hasConverterMethods;
+    }
+  }
+
+  /* (non-Javadoc)
+   * Reads just enough of a class file (JVMS, chapter 4). Doesn't validate much; it only has to find converters.
+   */
+  static class ClassFileParser {
+    private static final int MAGIC = 0xCAFEBABE;
+
+    private final ByteBuffer buffer;
+    private final String[] utf8s;
+    private final int[] classNameIndexes;
+    private boolean mentionsConverts;
+
+    private ClassFileParser(ByteBuffer buffer) {
+      this.buffer = buffer;
+
+      if(buffer.getInt() != MAGIC)
+        throw new IllegalArgumentException("bad magic number");
+
+      buffer.getShort(); // minor version
+      buffer.getShort(); // major version
+
+      int count = buffer.getShort() & 0xFFFF;
+      utf8s = new String[count];
+      classNameIndexes = new int[count];
+
+      for(int i = 1; i < count; i++) {
+        int tag = buffer.get() & 0xFF;
+        switch(tag) {
+          case 1: // Utf8
+            utf8s[i] = readUtf8();
+            mentionsConverts |= CONVERTS_DESCRIPTOR.equals(utf8s[i]);
+            break;
+          case 7: // Class
+            classNameIndexes[i] = buffer.getShort() & 0xFFFF;
+            break;
+          case 8: case 16: case 19: case 20: // String, MethodType, Module, Package
+            skip(2);
+            break;
+          case 15: // MethodHandle
+            skip(3);
+            break;
+          case 3: case 4: case 9: case 10: case 11: case 12: case 17: case 18: // 4-byte constants and references
+            skip(4);
+            break;
+          case 5: case 6: // Long, Double: two entries
+            skip(8);
+            i++;
+            break;
+          default:
+            throw new IllegalArgumentException("unknown constant pool tag " + tag);
+        }
+      }
+    }
+
+    /* Returns the scanned class, or null if it can't possibly be a converter source. */
+    static ScannedClass parse(ByteBuffer buffer) {
+      return new ClassFileParser(buffer).parseClass();
+    }
+
+    private ScannedClass parseClass() {
+      int access = buffer.getShort() & 0xFFFF;
+      if((access & ACC_INTERFACE) != 0) // also annotations and modules
+        return null;
+
+      String name = className(buffer.getShort() & 0xFFFF);
+      String superName = className(buffer.getShort() & 0xFFFF);
+
+      skip(2 * (buffer.getShort() & 0xFFFF)); // interfaces
+
+      int fields = buffer.getShort() & 0xFFFF;
+      for(int i = 0; i < fields; i++) {
+        skip(6); // access, name, descriptor
+        skipAttributes();
+      }
+
+      boolean hasNoArgConstructor = false;
+      boolean hasConverterMethods = false;
+
+      int methods = buffer.getShort() & 0xFFFF;
+      for(int i = 0; i < methods; i++) {
+        int methodAccess = buffer.getShort() & 0xFFFF;
+        String methodName = utf8(buffer.getShort() & 0xFFFF);
+        String descriptor = utf8(buffer.getShort() & 0xFFFF);
+        boolean isPublic = (methodAccess & ACC_PUBLIC) != 0;
+
+        if(isPublic && "<init>".equals(methodName) && "()V".equals(descriptor))
+          hasNoArgConstructor = true;
+
+        int attributes = buffer.getShort() & 0xFFFF;
+        for(int j = 0; j < attributes; j++) {
+          String attributeName = utf8(buffer.getShort() & 0xFFFF);
+          int length = buffer.getInt();
+
+          // if no one mentions the annotation, there's no need to look for it
+          if(mentionsConverts && isPublic && ANNOTATIONS_ATTRIBUTE.equals(attributeName)) {
+            int end = buffer.position() + length;
+            hasConverterMethods |= hasConvertsAnnotation();
+            buffer.position(end);
+          } else {
+            skip(length);
+          }
+        }
+      }
+
+      // the access flags above say protected nested classes are public, and private ones are package-private; the
+      // real ones, as declared in the source code, are in the InnerClasses attribute
+      Map<String, InnerClass> innerClasses = Collections.emptyMap();
+
+      int attributes = buffer.getShort() & 0xFFFF;
+      for(int i = 0; i < attributes; i++) {
+        String attributeName = utf8(buffer.getShort() & 0xFFFF);
+        int length = buffer.getInt();
+
+        if(INNER_CLASSES_ATTRIBUTE.equals(attributeName)) {
+          int end = buffer.position() + length;
+          innerClasses = readInnerClasses();
+          buffer.position(end);
+        } else {
+          skip(length);
+        }
+      }
+
+      boolean isPublic = (access & ACC_PUBLIC) != 0;
+      boolean instantiable = isPublic && (access & ACC_ABSTRACT) == 0 && hasNoArgConstructor;
+      return new ScannedClass(
+          name, superName, isPublic, topLevelName(name, innerClasses), instantiable, hasConverterMethods);
+    }
+
+    private Map<String, InnerClass> readInnerClasses() {
+      Map<String, InnerClass> innerClasses = new HashMap<String, InnerClass>();
+
+      int classes = buffer.getShort() & 0xFFFF;
+      for(int i = 0; i < classes; i++) {
+        String innerName = className(buffer.getShort() & 0xFFFF);
+        String outerName = className(buffer.getShort() & 0xFFFF); // null for local and anonymous classes
+        skip(2); // simple name
+        int access = buffer.getShort() & 0xFFFF;
+
+        innerClasses.put(innerName, new InnerClass(outerName, access));
+      }
+
+      return innerClasses;
+    }
+
+    /* (non-Javadoc)
+     * Follows the given class' enclosing classes up to the top-level one, whose name is returned; or returns null if
+     * the class or one of its enclosing classes isn't a public static member class. The top-level class' own access
+     * flags are in its own class file.
+     */
+    private static String topLevelName(String name, Map<String, InnerClass> innerClasses) {
+      Set<String> seen = new HashSet<String>(); // just in case of broken class files
+      for(InnerClass inner; (inner = innerClasses.get(name)) != null; name = inner.outerName) {
+        if(inner.outerName == null || (inner.access & (ACC_PUBLIC | ACC_STATIC)) != (ACC_PUBLIC | ACC_STATIC)
+            || ! seen.add(name))
+          return null;
+      }
+
+      return name;
+    }
+
+    /* (non-Javadoc)
+     * An entry of the InnerClasses attribute.
+     */
+    private static class InnerClass {
+      final String outerName;
+      final int access;
+
+      InnerClass(String outerName, int access) {
+        this.outerName = outerName;
+        this.access = access;
+      }
+    }
+
+    private boolean hasConvertsAnnotation() {
+      int annotations = buffer.getShort() & 0xFFFF;
+      for(int i = 0; i < annotations; i++) {
+        if(CONVERTS_DESCRIPTOR.equals(utf8(buffer.getShort() & 0xFFFF)))
+          return true;
+
+        skipElementValuePairs();
+      }
+
+      return false;
+    }
+
+    private void skipAnnotation() {
+      skip(2); // type
+      skipElementValuePairs();
+    }
+
+    private void skipElementValuePairs() {
+      int pairs = buffer.getShort() & 0xFFFF;
+      for(int i = 0; i < pairs; i++) {
+        skip(2); // name
+        skipElementValue();
+      }
+    }
+
+    private void skipElementValue() {
+      int tag = buffer.get() & 0xFF;
+      switch(tag) {
+        case 'B': case 'C': case 'D': case 'F': case 'I': case 'J': case 'S': case 'Z': case 's': case 'c':
+          skip(2);
+          break;
+        case 'e':
+          skip(4);
+          break;
+        case '@':
+          skipAnnotation();
+          break;
+        case '[':
+          int values = buffer.getShort() & 0xFFFF;
+          for(int i = 0; i < values; i++)
+            skipElementValue();
+          break;
+        default:
+          throw new IllegalArgumentException("unknown element value tag " + (char) tag);
+      }
+    }
+
+    private void skipAttributes() {
+      int attributes = buffer.getShort() & 0xFFFF;
+      for(int i = 0; i < attributes; i++) {
+        skip(2); // name
+        skip(buffer.getInt());
+      }
+    }
+
+    private void skip(int bytes) {
+      if(bytes < 0 || bytes > buffer.remaining())
+        throw new BufferUnderflowException();
+
+      buffer.position(buffer.position() + bytes);
+    }
+
+    private String utf8(int index) {
+      if(index <= 0 || index >= utf8s.length || utf8s[index] == null)
+        throw new IllegalArgumentException("bad constant pool index " + index);
+
+      return utf8s[index];
+    }
+
+    private String className(int index) {
+      if(index == 0) // java.lang.Object has no superclass
+        return null;
+
+      if(index >= classNameIndexes.length)
+        throw new IllegalArgumentException("bad constant pool index " + index);
+
+      return utf8(classNameIndexes[index]).replace('/', '.');
+    }
+
+    /* Decodes the JVM's modified UTF-8; only null characters and supplementary characters differ from UTF-8. */
+    private String readUtf8() {
+      int length = buffer.getShort() & 0xFFFF;
+      if(length > buffer.remaining())
+        throw new BufferUnderflowException();
+
+      char[] chars = new char[length];
+      int count = 0;
+      int end = buffer.position() + length;
+      while(buffer.position() < end) {
+        int b = buffer.get() & 0xFF;
+        if(b < 0x80) {
+          chars[count++] = (char) b;
+        } else if((b & 0xE0) == 0xC0) {
+          chars[count++] = (char) (((b & 0x1F) << 6) | (buffer.get() & 0x3F));
+        } else {
+          int b2 = buffer.get() & 0x3F;
+          chars[count++] = (char) (((b & 0x0F) << 12) | (b2 << 6) | (buffer.get() & 0x3F));
+        }
+      }
+
+      return new String(chars, 0, count);
+    }
+  }
+}
@@ -3,8 +3,13 @@ package com.googlecode.transmuter.converter;
 import com.googlecode.transmuter.converter.exception.ConverterProviderException;
 import com.googlecode.transmuter.util.exception.MultipleCausesException;
 
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
 import java.lang.annotation.*;
-import java.lang.reflect.Method;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.InvocationTargetException;
+import java.net.URL;
 import java.util.*;
 
 /**
@@ -12,16 +17,34 @@ import java.util.*;
  * <p>
  * Not all methods can be converter methods. This annotation should be used only on methods which can be 
  * {@linkplain EagerProvider successfully} {@linkplain LazyProvider provided}. 
+ * <p>
+ * A converter method may also declare its {@linkplain #cost() cost}, if it is much cheaper or more expensive than 
+ * usual.
  * 
  * @author Humberto S. N. dos Anjos
  * @see EagerProvider
  * @see LazyProvider
+ * @see IndexProvider
  */
 @Documented
 @Inherited
 @Retention(RetentionPolicy.RUNTIME)
 @Target(ElementType.METHOD)
 public @interface Converts {
+  /**
+   * The cost of converters which don't declare one.
+   */
+  int DEFAULT_COST = 1;
+  
+  /**
+   * How expensive the marked converter is to run, relative to other converters. When there is more than one way to 
+   * perform a conversion, {@linkplain Converter#getCost() cheaper} converters (or chains of converters) may be 
+   * preferred. Must be positive.
+   * 
+   * @return the cost of the marked converter.
+   */
+  int cost() default DEFAULT_COST;
+  
   /**
    * Scans a given object for all public methods marked with the {@link Converts} annotation, 
    * {@linkplain Converter binding} them with the given object and making {@linkplain Iterator iterators} available  
@@ -31,7 +54,9 @@ public @interface Converts {
    * {@link ConverterProviderException} exception. In that case, no converters from the given object will be available, 
    * even if they're valid.
    * <p>
-   * This provider scans the entire object upon construction, storing all converters for later iteration.
+   * This provider scans the entire object upon construction, storing all converters for later iteration. The scan 
+   * results, i.e. the converter methods and their converter types, are cached per class, so that providing 
+   * other instances of an already scanned class only binds them.
    * 
    * @author Humberto S. N. dos Anjos
    */
@@ -60,13 +85,11 @@ public @interface Converts {
       
       List<Exception> exceptions = new ArrayList<Exception>();
       
-      // all public methods
-      for(Method method : source.getClass().getMethods()) {
-        if(! method.isAnnotationPresent(Converts.class))
-          continue;
-        
+      // all public methods, scanned once per class
+      ConverterMethods methods = ConverterMethods.of(source.getClass());
+      for(int i = 0; i < methods.size(); i++) {
         try {
-          converters.add(new Converter(source, method));
+          converters.add(methods.bind(source, i));
         } catch (MultipleCausesException e) {
           exceptions.addAll(e.getCauses());
         } catch(Exception e) {
@@ -87,6 +110,222 @@ public @interface Converts {
     }
   }
 
+  /**
+   * Registers the converters of classes listed in {@linkplain #INDEX index files}, so that converter sources need not 
+   * be listed by hand, nor found by scanning the classpath. Only the listed classes are loaded.
+   * <p>
+   * An index file lists fully qualified (binary) class names, one per line; blank lines and anything after a 
+   * {@code #} are ignored, as in {@link java.util.ServiceLoader} configuration files. All index files visible to the 
+   * given class loader are read, and classes listed more than once are taken only once. Each listed class must have 
+   * a public no-arg constructor, which is used to make the instance whose converters are provided. Transmuter's 
+   * annotation processor may generate the index file at compile time.
+   * <p>
+   * If the annotation processor also generated a provider for a listed class (named after it, with nested names 
+   * joined by underscores and a {@value #GENERATED_PROVIDER_SUFFIX} suffix), that provider is used, so the class' 
+   * methods aren't scanned at runtime. Otherwise, the instance's converters are {@linkplain EagerProvider provided} 
+   * as usual.
+   * <p>
+   * Any errors encountered while reading the index files, loading or instantiating the classes, or extracting their 
+   * converters, will be bundled together and thrown as a single {@link ConverterProviderException} exception. In that 
+   * case, no converters will be available, even if they're valid.
+   * <p>
+   * Like {@link EagerProvider}, this provider does all its work upon construction.
+   * 
+   * @author Humberto S. N. dos Anjos
+   */
+  public static class IndexProvider implements Iterable<Converter> {
+    /**
+     * The resource name of the index files.
+     */
+    public static final String INDEX = "META-INF/transmuter/converters";
+    
+    /**
+     * The suffix of the names of the providers generated by Transmuter's annotation processor.
+     */
+    public static final String GENERATED_PROVIDER_SUFFIX = "_ConverterProvider";
+    
+    private final List<Converter> converters;
+    
+    /**
+     * Provides the converters of the classes listed in the index files visible to the current thread's context 
+     * class loader, or to this class' class loader if there is no context class loader.
+     * 
+     * @throws ConverterProviderException thrown if any errors are found while reading the index files or extracting 
+     * the converters.
+     */
+    public IndexProvider() throws ConverterProviderException {
+      this(null);
+    }
+    
+    /**
+     * Provides the converters of the classes listed in the index files visible to the given class loader, which also 
+     * loads the classes.
+     * 
+     * @param loader a class loader. If null, the current thread's context class loader, or this class' class loader 
+     * if there is no context class loader, will be used.
+     * @throws ConverterProviderException thrown if any errors are found while reading the index files or extracting 
+     * the converters.
+     */
+    public IndexProvider(ClassLoader loader) throws ConverterProviderException {
+      loader = loaderOrDefault(loader);
+      
+      List<Exception> exceptions = new ArrayList<Exception>();
+      this.converters = Collections.unmodifiableList(
+          extractConvertersFrom(readIndexes(loader, exceptions), loader, exceptions));
+    }
+    
+    /**
+     * Provides the converters of the given classes, as if they were listed in an index file. Meant for class names 
+     * found by other means, such as a {@link ConverterScanner}.
+     * 
+     * @param classNames the (binary) names of the classes to load and instantiate. If null, there are no converters 
+     * to provide.
+     * @param loader a class loader. If null, the current thread's context class loader, or this class' class loader 
+     * if there is no context class loader, will be used.
+     * @throws ConverterProviderException thrown if any errors are found while extracting the converters.
+     */
+    public IndexProvider(Collection<String> classNames, ClassLoader loader) throws ConverterProviderException {
+      Set<String> names = (classNames != null) ? new LinkedHashSet<String>(classNames) : new LinkedHashSet<String>();
+      
+      this.converters = Collections.unmodifiableList(
+          extractConvertersFrom(names, loaderOrDefault(loader), new ArrayList<Exception>()));
+    }
+    
+    private static ClassLoader loaderOrDefault(ClassLoader loader) {
+      if(loader != null)
+        return loader;
+      
+      loader = Thread.currentThread().getContextClassLoader();
+      return (loader != null) ? loader : IndexProvider.class.getClassLoader();
+    }
+    
+    private List<Converter> extractConvertersFrom(Set<String> classNames, ClassLoader loader, List<Exception> exceptions) 
+    throws ConverterProviderException {
+      List<Converter> converters = new ArrayList<Converter>();
+      
+      for(String className : classNames) {
+        try {
+          Class<?> cls = Class.forName(className, true, loader);
+          
+          for(Converter converter : providerFor(cls, newInstance(cls.getConstructor())))
+            converters.add(converter);
+        } catch (MultipleCausesException e) {
+          exceptions.addAll(e.getCauses());
+        } catch(Exception e) {
+          exceptions.add(e);
+        } catch(LinkageError e) { // bad class files or failed static initializers shouldn't go unnoticed
+          exceptions.add(new IllegalStateException("could not load " + className, e));
+        }
+      }
+      
+      if(! exceptions.isEmpty())
+        throw new ConverterProviderException(exceptions);
+      
+      // if we're here, then it's safe
+      return converters;
+    }
+    
+    /* (non-Javadoc)
+     * Returns the generated provider of the given class' converters, if there is one, or an EagerProvider otherwise.
+     */
+    @SuppressWarnings("unchecked")
+    private static Iterable<Converter> providerFor(Class<?> cls, Object source) throws Exception {
+      Class<?> provider;
+      try {
+        provider = Class.forName(generatedProviderNameOf(cls), true, cls.getClassLoader());
+      } catch(ClassNotFoundException e) {
+        return new EagerProvider(source);
+      }
+      
+      if(! Iterable.class.isAssignableFrom(provider)) // just happens to have the same name
+        return new EagerProvider(source);
+      
+      Constructor<?> constructor;
+      try {
+        constructor = provider.getConstructor(cls);
+      } catch(NoSuchMethodException e) { // not one of ours either
+        return new EagerProvider(source);
+      }
+      
+      return (Iterable<Converter>) newInstance(constructor, source);
+    }
+    
+    /* (non-Javadoc)
+     * The annotation processor's naming scheme: nested names joined by underscores, in the same package.
+     */
+    private static String generatedProviderNameOf(Class<?> cls) {
+      StringBuilder name = new StringBuilder(cls.getSimpleName());
+      for(Class<?> c = cls.getDeclaringClass(); c != null; c = c.getDeclaringClass())
+        name.insert(0, c.getSimpleName() + "_");
+      
+      int lastDot = cls.getName().lastIndexOf('.');
+      if(lastDot >= 0)
+        name.insert(0, cls.getName().substring(0, lastDot + 1));
+      
+      return name.append(GENERATED_PROVIDER_SUFFIX).toString();
+    }
+    
+    /* (non-Javadoc)
+     * Calls the given constructor, rethrowing whatever it throws as is.
+     */
+    private static Object newInstance(Constructor<?> constructor, Object... args) throws Exception {
+      try {
+        return constructor.newInstance(args);
+      } catch(InvocationTargetException e) {
+        if(e.getCause() instanceof Exception)
+          throw (Exception) e.getCause();
+        
+        throw e;
+      }
+    }
+    
+    /* (non-Javadoc)
+     * Returns the class names in all index files, in order and without repetitions.
+     */
+    private static Set<String> readIndexes(ClassLoader loader, List<Exception> exceptions) {
+      Set<String> classNames = new LinkedHashSet<String>();
+      
+      try {
+        Enumeration<URL> indexes = loader.getResources(INDEX);
+        while(indexes.hasMoreElements()) {
+          URL index = indexes.nextElement();
+          try {
+            readIndex(index, classNames);
+          } catch(IOException e) {
+            exceptions.add(e);
+          }
+        }
+      } catch(IOException e) {
+        exceptions.add(e);
+      }
+      
+      return classNames;
+    }
+    
+    private static void readIndex(URL index, Set<String> classNames) throws IOException {
+      BufferedReader reader = new BufferedReader(new InputStreamReader(index.openStream(), "UTF-8"));
+      try {
+        String line;
+        while((line = reader.readLine()) != null) {
+          int comment = line.indexOf('#');
+          if(comment >= 0)
+            line = line.substring(0, comment);
+          
+          line = line.trim();
+          if(line.length() > 0)
+            classNames.add(line);
+        }
+      } finally {
+        reader.close();
+      }
+    }
+    
+    @Override
+    public Iterator<Converter> iterator() {
+      return converters.iterator();
+    }
+  }
+
   /**
    * Scans a given object for all public methods marked with the {@link Converts} annotation, 
    * {@linkplain Converter binding} them with the given object and making {@linkplain Iterator iterators} available  
@@ -97,7 +336,7 @@ public @interface Converts {
    * even if they're valid.
    * <p>
    * The extraction process happens only during iteration, so this provider may be instanced without a hitch, only to 
-   * fail later.
+   * fail later. As with {@link EagerProvider}, the scan results are cached per class.
    * 
    * @author Humberto S. N. dos Anjos
    */
@@ -126,17 +365,17 @@ public @interface Converts {
      */
     private class LazyIterator implements Iterator<Converter> {
       private int cursor;
-      private final Method[] methods;
+      private final ConverterMethods methods;
       
       @SuppressWarnings("synthetic-access")
       public LazyIterator() {
-        methods = source.getClass().getMethods();
-        cursor = nextConverter(-1);
+        methods = ConverterMethods.of(source.getClass());
+        cursor = 0;
       }
 
       @Override
       public boolean hasNext() {
-        return 0 <= cursor && cursor < methods.length;
+        return cursor < methods.size();
       }
 
       @SuppressWarnings("synthetic-access")
@@ -146,26 +385,14 @@ public @interface Converts {
           throw new NoSuchElementException();
         
         try {
-          return new Converter(source, methods[cursor]);
+          return methods.bind(source, cursor);
         } catch (MultipleCausesException e) {
           throw new ConverterProviderException(e.getCauses());
         } catch (Exception e) {
           throw new ConverterProviderException(e);
         } finally {
-          cursor = nextConverter(cursor); // update the cursor!
-        }
-      }
-
-      /* Returns the index of the next converter, or -1 if there are no more left. */
-      private int nextConverter(int cursor) {
-        for(int i = cursor + 1; i < methods.length; i++) {
-          if(! methods[i].isAnnotationPresent(Converts.class))
-            continue;
-          
-          return i;
+          cursor++; // update the cursor!
         }
-        
-        return -1;
       }
       
       @Override
@@ -0,0 +1,27 @@
+package com.googlecode.transmuter.converter;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+
+/**
+ * Calls a method already bound to its instance (if it needs one). Every {@linkplain Binding binding} 
+ * {@linkplain Binding#bind(Object, Method) makes} its invoker once, when it is created, and delegates all its 
+ * {@link Binding#invoke(Object...) invoke} calls to it.
+ * <p>
+ * Invokers follow {@link Method#invoke(Object, Object...)}'s contract as to exceptions, so that they can be used 
+ * interchangeably: anything thrown by the method itself is wrapped in an {@link InvocationTargetException}, and 
+ * anything else signals a problem with the arguments.
+ * 
+ * @author Humberto S. N. dos Anjos
+ */
+public interface Invoker {
+  /**
+   * Calls the bound method with the given arguments.
+   * 
+   * @param args the arguments for the method call.
+   * @return the result of the call, boxed if it is a primitive, or {@code null} if the method is {@code void}.
+   * @throws InvocationTargetException if the method throws an exception.
+   * @throws Exception if the call could not be made, e.g. due to invalid arguments.
+   */
+  Object invoke(Object... args) throws Exception;
+}
@@ -0,0 +1,240 @@
+package com.googlecode.transmuter.converter;
+
+import com.googlecode.transmuter.core.Transmuter;
+import com.googlecode.transmuter.type.TypeToken.ValueType;
+
+/**
+ * Converts between arrays of numeric primitives (and {@code char}s), casting each element as Java's primitive casts 
+ * do. There is a converter for each pair of different array types, e.g. {@code int[] -> long[]}, so these converters 
+ * take nothing but primitive arrays, and leave every other conversion to other converters.
+ * <p>
+ * These are the converters behind {@link ValueType#castArray(Object)}, made available to a {@link Transmuter} once 
+ * registered:
+ * 
+ * <pre>
+ * t.register(new Converts.EagerProvider(new PrimitiveArrayConverters()));
+ * long[] longs = t.convert(new int[] { 1, 2, 3 }, long[].class);
+ * </pre>
+ * 
+ * Nothing is boxed along the way; each pair of primitive types has its own loop.
+ * 
+ * @author Humberto S. N. dos Anjos
+ */
+public class PrimitiveArrayConverters {
+  // to byte arrays
+  @Converts
+  public byte[] toBytes(char[] array) {
+    return (byte[]) ValueType.BYTE.castArray(array);
+  }
+  
+  @Converts
+  public byte[] toBytes(short[] array) {
+    return (byte[]) ValueType.BYTE.castArray(array);
+  }
+  
+  @Converts
+  public byte[] toBytes(int[] array) {
+    return (byte[]) ValueType.BYTE.castArray(array);
+  }
+  
+  @Converts
+  public byte[] toBytes(long[] array) {
+    return (byte[]) ValueType.BYTE.castArray(array);
+  }
+  
+  @Converts
+  public byte[] toBytes(float[] array) {
+    return (byte[]) ValueType.BYTE.castArray(array);
+  }
+  
+  @Converts
+  public byte[] toBytes(double[] array) {
+    return (byte[]) ValueType.BYTE.castArray(array);
+  }
+  
+  // to char arrays
+  @Converts
+  public char[] toChars(byte[] array) {
+    return (char[]) ValueType.CHARACTER.castArray(array);
+  }
+  
+  @Converts
+  public char[] toChars(short[] array) {
+    return (char[]) ValueType.CHARACTER.castArray(array);
+  }
+  
+  @Converts
+  public char[] toChars(int[] array) {
+    return (char[]) ValueType.CHARACTER.castArray(array);
+  }
+  
+  @Converts
+  public char[] toChars(long[] array) {
+    return (char[]) ValueType.CHARACTER.castArray(array);
+  }
+  
+  @Converts
+  public char[] toChars(float[] array) {
+    return (char[]) ValueType.CHARACTER.castArray(array);
+  }
+  
+  @Converts
+  public char[] toChars(double[] array) {
+    return (char[]) ValueType.CHARACTER.castArray(array);
+  }
+  
+  // to short arrays
+  @Converts
+  public short[] toShorts(byte[] array) {
+    return (short[]) ValueType.SHORT.castArray(array);
+  }
+  
+  @Converts
+  public short[] toShorts(char[] array) {
+    return (short[]) ValueType.SHORT.castArray(array);
+  }
+  
+  @Converts
+  public short[] toShorts(int[] array) {
+    return (short[]) ValueType.SHORT.castArray(array);
+  }
+  
+  @Converts
+  public short[] toShorts(long[] array) {
+    return (short[]) ValueType.SHORT.castArray(array);
+  }
+  
+  @Converts
+  public short[] toShorts(float[] array) {
+    return (short[]) ValueType.SHORT.castArray(array);
+  }
+  
+  @Converts
+  public short[] toShorts(double[] array) {
+    return (short[]) ValueType.SHORT.castArray(array);
+  }
+  
+  // to int arrays
+  @Converts
+  public int[] toInts(byte[] array) {
+    return (int[]) ValueType.INTEGER.castArray(array);
+  }
+  
+  @Converts
+  public int[] toInts(char[] array) {
+    return (int[]) ValueType.INTEGER.castArray(array);
+  }
+  
+  @Converts
+  public int[] toInts(short[] array) {
+    return (int[]) ValueType.INTEGER.castArray(array);
+  }
+  
+  @Converts
+  public int[] toInts(long[] array) {
+    return (int[]) ValueType.INTEGER.castArray(array);
+  }
+  
+  @Converts
+  public int[] toInts(float[] array) {
+    return (int[]) ValueType.INTEGER.castArray(array);
+  }
+  
+  @Converts
+  public int[] toInts(double[] array) {
+    return (int[]) ValueType.INTEGER.castArray(array);
+  }
+  
+  // to long arrays
+  @Converts
+  public long[] toLongs(byte[] array) {
+    return (long[]) ValueType.LONG.castArray(array);
+  }
+  
+  @Converts
+  public long[] toLongs(char[] array) {
+    return (long[]) ValueType.LONG.castArray(array);
+  }
+  
+  @Converts
+  public long[] toLongs(short[] array) {
+    return (long[]) ValueType.LONG.castArray(array);
+  }
+  
+  @Converts
+  public long[] toLongs(int[] array) {
+    return (long[]) ValueType.LONG.castArray(array);
+  }
+  
+  @Converts
+  public long[] toLongs(float[] array) {
+    return (long[]) ValueType.LONG.castArray(array);
+  }
+  
+  @Converts
+  public long[] toLongs(double[] array) {
+    return (long[]) ValueType.LONG.castArray(array);
+  }
+  
+  // to float arrays
+  @Converts
+  public float[] toFloats(byte[] array) {
+    return (float[]) ValueType.FLOAT.castArray(array);
+  }
+  
+  @Converts
+  public float[] toFloats(char[] array) {
+    return (float[]) ValueType.FLOAT.castArray(array);
+  }
+  
+  @Converts
+  public float[] toFloats(short[] array) {
+    return (float[]) ValueType.FLOAT.castArray(array);
+  }
+  
+  @Converts
+  public float[] toFloats(int[] array) {
+    return (float[]) ValueType.FLOAT.castArray(array);
+  }
+  
+  @Converts
+  public float[] toFloats(long[] array) {
+    return (float[]) ValueType.FLOAT.castArray(array);
+  }
+  
+  @Converts
+  public float[] toFloats(double[] array) {
+    return (float[]) ValueType.FLOAT.castArray(array);
+  }
+  
+  // to double arrays
+  @Converts
+  public double[] toDoubles(byte[] array) {
+    return (double[]) ValueType.DOUBLE.castArray(array);
+  }
+  
+  @Converts
+  public double[] toDoubles(char[] array) {
+    return (double[]) ValueType.DOUBLE.castArray(array);
+  }
+  
+  @Converts
+  public double[] toDoubles(short[] array) {
+    return (double[]) ValueType.DOUBLE.castArray(array);
+  }
+  
+  @Converts
+  public double[] toDoubles(int[] array) {
+    return (double[]) ValueType.DOUBLE.castArray(array);
+  }
+  
+  @Converts
+  public double[] toDoubles(long[] array) {
+    return (double[]) ValueType.DOUBLE.castArray(array);
+  }
+  
+  @Converts
+  public double[] toDoubles(float[] array) {
+    return (double[]) ValueType.DOUBLE.castArray(array);
+  }
+}
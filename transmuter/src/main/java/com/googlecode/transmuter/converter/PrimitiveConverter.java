@@ -0,0 +1,56 @@
+package com.googlecode.transmuter.converter;
+
+import com.googlecode.transmuter.core.Transmuter;
+
+/**
+ * Holds the interfaces for converters between primitive types, which can be called without boxing their arguments or 
+ * their results.
+ * <p>
+ * An object implementing one of these interfaces, and marking its implementation with {@link Converts}, makes a 
+ * {@linkplain Converter#isPrimitive() primitive converter}, which the matching {@link Transmuter} methods (such as 
+ * {@link Transmuter#convertToLong(int)}) call directly, with no reflection or boxing involved:
+ * 
+ * <pre>
+ * public class Widener implements PrimitiveConverter.IntToLong {
+ *   &#64;Converts
+ *   public long convertToLong(int from) {
+ *     return from;
+ *   }
+ * }
+ * </pre>
+ * 
+ * Such converters are still regular converters otherwise, and can be used for boxed conversions as well.
+ * 
+ * @author Humberto S. N. dos Anjos
+ */
+public interface PrimitiveConverter {
+  /** Converts {@code int}s to {@code long}s. */
+  interface IntToLong extends PrimitiveConverter {
+    long convertToLong(int from);
+  }
+  
+  /** Converts {@code int}s to {@code double}s. */
+  interface IntToDouble extends PrimitiveConverter {
+    double convertToDouble(int from);
+  }
+  
+  /** Converts {@code long}s to {@code int}s. */
+  interface LongToInt extends PrimitiveConverter {
+    int convertToInt(long from);
+  }
+  
+  /** Converts {@code long}s to {@code double}s. */
+  interface LongToDouble extends PrimitiveConverter {
+    double convertToDouble(long from);
+  }
+  
+  /** Converts {@code double}s to {@code int}s. */
+  interface DoubleToInt extends PrimitiveConverter {
+    int convertToInt(double from);
+  }
+  
+  /** Converts {@code double}s to {@code long}s. */
+  interface DoubleToLong extends PrimitiveConverter {
+    long convertToLong(double from);
+  }
+}
@@ -1,5 +1,6 @@
 package com.googlecode.transmuter.core;
 
+import java.util.AbstractMap;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
@@ -10,6 +11,7 @@ import com.googlecode.transmuter.converter.Converter;
 import com.googlecode.transmuter.converter.ConverterType;
 import com.googlecode.transmuter.core.exception.NoCompatibleConvertersFoundException;
 import com.googlecode.transmuter.core.exception.TooManyConvertersFoundException;
+import com.googlecode.transmuter.core.util.ConverterMap;
 import com.googlecode.transmuter.util.CollectionUtils;
 
 /**
@@ -38,7 +40,7 @@ public class BasicConverterSelector implements ConverterSelector {
     if(type == null || converters == null || ! converters.iterator().hasNext())
       throw new NoCompatibleConvertersFoundException(type, CollectionUtils.toList(converters));
     
-    List<Converter> compatibles = new ArrayList<Converter>();
+    List<Entry<ConverterType, Converter>> compatibles = new ArrayList<Entry<ConverterType, Converter>>();
     for(Converter c : converters) {
       if(c == null)
         continue;
@@ -47,19 +49,19 @@ public class BasicConverterSelector implements ConverterSelector {
         return c;
       
       if(c.getType().isAssignableFrom(type)) { // this may do
-        compatibles.add(c);
+        compatibles.add(entry(c.getType(), c));
         continue;
       }
     }
     
     if(compatibles.size() == 1) // found only one compatible, use it
-      return compatibles.get(0);
+      return compatibles.get(0).getValue();
     
     if(compatibles.isEmpty()) // no compatibles found, blow up
       throw new NoCompatibleConvertersFoundException(type, CollectionUtils.toList(converters));
     
     // lots of compatibles found, how to pick only one?
-    throw new TooManyConvertersFoundException(type, compatibles);
+    return pickFrom(type, compatibles, null);
   }
 
   /**
@@ -68,6 +70,9 @@ public class BasicConverterSelector implements ConverterSelector {
    * If an exact match is found, its converter is returned; if not, a compatible converter will be searched for. 
    * Exceptions are thrown if no compatible converter is found, or more than one is found, since this implementation
    * does not know which to choose.
+   * <p>
+   * If {@code map} is a {@link ConverterMap}, its {@linkplain ConverterMap#getAssignableTypes(ConverterType) index} 
+   * is used instead of a check on every key.
    * 
    * @param type the type to match.
    * @param map where to look for a matching converter.
@@ -86,24 +91,66 @@ public class BasicConverterSelector implements ConverterSelector {
     if(map.containsKey(type)) // found a perfect match!
       return map.get(type);
     
-    List<Converter> compatibles = new ArrayList<Converter>();
-    for(Entry<? extends ConverterType, ? extends Converter> entry : map.entrySet()) {
-      if(entry.getKey() == null)
-        continue;
-      
-      if(entry.getKey().isAssignableFrom(type)) { // this may do
-        compatibles.add(entry.getValue());
-        continue;
+    List<Entry<ConverterType, Converter>> compatibles = new ArrayList<Entry<ConverterType, Converter>>();
+    if(map instanceof ConverterMap) { // indexed, no need to check everything
+      for(ConverterType key : ((ConverterMap) map).getAssignableTypes(type))
+        compatibles.add(entry(key, map.get(key)));
+    } else {
+      for(Entry<? extends ConverterType, ? extends Converter> entry : map.entrySet()) {
+        if(entry.getKey() == null)
+          continue;
+        
+        if(entry.getKey().isAssignableFrom(type)) { // this may do
+          compatibles.add(entry(entry.getKey(), entry.getValue()));
+          continue;
+        }
       }
     }
     
     if(compatibles.size() == 1) // found only one compatible, use it
-      return compatibles.get(0);
+      return compatibles.get(0).getValue();
     
     if(compatibles.isEmpty()) // no compatibles found, blow up
       throw new NoCompatibleConvertersFoundException(type, map.values());
     
     // lots of compatibles found, how to pick only one?
-    throw new TooManyConvertersFoundException(type, compatibles);
+    return pickFrom(type, compatibles, map);
+  }
+  
+  /**
+   * Picks one converter out of several compatible ones, when there's no exact match. Called only when more than one 
+   * compatible converter was found.
+   * <p>
+   * This implementation does not know which to choose, and always throws a {@link TooManyConvertersFoundException}. 
+   * Subclasses may override it to break the tie.
+   * 
+   * @param type the type to match.
+   * @param compatibles the compatible converters, paired with the converter types they were found under: their keys, 
+   * if they came from a map, or their own types otherwise.
+   * @param map the map the converters came from, or {@code null} if they came from an iterable.
+   * @return one of the given converters.
+   * @throws TooManyConvertersFoundException if no converter could be picked.
+   */
+  protected Converter pickFrom(ConverterType type, List<Entry<ConverterType, Converter>> compatibles, 
+      Map<? extends ConverterType, ? extends Converter> map) throws TooManyConvertersFoundException {
+    throw new TooManyConvertersFoundException(type, values(compatibles));
+  }
+  
+  /**
+   * Returns the converters in the given pairs, in the same order.
+   * 
+   * @param entries some converter types paired with converters.
+   * @return the converters in {@code entries}.
+   */
+  protected static List<Converter> values(List<Entry<ConverterType, Converter>> entries) {
+    List<Converter> values = new ArrayList<Converter>(entries.size());
+    for(Entry<ConverterType, Converter> entry : entries)
+      values.add(entry.getValue());
+    
+    return values;
+  }
+  
+  private static Entry<ConverterType, Converter> entry(ConverterType key, Converter value) {
+    return new AbstractMap.SimpleImmutableEntry<ConverterType, Converter>(key, value);
   }
 }
\ No newline at end of file
@@ -0,0 +1,106 @@
+package com.googlecode.transmuter.core;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+
+/**
+ * The outcome of a {@linkplain Transmuter#convertAll(Iterable, TypeToken) batch conversion}: the converted objects, 
+ * in the same order as the objects given, and the failed conversions, keyed by their positions.
+ * <p>
+ * A failed conversion doesn't abort the batch; its position holds {@code null} in the {@linkplain #getValues() values}, 
+ * and a {@linkplain ConversionResult failed result} in the {@linkplain #getFailures() failures}.
+ * 
+ * @param <T> the type of the converted objects.
+ * @author Humberto S. N. dos Anjos
+ */
+public class BatchResult<T> {
+  private final List<T> values;
+  private final SortedMap<Integer, ConversionResult<T>> failures;
+  
+  /**
+   * Creates a new, empty result.
+   * 
+   * @param expectedSize how many conversions are expected.
+   */
+  BatchResult(int expectedSize) {
+    values = new ArrayList<T>(Math.max(expectedSize, 0));
+    failures = new TreeMap<Integer, ConversionResult<T>>();
+  }
+  
+  /**
+   * Adds a successfully converted object at the next position.
+   * 
+   * @param value a converted object.
+   */
+  void add(T value) {
+    values.add(value);
+  }
+  
+  /**
+   * Adds a failed conversion at the next position.
+   * 
+   * @param failure a failed result.
+   */
+  void addFailure(ConversionResult<T> failure) {
+    failures.put(values.size(), failure);
+    values.add(null);
+  }
+  
+  /**
+   * Adds all the conversions of the given result, in order, at the next positions.
+   * 
+   * @param other another result.
+   */
+  void addAll(BatchResult<T> other) {
+    int offset = values.size();
+    for(Map.Entry<Integer, ConversionResult<T>> failure : other.failures.entrySet())
+      failures.put(offset + failure.getKey(), failure.getValue());
+    
+    values.addAll(other.values);
+  }
+  
+  /**
+   * Returns the converted objects, in the same order as the objects given. Failed conversions are {@code null}.
+   * 
+   * @return an unmodifiable list with the converted objects.
+   */
+  public List<T> getValues() {
+    return Collections.unmodifiableList(values);
+  }
+  
+  /**
+   * Returns the failed conversions, keyed by their positions.
+   * 
+   * @return an unmodifiable map with the failed conversions.
+   */
+  public SortedMap<Integer, ConversionResult<T>> getFailures() {
+    return Collections.unmodifiableSortedMap(failures);
+  }
+  
+  /**
+   * Checks if any conversion failed.
+   * 
+   * @return {@code true} if any conversion failed.
+   */
+  public boolean hasFailures() {
+    return ! failures.isEmpty();
+  }
+  
+  /**
+   * Returns how many objects were given for conversion.
+   * 
+   * @return how many objects were given for conversion.
+   */
+  public int size() {
+    return values.size();
+  }
+  
+  @Override
+  public String toString() {
+    return "BatchResult[size: " + size() + ", failures: " + failures.size() + "]";
+  }
+}
@@ -0,0 +1,347 @@
+package com.googlecode.transmuter.core;
+
+import static com.googlecode.transmuter.util.ObjectUtils.nonNull;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import com.googlecode.transmuter.converter.Converter;
+import com.googlecode.transmuter.converter.ConverterChain;
+import com.googlecode.transmuter.converter.ConverterType;
+import com.googlecode.transmuter.core.exception.NoCompatibleConvertersFoundException;
+import com.googlecode.transmuter.core.exception.TooManyConvertersFoundException;
+import com.googlecode.transmuter.core.util.ConverterMap;
+import com.googlecode.transmuter.type.TypeToken;
+
+/**
+ * A {@linkplain ConverterSelector converter selector} which, lacking a compatible converter, chains several 
+ * converters together. For example, with converters registered for {@code String -> BigDecimal} and 
+ * {@code BigDecimal -> Money}, a conversion from {@code String} to {@code Money} is done by a 
+ * {@link ConverterChain} of both.
+ * <p>
+ * Single converters are picked by another selector, which is tried first. If it finds no compatible converters, the 
+ * graph formed by the registered converter types is searched for the chain with the lowest 
+ * {@linkplain Converter#getCost() cost}, each link being picked by that same selector. Since converters cost 
+ * {@link com.googlecode.transmuter.converter.Converts#DEFAULT_COST 1} by default, that is usually the shortest chain. 
+ * Only chains up to a {@linkplain #getMaxLength() maximum length} are considered. A 
+ * {@link TooManyConvertersFoundException} is thrown if there is more than one cheapest chain.
+ * <p>
+ * Searching for a chain is much more expensive than searching for a single converter, but transmuters 
+ * {@linkplain Transmuter#getConverterCache() cache} the converters picked, chains included, until their registered 
+ * converters change. Each chain is therefore searched for only once.
+ * 
+ * @author Humberto S. N. dos Anjos
+ */
+public class ChainingConverterSelector implements ConverterSelector {
+  /**
+   * The maximum number of converters in a chain, unless told otherwise.
+   */
+  public static final int DEFAULT_MAX_LENGTH = 3;
+  
+  private final ConverterSelector selector;
+  private final int maxLength;
+  
+  /**
+   * Constructs a new instance, using a {@link BasicConverterSelector} to pick each converter and chains with up to 
+   * {@link #DEFAULT_MAX_LENGTH} converters.
+   */
+  public ChainingConverterSelector() {
+    this(new BasicConverterSelector(), DEFAULT_MAX_LENGTH);
+  }
+  
+  /**
+   * Constructs a new instance.
+   * 
+   * @param selector the selector used to pick each converter.
+   * @param maxLength the maximum number of converters in a chain.
+   * @throws IllegalArgumentException if {@code selector} is {@code null}, or {@code maxLength} is less than 1.
+   */
+  public ChainingConverterSelector(ConverterSelector selector, int maxLength) {
+    if(maxLength < 1)
+      throw new IllegalArgumentException("maxLength must be positive: " + maxLength);
+    
+    this.selector = nonNull(selector, "selector");
+    this.maxLength = maxLength;
+  }
+  
+  /**
+   * Picks a converter with this instance's {@linkplain #getSelector() selector}, searching for a chain of the given 
+   * converters if it finds no compatible converters.
+   */
+  @Override
+  public Converter getConverterFor(ConverterType type, Iterable<? extends Converter> converters)
+  throws NoCompatibleConvertersFoundException, TooManyConvertersFoundException {
+    try {
+      return selector.getConverterFor(type, converters);
+    } catch(NoCompatibleConvertersFoundException e) {
+      Map<ConverterType, Converter> map = new LinkedHashMap<ConverterType, Converter>();
+      for(Converter c : converters)
+        if(c != null)
+          map.put(c.getType(), c);
+      
+      return chain(type, map, e);
+    }
+  }
+  
+  /**
+   * Picks a converter with this instance's {@linkplain #getSelector() selector}, searching for a chain of the given 
+   * converters if it finds no compatible converters.
+   */
+  @Override
+  public Converter getConverterFor(ConverterType type, Map<? extends ConverterType, ? extends Converter> map)
+  throws NoCompatibleConvertersFoundException, TooManyConvertersFoundException {
+    try {
+      return selector.getConverterFor(type, map);
+    } catch(NoCompatibleConvertersFoundException e) {
+      return chain(type, map, e);
+    }
+  }
+  
+  // helper methods
+  /* (non-Javadoc)
+   * A search from the input type, one level per link: level i holds the cheapest chains of i links to each type 
+   * reached. Each level checks which of its types can be converted to the output type, and the cheapest chain of them 
+   * all wins. With the default costs, that's the shortest chain.
+   */
+  private Converter chain(ConverterType type, Map<? extends ConverterType, ? extends Converter> map, 
+      NoCompatibleConvertersFoundException noneFound) 
+  throws NoCompatibleConvertersFoundException, TooManyConvertersFoundException {
+    if(type == null || map == null || maxLength < 2)
+      throw noneFound;
+    
+    Map<TypeToken<?>, List<Converter>> links = new HashMap<TypeToken<?>, List<Converter>>();
+    Map<TypeToken<?>, Node> level = Collections.<TypeToken<?>, Node>singletonMap(
+        type.getFromType(), new Node(type.getFromType()));
+    
+    List<ConverterChain> cheapest = new ArrayList<ConverterChain>();
+    int cheapestCost = Integer.MAX_VALUE;
+    boolean ambiguous = false;
+    
+    for(int length = 1; length < maxLength && ! level.isEmpty(); length++) {
+      Map<TypeToken<?>, Node> next = new LinkedHashMap<TypeToken<?>, Node>();
+      
+      // one more link from each type in this level, keeping only the cheapest ways to each type
+      for(Node node : level.values()) {
+        for(Converter link : linksFrom(node.type, map, links)) {
+          Node child = new Node(node, link);
+          Node seen = next.get(child.type);
+          
+          if(seen == null || child.cost < seen.cost)
+            next.put(child.type, child);
+          else if(child.cost == seen.cost)
+            seen.ambiguous = true; // another chain just as cheap got here
+        }
+      }
+      
+      // which of them reach the output type, and how cheaply?
+      for(Node node : next.values()) {
+        ConverterType rest = new ConverterType(node.type, type.getToType());
+        if(! reaches(rest, map))
+          continue;
+        
+        List<Converter> lasts;
+        boolean tie = node.ambiguous;
+        
+        try {
+          lasts = Collections.<Converter>singletonList(selector.getConverterFor(rest, map));
+        } catch(NoCompatibleConvertersFoundException e) {
+          continue;
+        } catch(TooManyConvertersFoundException e) {
+          lasts = cheapestOf(e.getConverters()); // each of them ends a candidate chain
+          tie = true;
+        }
+        
+        if(lasts.isEmpty())
+          continue;
+        
+        int cost = node.cost + lasts.get(0).getCost();
+        
+        if(cost > cheapestCost)
+          continue;
+        
+        if(cost < cheapestCost) {
+          cheapest.clear();
+          cheapestCost = cost;
+          ambiguous = false;
+        }
+        
+        ambiguous |= tie;
+        for(Converter last : lasts)
+          cheapest.add(node.chainWith(last));
+      }
+      
+      level = next;
+    }
+    
+    if(cheapest.size() == 1 && ! ambiguous)
+      return cheapest.get(0);
+    
+    if(! cheapest.isEmpty())
+      throw new TooManyConvertersFoundException(type, cheapest);
+    
+    throw noneFound;
+  }
+  
+  /* (non-Javadoc)
+   * The converters from the given type to each output type registered for it, computed once per search. The keys 
+   * which take the given type are found at once, through the index if the map has one; the selector is called only 
+   * to break a tie among them.
+   */
+  private List<Converter> linksFrom(TypeToken<?> from, Map<? extends ConverterType, ? extends Converter> map, 
+      Map<TypeToken<?>, List<Converter>> links) {
+    List<Converter> found = links.get(from);
+    if(found != null)
+      return found;
+    
+    List<ConverterType> keys = typesFrom(from, map);
+    Set<TypeToken<?>> targets = new LinkedHashSet<TypeToken<?>>();
+    for(ConverterType key : keys)
+      targets.add(key.getToType());
+    
+    found = new ArrayList<Converter>();
+    for(TypeToken<?> target : targets) {
+      if(target.equals(from))
+        continue;
+      
+      // the keys the selector would find for from -> target
+      List<ConverterType> compatibles = new ArrayList<ConverterType>();
+      for(ConverterType key : keys)
+        if(key.getToType().isAssignableFrom(target))
+          compatibles.add(key);
+      
+      Converter link = (compatibles.size() == 1) 
+                     ? map.get(compatibles.get(0)) 
+                     : pick(new ConverterType(from, target), map);
+      // must really produce a target, and may be picked for several
+      if(link != null && target.isAssignableFrom(link.getType().getToType()) && ! found.contains(link))
+        found.add(link);
+    }
+    
+    links.put(from, found);
+    return found;
+  }
+  
+  /* (non-Javadoc)
+   * The keys whose input types are assignable from the given type.
+   */
+  private static List<ConverterType> typesFrom(TypeToken<?> from, 
+      Map<? extends ConverterType, ? extends Converter> map) {
+    if(map instanceof ConverterMap)
+      return ((ConverterMap) map).getTypesFrom(from);
+    
+    List<ConverterType> types = new ArrayList<ConverterType>();
+    for(ConverterType key : map.keySet())
+      if(key != null && key.getFromType().isAssignableFrom(from))
+        types.add(key);
+    
+    return types;
+  }
+  
+  /* (non-Javadoc)
+   * Checks if any key is assignable from the given type, so that the selector isn't asked when it can only fail.
+   */
+  private static boolean reaches(ConverterType type, Map<? extends ConverterType, ? extends Converter> map) {
+    if(map instanceof ConverterMap)
+      return ! ((ConverterMap) map).getAssignableTypes(type).isEmpty();
+    
+    for(ConverterType key : map.keySet())
+      if(key != null && key.isAssignableFrom(type))
+        return true;
+    
+    return false;
+  }
+  
+  /* (non-Javadoc)
+   * The converters among the given ones which cost the least.
+   */
+  private static List<Converter> cheapestOf(Iterable<? extends Converter> converters) {
+    List<Converter> cheapest = new ArrayList<Converter>();
+    if(converters == null)
+      return cheapest;
+    
+    for(Converter converter : converters) {
+      if(converter == null)
+        continue;
+      
+      if(! cheapest.isEmpty() && converter.getCost() < cheapest.get(0).getCost())
+        cheapest.clear();
+      
+      if(cheapest.isEmpty() || converter.getCost() == cheapest.get(0).getCost())
+        cheapest.add(converter);
+    }
+    
+    return cheapest;
+  }
+  
+  private Converter pick(ConverterType type, Map<? extends ConverterType, ? extends Converter> map) {
+    try {
+      return selector.getConverterFor(type, map);
+    } catch(NoCompatibleConvertersFoundException e) {
+      return null;
+    } catch(TooManyConvertersFoundException e) {
+      return null; // an ambiguous link can't be part of a chain
+    }
+  }
+  
+  // properties
+  /**
+   * Returns the selector used to pick each converter.
+   * 
+   * @return the selector used to pick each converter.
+   */
+  public ConverterSelector getSelector() {
+    return selector;
+  }
+  
+  /**
+   * Returns the maximum number of converters in a chain.
+   * 
+   * @return the maximum number of converters in a chain.
+   */
+  public int getMaxLength() {
+    return maxLength;
+  }
+  
+  /* (non-Javadoc)
+   * A type reached during the search, and the cheapest chain found to it.
+   */
+  private static class Node {
+    final TypeToken<?> type;
+    final Node parent;
+    final Converter link;
+    final int cost;
+    boolean ambiguous;
+    
+    Node(TypeToken<?> type) {
+      this.type = type;
+      this.parent = null;
+      this.link = null;
+      this.cost = 0;
+    }
+    
+    Node(Node parent, Converter link) {
+      this.type = link.getType().getToType();
+      this.parent = parent;
+      this.link = link;
+      this.cost = parent.cost + link.getCost();
+      this.ambiguous = parent.ambiguous;
+    }
+    
+    ConverterChain chainWith(Converter last) {
+      LinkedList<Converter> converters = new LinkedList<Converter>();
+      converters.add(last);
+      
+      for(Node node = this; node.link != null; node = node.parent)
+        converters.addFirst(node.link);
+      
+      return new ConverterChain(converters);
+    }
+  }
+}
@@ -0,0 +1,70 @@
+package com.googlecode.transmuter.core;
+
+import static com.googlecode.transmuter.util.ObjectUtils.nonNull;
+
+import com.googlecode.transmuter.converter.Converter;
+import com.googlecode.transmuter.converter.ConverterType;
+import com.googlecode.transmuter.core.exception.NoCompatibleConvertersFoundException;
+import com.googlecode.transmuter.core.exception.TooManyConvertersFoundException;
+import com.googlecode.transmuter.core.util.CopyOnWriteConverterMap;
+
+/**
+ * A thread-safe {@link Transmuter}, whose conversions may run concurrently with each other and with 
+ * (un)registrations, and never block.
+ * <p>
+ * The registered converters are kept in a {@link CopyOnWriteConverterMap}: every search for a converter is made on 
+ * an immutable snapshot of the registered converters, and every (un)registration publishes a new snapshot at once. 
+ * In particular, a {@linkplain #register(Iterable) registration} is atomic: conversions see either all or none of 
+ * the registered converters.
+ * <p>
+ * Since every (un)registration copies all registered converters, this class is best suited for transmuters which 
+ * convert much more than they register.
+ * 
+ * @author Humberto S. N. dos Anjos
+ */
+public class ConcurrentTransmuter extends Transmuter {
+  /**
+   * Constructs a new {@link ConcurrentTransmuter}, which uses a {@link BasicConverterSelector} to pick its converters.
+   */
+  public ConcurrentTransmuter() {
+    this(DEFAULT_SELECTOR);
+  }
+  
+  /**
+   * Constructs a new {@link ConcurrentTransmuter}, which uses the given selector to pick its converters. The selector 
+   * must be thread-safe.
+   * 
+   * @param converterSelector a converter selector.
+   * @throws IllegalArgumentException if {@code converterSelector} is {@code null}.
+   */
+  public ConcurrentTransmuter(ConverterSelector converterSelector) {
+    super(new CopyOnWriteConverterMap(), converterSelector);
+  }
+  
+  /**
+   * Searches the current snapshot of the registered converters, using the given selector.
+   */
+  @Override
+  protected Converter getConverterFor(ConverterType converterType, ConverterSelector selector) 
+  throws IllegalArgumentException, NoCompatibleConvertersFoundException, TooManyConvertersFoundException {
+    return nonNull(selector, "selector").getConverterFor(converterType, getConverterMap().getSnapshot());
+  }
+  
+  @Override
+  protected long getConverterMapVersion() {
+    return getConverterMap().getVersion();
+  }
+  
+  /**
+   * Returns a thread-safe map holding all the registered converters, keyed by their converter types. This map is 
+   * backed by this instance, i.e. changes made in this transmuter are seen in the map and vice-versa. Its views, 
+   * however, are immutable snapshots.
+   * 
+   * @return a map holding all the registered converters, keyed by their converter types and backed by this instance.
+   * @see CopyOnWriteConverterMap
+   */
+  @Override
+  public CopyOnWriteConverterMap getConverterMap() {
+    return (CopyOnWriteConverterMap) super.getConverterMap();
+  }
+}
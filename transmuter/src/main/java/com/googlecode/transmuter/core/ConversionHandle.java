@@ -0,0 +1,118 @@
+package com.googlecode.transmuter.core;
+
+import com.googlecode.transmuter.converter.Converter;
+import com.googlecode.transmuter.converter.ConverterType;
+import com.googlecode.transmuter.converter.exception.InvocationException;
+import com.googlecode.transmuter.core.exception.NoCompatibleConvertersFoundException;
+import com.googlecode.transmuter.core.exception.TooManyConvertersFoundException;
+import com.googlecode.transmuter.type.TypeToken;
+
+/**
+ * A conversion from one fixed type to another, bound to the converter a {@linkplain Transmuter transmuter} picked for 
+ * it. Obtained through {@link Transmuter#handleFor(TypeToken, TypeToken)}.
+ * <p>
+ * Since the types are known beforehand, {@link #convert(Object) convert} does no searching, and allocates nothing 
+ * on its own: it just checks if the transmuter's registered converters have changed since the converter was picked, 
+ * and invokes it. If they have changed, the converter is picked again before the conversion.
+ * <p>
+ * This class is thread-safe, as long as its transmuter is; handles from a {@link ConcurrentTransmuter} or a 
+ * {@link FrozenTransmuter} may be shared by several threads at once.
+ * 
+ * @param <From> the input type of the conversion.
+ * @param <To> the output type of the conversion.
+ * @author Humberto S. N. dos Anjos
+ */
+public class ConversionHandle<From, To> {
+  private final Transmuter transmuter;
+  private final ConverterType converterType;
+  private volatile Resolution resolution;
+  
+  /**
+   * Creates a new handle, picking its converter at once.
+   * 
+   * @param transmuter the transmuter which will pick the converter.
+   * @param converterType the converter type of the conversion.
+   * @throws NoCompatibleConvertersFoundException if no converters for {@code converterType} were found.
+   * @throws TooManyConvertersFoundException if more than one converter for {@code converterType} was found.
+   */
+  ConversionHandle(Transmuter transmuter, ConverterType converterType) 
+  throws NoCompatibleConvertersFoundException, TooManyConvertersFoundException {
+    this.transmuter = transmuter;
+    this.converterType = converterType;
+    this.resolution = resolve();
+  }
+  
+  /**
+   * Converts the given object, using the converter currently picked for this handle.
+   * 
+   * @param from the object to convert.
+   * @return the converted object.
+   * @throws NoCompatibleConvertersFoundException if the registered converters have changed, and no converters for 
+   * this handle's converter type were found.
+   * @throws TooManyConvertersFoundException if the registered converters have changed, and more than one converter for 
+   * this handle's converter type was found.
+   * @throws InvocationException if there was an error during the converter's invocation.
+   */
+  @SuppressWarnings("unchecked")
+  public To convert(From from) 
+  throws NoCompatibleConvertersFoundException, TooManyConvertersFoundException, InvocationException {
+    return (To) getConverter().invoke(from);
+  }
+  
+  /**
+   * Returns the converter currently picked for this handle, picking it again first if the transmuter's registered 
+   * converters have changed.
+   * 
+   * @return the converter currently picked for this handle.
+   * @throws NoCompatibleConvertersFoundException if no converters for this handle's converter type were found.
+   * @throws TooManyConvertersFoundException if more than one converter for this handle's converter type was found.
+   */
+  public Converter getConverter() throws NoCompatibleConvertersFoundException, TooManyConvertersFoundException {
+    Resolution current = resolution;
+    
+    if(current.version != transmuter.getConverterMapVersion()) // registrations changed; look again
+      resolution = current = resolve();
+    
+    return current.converter;
+  }
+  
+  /**
+   * Returns this handle's converter type.
+   * 
+   * @return this handle's converter type.
+   */
+  public ConverterType getConverterType() {
+    return converterType;
+  }
+  
+  /**
+   * Returns the transmuter which picks this handle's converter.
+   * 
+   * @return the transmuter which picks this handle's converter.
+   */
+  public Transmuter getTransmuter() {
+    return transmuter;
+  }
+  
+  @Override
+  public String toString() {
+    return "ConversionHandle<" + converterType + ">";
+  }
+  
+  // the version must be read before the search, so that a stale search is never taken as current
+  private Resolution resolve() {
+    final long version = transmuter.getConverterMapVersion();
+    return new Resolution(transmuter.getConverterFor(converterType), version);
+  }
+  
+  // a converter and the version it was picked from, kept together so they're always read consistently 
+  private static class Resolution {
+    final Converter converter;
+    final long version;
+    
+    Resolution(Converter converter, long version) {
+      this.converter = converter;
+      this.version = version;
+    }
+  }
+}
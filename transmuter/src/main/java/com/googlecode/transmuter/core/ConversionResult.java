@@ -0,0 +1,138 @@
+package com.googlecode.transmuter.core;
+
+import com.googlecode.transmuter.converter.ConverterType;
+
+/**
+ * The outcome of a {@linkplain Transmuter#tryConvert(Object, Class) conversion attempt}: either the converted 
+ * object, or the reason why there is none.
+ * <p>
+ * Failed attempts aren't signaled by exceptions, so code which expects many conversions to fail doesn't pay for 
+ * building them. When an exception was thrown anyway (say, by the converter itself), it is available as the 
+ * {@linkplain #getCause() cause}.
+ * 
+ * @param <T> the type of the converted object.
+ * @author Humberto S. N. dos Anjos
+ */
+public class ConversionResult<T> {
+  /**
+   * The possible outcomes of a conversion attempt.
+   */
+  public static enum Status {
+    /** The conversion succeeded. */
+    SUCCESS,
+    
+    /** No converters compatible with the conversion's converter type were found. */
+    NO_COMPATIBLE_CONVERTERS,
+    
+    /** Several converters compatible with the conversion's converter type were found, and none could be picked. */
+    TOO_MANY_CONVERTERS,
+    
+    /** The converter threw an exception. */
+    INVOCATION_FAILED,
+    
+    /** There was nothing to convert, e.g. a {@code null} element in a {@linkplain BatchResult batch}. */
+    INVALID_INPUT;
+  }
+  
+  private final Status status;
+  private final ConverterType converterType;
+  private final T value;
+  private final Throwable cause;
+  
+  private ConversionResult(Status status, ConverterType converterType, T value, Throwable cause) {
+    this.status = status;
+    this.converterType = converterType;
+    this.value = value;
+    this.cause = cause;
+  }
+  
+  /**
+   * Returns a successful result.
+   * 
+   * @param converterType the converter type of the conversion.
+   * @param value the converted object.
+   * @param <T> the type of the converted object.
+   * @return a successful result holding {@code value}.
+   */
+  public static <T> ConversionResult<T> success(ConverterType converterType, T value) {
+    return new ConversionResult<T>(Status.SUCCESS, converterType, value, null);
+  }
+  
+  /**
+   * Returns a failed result.
+   * 
+   * @param status why the conversion failed. 
+   * @param converterType the converter type of the conversion.
+   * @param cause the exception which caused the failure. May be {@code null}.
+   * @param <T> the type of the converted object.
+   * @return a failed result.
+   * @throws IllegalArgumentException if {@code status} is {@code null} or {@link Status#SUCCESS}.
+   */
+  public static <T> ConversionResult<T> failure(Status status, ConverterType converterType, Throwable cause) {
+    if(status == null || status == Status.SUCCESS)
+      throw new IllegalArgumentException("not a failure: " + status);
+    
+    return new ConversionResult<T>(status, converterType, null, cause);
+  }
+  
+  /**
+   * Checks if the conversion succeeded.
+   * 
+   * @return {@code true} if the conversion succeeded.
+   */
+  public boolean isSuccessful() {
+    return status == Status.SUCCESS;
+  }
+  
+  /**
+   * Returns the converted object, or {@code null} if the conversion failed.
+   * 
+   * @return the converted object, or {@code null} if the conversion failed.
+   */
+  public T getValue() {
+    return value;
+  }
+  
+  /**
+   * Returns the converted object, or the given one if the conversion failed.
+   * 
+   * @param other the object to return if the conversion failed.
+   * @return the converted object, or {@code other} if the conversion failed.
+   */
+  public T getValueOr(T other) {
+    return isSuccessful() ? value : other;
+  }
+  
+  /**
+   * Returns the outcome of the conversion.
+   * 
+   * @return the outcome of the conversion.
+   */
+  public Status getStatus() {
+    return status;
+  }
+  
+  /**
+   * Returns the converter type of the conversion.
+   * 
+   * @return the converter type of the conversion.
+   */
+  public ConverterType getConverterType() {
+    return converterType;
+  }
+  
+  /**
+   * Returns the exception which caused the failure, if any was thrown. Converter searches already known to fail 
+   * throw nothing, so failures of that kind usually have no cause.
+   * 
+   * @return the exception which caused the failure, or {@code null}.
+   */
+  public Throwable getCause() {
+    return cause;
+  }
+  
+  @Override
+  public String toString() {
+    return "ConversionResult[" + status + ", " + converterType + (isSuccessful() ? ": " + value : "") + "]";
+  }
+}
@@ -0,0 +1,91 @@
+package com.googlecode.transmuter.core;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+
+import com.googlecode.transmuter.converter.Converter;
+import com.googlecode.transmuter.converter.ConverterType;
+import com.googlecode.transmuter.converter.exception.InvocationException;
+import com.googlecode.transmuter.core.exception.NoCompatibleConvertersFoundException;
+import com.googlecode.transmuter.core.exception.TooManyConvertersFoundException;
+import com.googlecode.transmuter.type.TypeToken;
+
+/**
+ * An iterator which converts the objects of another iterator on demand. Obtained through 
+ * {@link Transmuter#convertLazily(Iterator, TypeToken)}.
+ * <p>
+ * Each object's runtime class is considered as its input type, and the converter picked for it is remembered by this 
+ * iterator, so that the next objects of the same class skip the search. If the transmuter's registered converters 
+ * change, the remembered converters are forgotten and picked again.
+ * <p>
+ * This class is not thread-safe.
+ * 
+ * @param <To> the output type of the conversions.
+ * @author Humberto S. N. dos Anjos
+ */
+class ConvertingIterator<To> implements Iterator<To> {
+  private final Transmuter transmuter;
+  private final Iterator<?> iterator;
+  private final TypeToken<To> toType;
+  private final Map<Class<?>, Converter> converters;
+  private long version;
+  
+  ConvertingIterator(Transmuter transmuter, Iterator<?> iterator, TypeToken<To> toType) {
+    this.transmuter = transmuter;
+    this.iterator = iterator;
+    this.toType = toType;
+    this.converters = new HashMap<Class<?>, Converter>();
+    this.version = transmuter.getConverterMapVersion();
+  }
+  
+  @Override
+  public boolean hasNext() {
+    return iterator.hasNext();
+  }
+  
+  /**
+   * Converts the next object of the underlying iterator.
+   * 
+   * @return the converted object.
+   * @throws IllegalArgumentException if the next object is {@code null}.
+   * @throws NoCompatibleConvertersFoundException if no converters for the next object were found.
+   * @throws TooManyConvertersFoundException if more than one converter for the next object was found.
+   * @throws InvocationException if there was an error during the converter's invocation.
+   * @see Transmuter#convert(Object, TypeToken)
+   */
+  @SuppressWarnings("unchecked")
+  @Override
+  public To next() 
+  throws NoCompatibleConvertersFoundException, TooManyConvertersFoundException, InvocationException {
+    Object from = iterator.next();
+    if(from == null)
+      throw new IllegalArgumentException("null element");
+    
+    return (To) converterFor(from.getClass()).invoke(from);
+  }
+  
+  /**
+   * Removes the last object returned by the underlying iterator, if it supports removal.
+   */
+  @Override
+  public void remove() {
+    iterator.remove();
+  }
+  
+  private Converter converterFor(Class<?> fromClass) {
+    long current = transmuter.getConverterMapVersion();
+    if(current != version) { // registrations changed; look again
+      converters.clear();
+      version = current;
+    }
+    
+    Converter converter = converters.get(fromClass);
+    if(converter == null) {
+      converter = transmuter.getConverterFor(new ConverterType(TypeToken.get(fromClass), toType));
+      converters.put(fromClass, converter);
+    }
+    
+    return converter;
+  }
+}
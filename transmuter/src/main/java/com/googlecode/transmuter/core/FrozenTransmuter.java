@@ -0,0 +1,166 @@
+package com.googlecode.transmuter.core;
+
+import static com.googlecode.transmuter.util.ObjectUtils.nonNull;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+
+import com.googlecode.transmuter.converter.Converter;
+import com.googlecode.transmuter.converter.ConverterType;
+import com.googlecode.transmuter.core.exception.NoCompatibleConvertersFoundException;
+import com.googlecode.transmuter.core.exception.TooManyConvertersFoundException;
+import com.googlecode.transmuter.core.util.ConverterMap;
+import com.googlecode.transmuter.core.util.DispatchTable;
+import com.googlecode.transmuter.util.Notification;
+
+/**
+ * An immutable {@link Transmuter}, whose registered converters are fixed at construction time. Usually obtained 
+ * from a configured transmuter through {@link Transmuter#freeze()}.
+ * <p>
+ * All registered converters are laid out in a {@link DispatchTable} beforehand, so conversions whose converter type 
+ * was registered exactly are dispatched with a single table lookup, skipping the converter selection entirely. For 
+ * conversions between plain classes, such as {@link #convert(Object, Class)}, the lookup compares classes by identity 
+ * and touches no map or converter type at all. Other 
+ * converter types are searched for once and then {@linkplain #getConverterCache() cached}; since the registered 
+ * converters never change, neither do these results.
+ * <p>
+ * Any attempt to (un)register converters throws an {@link UnsupportedOperationException}.
+ * <p>
+ * This class is thread-safe, and may be shared without any synchronization.
+ * 
+ * @author Humberto S. N. dos Anjos
+ */
+public class FrozenTransmuter extends Transmuter {
+  private final DispatchTable dispatchTable;
+  
+  /**
+   * Constructs a new {@link FrozenTransmuter} with the given converters, which uses a {@link BasicConverterSelector} 
+   * to pick them.
+   * 
+   * @param converters the converters to register, keyed by their converter types.
+   * @throws IllegalArgumentException if {@code converters} is {@code null}.
+   * @throws RuntimeException all exceptions thrown by {@link ConverterMap#putAll(Map)}, if the given converters 
+   * are not valid.
+   */
+  public FrozenTransmuter(Map<? extends ConverterType, ? extends Converter> converters) {
+    this(converters, DEFAULT_SELECTOR);
+  }
+  
+  /**
+   * Constructs a new {@link FrozenTransmuter} with the given converters, which uses the given selector to pick them. 
+   * The selector must be thread-safe.
+   * 
+   * @param converters the converters to register, keyed by their converter types.
+   * @param converterSelector a converter selector.
+   * @throws IllegalArgumentException if {@code converters} or {@code converterSelector} is {@code null}.
+   * @throws RuntimeException all exceptions thrown by {@link ConverterMap#putAll(Map)}, if the given converters 
+   * are not valid.
+   */
+  public FrozenTransmuter(Map<? extends ConverterType, ? extends Converter> converters, 
+      ConverterSelector converterSelector) {
+    super(new ConverterMap(nonNull(converters, "converters")).freeze(), converterSelector);
+    dispatchTable = new DispatchTable(getConverterMap());
+  }
+  
+  // operations
+  /**
+   * Returns this instance, since it is already frozen.
+   * 
+   * @return this instance.
+   */
+  @Override
+  public FrozenTransmuter freeze() {
+    return this;
+  }
+  
+  /**
+   * Unsupported.
+   * 
+   * @throws UnsupportedOperationException always.
+   */
+  @Override
+  public void register(Iterable<? extends Converter> converters) {
+    throw new UnsupportedOperationException("frozen transmuter");
+  }
+  
+  /**
+   * Unsupported.
+   * 
+   * @throws UnsupportedOperationException always.
+   */
+  @Override
+  public void parallelRegister(List<?> sources, ExecutorService executor) {
+    throw new UnsupportedOperationException("frozen transmuter");
+  }
+  
+  /**
+   * Unsupported.
+   * 
+   * @throws UnsupportedOperationException always.
+   */
+  @Override
+  protected Notification tryRegister(Iterable<? extends Converter> converters) {
+    throw new UnsupportedOperationException("frozen transmuter");
+  }
+  
+  /**
+   * Unsupported.
+   * 
+   * @throws UnsupportedOperationException always.
+   */
+  @Override
+  public Converter unregister(ConverterType converterType) {
+    throw new UnsupportedOperationException("frozen transmuter");
+  }
+  
+  // helper methods
+  /**
+   * Checks the dispatch table first, falling back to the usual search only for converter types which were not 
+   * registered exactly.
+   */
+  @Override
+  protected Converter getConverterFor(ConverterType converterType) 
+  throws NoCompatibleConvertersFoundException, TooManyConvertersFoundException {
+    Converter converter = dispatchTable.get(converterType);
+    if(converter != null)
+      return converter;
+    
+    return super.getConverterFor(converterType);
+  }
+  
+  /**
+   * Checks the dispatch table by class first, falling back to the usual path only for pairs of classes which were not 
+   * registered exactly.
+   */
+  @Override
+  protected Converter getConverterFor(Class<?> fromType, Class<?> toType) 
+  throws NoCompatibleConvertersFoundException, TooManyConvertersFoundException {
+    Converter converter = dispatchTable.get(fromType, toType);
+    if(converter != null)
+      return converter;
+    
+    return super.getConverterFor(fromType, toType);
+  }
+  
+  // properties
+  /**
+   * Returns an unmodifiable map holding all the registered converters, keyed by their converter types.
+   * 
+   * @return an unmodifiable map holding all the registered converters, keyed by their converter types.
+   * @see ConverterMap#freeze()
+   */
+  @Override
+  public ConverterMap getConverterMap() {
+    return (ConverterMap) super.getConverterMap();
+  }
+  
+  /**
+   * Returns the table used to dispatch conversions whose converter type was registered exactly.
+   * 
+   * @return the table used to dispatch exactly registered converter types.
+   */
+  public DispatchTable getDispatchTable() {
+    return dispatchTable;
+  }
+}
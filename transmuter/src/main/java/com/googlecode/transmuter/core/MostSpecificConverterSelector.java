@@ -0,0 +1,89 @@
+package com.googlecode.transmuter.core;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+
+import com.googlecode.transmuter.converter.Converter;
+import com.googlecode.transmuter.converter.ConverterType;
+import com.googlecode.transmuter.core.exception.TooManyConvertersFoundException;
+import com.googlecode.transmuter.core.util.ConverterMap;
+
+/**
+ * A {@linkplain ConverterSelector converter selector} which, lacking an exact match, picks the most specific of the 
+ * compatible converters.
+ * <p>
+ * A converter type is more specific than another if it is not equal to, but is 
+ * {@linkplain ConverterType#isAssignableFrom(ConverterType) assignable to} the other. For example, given converters 
+ * registered as {@code Number -> String} and {@code Object -> String}, a conversion from {@code Integer} to 
+ * {@code String} picks the {@code Number} one. A {@link TooManyConvertersFoundException} is thrown only when no single 
+ * compatible converter is more specific than all others, like {@code Serializable -> String} and 
+ * {@code CharSequence -> String} for {@code String}, and none of them is {@linkplain Converter#getCost() cheaper} 
+ * than the others.
+ * <p>
+ * When searching a {@link ConverterMap}, its {@linkplain ConverterMap#getGeneralizations(ConverterType) precomputed 
+ * specificity order} is used. Since transmuters cache the converters picked, each ambiguity is resolved only once 
+ * per converter type.
+ * 
+ * @author Humberto S. N. dos Anjos
+ */
+public class MostSpecificConverterSelector extends BasicConverterSelector {
+  /**
+   * Picks the compatible converter more specific than all others, or, if there is no such converter, the cheapest 
+   * of those which no other is more specific than.
+   * 
+   * @throws TooManyConvertersFoundException if there's no single most specific or cheapest converter. The exception 
+   * holds the converters which no other is more specific than.
+   */
+  @Override
+  protected Converter pickFrom(ConverterType type, List<Entry<ConverterType, Converter>> compatibles, 
+      Map<? extends ConverterType, ? extends Converter> map) throws TooManyConvertersFoundException {
+    ConverterMap converterMap = (map instanceof ConverterMap) ? (ConverterMap) map : null;
+    
+    List<Entry<ConverterType, Converter>> mostSpecific = new ArrayList<Entry<ConverterType, Converter>>();
+    for(Entry<ConverterType, Converter> candidate : compatibles) {
+      boolean beaten = false;
+      
+      for(Entry<ConverterType, Converter> other : compatibles) {
+        if(other != candidate && isMoreGeneral(candidate.getKey(), other.getKey(), converterMap)) {
+          beaten = true;
+          break;
+        }
+      }
+      
+      if(! beaten)
+        mostSpecific.add(candidate);
+    }
+    
+    // in a partial order, a single minimal element is less than all others
+    if(mostSpecific.size() == 1)
+      return mostSpecific.get(0).getValue();
+    
+    // unrelated converters; maybe one is cheaper?
+    Converter cheapest = null;
+    boolean tie = false;
+    for(Entry<ConverterType, Converter> candidate : mostSpecific) {
+      Converter converter = candidate.getValue();
+      
+      if(cheapest == null || converter.getCost() < cheapest.getCost()) {
+        cheapest = converter;
+        tie = false;
+      } else if(converter.getCost() == cheapest.getCost()) {
+        tie = true;
+      }
+    }
+    
+    if(! tie)
+      return cheapest;
+    
+    throw new TooManyConvertersFoundException(type, values(mostSpecific));
+  }
+  
+  private static boolean isMoreGeneral(ConverterType general, ConverterType specific, ConverterMap converterMap) {
+    if(converterMap != null)
+      return converterMap.getGeneralizations(specific).contains(general);
+    
+    return ! general.equals(specific) && general.isAssignableFrom(specific);
+  }
+}
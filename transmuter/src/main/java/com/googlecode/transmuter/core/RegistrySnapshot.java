@@ -0,0 +1,593 @@
+package com.googlecode.transmuter.core;
+
+import static com.googlecode.transmuter.util.ObjectUtils.nonNull;
+import static com.googlecode.transmuter.util.TypeDescriptors.descriptorOf;
+import static com.googlecode.transmuter.util.TypeDescriptors.typeOf;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.RandomAccessFile;
+import java.lang.reflect.Field;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.Type;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.security.CodeSource;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.jar.JarEntry;
+import java.util.jar.JarFile;
+import java.util.zip.CRC32;
+
+import com.googlecode.transmuter.converter.Converter;
+import com.googlecode.transmuter.converter.ConverterType;
+import com.googlecode.transmuter.core.exception.StaleSnapshotException;
+import com.googlecode.transmuter.util.TypeDescriptors;
+
+/**
+ * Saves the converters registered in a {@link Transmuter} to a compact binary file, and loads them back later without
+ * validating them all over again.
+ * <p>
+ * A snapshot holds, for each converter, its converter type as a pair of {@linkplain TypeDescriptors type
+ * descriptors}, its method's declaring class, name and parameter types, and how it is bound: either statically, or to
+ * an instance. Converters bound to the same instance are bound to the same instance when loaded, which is made anew
+ * through its class's public no-arg constructor. Only the instance's class is saved, not its state, so only stateless
+ * instances round-trip: converters whose instances can't be made this way, or whose classes have instance fields
+ * other than transient ones, can't be saved.
+ * <p>
+ * A snapshot also holds where the class file of every class which took part in the validation of its converters was
+ * found, and its checksum. Loading a snapshot compares these checksums against the class files in the same places; if
+ * any of them changed, or if a class is now found somewhere else, a {@link StaleSnapshotException} is thrown, and the
+ * converters should be scanned again:
+ *
+ * <pre>
+ * try {
+ *   transmuter.register(RegistrySnapshot.load(file));
+ * } catch(StaleSnapshotException e) {
+ *   transmuter.register(new Converts.IndexProvider());
+ *   RegistrySnapshot.save(transmuter, file);
+ * }
+ * </pre>
+ *
+ * Snapshots are read whole into memory, unless they're larger than {@value #MAPPING_THRESHOLD} bytes; those are
+ * mapped instead, and a mapping can't be released before it's garbage collected. On some platforms (Windows, for one)
+ * a mapped file can't be replaced or deleted while it's mapped, so {@link #save(Transmuter, File)} writes to a
+ * temporary file next to the given one and then renames it into place, and fails if the target can't be replaced.
+ * <p>
+ * This class is not meant to be inherited from or instantiated.
+ *
+ * @author Humberto S. N. dos Anjos
+ */
+public final class RegistrySnapshot {
+  private static final int MAGIC = 0x544D5253; // "TMRS"
+  private static final short VERSION = 1;
+
+  private static final byte STATIC = 0;
+  private static final byte INSTANCE = 1;
+
+  private static final long NO_CLASS_FILE = -1L;
+  private static final int MAPPING_THRESHOLD = 1 << 20;
+  private static final String UTF_8 = "UTF-8";
+
+  // ensuring non-instantiability and non-inheritability
+  private RegistrySnapshot() { /* empty block */ }
+
+  /**
+   * Saves the converters registered in the given transmuter to the given file, overwriting it. The snapshot is
+   * written to a temporary file in the same directory first, and only replaces the given file once complete.
+   *
+   * @param transmuter a transmuter.
+   * @param file the file to write to.
+   * @throws IOException if the file could not be written or replaced.
+   * @throws IllegalArgumentException if one of the arguments is null, or if some registered converter can't be
+   * saved: it isn't a plain {@link Converter}, its instance can't be made anew or has state which would be lost (a
+   * non-static, non-transient field, declared in its class or a superclass), its class files can't be found, or its
+   * types have no descriptors.
+   */
+  public static void save(Transmuter transmuter, File file) throws IOException {
+    nonNull(transmuter, "transmuter");
+    nonNull(file, "file");
+
+    Encoder encoder = new Encoder();
+    try {
+      for(Converter converter : transmuter.getConverterMap().values())
+        encoder.add(converter);
+    } finally {
+      encoder.classFiles.close();
+    }
+
+    File target = file.getAbsoluteFile();
+    File temp = File.createTempFile(target.getName(), ".tmp", target.getParentFile());
+    try {
+      OutputStream out = new BufferedOutputStream(new FileOutputStream(temp));
+      try {
+        encoder.writeTo(new DataOutputStream(out));
+      } finally {
+        out.close();
+      }
+
+      replace(target, temp);
+    } finally {
+      temp.delete(); // does nothing if the rename succeeded
+    }
+  }
+
+  /**
+   * Loads the converters saved in the given file, using the current thread's context class loader (or, if there
+   * isn't one, the class loader which loaded this class) to find their classes.
+   *
+   * @param file a file written by {@link #save(Transmuter, File)}.
+   * @return the converters saved in the given file, ready to be registered.
+   * @throws StaleSnapshotException if the classes of the saved converters changed since they were saved.
+   * @throws IOException if the file could not be read, or is not a snapshot.
+   * @throws IllegalArgumentException if {@code file} is null.
+   */
+  public static List<Converter> load(File file) throws IOException {
+    ClassLoader loader = Thread.currentThread().getContextClassLoader();
+    return load(file, (loader != null) ? loader : RegistrySnapshot.class.getClassLoader());
+  }
+
+  /**
+   * Loads the converters saved in the given file, using the given class loader to find their classes. The converter
+   * types saved are trusted, and not extracted again from their methods.
+   *
+   * @param file a file written by {@link #save(Transmuter, File)}.
+   * @param loader the class loader used to find the classes of the saved converters.
+   * @return the converters saved in the given file, ready to be registered.
+   * @throws StaleSnapshotException if the classes of the saved converters changed since they were saved.
+   * @throws IOException if the file could not be read, or is not a snapshot.
+   * @throws IllegalArgumentException if one of the arguments is null.
+   */
+  public static List<Converter> load(File file, ClassLoader loader) throws IOException {
+    nonNull(file, "file");
+    nonNull(loader, "loader");
+
+    ByteBuffer buffer = read(file);
+    try {
+      if(buffer.getInt() != MAGIC || buffer.getShort() != VERSION)
+        throw new IOException("not a registry snapshot: " + file);
+
+      return decode(buffer, loader);
+    } catch(BufferUnderflowException e) {
+      throw new IOException("truncated registry snapshot: " + file, e);
+    } catch(IndexOutOfBoundsException e) {
+      throw new IOException("corrupt registry snapshot: " + file, e);
+    } catch(IllegalArgumentException e) {
+      throw new IOException("corrupt registry snapshot: " + file, e);
+    }
+  }
+
+  // helper methods
+  /* (non-Javadoc)
+   * Renames the given temporary file to the given target, replacing it. There's no atomic replace in Java 6, so if
+   * the target can't simply be renamed over, it's deleted first.
+   */
+  private static void replace(File target, File temp) throws IOException {
+    if(temp.renameTo(target))
+      return;
+
+    if(!target.delete() && target.exists() || !temp.renameTo(target))
+      throw new IOException("could not replace " + target + " with " + temp);
+  }
+
+  /* (non-Javadoc)
+   * Reads the given file into memory: into the heap if it's small, or else by mapping it, read-only.
+   */
+  private static ByteBuffer read(File file) throws IOException {
+    RandomAccessFile raf = new RandomAccessFile(file, "r");
+    try {
+      long size = raf.length();
+      if(size > MAPPING_THRESHOLD) {
+        FileChannel channel = raf.getChannel();
+        return channel.map(FileChannel.MapMode.READ_ONLY, 0, size); // the mapping outlives the channel
+      }
+
+      byte[] bytes = new byte[(int) size];
+      raf.readFully(bytes);
+      return ByteBuffer.wrap(bytes);
+    } finally {
+      raf.close();
+    }
+  }
+
+  /* (non-Javadoc)
+   * Reads the tables and converters of a snapshot, after its header.
+   */
+  private static List<Converter> decode(ByteBuffer buffer, ClassLoader loader) throws IOException {
+    String[] strings = new String[sizeFrom(buffer)];
+    for(int i = 0; i < strings.length; i++) {
+      byte[] bytes = new byte[sizeFrom(buffer)];
+      buffer.get(bytes);
+      strings[i] = new String(bytes, UTF_8);
+    }
+
+    // every class file must be as it was; only then are the classes themselves loaded
+    String[] classNames = new String[sizeFrom(buffer)];
+    String[] locations = new String[classNames.length];
+    ClassFiles classFiles = new ClassFiles();
+    try {
+      for(int i = 0; i < classNames.length; i++) {
+        classNames[i] = strings[buffer.getInt()];
+        locations[i] = strings[buffer.getInt()];
+
+        if(buffer.getLong() != checksumOf(classFiles, classNames[i], locations[i], loader))
+          throw new StaleSnapshotException("class file changed: " + classNames[i]);
+      }
+    } finally {
+      classFiles.close();
+    }
+
+    Class<?>[] classes = new Class<?>[classNames.length];
+    for(int i = 0; i < classes.length; i++) {
+      classes[i] = (Class<?>) typeFrom("L" + classNames[i] + ";", loader);
+
+      // the loader might now find the class somewhere else
+      if(! locations[i].equals(locationOf(classes[i])))
+        throw new StaleSnapshotException("class file moved: " + classNames[i]);
+    }
+
+    Object[] instances = new Object[sizeFrom(buffer)];
+    for(int i = 0; i < instances.length; i++)
+      instances[i] = instantiate(classes[buffer.getInt()]);
+
+    int count = sizeFrom(buffer);
+    List<Converter> converters = new ArrayList<Converter>(count);
+    for(int c = 0; c < count; c++) {
+      Class<?> declaringClass = classes[buffer.getInt()];
+      String name = strings[buffer.getInt()];
+
+      Class<?>[] parameterTypes = new Class<?>[sizeFrom(buffer)];
+      for(int i = 0; i < parameterTypes.length; i++)
+        parameterTypes[i] = (Class<?>) typeFrom(strings[buffer.getInt()], loader);
+
+      Object instance = (buffer.get() == INSTANCE) ? instances[buffer.getInt()] : null;
+      ConverterType type = new ConverterType(
+          typeFrom(strings[buffer.getInt()], loader), typeFrom(strings[buffer.getInt()], loader));
+
+      converters.add(bind(instance, methodOf(declaringClass, name, parameterTypes), type));
+    }
+
+    return converters;
+  }
+
+  /* (non-Javadoc)
+   * Reads the size of something which comes next. Every element takes at least a byte, so a corrupt size is caught
+   * before anything is allocated for it.
+   */
+  private static int sizeFrom(ByteBuffer buffer) {
+    int size = buffer.getInt();
+    if(size < 0)
+      throw new IllegalArgumentException("negative size: " + size);
+
+    if(size > buffer.remaining())
+      throw new BufferUnderflowException();
+
+    return size;
+  }
+
+  /* (non-Javadoc)
+   * Reads the type with the given descriptor. A missing class means the snapshot is stale.
+   */
+  private static Type typeFrom(String descriptor, ClassLoader loader) throws StaleSnapshotException {
+    try {
+      return typeOf(descriptor, loader);
+    } catch(ClassNotFoundException e) {
+      throw new StaleSnapshotException("class not found: " + descriptor, e);
+    } catch(LinkageError e) {
+      throw new StaleSnapshotException("class not loadable: " + descriptor, e);
+    }
+  }
+
+  /* (non-Javadoc)
+   * Finds the given public method. A missing method means the snapshot is stale.
+   */
+  private static Method methodOf(Class<?> cls, String name, Class<?>[] parameterTypes)
+  throws StaleSnapshotException {
+    try {
+      return cls.getMethod(name, parameterTypes);
+    } catch(NoSuchMethodException e) {
+      throw new StaleSnapshotException("method not found: " + cls.getName() + "." + name, e);
+    }
+  }
+
+  /* (non-Javadoc)
+   * Makes a new instance of the given class through its public no-arg constructor.
+   */
+  private static Object instantiate(Class<?> cls) throws StaleSnapshotException {
+    try {
+      return cls.getConstructor().newInstance();
+    } catch(InvocationTargetException e) {
+      throw new StaleSnapshotException("could not instantiate " + cls.getName(), e.getCause());
+    } catch(Exception e) {
+      throw new StaleSnapshotException("could not instantiate " + cls.getName(), e);
+    } catch(LinkageError e) {
+      throw new StaleSnapshotException("could not instantiate " + cls.getName(), e);
+    }
+  }
+
+  /* (non-Javadoc)
+   * Binds the given converter with its saved type, skipping its extraction.
+   */
+  private static Converter bind(Object instance, Method method, ConverterType type) throws StaleSnapshotException {
+    try {
+      return new Converter(instance, method, type);
+    } catch(RuntimeException e) {
+      throw new StaleSnapshotException("could not bind " + method, e);
+    }
+  }
+
+  /* (non-Javadoc)
+   * Returns the checksum of the given class file, treating an unreadable one as changed.
+   */
+  private static long checksumOf(ClassFiles classFiles, String className, String location, ClassLoader loader)
+  throws StaleSnapshotException {
+    try {
+      return classFiles.checksumOf(className, location, loader);
+    } catch(IOException e) {
+      throw new StaleSnapshotException("class file unreadable: " + className, e);
+    }
+  }
+
+  /* (non-Javadoc)
+   * Returns the location of the given class's class file, if it's a local directory or jar, or an empty string
+   * otherwise.
+   */
+  private static String locationOf(Class<?> cls) {
+    try {
+      CodeSource source = cls.getProtectionDomain().getCodeSource();
+      URL location = (source != null) ? source.getLocation() : null;
+
+      if(location != null && "file".equals(location.getProtocol()) && new File(location.toURI()).exists())
+        return location.toString();
+    } catch(SecurityException e) {
+      // no access to the location; the class loader will have to do
+    } catch(URISyntaxException e) {
+      // not really a file; the class loader will have to do
+    }
+
+    return "";
+  }
+
+  /* (non-Javadoc)
+   * Returns the class loader which sees the given class's class file.
+   */
+  private static ClassLoader loaderOf(Class<?> cls) {
+    return (cls.getClassLoader() != null) ? cls.getClassLoader() : ClassLoader.getSystemClassLoader();
+  }
+
+  /* (non-Javadoc)
+   * Checks if new instances of the given class can be made through a public no-arg constructor.
+   */
+  private static boolean isInstantiable(Class<?> cls) {
+    if(! Modifier.isPublic(cls.getModifiers()) || Modifier.isAbstract(cls.getModifiers()))
+      return false;
+
+    if(cls.isMemberClass() && ! Modifier.isStatic(cls.getModifiers()))
+      return false;
+
+    try {
+      cls.getConstructor();
+      return true;
+    } catch(NoSuchMethodException e) {
+      return false;
+    }
+  }
+
+  /* (non-Javadoc)
+   * Returns the first field holding state of the given class's instances, if any. Transient fields are taken to be
+   * rebuilt by the constructor, or not to matter.
+   */
+  private static Field stateOf(Class<?> cls) {
+    for(Class<?> c = cls; c != null; c = c.getSuperclass())
+      for(Field field : c.getDeclaredFields())
+        if(! Modifier.isStatic(field.getModifiers()) && ! Modifier.isTransient(field.getModifiers()))
+          return field;
+
+    return null;
+  }
+
+  /* (non-Javadoc)
+   * Collects the strings, classes and instances used by the converters to be saved, writing the converters
+   * themselves to a separate buffer, since the tables come first in the file.
+   */
+  private static class Encoder {
+    private final Map<String, Integer> strings = new LinkedHashMap<String, Integer>();
+    private final Map<Class<?>, Integer> classes = new LinkedHashMap<Class<?>, Integer>();
+    private final List<String> locations = new ArrayList<String>();
+    private final List<Long> checksums = new ArrayList<Long>();
+    private final Map<Object, Integer> instances = new IdentityHashMap<Object, Integer>();
+    private final List<Class<?>> instanceClasses = new ArrayList<Class<?>>();
+
+    final ClassFiles classFiles = new ClassFiles();
+
+    private final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    private final DataOutputStream body = new DataOutputStream(bytes);
+    private int count;
+
+    void add(Converter converter) throws IOException {
+      if(converter.getClass() != Converter.class)
+        throw new IllegalArgumentException("only plain converters can be saved: " + converter);
+
+      Method method = converter.getMethod();
+      Object instance = converter.getInstance();
+
+      // the classes from the instance's up to the method's took part in extracting the converter type
+      for(Class<?> c = converter.getInstanceClass(); c != null; c = c.getSuperclass()) {
+        classIndex(c);
+
+        if(c == method.getDeclaringClass())
+          break;
+      }
+
+      body.writeInt(classIndex(method.getDeclaringClass()));
+      body.writeInt(stringIndex(method.getName()));
+
+      Class<?>[] parameterTypes = method.getParameterTypes();
+      body.writeInt(parameterTypes.length);
+      for(Class<?> parameterType : parameterTypes)
+        body.writeInt(stringIndex(descriptorOf(parameterType)));
+
+      if(instance != null) {
+        body.writeByte(INSTANCE);
+        body.writeInt(instanceIndex(instance));
+      } else {
+        body.writeByte(STATIC);
+      }
+
+      body.writeInt(stringIndex(descriptorOf(converter.getType().getFromType().getType())));
+      body.writeInt(stringIndex(descriptorOf(converter.getType().getToType().getType())));
+      count++;
+    }
+
+    void writeTo(DataOutputStream out) throws IOException {
+      out.writeInt(MAGIC);
+      out.writeShort(VERSION);
+
+      out.writeInt(strings.size());
+      for(String string : strings.keySet()) {
+        byte[] encoded = string.getBytes(UTF_8);
+        out.writeInt(encoded.length);
+        out.write(encoded);
+      }
+
+      out.writeInt(classes.size());
+      int i = 0;
+      for(Class<?> cls : classes.keySet()) {
+        out.writeInt(strings.get(cls.getName()));
+        out.writeInt(strings.get(locations.get(i)));
+        out.writeLong(checksums.get(i++));
+      }
+
+      out.writeInt(instanceClasses.size());
+      for(Class<?> cls : instanceClasses)
+        out.writeInt(classes.get(cls));
+
+      out.writeInt(count);
+      bytes.writeTo(out);
+      out.flush();
+    }
+
+    private int stringIndex(String string) {
+      Integer index = strings.get(string);
+      if(index == null)
+        strings.put(string, index = strings.size());
+
+      return index;
+    }
+
+    private int classIndex(Class<?> cls) throws IOException {
+      Integer index = classes.get(cls);
+      if(index != null)
+        return index;
+
+      String location = locationOf(cls);
+      long checksum = classFiles.checksumOf(cls.getName(), location, loaderOf(cls));
+      if(checksum == NO_CLASS_FILE)
+        throw new IllegalArgumentException("no class file for " + cls.getName());
+
+      stringIndex(cls.getName());
+      stringIndex(location);
+      locations.add(location);
+      checksums.add(checksum);
+      classes.put(cls, index = classes.size());
+      return index;
+    }
+
+    private int instanceIndex(Object instance) throws IOException {
+      Integer index = instances.get(instance);
+      if(index != null)
+        return index;
+
+      if(! isInstantiable(instance.getClass()))
+        throw new IllegalArgumentException(
+            "no public no-arg constructor to make the instance anew: " + instance.getClass().getName());
+
+      Field state = stateOf(instance.getClass());
+      if(state != null)
+        throw new IllegalArgumentException("the instance's state would be lost: " + state);
+
+      classIndex(instance.getClass());
+      instanceClasses.add(instance.getClass());
+      instances.put(instance, index = instances.size());
+      return index;
+    }
+  }
+
+  /* (non-Javadoc)
+   * Computes the CRC-32 checksums of class files, which are more than enough to notice a recompiled class, and much
+   * cheaper than digests. Class files are read straight from their directories, or their checksums taken from their
+   * jars' entries, without going through a class loader's (much slower) resource search; the jars opened are kept
+   * until closed.
+   */
+  private static class ClassFiles {
+    private final Map<File, JarFile> jars = new HashMap<File, JarFile>();
+
+    long checksumOf(String className, String location, ClassLoader loader) throws IOException {
+      String resource = className.replace('.', '/') + ".class";
+      if(location.length() == 0)
+        return checksumOf(loader.getResourceAsStream(resource));
+
+      File file = new File(URI.create(location));
+      if(file.isDirectory()) {
+        File classFile = new File(file, resource);
+        return classFile.isFile() ? checksumOf(new FileInputStream(classFile)) : NO_CLASS_FILE;
+      }
+
+      if(! file.isFile())
+        return NO_CLASS_FILE;
+
+      JarFile jar = jars.get(file);
+      if(jar == null)
+        jars.put(file, jar = new JarFile(file));
+
+      JarEntry entry = jar.getJarEntry(resource);
+      if(entry == null)
+        return NO_CLASS_FILE;
+
+      return (entry.getCrc() != -1) ? entry.getCrc() : checksumOf(jar.getInputStream(entry));
+    }
+
+    void close() {
+      for(JarFile jar : jars.values()) {
+        try {
+          jar.close();
+        } catch(IOException e) {
+          // only read from; nothing to lose
+        }
+      }
+    }
+
+    private static long checksumOf(InputStream in) throws IOException {
+      if(in == null)
+        return NO_CLASS_FILE;
+
+      try {
+        CRC32 crc = new CRC32();
+        byte[] buffer = new byte[8192];
+        for(int read; (read = in.read(buffer)) != -1; )
+          crc.update(buffer, 0, read);
+
+        return crc.getValue();
+      } finally {
+        in.close();
+      }
+    }
+  }
+}
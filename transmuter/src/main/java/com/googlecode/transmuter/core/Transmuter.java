@@ -3,16 +3,29 @@ package com.googlecode.transmuter.core;
 import static com.googlecode.transmuter.util.ObjectUtils.classOf;
 import static com.googlecode.transmuter.util.ObjectUtils.nonNull;
 
+import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
 
 import com.googlecode.transmuter.converter.Converter;
 import com.googlecode.transmuter.converter.ConverterType;
+import com.googlecode.transmuter.converter.Converts;
+import com.googlecode.transmuter.converter.PrimitiveConverter;
 import com.googlecode.transmuter.converter.exception.InvocationException;
 import com.googlecode.transmuter.core.exception.ConverterRegistrationException;
 import com.googlecode.transmuter.core.exception.NoCompatibleConvertersFoundException;
 import com.googlecode.transmuter.core.exception.TooManyConvertersFoundException;
+import com.googlecode.transmuter.core.util.ConverterCache;
 import com.googlecode.transmuter.core.util.ConverterMap;
 import com.googlecode.transmuter.core.util.DependentConverterMap;
 import com.googlecode.transmuter.type.TypeToken;
@@ -26,6 +39,18 @@ import com.googlecode.transmuter.util.exception.NotificationNotFoundException;
  * <p>
  * There cannot be more than one registered converter with the exact same {@linkplain ConverterType type}; the 
  * existing one must be explicitly unregistered before the new one is included.
+ * <p>
+ * The converters picked for each converter type are {@linkplain #getConverterCache() cached}, so that repeated 
+ * conversions with the same types don't need to search again. Any change in the registered converters invalidates 
+ * the cache. Conversions known to have no compatible converters (or too many of them) are also cached, and fail 
+ * without searching.
+ * <p>
+ * Code which expects conversions to fail often may {@linkplain #tryConvert(Object, Class) try them} instead, getting 
+ * a {@link ConversionResult} rather than an exception, or check beforehand if they {@linkplain #canConvert(Type, Type) 
+ * can be done}.
+ * <p>
+ * This class is not thread-safe; see {@link ConcurrentTransmuter} for that. A transmuter which is done registering 
+ * converters may also be {@linkplain #freeze() frozen} into an immutable, thread-safe one.
  * 
  * @author Humberto S. N. dos Anjos
  */
@@ -35,13 +60,46 @@ public class Transmuter {
    */
   protected static final ConverterSelector DEFAULT_SELECTOR = new BasicConverterSelector();
   
-  private Map<ConverterType, Converter> converterMap;
+  /**
+   * How many objects a {@linkplain #parallelConvertAll(List, TypeToken, ExecutorService) parallel conversion} takes 
+   * before splitting them into several tasks, unless told otherwise.
+   */
+  public static final int DEFAULT_PARALLEL_THRESHOLD = 1024;
+  
+  private final Map<ConverterType, Converter> converterMap;
+  private final ConverterCache converterCache;
+  private final ConverterSelector converterSelector;
   
   /**
-   * Constructs a new {@link Transmuter}.
+   * Constructs a new {@link Transmuter}, which uses a {@link BasicConverterSelector} to pick its converters.
    */
   public Transmuter() {
-    converterMap = new ConverterMap();
+    this(DEFAULT_SELECTOR);
+  }
+  
+  /**
+   * Constructs a new {@link Transmuter}, which uses the given selector to pick its converters.
+   * 
+   * @param converterSelector a converter selector.
+   * @throws IllegalArgumentException if {@code converterSelector} is {@code null}.
+   */
+  public Transmuter(ConverterSelector converterSelector) {
+    this(new ConverterMap(), converterSelector);
+  }
+  
+  /**
+   * Constructs a new {@link Transmuter}, which keeps its converters in the given map and uses the given selector to 
+   * pick them. Meant for subclasses which need a different kind of map; those whose map is not a 
+   * {@link ConverterMap} must also override {@link #getConverterMapVersion()}.
+   * 
+   * @param converterMap the map holding the registered converters.
+   * @param converterSelector a converter selector.
+   * @throws IllegalArgumentException if {@code converterMap} or {@code converterSelector} is {@code null}.
+   */
+  protected Transmuter(Map<ConverterType, Converter> converterMap, ConverterSelector converterSelector) {
+    this.converterMap = nonNull(converterMap, "converterMap");
+    this.converterSelector = nonNull(converterSelector, "converterSelector");
+    converterCache = new ConverterCache();
   }
   
   // operations
@@ -61,6 +119,10 @@ public class Transmuter {
    * <p>
    * For parameterized input types, 
    * {@linkplain #convert(Object, TypeToken, TypeToken) the appropriate input type should be specified}.
+   * <p>
+   * Since both types here are plain classes, the converter picked for them is also 
+   * {@linkplain ConverterCache#get(Class, Class, long) cached by class}, so repeated conversions between the same 
+   * classes neither search nor allocate anything on their own. 
    * 
    * @param from the object to convert.
    * @param toType the type of the converted object.
@@ -73,8 +135,114 @@ public class Transmuter {
    * @throws InvocationException if there was an error during the converter's invocation.
    * @see #convert(Object, TypeToken, TypeToken)
    */
+  @SuppressWarnings("unchecked")
   public <From, To> To convert(From from, Class<To> toType) {
-    return convert(from, TypeToken.get(toType));
+    if(from == null || toType == null) // let the usual path complain
+      return convert(from, TypeToken.get(toType));
+    
+    return (To) getConverterFor(from.getClass(), toType).invoke(from);
+  }
+  
+  /**
+   * Converts the given {@code int} to a {@code long}. If the converter picked is a 
+   * {@linkplain Converter#isPrimitive() primitive converter}, it is called directly, and nothing is boxed or 
+   * allocated; otherwise, it is invoked as usual, with boxing. Either way, what it throws comes wrapped in an 
+   * {@link InvocationException}, just like with {@link Converter#invoke(Object...)}.
+   * <p>
+   * The converter picked is {@linkplain ConverterCache#get(Class, Class, long) cached by class}, as in 
+   * {@link #convert(Object, Class)}.
+   * 
+   * @param from the number to convert.
+   * @return the converted number.
+   * @throws NoCompatibleConvertersFoundException if no converters from {@code int} to {@code long} were found.
+   * @throws TooManyConvertersFoundException if more than one converter from {@code int} to {@code long} was found.
+   * @throws InvocationException if there was an error during the converter's invocation, or if it returned 
+   * {@code null}.
+   * @see PrimitiveConverter.IntToLong
+   */
+  public long convertToLong(int from) 
+  throws NoCompatibleConvertersFoundException, TooManyConvertersFoundException, InvocationException {
+    return convertPrimitive(int.class, long.class, from);
+  }
+  
+  /**
+   * Converts the given {@code double} to a {@code long}. Works like {@link #convertToLong(int)}.
+   * 
+   * @param from the number to convert.
+   * @return the converted number.
+   * @throws NoCompatibleConvertersFoundException if no converters from {@code double} to {@code long} were found.
+   * @throws TooManyConvertersFoundException if more than one converter from {@code double} to {@code long} was found.
+   * @throws InvocationException if there was an error during the converter's invocation, or if it returned 
+   * {@code null}.
+   * @see PrimitiveConverter.DoubleToLong
+   */
+  public long convertToLong(double from) 
+  throws NoCompatibleConvertersFoundException, TooManyConvertersFoundException, InvocationException {
+    return convertPrimitive(double.class, long.class, Double.doubleToRawLongBits(from));
+  }
+  
+  /**
+   * Converts the given {@code long} to an {@code int}. Works like {@link #convertToLong(int)}.
+   * 
+   * @param from the number to convert.
+   * @return the converted number.
+   * @throws NoCompatibleConvertersFoundException if no converters from {@code long} to {@code int} were found.
+   * @throws TooManyConvertersFoundException if more than one converter from {@code long} to {@code int} was found.
+   * @throws InvocationException if there was an error during the converter's invocation, or if it returned 
+   * {@code null}.
+   * @see PrimitiveConverter.LongToInt
+   */
+  public int convertToInt(long from) 
+  throws NoCompatibleConvertersFoundException, TooManyConvertersFoundException, InvocationException {
+    return (int) convertPrimitive(long.class, int.class, from);
+  }
+  
+  /**
+   * Converts the given {@code double} to an {@code int}. Works like {@link #convertToLong(int)}.
+   * 
+   * @param from the number to convert.
+   * @return the converted number.
+   * @throws NoCompatibleConvertersFoundException if no converters from {@code double} to {@code int} were found.
+   * @throws TooManyConvertersFoundException if more than one converter from {@code double} to {@code int} was found.
+   * @throws InvocationException if there was an error during the converter's invocation, or if it returned 
+   * {@code null}.
+   * @see PrimitiveConverter.DoubleToInt
+   */
+  public int convertToInt(double from) 
+  throws NoCompatibleConvertersFoundException, TooManyConvertersFoundException, InvocationException {
+    return (int) convertPrimitive(double.class, int.class, Double.doubleToRawLongBits(from));
+  }
+  
+  /**
+   * Converts the given {@code int} to a {@code double}. Works like {@link #convertToLong(int)}.
+   * 
+   * @param from the number to convert.
+   * @return the converted number.
+   * @throws NoCompatibleConvertersFoundException if no converters from {@code int} to {@code double} were found.
+   * @throws TooManyConvertersFoundException if more than one converter from {@code int} to {@code double} was found.
+   * @throws InvocationException if there was an error during the converter's invocation, or if it returned 
+   * {@code null}.
+   * @see PrimitiveConverter.IntToDouble
+   */
+  public double convertToDouble(int from) 
+  throws NoCompatibleConvertersFoundException, TooManyConvertersFoundException, InvocationException {
+    return Double.longBitsToDouble(convertPrimitive(int.class, double.class, from));
+  }
+  
+  /**
+   * Converts the given {@code long} to a {@code double}. Works like {@link #convertToLong(int)}.
+   * 
+   * @param from the number to convert.
+   * @return the converted number.
+   * @throws NoCompatibleConvertersFoundException if no converters from {@code long} to {@code double} were found.
+   * @throws TooManyConvertersFoundException if more than one converter from {@code long} to {@code double} was found.
+   * @throws InvocationException if there was an error during the converter's invocation, or if it returned 
+   * {@code null}.
+   * @see PrimitiveConverter.LongToDouble
+   */
+  public double convertToDouble(long from) 
+  throws NoCompatibleConvertersFoundException, TooManyConvertersFoundException, InvocationException {
+    return Double.longBitsToDouble(convertPrimitive(long.class, double.class, from));
   }
   
   /**
@@ -174,6 +342,572 @@ public class Transmuter {
     return getConverterFor(new ConverterType(fromType, toType)).invoke(from);
   }
   
+  /**
+   * Attempts a conversion, taking {@code from} and generating a new object of type {@code toType}. Works like 
+   * {@link #convert(Object, Class)}, but reports failures through the returned result instead of throwing 
+   * exceptions, and searches that already failed once are not repeated.
+   * 
+   * @param from the object to convert.
+   * @param toType the type of the converted object.
+   * @param <From> the input type of the conversion.
+   * @param <To> the output type of the conversion.
+   * @return the result of the conversion.
+   * @throws IllegalArgumentException if {@code from} or {@code toType} is null (or {@code void} for {@code toType}). 
+   * @see #convert(Object, Class)
+   */
+  public <From, To> ConversionResult<To> tryConvert(From from, Class<To> toType) {
+    if(from == null || toType == null) // let the usual path complain
+      return tryConvert(from, TypeToken.get(toType));
+    
+    final Class<?> fromType = from.getClass();
+    final long version = getConverterMapVersion();
+    final ConverterType converterType = new ConverterType(fromType, toType);
+    
+    Converter converter = converterCache.get(fromType, toType, version);
+    if(converter == null) {
+      ConversionResult<Converter> search = tryGetConverterFor(converterType);
+      if(! search.isSuccessful())
+        return failed(search);
+      
+      converter = search.getValue();
+      converterCache.put(fromType, toType, converter, version);
+    }
+    
+    return tryInvoke(converter, converterType, from);
+  }
+  
+  /**
+   * Attempts a conversion, taking {@code from} and generating a new object of type {@code toType}. Works like 
+   * {@link #convert(Object, TypeToken)}, but reports failures through the returned result instead of throwing 
+   * exceptions, and searches that already failed once are not repeated.
+   * 
+   * @param from the object to convert.
+   * @param toType the type of the converted object.
+   * @param <From> the input type of the conversion.
+   * @param <To> the output type of the conversion.
+   * @return the result of the conversion.
+   * @throws IllegalArgumentException if {@code from} or {@code toType} is null (or {@code void} for {@code toType}). 
+   * @see #convert(Object, TypeToken)
+   */
+  @SuppressWarnings("unchecked")
+  public <From, To> ConversionResult<To> tryConvert(From from, TypeToken<To> toType) {
+    return tryConvert(from, TypeToken.get((Class<From>) classOf(from)), toType);
+  }
+  
+  /**
+   * Attempts a conversion, taking {@code from} (which is considered to be of type {@code fromType} for the purposes
+   * of this operation) and generating a new object of type {@code toType}. Works like 
+   * {@link #convert(Object, TypeToken, TypeToken)}, but reports failures through the returned result instead of 
+   * throwing exceptions, and searches that already failed once are not repeated.
+   * 
+   * @param from the object to convert.
+   * @param fromType the type of the object to convert.
+   * @param toType the type of the converted object.
+   * @param <From> the input type of the conversion.
+   * @param <To> the output type of the conversion.
+   * @param <SubFrom> the actual type of the object to convert. Used only to ensure that {@code from} is a subtype of 
+   * {@code fromType}.
+   * @return the result of the conversion.
+   * @throws IllegalArgumentException if {@code fromType} or {@code toType} is null or void. 
+   * @see #convert(Object, TypeToken, TypeToken)
+   */
+  public <From, To, SubFrom extends From> ConversionResult<To> tryConvert(SubFrom from, TypeToken<From> fromType, 
+      TypeToken<To> toType) {
+    final ConverterType converterType = new ConverterType(fromType, toType);
+    
+    ConversionResult<Converter> search = tryGetConverterFor(converterType);
+    if(! search.isSuccessful())
+      return failed(search);
+    
+    return tryInvoke(search.getValue(), converterType, from);
+  }
+  
+  /**
+   * Converts all the given objects to {@code toType}, in order. Each object's runtime class is considered as its 
+   * input type, as in {@link #convert(Object, TypeToken)}, but the converter is picked only once for each distinct 
+   * runtime class.
+   * <p>
+   * Failed conversions don't abort the batch, and are reported in the returned result, along with the converted 
+   * objects. {@code null} objects fail with {@link ConversionResult.Status#INVALID_INPUT}.
+   * 
+   * @param from the objects to convert.
+   * @param toType the type of the converted objects.
+   * @param <To> the output type of the conversions.
+   * @return the result of the conversions.
+   * @throws IllegalArgumentException if {@code from} or {@code toType} is null (or {@code void} for {@code toType}). 
+   * @see BatchResult
+   */
+  public <To> BatchResult<To> convertAll(Iterable<?> from, TypeToken<To> toType) {
+    nonNull(from, "from");
+    
+    return convertAll(from.iterator(), (from instanceof Collection<?>) ? ((Collection<?>) from).size() : 16, toType);
+  }
+  
+  /**
+   * Converts all the given objects to {@code toType}, in order. Each object's runtime class is considered as its 
+   * input type, as in {@link #convert(Object, Class)}, but the converter is picked only once for each distinct 
+   * runtime class.
+   * <p>
+   * Failed conversions don't abort the batch, and are reported in the returned result, along with the converted 
+   * objects. {@code null} objects fail with {@link ConversionResult.Status#INVALID_INPUT}.
+   * 
+   * @param from the objects to convert.
+   * @param toType the type of the converted objects.
+   * @param <To> the output type of the conversions.
+   * @return the result of the conversions.
+   * @throws IllegalArgumentException if {@code from} or {@code toType} is null (or {@code void} for {@code toType}). 
+   * @see BatchResult
+   */
+  public <To> BatchResult<To> convertAll(Iterable<?> from, Class<To> toType) {
+    return convertAll(from, TypeToken.get(toType));
+  }
+  
+  /**
+   * Converts all the given objects to {@code toType}, in order. Works like {@link #convertAll(Iterable, TypeToken)}.
+   * 
+   * @param from the objects to convert.
+   * @param toType the type of the converted objects.
+   * @param <To> the output type of the conversions.
+   * @return the result of the conversions.
+   * @throws IllegalArgumentException if {@code from} or {@code toType} is null (or {@code void} for {@code toType}). 
+   * @see BatchResult
+   */
+  public <To> BatchResult<To> convertAll(Object[] from, TypeToken<To> toType) {
+    return convertAll(Arrays.asList(nonNull(from, "from")), toType);
+  }
+  
+  /**
+   * Converts all the given objects to {@code toType}, in order. Works like {@link #convertAll(Iterable, Class)}.
+   * 
+   * @param from the objects to convert.
+   * @param toType the type of the converted objects.
+   * @param <To> the output type of the conversions.
+   * @return the result of the conversions.
+   * @throws IllegalArgumentException if {@code from} or {@code toType} is null (or {@code void} for {@code toType}). 
+   * @see BatchResult
+   */
+  public <To> BatchResult<To> convertAll(Object[] from, Class<To> toType) {
+    return convertAll(from, TypeToken.get(toType));
+  }
+  
+  /**
+   * Converts all the given objects to {@code toType}, splitting them into tasks run by the given executor. Works like 
+   * {@link #convertAll(Iterable, TypeToken)}, and runs sequentially in the calling thread if there are no more than 
+   * {@link #DEFAULT_PARALLEL_THRESHOLD} objects.
+   * 
+   * @param from the objects to convert.
+   * @param toType the type of the converted objects.
+   * @param executor the executor which will run the tasks.
+   * @param <To> the output type of the conversions.
+   * @return the result of the conversions.
+   * @throws IllegalArgumentException if any argument is null (or {@code void} for {@code toType}). 
+   * @throws InterruptedException if the calling thread was interrupted while waiting for the tasks.
+   * @see #parallelConvertAll(List, TypeToken, ExecutorService, int)
+   */
+  public <To> BatchResult<To> parallelConvertAll(List<?> from, TypeToken<To> toType, ExecutorService executor) 
+  throws InterruptedException {
+    return parallelConvertAll(from, toType, executor, DEFAULT_PARALLEL_THRESHOLD);
+  }
+  
+  /**
+   * Converts all the given objects to {@code toType}, splitting them into tasks run by the given executor. Works like 
+   * {@link #parallelConvertAll(List, TypeToken, ExecutorService)}.
+   * 
+   * @param from the objects to convert.
+   * @param toType the type of the converted objects.
+   * @param executor the executor which will run the tasks.
+   * @param <To> the output type of the conversions.
+   * @return the result of the conversions.
+   * @throws IllegalArgumentException if any argument is null (or {@code void} for {@code toType}). 
+   * @throws InterruptedException if the calling thread was interrupted while waiting for the tasks.
+   */
+  public <To> BatchResult<To> parallelConvertAll(Object[] from, TypeToken<To> toType, ExecutorService executor) 
+  throws InterruptedException {
+    return parallelConvertAll(Arrays.asList(nonNull(from, "from")), toType, executor);
+  }
+  
+  /**
+   * Converts all the given objects to {@code toType}, splitting them into tasks run by the given executor. The 
+   * results are the same as {@link #convertAll(Iterable, TypeToken) convertAll}'s, in the same order.
+   * <p>
+   * Each task converts a contiguous run of at least {@code threshold} objects, picking converters once for each 
+   * distinct runtime class in its run; the first run is converted in the calling thread, which then waits for the 
+   * others. With {@code threshold} objects or less, everything runs sequentially in the calling thread. 
+   * <p>
+   * The tasks search this transmuter concurrently, so it must not be modified until this method returns. A 
+   * {@link ConcurrentTransmuter} or a {@link FrozenTransmuter} need no such care.
+   * 
+   * @param from the objects to convert. Should support fast random access.
+   * @param toType the type of the converted objects.
+   * @param executor the executor which will run the tasks.
+   * @param threshold how many objects a task should take, at least.
+   * @param <To> the output type of the conversions.
+   * @return the result of the conversions.
+   * @throws IllegalArgumentException if any argument is null (or {@code void} for {@code toType}), or if 
+   * {@code threshold} isn't positive. 
+   * @throws InterruptedException if the calling thread was interrupted while waiting for the tasks. The remaining 
+   * tasks are cancelled.
+   * @see BatchResult
+   */
+  public <To> BatchResult<To> parallelConvertAll(
+      List<?> from, final TypeToken<To> toType, ExecutorService executor, int threshold) 
+  throws InterruptedException {
+    nonNull(from, "from");
+    nonNull(executor, "executor");
+    if(nullOrVoid(toType))
+      throw new IllegalArgumentException("toType cannot be null or void: " + toType);
+    if(threshold < 1)
+      throw new IllegalArgumentException("threshold must be positive: " + threshold);
+    
+    final int size = from.size();
+    if(size <= threshold)
+      return convertAll(from.iterator(), size, toType);
+    
+    // a few runs per processor, so that uneven runs still keep everyone busy
+    final int runs = Runtime.getRuntime().availableProcessors() * 4;
+    final int runSize = Math.max(threshold, (size + runs - 1) / runs);
+    
+    List<Future<BatchResult<To>>> futures = new ArrayList<Future<BatchResult<To>>>();
+    try {
+      for(int start = runSize; start < size; start += runSize) {
+        final List<?> run = from.subList(start, Math.min(start + runSize, size));
+        futures.add(executor.submit(new Callable<BatchResult<To>>() {
+          @Override
+          public BatchResult<To> call() {
+            return convertAll(run.iterator(), run.size(), toType);
+          }
+        }));
+      }
+      
+      BatchResult<To> batch = new BatchResult<To>(size);
+      batch.addAll(convertAll(from.subList(0, runSize).iterator(), runSize, toType));
+      for(Future<BatchResult<To>> future : futures)
+        batch.addAll(future.get());
+      
+      return batch;
+    } catch(ExecutionException e) { // failed conversions are reported, so this is something unexpected
+      if(e.getCause() instanceof RuntimeException)
+        throw (RuntimeException) e.getCause();
+      if(e.getCause() instanceof Error)
+        throw (Error) e.getCause();
+      
+      throw new IllegalStateException(e.getCause());
+    } finally {
+      for(Future<?> future : futures) // does nothing for finished tasks
+        future.cancel(true);
+    }
+  }
+  
+  /**
+   * Returns an iterator which converts the objects of the given iterator to {@code toType}, one at a time, as they 
+   * are requested. Nothing is converted, or even iterated, before that. Each object's runtime class is considered as 
+   * its input type, as in {@link #convert(Object, TypeToken)}, and the converter picked for it is remembered by the 
+   * returned iterator.
+   * <p>
+   * Unlike {@link #convertAll(Iterable, TypeToken) convertAll}, a failed conversion throws the same exceptions 
+   * {@link #convert(Object, TypeToken) convert} does, when the object is reached. 
+   * 
+   * @param from the objects to convert.
+   * @param toType the type of the converted objects.
+   * @param <To> the output type of the conversions.
+   * @return an iterator with the converted objects.
+   * @throws IllegalArgumentException if {@code from} or {@code toType} is null (or {@code void} for {@code toType}). 
+   */
+  public <To> Iterator<To> convertLazily(Iterator<?> from, TypeToken<To> toType) {
+    nonNull(from, "from");
+    if(nullOrVoid(toType))
+      throw new IllegalArgumentException("toType cannot be null or void: " + toType);
+    
+    return new ConvertingIterator<To>(this, from, toType);
+  }
+  
+  /**
+   * Returns an iterator which converts the objects of the given iterator to {@code toType}, one at a time, as they 
+   * are requested. Works like {@link #convertLazily(Iterator, TypeToken)}.
+   * 
+   * @param from the objects to convert.
+   * @param toType the type of the converted objects.
+   * @param <To> the output type of the conversions.
+   * @return an iterator with the converted objects.
+   * @throws IllegalArgumentException if {@code from} or {@code toType} is null (or {@code void} for {@code toType}). 
+   */
+  public <To> Iterator<To> convertLazily(Iterator<?> from, Class<To> toType) {
+    return convertLazily(from, TypeToken.get(toType));
+  }
+  
+  /**
+   * Returns a view of the given objects, converted to {@code toType} as they are iterated. Each new iterator works 
+   * like {@link #convertLazily(Iterator, TypeToken)}.
+   * 
+   * @param from the objects to convert.
+   * @param toType the type of the converted objects.
+   * @param <To> the output type of the conversions.
+   * @return a view with the converted objects.
+   * @throws IllegalArgumentException if {@code from} or {@code toType} is null (or {@code void} for {@code toType}). 
+   */
+  public <To> Iterable<To> convertLazily(final Iterable<?> from, final TypeToken<To> toType) {
+    nonNull(from, "from");
+    if(nullOrVoid(toType))
+      throw new IllegalArgumentException("toType cannot be null or void: " + toType);
+    
+    return new Iterable<To>() {
+      @Override
+      public Iterator<To> iterator() {
+        return new ConvertingIterator<To>(Transmuter.this, from.iterator(), toType);
+      }
+    };
+  }
+  
+  /**
+   * Returns a view of the given objects, converted to {@code toType} as they are iterated. Works like 
+   * {@link #convertLazily(Iterable, TypeToken)}.
+   * 
+   * @param from the objects to convert.
+   * @param toType the type of the converted objects.
+   * @param <To> the output type of the conversions.
+   * @return a view with the converted objects.
+   * @throws IllegalArgumentException if {@code from} or {@code toType} is null (or {@code void} for {@code toType}). 
+   */
+  public <To> Iterable<To> convertLazily(Iterable<?> from, Class<To> toType) {
+    return convertLazily(from, TypeToken.get(toType));
+  }
+  
+  @SuppressWarnings("unchecked")
+  private <To> BatchResult<To> convertAll(Iterator<?> iterator, int expectedSize, TypeToken<To> toType) {
+    if(nullOrVoid(toType))
+      throw new IllegalArgumentException("toType cannot be null or void: " + toType);
+    
+    BatchResult<To> batch = new BatchResult<To>(expectedSize);
+    
+    // what each runtime class resolved to: either a converter or a failed result
+    Map<Class<?>, Object> resolutions = new HashMap<Class<?>, Object>();
+    Class<?> lastClass = null;
+    Object last = null;
+    
+    while(iterator.hasNext()) {
+      Object from = iterator.next();
+      if(from == null) {
+        batch.addFailure(ConversionResult.<To>failure(ConversionResult.Status.INVALID_INPUT, null, 
+            new IllegalArgumentException("null element")));
+        continue;
+      }
+      
+      Class<?> fromClass = from.getClass();
+      if(fromClass != lastClass) { // runs of the same class are common, so skip the map for them
+        last = resolutions.get(fromClass);
+        
+        if(last == null) {
+          ConversionResult<Converter> search = tryGetConverterFor(new ConverterType(TypeToken.get(fromClass), toType));
+          last = search.isSuccessful() ? search.getValue() : search;
+          resolutions.put(fromClass, last);
+        }
+        
+        lastClass = fromClass;
+      }
+      
+      if(last instanceof Converter) {
+        try {
+          batch.add((To) ((Converter) last).invoke(from));
+        } catch(InvocationException e) {
+          batch.addFailure(ConversionResult.<To>failure(ConversionResult.Status.INVOCATION_FAILED, 
+              ((Converter) last).getType(), e));
+        }
+      } else {
+        batch.addFailure(Transmuter.<To>failed((ConversionResult<?>) last));
+      }
+    }
+    
+    return batch;
+  }
+  
+  /**
+   * Returns the converter for the given classes, checking the {@linkplain ConverterCache#get(Class, Class, long) 
+   * cache by class} first. Used by the conversions which only have classes at hand, such as 
+   * {@link #convert(Object, Class)}.
+   * 
+   * @param fromType the input class.
+   * @param toType the output class.
+   * @return the converter for {@code fromType} and {@code toType}.
+   * @throws NoCompatibleConvertersFoundException if no converters for the given classes were found.
+   * @throws TooManyConvertersFoundException if more than one converter for the given classes was found.
+   */
+  protected Converter getConverterFor(Class<?> fromType, Class<?> toType) 
+  throws NoCompatibleConvertersFoundException, TooManyConvertersFoundException {
+    final long version = getConverterMapVersion();
+    
+    Converter converter = converterCache.get(fromType, toType, version);
+    if(converter == null) {
+      converter = getConverterFor(new ConverterType(fromType, toType));
+      converterCache.put(fromType, toType, converter, version);
+    }
+    
+    return converter;
+  }
+  
+  /* (non-Javadoc)
+   * Unboxing null is a NullPointerException waiting to happen; better to blame the converter.
+   */
+  /* (non-Javadoc)
+   * Does the work of the convertToX methods. To keep the primitive path free of boxing, the primitives involved travel 
+   * as longs: ints and longs as themselves, doubles as their raw bits. Whatever a primitive converter throws is 
+   * wrapped just like the reflective path wraps it.
+   */
+  private long convertPrimitive(Class<?> fromType, Class<?> toType, long from) {
+    Converter converter = getConverterFor(fromType, toType);
+    if(! converter.isPrimitive())
+      return toBits(toType, nonNullResult(converter, converter.invoke(fromBits(fromType, from))));
+    
+    try {
+      return callPrimitive(converter.getInstance(), fromType, toType, from);
+    } catch(Throwable t) {
+      throw new InvocationException(converter, new InvocationTargetException(t));
+    }
+  }
+  
+  private static long callPrimitive(Object instance, Class<?> fromType, Class<?> toType, long from) {
+    if(fromType == int.class)
+      return (toType == long.class)
+          ? ((PrimitiveConverter.IntToLong) instance).convertToLong((int) from)
+          : Double.doubleToRawLongBits(((PrimitiveConverter.IntToDouble) instance).convertToDouble((int) from));
+    
+    if(fromType == long.class)
+      return (toType == int.class)
+          ? ((PrimitiveConverter.LongToInt) instance).convertToInt(from)
+          : Double.doubleToRawLongBits(((PrimitiveConverter.LongToDouble) instance).convertToDouble(from));
+    
+    // the only one left
+    double value = Double.longBitsToDouble(from);
+    return (toType == int.class)
+        ? ((PrimitiveConverter.DoubleToInt) instance).convertToInt(value)
+        : ((PrimitiveConverter.DoubleToLong) instance).convertToLong(value);
+  }
+  
+  private static Object fromBits(Class<?> type, long bits) {
+    if(type == int.class)
+      return (int) bits;
+    
+    if(type == long.class)
+      return bits;
+    
+    return Double.longBitsToDouble(bits);
+  }
+  
+  private static long toBits(Class<?> type, Number value) {
+    if(type == int.class)
+      return value.intValue();
+    
+    if(type == long.class)
+      return value.longValue();
+    
+    return Double.doubleToRawLongBits(value.doubleValue());
+  }
+  
+  private static Number nonNullResult(Converter converter, Object result) {
+    if(result == null)
+      throw new InvocationException(converter, new NullPointerException("null result for a primitive conversion"));
+    
+    return (Number) result;
+  }
+  
+  @SuppressWarnings("unchecked")
+  private <To> ConversionResult<To> tryInvoke(Converter converter, ConverterType converterType, Object from) {
+    try {
+      return ConversionResult.success(converterType, (To) converter.invoke(from));
+    } catch(InvocationException e) {
+      return ConversionResult.failure(ConversionResult.Status.INVOCATION_FAILED, converterType, e);
+    }
+  }
+  
+  // failed results hold no value, so any type will do
+  @SuppressWarnings("unchecked")
+  private static <To> ConversionResult<To> failed(ConversionResult<?> failure) {
+    return (ConversionResult<To>) failure;
+  }
+  
+  /**
+   * Checks if a conversion from {@code fromType} to {@code toType} can be done, i.e. if exactly one converter can be 
+   * picked for it. Searches that already failed once are not repeated, and no exceptions are thrown.
+   * 
+   * @param fromType the input type.
+   * @param toType the output type.
+   * @return {@code true} if a converter for the given pairing can be picked, or {@code false} if not or either type 
+   * is null or void.
+   */
+  public boolean canConvert(Type fromType, Type toType) {
+    if(nullOrVoid(fromType) || nullOrVoid(toType))
+      return false;
+    
+    return canConvert(new ConverterType(fromType, toType));
+  }
+  
+  /**
+   * Checks if a conversion from {@code fromType} to {@code toType} can be done, i.e. if exactly one converter can be 
+   * picked for it. Searches that already failed once are not repeated, and no exceptions are thrown.
+   * 
+   * @param fromType the input type.
+   * @param toType the output type.
+   * @return {@code true} if a converter for the given pairing can be picked, or {@code false} if not or either type 
+   * is null or void.
+   */
+  public boolean canConvert(TypeToken<?> fromType, TypeToken<?> toType) {
+    if(nullOrVoid(fromType) || nullOrVoid(toType))
+      return false;
+    
+    return canConvert(new ConverterType(fromType, toType));
+  }
+  
+  /**
+   * Checks if a conversion with the given converter type can be done, i.e. if exactly one converter can be 
+   * picked for it. Searches that already failed once are not repeated, and no exceptions are thrown.
+   * 
+   * @param converterType a converter type.
+   * @return {@code true} if a converter for the given converter type can be picked, or {@code false} if not or 
+   * {@code converterType} is null.
+   */
+  public boolean canConvert(ConverterType converterType) {
+    return converterType != null && tryGetConverterFor(converterType).isSuccessful();
+  }
+  
+  /**
+   * Returns a reusable handle for conversions from {@code fromType} to {@code toType}, bound to the converter picked 
+   * for them. Converting through the handle skips the search made by each {@code convert} call here; if the 
+   * registered converters change, the handle picks its converter again.
+   * 
+   * @param fromType the input type of the conversion.
+   * @param toType the output type of the conversion.
+   * @param <From> the input type of the conversion.
+   * @param <To> the output type of the conversion.
+   * @return a handle for conversions from {@code fromType} to {@code toType}.
+   * @throws NoCompatibleConvertersFoundException if no converters for {@code fromType} to {@code toType} were found.
+   * @throws TooManyConvertersFoundException if more than one converter for {@code fromType} to {@code toType} was found.
+   * @throws IllegalArgumentException if {@code fromType} or {@code toType} is null or void. 
+   * @see ConversionHandle
+   */
+  public <From, To> ConversionHandle<From, To> handleFor(Class<From> fromType, Class<To> toType) 
+  throws NoCompatibleConvertersFoundException, TooManyConvertersFoundException, IllegalArgumentException {
+    return handleFor(TypeToken.get(fromType), TypeToken.get(toType));
+  }
+  
+  /**
+   * Returns a reusable handle for conversions from {@code fromType} to {@code toType}, bound to the converter picked 
+   * for them. Converting through the handle skips the search made by each {@code convert} call here; if the 
+   * registered converters change, the handle picks its converter again.
+   * 
+   * @param fromType the input type of the conversion.
+   * @param toType the output type of the conversion.
+   * @param <From> the input type of the conversion.
+   * @param <To> the output type of the conversion.
+   * @return a handle for conversions from {@code fromType} to {@code toType}.
+   * @throws NoCompatibleConvertersFoundException if no converters for {@code fromType} to {@code toType} were found.
+   * @throws TooManyConvertersFoundException if more than one converter for {@code fromType} to {@code toType} was found.
+   * @throws IllegalArgumentException if {@code fromType} or {@code toType} is null or void. 
+   * @see ConversionHandle
+   */
+  public <From, To> ConversionHandle<From, To> handleFor(TypeToken<From> fromType, TypeToken<To> toType) 
+  throws NoCompatibleConvertersFoundException, TooManyConvertersFoundException, IllegalArgumentException {
+    return new ConversionHandle<From, To>(this, new ConverterType(fromType, toType));
+  }
+  
   /**
    * Attempts to register all given {@linkplain Converter converters} in this instance, keyed by their 
    * {@linkplain ConverterType types}. Does nothing if the given iterable is {@code null}.
@@ -208,7 +942,71 @@ public class Transmuter {
       throw new ConverterRegistrationException(e);
     }
   }
-  
+
+  /**
+   * Scans all given objects for converters, as {@link Converts.EagerProvider} does, and registers them all at once.
+   * The scans are independent of each other, and are run as tasks by the given executor; only the registration
+   * itself, made by {@link #register(Iterable) register} after all scans are done, touches this transmuter.
+   * <p>
+   * All problems found in the scans are bundled in a single exception, just like {@code register}'s. In that case,
+   * no converters from {@code sources} will be registered, even if they're valid.
+   *
+   * @param sources objects with converter methods. Null objects have no converters.
+   * @param executor the executor which will run the scans.
+   * @throws ConverterRegistrationException if any scan failed, or if there is some error during the registration.
+   * @throws IllegalArgumentException if any argument is null.
+   * @throws InterruptedException if the calling thread was interrupted while waiting for the scans. The remaining
+   * scans are cancelled, and nothing is registered.
+   * @see #register(Iterable)
+   */
+  public void parallelRegister(List<?> sources, ExecutorService executor)
+  throws ConverterRegistrationException, InterruptedException {
+    nonNull(sources, "sources");
+    nonNull(executor, "executor");
+
+    List<Future<List<Converter>>> futures = new ArrayList<Future<List<Converter>>>(sources.size());
+    try {
+      for(final Object source : sources) {
+        futures.add(executor.submit(new Callable<List<Converter>>() {
+          @Override
+          public List<Converter> call() {
+            List<Converter> converters = new ArrayList<Converter>();
+            for(Converter converter : new Converts.EagerProvider(source))
+              converters.add(converter);
+
+            return converters;
+          }
+        }));
+      }
+
+      // waiting for everyone, in order, so that the errors are reported as a sequential scan would
+      Notification notification = new Notification();
+      List<Converter> converters = new ArrayList<Converter>();
+      for(Future<List<Converter>> future : futures) {
+        try {
+          converters.addAll(future.get());
+        } catch(ExecutionException e) {
+          if(e.getCause() instanceof MultipleCausesException)
+            notification.add(((MultipleCausesException) e.getCause()).getCauses());
+          else if(e.getCause() instanceof Exception)
+            notification.add((Exception) e.getCause());
+          else if(e.getCause() instanceof Error)
+            throw (Error) e.getCause();
+          else
+            throw new IllegalStateException(e.getCause());
+        }
+      }
+
+      if(notification.hasErrors())
+        throw new ConverterRegistrationException(notification.getErrors());
+
+      register(converters);
+    } finally {
+      for(Future<?> future : futures) // does nothing for finished tasks
+        future.cancel(true);
+    }
+  }
+
   /**
    * Registers all given {@linkplain Converter converters} in this instance, keyed by their 
    * {@linkplain ConverterType types}. Does nothing if the given iterable is {@code null}.
@@ -342,6 +1140,17 @@ public class Transmuter {
     return getConverterMap().remove(converterType);
   }
   
+  /**
+   * Returns an immutable, thread-safe transmuter with the converters currently registered here. Later changes in 
+   * this instance do not affect the returned transmuter, and vice-versa.
+   * 
+   * @return an immutable transmuter with this instance's registered converters and converter selector.
+   * @see FrozenTransmuter
+   */
+  public FrozenTransmuter freeze() {
+    return new FrozenTransmuter(getConverterMap(), getConverterSelector());
+  }
+  
   // helper methods
   /**
    * Attempts to return a converter compatible with the given converter type. 
@@ -349,6 +1158,11 @@ public class Transmuter {
    * There can only be one exact match registered in the transmuter, which will be returned here; lacking that, 
    * a compatible converter will be looked for. An exception will be thrown if no converter is found, or if more than 
    * one compatible (non-exact match) converter is found, since this method cannot decide which should be returned.
+   * <p>
+   * The {@linkplain #getConverterCache() cache} is checked first; if it has nothing for the given converter type, 
+   * the search falls to {@link #getConverterFor(ConverterType, ConverterSelector)} with this instance's 
+   * {@linkplain #getConverterSelector() selector}, and its result is cached. 
+   * Finding no compatible converters, or too many of them, is cached as well.
    * 
    * @param converterType a converter type.
    * @return a converter compatible with the given converter type. May not an exact match.
@@ -357,7 +1171,61 @@ public class Transmuter {
    */
   protected Converter getConverterFor(ConverterType converterType) 
   throws NoCompatibleConvertersFoundException, TooManyConvertersFoundException {
-    return getConverterFor(converterType, DEFAULT_SELECTOR);
+    if(converterType == null) // nothing to cache
+      return getConverterFor(converterType, getConverterSelector());
+    
+    final long version = getConverterMapVersion();
+    
+    Converter converter = converterCache.get(converterType, version);
+    if(converter != null)
+      return converter;
+    
+    if(converterCache.isMissing(converterType, version)) // been here before; don't bother searching
+      throw new NoCompatibleConvertersFoundException(converterType, getConverterMap().values());
+    
+    Collection<? extends Converter> compatibles = converterCache.getAmbiguous(converterType, version);
+    if(compatibles != null) // same thing
+      throw new TooManyConvertersFoundException(converterType, compatibles);
+    
+    try {
+      converter = getConverterFor(converterType, getConverterSelector());
+    } catch(NoCompatibleConvertersFoundException e) {
+      converterCache.putMissing(converterType, version);
+      throw e;
+    } catch(TooManyConvertersFoundException e) {
+      converterCache.putAmbiguous(converterType, e.getConverters(), version);
+      throw e;
+    }
+    
+    converterCache.put(converterType, converter, version);
+    return converter;
+  }
+  
+  /**
+   * Attempts to return a converter compatible with the given converter type, like 
+   * {@link #getConverterFor(ConverterType)}, but reporting a failed search through the returned result instead of an 
+   * exception. Searches which the {@linkplain #getConverterCache() cache} knows to fail are not even attempted.
+   * 
+   * @param converterType a converter type.
+   * @return a successful result holding the converter found, or a failed result telling why none was.
+   */
+  protected ConversionResult<Converter> tryGetConverterFor(ConverterType converterType) {
+    final long version = getConverterMapVersion();
+    
+    if(converterCache.isMissing(converterType, version))
+      return ConversionResult.failure(ConversionResult.Status.NO_COMPATIBLE_CONVERTERS, converterType, null);
+    
+    if(converterCache.getAmbiguous(converterType, version) != null)
+      return ConversionResult.failure(ConversionResult.Status.TOO_MANY_CONVERTERS, converterType, null);
+    
+    // not known to fail; the search may throw, but only once per converter type
+    try {
+      return ConversionResult.success(converterType, getConverterFor(converterType));
+    } catch(NoCompatibleConvertersFoundException e) {
+      return ConversionResult.failure(ConversionResult.Status.NO_COMPATIBLE_CONVERTERS, converterType, e);
+    } catch(TooManyConvertersFoundException e) {
+      return ConversionResult.failure(ConversionResult.Status.TOO_MANY_CONVERTERS, converterType, e);
+    }
   }
   
   /**
@@ -380,6 +1248,18 @@ public class Transmuter {
     return nonNull(selector, "selector").getConverterFor(converterType, getConverterMap());
   }
   
+  /**
+   * Returns a number which changes whenever the registered converters change, and is used to tell if the cached 
+   * converters are still valid. It must be read before the converter map is searched, so that a search made against 
+   * a newer converter map is never cached as the result of an older one.
+   * 
+   * @return the current version of the registered converters.
+   * @see ConverterMap#getVersion()
+   */
+  protected long getConverterMapVersion() {
+    return ((ConverterMap) converterMap).getVersion();
+  }
+  
   // properties
   /**
    * Returns a map holding all the registered converters, keyed by their converter types. This map is backed by 
@@ -390,4 +1270,23 @@ public class Transmuter {
   public Map<ConverterType, Converter> getConverterMap() {
     return converterMap;
   }
+  
+  /**
+   * Returns the selector used to pick this instance's converters.
+   * 
+   * @return the selector used to pick this instance's converters.
+   */
+  public ConverterSelector getConverterSelector() {
+    return converterSelector;
+  }
+  
+  /**
+   * Returns the cache holding the converters recently picked by this instance, keyed by the converter types 
+   * searched for. Its hit and miss counts show how often conversions are spared a search.
+   * 
+   * @return the cache holding the converters recently picked by this instance.
+   */
+  public ConverterCache getConverterCache() {
+    return converterCache;
+  }
 }
@@ -1,33 +1,83 @@
 package com.googlecode.transmuter.core.exception;
 
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
 
 import com.googlecode.transmuter.converter.Converter;
 import com.googlecode.transmuter.converter.ConverterType;
 
 /**
  * Thrown when no compatible converter for the given converter type was found.
+ * <p>
+ * Since a converter's string representation is costly to build, this exception's message is only built when 
+ * requested. It lists at most {@value #MAX_CONVERTERS_IN_MESSAGE} of the converters checked, which are copied when 
+ * this exception is made, along with how many converters were checked; the converters given are not referred to 
+ * afterwards, so later changes to them don't show up here.
  * 
  * @author Humberto S. N. dos Anjos
  */
 public class NoCompatibleConvertersFoundException extends RuntimeException {
   private static final long serialVersionUID = 1L;
   
+  /** The maximum number of converters listed in this exception's message. */
+  public static final int MAX_CONVERTERS_IN_MESSAGE = 10;
+  
   private final ConverterType converterType;
-  private final Iterable<? extends Converter> converters;
+  private final List<Converter> converters;
+  private final int converterCount;
+  private String message;
 
   /**
    * Builds a new instance.
    * 
    * @param converterType the converter type.
-   * @param converters the converters checked.
+   * @param converters the converters checked. Only the first {@value #MAX_CONVERTERS_IN_MESSAGE} are kept.
    */
   public NoCompatibleConvertersFoundException(ConverterType converterType, Collection<? extends Converter> converters) {
-    super("No compatible converters found for " + converterType + " in " + converters);
-    
     this.converterType = converterType;
-    this.converters = (converters == null) ? null : Collections.unmodifiableCollection(converters);
+    
+    if(converters == null) {
+      this.converters = null;
+      this.converterCount = 0;
+      return;
+    }
+    
+    List<Converter> kept = new ArrayList<Converter>(Math.min(converters.size(), MAX_CONVERTERS_IN_MESSAGE));
+    Iterator<? extends Converter> iterator = converters.iterator();
+    while(kept.size() < MAX_CONVERTERS_IN_MESSAGE && iterator.hasNext())
+      kept.add(iterator.next());
+    
+    this.converters = Collections.unmodifiableList(kept);
+    this.converterCount = Math.max(converters.size(), kept.size());
+  }
+  
+  private static String buildMessage(ConverterType converterType, List<Converter> converters, int converterCount) {
+    String msg = "No compatible converters found for " + converterType + " in ";
+    
+    if(converters == null || converterCount <= converters.size())
+      return msg + converters;
+    
+    StringBuilder sb = new StringBuilder(msg).append('[');
+    for(Converter converter : converters)
+      sb.append(converter).append(", ");
+    
+    return sb.append("and ").append(converterCount - converters.size()).append(" more]").toString();
+  }
+  
+  /**
+   * Returns this exception's message, building it on the first call.
+   * 
+   * @return this exception's message.
+   */
+  @Override
+  public String getMessage() {
+    if(message == null)
+      message = buildMessage(converterType, converters, converterCount);
+    
+    return message;
   }
 
   /**
@@ -40,11 +90,21 @@ public class NoCompatibleConvertersFoundException extends RuntimeException {
   }
 
   /**
-   * Returns the converters checked.
+   * Returns the first {@value #MAX_CONVERTERS_IN_MESSAGE} converters checked, or all of them if there weren't more.
    * 
-   * @return the converters checked.
+   * @return the first converters checked, or {@code null} if none were given.
+   * @see #getConverterCount()
    */
   public Iterable<? extends Converter> getConverters() {
     return converters;
   }
+  
+  /**
+   * Returns how many converters were checked, including those not kept by this exception.
+   * 
+   * @return how many converters were checked.
+   */
+  public int getConverterCount() {
+    return converterCount;
+  }
 }
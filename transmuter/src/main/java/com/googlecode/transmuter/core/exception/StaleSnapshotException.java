@@ -0,0 +1,34 @@
+package com.googlecode.transmuter.core.exception;
+
+import com.googlecode.transmuter.core.RegistrySnapshot;
+
+import java.io.IOException;
+
+/**
+ * Thrown when a {@link RegistrySnapshot registry snapshot} no longer matches the classes it was taken from, and its
+ * converters must be scanned and validated all over again.
+ *
+ * @author Humberto S. N. dos Anjos
+ */
+public class StaleSnapshotException extends IOException {
+  private static final long serialVersionUID = 1L;
+
+  /**
+   * Builds a new instance.
+   *
+   * @param message a message explaining what changed.
+   */
+  public StaleSnapshotException(String message) {
+    super(message);
+  }
+
+  /**
+   * Builds a new instance.
+   *
+   * @param message a message explaining what changed.
+   * @param cause the exception that revealed the change.
+   */
+  public StaleSnapshotException(String message, Throwable cause) {
+    super(message, cause);
+  }
+}
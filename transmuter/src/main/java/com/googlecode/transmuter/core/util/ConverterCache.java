@@ -0,0 +1,372 @@
+package com.googlecode.transmuter.core.util;
+
+import java.util.Collection;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReference;
+
+import com.googlecode.transmuter.converter.Converter;
+import com.googlecode.transmuter.converter.ConverterType;
+
+/**
+ * Remembers which converter was picked for a given converter type, so that
+ * repeated searches for the same converter type can skip the selection
+ * process. Failed searches can be remembered too, so that converter types
+ * known to have no compatible converters, or too many of them, are also
+ * spared a search.
+ * <p>
+ * Every resolution is stored along with the {@linkplain ConverterMap#getVersion()
+ * version} of the converter map it was computed from. Asking for a version
+ * newer than the one stored discards all previous resolutions, and stale
+ * resolutions (computed from older versions) are never stored, so that a
+ * modification in the converter map is enough to invalidate this cache.
+ * <p>
+ * Converters may also be stored by the pair of classes they convert from and
+ * to, for callers which only have {@link Class} objects at hand. Those
+ * lookups need no {@link ConverterType}, and allocate nothing.
+ * <p>
+ * This class is thread-safe, and lookups never block.
+ *
+ * @author Humberto S. N. dos Anjos
+ */
+public class ConverterCache {
+  // stands for a converter type with no compatible converters
+  private static final Object MISSING = new Object();
+
+  private final AtomicReference<Generation> generation;
+  private final Counter hits;
+  private final Counter misses;
+
+  /**
+   * Creates a new, empty cache.
+   */
+  public ConverterCache() {
+    generation = new AtomicReference<Generation>(new Generation(Long.MIN_VALUE));
+    hits = new Counter();
+    misses = new Counter();
+  }
+
+  /**
+   * Returns the converter stored for the given converter type, or
+   * {@code null} if none was stored for the given version. Every call counts
+   * either as a hit or as a miss; finding that the given converter type is
+   * {@linkplain #isMissing(ConverterType, long) missing} or
+   * {@linkplain #getAmbiguous(ConverterType, long) ambiguous} counts as a hit.
+   *
+   * @param converterType
+   *          a converter type.
+   * @param version
+   *          the version of the converter map being searched.
+   * @return the converter stored for {@code converterType}, or {@code null}.
+   */
+  public Converter get(ConverterType converterType, long version) {
+    Object resolution = resolutionFor(converterType, version);
+
+    if (resolution != null)
+      hits.increment();
+    else
+      misses.increment();
+
+    return (resolution instanceof Converter) ? (Converter) resolution : null;
+  }
+
+  /**
+   * Returns the converter stored for the given pair of classes, or
+   * {@code null} if none was stored for the given version. Finding a
+   * converter counts as a hit, but not finding one isn't counted as a miss,
+   * since the caller is expected to fall back to
+   * {@link #get(ConverterType, long)}.
+   *
+   * @param fromType
+   *          the input class.
+   * @param toType
+   *          the output class.
+   * @param version
+   *          the version of the converter map being searched.
+   * @return the converter stored for {@code fromType} and {@code toType}, or
+   *         {@code null}.
+   */
+  public Converter get(Class<?> fromType, Class<?> toType, long version) {
+    if (fromType == null || toType == null)
+      return null;
+
+    Generation current = generationFor(version);
+    if (current.version != version)
+      return null;
+
+    Converter converter = current.get(fromType, toType);
+    if (converter != null)
+      hits.increment();
+
+    return converter;
+  }
+
+  /**
+   * Checks if the given converter type was stored as having no compatible
+   * converters in the given version. Does not affect the hit and miss counts.
+   *
+   * @param converterType
+   *          a converter type.
+   * @param version
+   *          the version of the converter map being searched.
+   * @return {@code true} if {@code converterType} is known to have no
+   *         compatible converters.
+   */
+  public boolean isMissing(ConverterType converterType, long version) {
+    return resolutionFor(converterType, version) == MISSING;
+  }
+
+  /**
+   * Returns the compatible converters stored for the given converter type,
+   * if it was stored as having too many of them in the given version. Does
+   * not affect the hit and miss counts.
+   *
+   * @param converterType
+   *          a converter type.
+   * @param version
+   *          the version of the converter map being searched.
+   * @return the compatible converters stored for {@code converterType}, or
+   *         {@code null} if it is not known to be ambiguous.
+   */
+  public Collection<? extends Converter> getAmbiguous(ConverterType converterType, long version) {
+    Object resolution = resolutionFor(converterType, version);
+    return (resolution instanceof Ambiguity) ? ((Ambiguity) resolution).converters : null;
+  }
+
+  /**
+   * Stores the converter picked for the given converter type. Does nothing
+   * if any argument is {@code null}, or if {@code version} is older than the
+   * latest version seen by this cache.
+   *
+   * @param converterType
+   *          a converter type.
+   * @param converter
+   *          the converter picked for {@code converterType}.
+   * @param version
+   *          the version of the converter map from which {@code converter}
+   *          was picked.
+   */
+  public void put(ConverterType converterType, Converter converter, long version) {
+    if (converterType == null || converter == null)
+      return;
+
+    store(converterType, converter, version);
+  }
+
+  /**
+   * Stores the converter picked for the given pair of classes. Does nothing
+   * if any argument is {@code null}, or if {@code version} is older than the
+   * latest version seen by this cache.
+   *
+   * @param fromType
+   *          the input class.
+   * @param toType
+   *          the output class.
+   * @param converter
+   *          the converter picked for {@code fromType} and {@code toType}.
+   * @param version
+   *          the version of the converter map from which {@code converter}
+   *          was picked.
+   */
+  public void put(Class<?> fromType, Class<?> toType, Converter converter, long version) {
+    if (fromType == null || toType == null || converter == null)
+      return;
+
+    Generation current = generationFor(version);
+    if (current.version == version)
+      current.put(fromType, toType, converter);
+  }
+
+  /**
+   * Stores the given converter type as having no compatible converters. Does
+   * nothing if {@code converterType} is {@code null}, or if {@code version}
+   * is older than the latest version seen by this cache.
+   *
+   * @param converterType
+   *          a converter type.
+   * @param version
+   *          the version of the converter map which has no converters
+   *          compatible with {@code converterType}.
+   */
+  public void putMissing(ConverterType converterType, long version) {
+    if (converterType == null)
+      return;
+
+    store(converterType, MISSING, version);
+  }
+
+  /**
+   * Stores the given converter type as having too many compatible converters,
+   * with no way to pick one. Does nothing if any argument is {@code null}, or
+   * if {@code version} is older than the latest version seen by this cache.
+   *
+   * @param converterType
+   *          a converter type.
+   * @param converters
+   *          the compatible converters found.
+   * @param version
+   *          the version of the converter map which has too many converters
+   *          compatible with {@code converterType}.
+   */
+  public void putAmbiguous(ConverterType converterType, Collection<? extends Converter> converters, long version) {
+    if (converterType == null || converters == null)
+      return;
+
+    store(converterType, new Ambiguity(converters), version);
+  }
+
+  /**
+   * Discards all stored resolutions. The hit and miss counts are kept.
+   */
+  public void clear() {
+    Generation current = generation.get();
+    generation.compareAndSet(current, new Generation(current.version));
+  }
+
+  /**
+   * Returns how many resolutions are currently stored by converter type.
+   *
+   * @return how many resolutions are currently stored.
+   */
+  public int size() {
+    return generation.get().size();
+  }
+
+  /**
+   * Returns how many {@link #get(ConverterType, long) get} calls found a
+   * stored converter.
+   *
+   * @return the number of cache hits.
+   */
+  public long getHitCount() {
+    return hits.get();
+  }
+
+  /**
+   * Returns how many {@link #get(ConverterType, long) get} calls did not find
+   * a stored converter.
+   *
+   * @return the number of cache misses.
+   */
+  public long getMissCount() {
+    return misses.get();
+  }
+
+  /**
+   * Returns a string representation of this object.
+   *
+   * @return a string representation of this object.
+   */
+  @Override
+  public String toString() {
+    return "ConverterCache[size: " + size() + ", hits: " + getHitCount() + ", misses: " + getMissCount() + "]";
+  }
+
+  private Object resolutionFor(ConverterType converterType, long version) {
+    if (converterType == null)
+      return null;
+
+    Generation current = generationFor(version);
+    return (current.version == version) ? current.get(converterType) : null;
+  }
+
+  private void store(ConverterType converterType, Object resolution, long version) {
+    Generation current = generationFor(version);
+    if (current.version == version)
+      current.put(converterType, resolution);
+  }
+
+  /* (non-Javadoc)
+   * Returns the current generation, replacing it first if it is older than the given version.
+   */
+  private Generation generationFor(long version) {
+    while (true) {
+      Generation current = generation.get();
+      if (current.version >= version)
+        return current;
+
+      Generation next = new Generation(version);
+      if (generation.compareAndSet(current, next))
+        return next;
+    }
+  }
+
+  /* (non-Javadoc)
+   * The resolutions computed from a single converter map version.
+   */
+  private static class Generation {
+    final long version;
+    private final ConcurrentMap<ConverterType, Object> resolutions;
+    private final ConcurrentMap<Class<?>, ConcurrentMap<Class<?>, Converter>> byClass;
+
+    Generation(long version) {
+      this.version = version;
+      this.resolutions = new ConcurrentHashMap<ConverterType, Object>();
+      this.byClass = new ConcurrentHashMap<Class<?>, ConcurrentMap<Class<?>, Converter>>();
+    }
+
+    Object get(ConverterType converterType) {
+      return resolutions.get(converterType);
+    }
+
+    Converter get(Class<?> fromType, Class<?> toType) {
+      ConcurrentMap<Class<?>, Converter> targets = byClass.get(fromType);
+      return (targets != null) ? targets.get(toType) : null;
+    }
+
+    void put(Class<?> fromType, Class<?> toType, Converter converter) {
+      ConcurrentMap<Class<?>, Converter> targets = byClass.get(fromType);
+      if (targets == null) {
+        ConcurrentMap<Class<?>, Converter> created = new ConcurrentHashMap<Class<?>, Converter>();
+        targets = byClass.putIfAbsent(fromType, created);
+        if (targets == null)
+          targets = created;
+      }
+
+      targets.put(toType, converter);
+    }
+
+    void put(ConverterType converterType, Object resolution) {
+      resolutions.put(converterType, resolution);
+    }
+
+    int size() {
+      return resolutions.size();
+    }
+  }
+
+  /* (non-Javadoc)
+   * Stands for a converter type with too many compatible converters.
+   */
+  private static class Ambiguity {
+    final Collection<? extends Converter> converters;
+
+    Ambiguity(Collection<? extends Converter> converters) {
+      this.converters = converters;
+    }
+  }
+
+  /* (non-Javadoc)
+   * A counter spread over several padded cells, so that threads counting at the same time seldom contend.
+   */
+  private static class Counter {
+    private static final int CELLS = 16; // must be a power of two
+    private static final int PADDING = 8; // longs in a typical cache line
+
+    private final AtomicLongArray cells = new AtomicLongArray(CELLS * PADDING);
+
+    void increment() {
+      int cell = (int) Thread.currentThread().getId() & (CELLS - 1);
+      cells.incrementAndGet(cell * PADDING);
+    }
+
+    long get() {
+      long sum = 0;
+      for (int i = 0; i < CELLS; i++)
+        sum += cells.get(i * PADDING);
+
+      return sum;
+    }
+  }
+}
@@ -3,25 +3,95 @@ package com.googlecode.transmuter.core.util;
 import static com.googlecode.transmuter.util.ObjectUtils.areEqual;
 import static com.googlecode.transmuter.util.ObjectUtils.nonNull;
 
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.util.AbstractCollection;
+import java.util.AbstractSet;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
 
 import com.googlecode.transmuter.converter.Converter;
 import com.googlecode.transmuter.converter.ConverterType;
 import com.googlecode.transmuter.converter.exception.ConverterTypeIncompatibleWithConverterException;
 import com.googlecode.transmuter.core.exception.ConverterCollisionException;
+import com.googlecode.transmuter.type.TypeToken;
+import com.googlecode.transmuter.type.TypeToken.ValueType;
+import com.googlecode.transmuter.util.ReflectionUtils;
 
 /**
  * A map used for converter registration, validating the prospective mapping
  * before the actual insertion.
+ * <p>
+ * Every modification made to this map, including those made through its
+ * views, gives it a new {@linkplain #getVersion() version}, so that
+ * information derived from its contents can be checked for staleness.
+ * <p>
+ * This map also keeps an index of its converter types, bucketed by the raw
+ * classes of their input and output types, so that the converter types
+ * {@linkplain #getAssignableTypes(ConverterType) assignable from} a given one
+ * can be found without checking every key, and the
+ * {@linkplain #getGeneralizations(ConverterType) specificity order} among
+ * its keys can be worked out once per key.
+ * <p>
+ * A converter map may be {@linkplain #freeze() frozen}, after which it cannot
+ * be modified anymore. A frozen map may be safely read by several threads at
+ * once.
  * 
  * @author Humberto S. N. dos Anjos
  */
 public class ConverterMap extends HashMap<ConverterType, Converter> {
   private static final long serialVersionUID = 1L;
 
+  // shared by all instances, so that no two different contents ever get the
+  // same version
+  private static final AtomicLong VERSIONS = new AtomicLong();
+
+  private transient volatile long version = VERSIONS.incrementAndGet();
+  private transient volatile Index index;
+  private volatile boolean frozen;
+
   public ConverterMap() { /* empty block */ }
 
+  /**
+   * Creates a new converter map holding all mappings in the given map, which
+   * are {@linkplain #putAll(Map) validated} as usual. The new map is not
+   * frozen, even if the given one is.
+   * 
+   * @param map
+   *          the mappings to be held by this map. May be {@code null}.
+   * @throws RuntimeException
+   *           all exceptions thrown by {@link #putAll(Map)}.
+   */
+  public ConverterMap(Map<? extends ConverterType, ? extends Converter> map) {
+    putAll(map);
+  }
+
+  /**
+   * Returns a new, unfrozen converter map holding the same mappings as this
+   * one. Unlike {@link #ConverterMap(Map)}, the mappings are not validated
+   * again, since they were when they were put here; a copy costs as much as
+   * copying a {@link HashMap}.
+   * 
+   * @return an unfrozen copy of this map.
+   */
+  ConverterMap copy() {
+    ConverterMap copy = (ConverterMap) clone();
+    copy.frozen = false;
+    copy.index = null;
+    copy.modified();
+    return copy;
+  }
+
   /**
    * Validates the converter type and the converter (using
    * {@link #validatePut(ConverterType, Converter) validatePut}) before
@@ -41,7 +111,14 @@ public class ConverterMap extends HashMap<ConverterType, Converter> {
    */
   @Override
   public Converter put(ConverterType converterType, Converter converter) {
-    return validatePut(converterType, converter) ? converter : super.put(converterType, converter);
+    checkNotFrozen();
+
+    if (validatePut(converterType, converter))
+      return converter;
+
+    Converter previous = super.put(converterType, converter);
+    modified();
+    return previous;
   }
 
   /**
@@ -192,6 +269,8 @@ public class ConverterMap extends HashMap<ConverterType, Converter> {
    */
   @Override
   public void putAll(Map<? extends ConverterType, ? extends Converter> map) {
+    checkNotFrozen();
+
     if (map == null || map.isEmpty())
       return;
 
@@ -200,6 +279,8 @@ public class ConverterMap extends HashMap<ConverterType, Converter> {
 
     for (Map.Entry<? extends ConverterType, ? extends Converter> entry : map.entrySet())
       super.put(entry.getKey(), entry.getValue());
+
+    modified();
   }
 
   /**
@@ -216,9 +297,401 @@ public class ConverterMap extends HashMap<ConverterType, Converter> {
    */
   @Override
   public Converter remove(Object key) {
+    checkNotFrozen();
+
     if (key == null)
       return null;
 
-    return super.remove(key);
+    Converter removed = super.remove(key);
+    if (removed != null)
+      modified();
+
+    return removed;
+  }
+
+  @Override
+  public void clear() {
+    checkNotFrozen();
+
+    super.clear();
+    modified();
+  }
+
+  /**
+   * Returns a set view of the keys in this map, which tracks removals.
+   */
+  @Override
+  public Set<ConverterType> keySet() {
+    return new TrackingSet<ConverterType>(super.keySet());
+  }
+
+  /**
+   * Returns a collection view of the converters in this map, which tracks
+   * removals.
+   */
+  @Override
+  public Collection<Converter> values() {
+    final Collection<Converter> values = super.values();
+
+    return new AbstractCollection<Converter>() {
+      @Override
+      public Iterator<Converter> iterator() {
+        return new TrackingIterator<Converter>(values.iterator());
+      }
+
+      @Override
+      public int size() {
+        return values.size();
+      }
+
+      @Override
+      public boolean contains(Object o) {
+        return values.contains(o);
+      }
+    };
+  }
+
+  /**
+   * Returns a set view of the mappings in this map, which tracks removals.
+   * Replacing a converter through an entry validates it against the entry's
+   * key first.
+   */
+  @Override
+  public Set<Map.Entry<ConverterType, Converter>> entrySet() {
+    final Set<Map.Entry<ConverterType, Converter>> entries = super.entrySet();
+
+    return new AbstractSet<Map.Entry<ConverterType, Converter>>() {
+      @Override
+      public Iterator<Map.Entry<ConverterType, Converter>> iterator() {
+        return new TrackingIterator<Map.Entry<ConverterType, Converter>>(entries.iterator()) {
+          @Override
+          public Map.Entry<ConverterType, Converter> next() {
+            return new TrackingEntry(super.next());
+          }
+        };
+      }
+
+      @Override
+      public int size() {
+        return entries.size();
+      }
+
+      @Override
+      public boolean contains(Object o) {
+        return entries.contains(o);
+      }
+    };
+  }
+
+  /**
+   * Returns this map's current version. Every modification gives this map a
+   * new version, which no other {@code ConverterMap} has had, so equal
+   * versions mean equal contents.
+   * 
+   * @return this map's current version.
+   */
+  public long getVersion() {
+    return version;
+  }
+
+  /**
+   * Returns all converter types in this map whose input types are assignable
+   * from the given type, whatever their output types. These are the keys
+   * whose converters may take an object of {@code fromType}.
+   * <p>
+   * Like {@link #getAssignableTypes(ConverterType)}, only the keys whose input
+   * types have compatible raw classes are checked.
+   * 
+   * @param fromType
+   *          an input type.
+   * @return a list with all keys whose input types are assignable from
+   *         {@code fromType}. Empty if there are none or if {@code fromType}
+   *         is {@code null}.
+   */
+  public List<ConverterType> getTypesFrom(TypeToken<?> fromType) {
+    List<ConverterType> types = new ArrayList<ConverterType>();
+    if (fromType == null || isEmpty())
+      return types;
+
+    Index current = currentIndex();
+    for (Class<?> fromClass : assignableClasses(fromType)) {
+      Map<Class<?>, List<ConverterType>> bucket = current.buckets.get(fromClass);
+      if (bucket == null)
+        continue;
+
+      for (List<ConverterType> candidates : bucket.values())
+        for (ConverterType candidate : candidates)
+          if (candidate.getFromType().isAssignableFrom(fromType))
+            types.add(candidate);
+    }
+
+    return types;
+  }
+
+  /**
+   * Returns all converter types in this map which are
+   * {@linkplain ConverterType#isAssignableFrom(ConverterType) assignable from}
+   * the given one.
+   * <p>
+   * Only the keys whose input and output types have raw classes compatible
+   * with {@code converterType}'s are checked, using an index which is rebuilt
+   * on demand after this map is modified.
+   * 
+   * @param converterType
+   *          a converter type.
+   * @return a list with all keys assignable from {@code converterType}. Empty
+   *         if there are none or if {@code converterType} is {@code null}.
+   */
+  public List<ConverterType> getAssignableTypes(ConverterType converterType) {
+    List<ConverterType> assignables = new ArrayList<ConverterType>();
+    if (converterType == null || isEmpty())
+      return assignables;
+
+    Index current = currentIndex();
+    Set<Class<?>> toClasses = assignableClasses(converterType.getToType());
+    for (Class<?> fromClass : assignableClasses(converterType.getFromType())) {
+      Map<Class<?>, List<ConverterType>> bucket = current.buckets.get(fromClass);
+      if (bucket == null)
+        continue;
+
+      for (Class<?> toClass : toClasses) {
+        List<ConverterType> candidates = bucket.get(toClass);
+        if (candidates == null)
+          continue;
+
+        for (ConverterType candidate : candidates)
+          if (candidate.isAssignableFrom(converterType))
+            assignables.add(candidate);
+      }
+    }
+
+    return assignables;
+  }
+
+  /**
+   * Returns the keys of this map which are more general than the given key,
+   * i.e. which are {@linkplain ConverterType#isAssignableFrom(ConverterType)
+   * assignable from} it, but not equal to it. Together, these sets make up
+   * the specificity order of this map's keys.
+   * <p>
+   * The sets are computed once per key, and kept until this map is modified.
+   * 
+   * @param key
+   *          a key of this map.
+   * @return an unmodifiable set with the keys of this map more general than
+   *         {@code key}, or an empty set if {@code key} is not a key of this
+   *         map.
+   */
+  public Set<ConverterType> getGeneralizations(ConverterType key) {
+    if (key == null || !containsKey(key))
+      return Collections.emptySet();
+
+    Index current = currentIndex();
+
+    Set<ConverterType> generalizations = current.generalizations.get(key);
+    if (generalizations != null)
+      return generalizations;
+
+    generalizations = new HashSet<ConverterType>(getAssignableTypes(key));
+    generalizations.remove(key);
+    generalizations = Collections.unmodifiableSet(generalizations);
+
+    current.generalizations.putIfAbsent(key, generalizations);
+    return generalizations;
+  }
+
+  /* (non-Javadoc)
+   * Returns the index for the current version, building it first if needed.
+   */
+  private Index currentIndex() {
+    Index current = index;
+    if (current == null || current.version != version)
+      index = current = new Index(version, super.keySet());
+
+    return current;
+  }
+
+  /* (non-Javadoc)
+   * All raw classes whose types may be assignable from the given type.
+   */
+  private static Set<Class<?>> assignableClasses(TypeToken<?> token) {
+    Set<Class<?>> classes = ReflectionUtils.getAssignableClasses(token.getRawType());
+
+    // TypeToken considers primitives and their wrappers mutually assignable
+    Class<?> matching = ValueType.matching(token.getRawType());
+    if (matching != null)
+      classes.add(matching);
+
+    return classes;
+  }
+
+  /**
+   * Makes this map unmodifiable. From now on, any attempt to modify this map,
+   * directly or through its views, throws an
+   * {@link UnsupportedOperationException}.
+   * 
+   * @return this instance.
+   */
+  public ConverterMap freeze() {
+    frozen = true;
+    return this;
+  }
+
+  /**
+   * Checks if this map was {@linkplain #freeze() frozen}.
+   * 
+   * @return {@code true} if this map cannot be modified anymore.
+   */
+  public boolean isFrozen() {
+    return frozen;
+  }
+
+  private void checkNotFrozen() throws UnsupportedOperationException {
+    if (frozen)
+      throw new UnsupportedOperationException("this converter map is frozen");
+  }
+
+  /**
+   * Called after every modification to this map.
+   */
+  protected void modified() {
+    version = VERSIONS.incrementAndGet();
+  }
+
+  private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+    in.defaultReadObject();
+    modified();
+  }
+
+  /* (non-Javadoc)
+   * The keys of a given version of this map, bucketed by the raw classes of their input and output types. 
+   * The buckets are never modified after construction; the generalizations are filled in as needed.
+   */
+  private static class Index {
+    final long version;
+    final Map<Class<?>, Map<Class<?>, List<ConverterType>>> buckets;
+    final ConcurrentMap<ConverterType, Set<ConverterType>> generalizations = 
+        new ConcurrentHashMap<ConverterType, Set<ConverterType>>();
+
+    Index(long version, Set<ConverterType> keys) {
+      this.version = version;
+      this.buckets = new HashMap<Class<?>, Map<Class<?>, List<ConverterType>>>();
+
+      for (ConverterType key : keys) {
+        Class<?> fromClass = key.getFromType().getRawType();
+        Class<?> toClass = key.getToType().getRawType();
+
+        Map<Class<?>, List<ConverterType>> bucket = buckets.get(fromClass);
+        if (bucket == null)
+          buckets.put(fromClass, bucket = new HashMap<Class<?>, List<ConverterType>>());
+
+        List<ConverterType> types = bucket.get(toClass);
+        if (types == null)
+          bucket.put(toClass, types = new ArrayList<ConverterType>(1));
+
+        types.add(key);
+      }
+    }
+  }
+
+  /* (non-Javadoc)
+   * A set view which notices removals made through its iterators.
+   */
+  private class TrackingSet<E> extends AbstractSet<E> {
+    private final Set<E> set;
+
+    public TrackingSet(Set<E> set) {
+      this.set = set;
+    }
+
+    @Override
+    public Iterator<E> iterator() {
+      return new TrackingIterator<E>(set.iterator());
+    }
+
+    @Override
+    public int size() {
+      return set.size();
+    }
+
+    @Override
+    public boolean contains(Object o) {
+      return set.contains(o);
+    }
+  }
+
+  /* (non-Javadoc)
+   * An iterator which notices removals.
+   */
+  private class TrackingIterator<E> implements Iterator<E> {
+    private final Iterator<E> iterator;
+
+    public TrackingIterator(Iterator<E> iterator) {
+      this.iterator = iterator;
+    }
+
+    @Override
+    public boolean hasNext() {
+      return iterator.hasNext();
+    }
+
+    @Override
+    public E next() {
+      return iterator.next();
+    }
+
+    @Override
+    public void remove() {
+      checkNotFrozen();
+
+      iterator.remove();
+      modified();
+    }
+  }
+
+  /* (non-Javadoc)
+   * An entry which validates and notices converter replacements.
+   */
+  private class TrackingEntry implements Map.Entry<ConverterType, Converter> {
+    private final Map.Entry<ConverterType, Converter> entry;
+
+    public TrackingEntry(Map.Entry<ConverterType, Converter> entry) {
+      this.entry = entry;
+    }
+
+    @Override
+    public ConverterType getKey() {
+      return entry.getKey();
+    }
+
+    @Override
+    public Converter getValue() {
+      return entry.getValue();
+    }
+
+    @Override
+    public Converter setValue(Converter value) {
+      checkNotFrozen();
+      checkForCompatibility(getKey(), value);
+
+      Converter previous = entry.setValue(value);
+      modified();
+      return previous;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      return entry.equals(o);
+    }
+
+    @Override
+    public int hashCode() {
+      return entry.hashCode();
+    }
+
+    @Override
+    public String toString() {
+      return entry.toString();
+    }
   }
 }
\ No newline at end of file
@@ -0,0 +1,176 @@
+package com.googlecode.transmuter.core.util;
+
+import java.util.AbstractMap;
+import java.util.Collection;
+import java.util.Map;
+import java.util.Set;
+
+import com.googlecode.transmuter.converter.Converter;
+import com.googlecode.transmuter.converter.ConverterType;
+
+/**
+ * A thread-safe map for converter registration, in which all reads are made on
+ * an immutable snapshot and never block.
+ * <p>
+ * Every modification copies the current snapshot into a new
+ * {@link ConverterMap}, without validating its mappings again, applies the
+ * modification (with the usual
+ * {@linkplain ConverterMap#validatePut(ConverterType, Converter) validation}),
+ * {@linkplain ConverterMap#freeze() freezes} the copy and publishes it as the
+ * new snapshot. Modifications are serialized, and either succeed entirely or
+ * leave the current snapshot as it was, which makes
+ * {@link #putAll(Map) putAll} atomic.
+ * <p>
+ * As with other copy-on-write collections, reads are cheap and writes are
+ * expensive, so this map suits registries which are read much more often than
+ * written to. The views returned by {@link #keySet()}, {@link #values()} and
+ * {@link #entrySet()} belong to the snapshot current at the time of the call,
+ * and cannot be used to modify this map.
+ *
+ * @author Humberto S. N. dos Anjos
+ */
+public class CopyOnWriteConverterMap extends AbstractMap<ConverterType, Converter> {
+  private volatile ConverterMap snapshot;
+
+  /**
+   * Creates a new, empty map.
+   */
+  public CopyOnWriteConverterMap() {
+    snapshot = new ConverterMap().freeze();
+  }
+
+  // reads
+  @Override
+  public Converter get(Object key) {
+    return snapshot.get(key);
+  }
+
+  @Override
+  public boolean containsKey(Object key) {
+    return snapshot.containsKey(key);
+  }
+
+  @Override
+  public boolean containsValue(Object value) {
+    return snapshot.containsValue(value);
+  }
+
+  @Override
+  public int size() {
+    return snapshot.size();
+  }
+
+  @Override
+  public boolean isEmpty() {
+    return snapshot.isEmpty();
+  }
+
+  @Override
+  public Set<ConverterType> keySet() {
+    return snapshot.keySet();
+  }
+
+  @Override
+  public Collection<Converter> values() {
+    return snapshot.values();
+  }
+
+  @Override
+  public Set<Map.Entry<ConverterType, Converter>> entrySet() {
+    return snapshot.entrySet();
+  }
+
+  // writes
+  /**
+   * Validates and puts the given mapping in a new snapshot.
+   *
+   * @see ConverterMap#put(ConverterType, Converter)
+   */
+  @Override
+  public synchronized Converter put(ConverterType converterType, Converter converter) {
+    ConverterMap next = snapshot.copy();
+    long version = next.getVersion();
+
+    Converter previous = next.put(converterType, converter);
+    publish(next, version);
+    return previous;
+  }
+
+  /**
+   * Validates and puts all given mappings in a new snapshot. If any mapping
+   * is invalid, none are put.
+   *
+   * @see ConverterMap#putAll(Map)
+   */
+  @Override
+  public synchronized void putAll(Map<? extends ConverterType, ? extends Converter> map) {
+    if (map == null || map.isEmpty())
+      return;
+
+    ConverterMap next = snapshot.copy();
+    long version = next.getVersion();
+
+    next.putAll(map);
+    publish(next, version);
+  }
+
+  /**
+   * Removes the mapping for the given key in a new snapshot.
+   *
+   * @see ConverterMap#remove(Object)
+   */
+  @Override
+  public synchronized Converter remove(Object key) {
+    if (!snapshot.containsKey(key))
+      return null;
+
+    ConverterMap next = snapshot.copy();
+    long version = next.getVersion();
+
+    Converter removed = next.remove(key);
+    publish(next, version);
+    return removed;
+  }
+
+  /**
+   * Replaces the current snapshot with an empty one.
+   */
+  @Override
+  public synchronized void clear() {
+    if (!snapshot.isEmpty())
+      snapshot = new ConverterMap().freeze();
+  }
+
+  // properties
+  /**
+   * Returns the current snapshot. It is {@linkplain ConverterMap#freeze()
+   * frozen}, and therefore will not change, no matter what happens to this
+   * map afterwards.
+   *
+   * @return the current snapshot.
+   */
+  public ConverterMap getSnapshot() {
+    return snapshot;
+  }
+
+  /**
+   * Returns the {@linkplain ConverterMap#getVersion() version} of the current
+   * snapshot.
+   *
+   * @return the version of the current snapshot.
+   */
+  public long getVersion() {
+    return snapshot.getVersion();
+  }
+
+  // helper methods
+  /* (non-Javadoc)
+   * Publishes the given map as the new snapshot, unless it wasn't modified since the given version.
+   */
+  private void publish(ConverterMap next, long version) {
+    if (next.getVersion() == version) // nothing changed, keep the current snapshot
+      return;
+
+    snapshot = next.freeze();
+  }
+}
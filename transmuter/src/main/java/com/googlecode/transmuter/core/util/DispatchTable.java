@@ -0,0 +1,236 @@
+package com.googlecode.transmuter.core.util;
+
+import java.lang.reflect.Type;
+import java.util.Map;
+
+import com.googlecode.transmuter.converter.Converter;
+import com.googlecode.transmuter.converter.ConverterType;
+import com.googlecode.transmuter.type.TypeToken.ValueType;
+
+/**
+ * An immutable table pairing converter types with converters, built for fast
+ * lookups.
+ * <p>
+ * The mappings are laid out in two parallel arrays, using open addressing
+ * with linear probing, and the table is kept at most half full, so that most
+ * lookups find their converter type (or an empty slot) at the first or second
+ * probe, without any allocation.
+ * <p>
+ * Mappings whose converter types are made of plain classes are also laid out
+ * by their {@linkplain #get(Class, Class) pair of classes}, in the same way.
+ * Those lookups compare classes by identity, and call neither
+ * {@code equals} nor {@code hashCode} on any converter type. Since primitive
+ * and wrapper types make equal converter types, such pairs are laid out with
+ * both.
+ * <p>
+ * This class is thread-safe: once built, a table never changes.
+ *
+ * @author Humberto S. N. dos Anjos
+ */
+public class DispatchTable {
+  private final ConverterType[] keys;
+  private final Converter[] values;
+  private final int mask;
+  private final int size;
+
+  private final Class<?>[] fromClasses;
+  private final Class<?>[] toClasses;
+  private final Converter[] pairValues;
+  private final int pairMask;
+
+  /**
+   * Creates a new table holding all mappings in the given map.
+   *
+   * @param map
+   *          the mappings to be held by this table. May be {@code null}.
+   * @throws IllegalArgumentException
+   *           if {@code map} has a {@code null} key or value.
+   */
+  public DispatchTable(Map<? extends ConverterType, ? extends Converter> map) {
+    int expected = (map != null) ? map.size() : 0;
+
+    int capacity = 2;
+    while (capacity < expected * 2)
+      capacity <<= 1;
+
+    keys = new ConverterType[capacity];
+    values = new Converter[capacity];
+    mask = capacity - 1;
+
+    int count = 0;
+    if (map != null) {
+      for (Map.Entry<? extends ConverterType, ? extends Converter> entry : map.entrySet()) {
+        if (entry.getKey() == null || entry.getValue() == null)
+          throw new IllegalArgumentException("null mapping: " + entry);
+
+        if (insert(entry.getKey(), entry.getValue()))
+          count++;
+      }
+    }
+
+    size = count;
+
+    // every pair may be laid out up to four times, once for each value type combination
+    int pairCapacity = 2;
+    while (pairCapacity < count * 8)
+      pairCapacity <<= 1;
+
+    fromClasses = new Class<?>[pairCapacity];
+    toClasses = new Class<?>[pairCapacity];
+    pairValues = new Converter[pairCapacity];
+    pairMask = pairCapacity - 1;
+
+    for (int i = 0; i < keys.length; i++) {
+      if (keys[i] == null)
+        continue;
+
+      Type fromType = keys[i].getFromType().getType();
+      Type toType = keys[i].getToType().getType();
+      if (!(fromType instanceof Class<?>) || !(toType instanceof Class<?>))
+        continue;
+
+      for (Class<?> fromClass : withMatching((Class<?>) fromType))
+        for (Class<?> toClass : withMatching((Class<?>) toType))
+          insert(fromClass, toClass, values[i]);
+    }
+  }
+
+  /**
+   * Returns the converter paired with the given converter type, or
+   * {@code null} if there is none. Converter types are compared with
+   * {@link ConverterType#equals(Object) equals}, so no compatibility checks
+   * are made here.
+   *
+   * @param converterType
+   *          a converter type.
+   * @return the converter paired with {@code converterType}, or {@code null}.
+   */
+  public Converter get(ConverterType converterType) {
+    if (converterType == null)
+      return null;
+
+    for (int i = indexFor(converterType);; i = (i + 1) & mask) {
+      ConverterType key = keys[i];
+
+      if (key == null)
+        return null;
+
+      if (key == converterType || key.equals(converterType))
+        return values[i];
+    }
+  }
+
+  /**
+   * Returns the converter paired with the converter type made of the given
+   * classes, or {@code null} if there is none. Works like
+   * {@link #get(ConverterType)}, but with no converter type to build or
+   * compare.
+   *
+   * @param fromType
+   *          the input class.
+   * @param toType
+   *          the output class.
+   * @return the converter paired with the converter type made of
+   *         {@code fromType} and {@code toType}, or {@code null}.
+   */
+  public Converter get(Class<?> fromType, Class<?> toType) {
+    if (fromType == null || toType == null)
+      return null;
+
+    for (int i = indexFor(fromType, toType);; i = (i + 1) & pairMask) {
+      Class<?> from = fromClasses[i];
+
+      if (from == null)
+        return null;
+
+      if (from == fromType && toClasses[i] == toType)
+        return pairValues[i];
+    }
+  }
+
+  /**
+   * Checks if the given converter type has a converter in this table.
+   *
+   * @param converterType
+   *          a converter type.
+   * @return {@code true} if {@code converterType} has a converter in this
+   *         table.
+   */
+  public boolean containsKey(ConverterType converterType) {
+    return get(converterType) != null;
+  }
+
+  /**
+   * Returns how many mappings this table holds.
+   *
+   * @return how many mappings this table holds.
+   */
+  public int size() {
+    return size;
+  }
+
+  /**
+   * Returns a string representation of this object.
+   *
+   * @return a string representation of this object.
+   */
+  @Override
+  public String toString() {
+    return "DispatchTable[size: " + size + ", capacity: " + keys.length + "]";
+  }
+
+  // helper methods
+  /* (non-Javadoc)
+   * Stores the given mapping, returning false if the key was already there.
+   */
+  private boolean insert(ConverterType converterType, Converter converter) {
+    for (int i = indexFor(converterType);; i = (i + 1) & mask) {
+      if (keys[i] == null) {
+        keys[i] = converterType;
+        values[i] = converter;
+        return true;
+      }
+
+      if (keys[i].equals(converterType)) {
+        values[i] = converter;
+        return false;
+      }
+    }
+  }
+
+  private void insert(Class<?> fromType, Class<?> toType, Converter converter) {
+    for (int i = indexFor(fromType, toType);; i = (i + 1) & pairMask) {
+      if (fromClasses[i] == null) {
+        fromClasses[i] = fromType;
+        toClasses[i] = toType;
+        pairValues[i] = converter;
+        return;
+      }
+
+      if (fromClasses[i] == fromType && toClasses[i] == toType)
+        return;
+    }
+  }
+
+  private int indexFor(ConverterType converterType) {
+    return spread(converterType.hashCode()) & mask;
+  }
+
+  private int indexFor(Class<?> fromType, Class<?> toType) {
+    return spread(31 * fromType.hashCode() + toType.hashCode()) & pairMask;
+  }
+
+  private static int spread(int h) {
+    // spreads the higher bits down, since only the lower ones pick the slot
+    h ^= (h >>> 20) ^ (h >>> 12);
+    return h ^ (h >>> 7) ^ (h >>> 4);
+  }
+
+  /* (non-Javadoc)
+   * Returns the given class, along with its matching primitive or wrapper type, if it has one.
+   */
+  private static Class<?>[] withMatching(Class<?> cls) {
+    Class<?> matching = ValueType.matching(cls);
+    return (matching != null) ? new Class<?>[] { cls, matching } : new Class<?>[] { cls };
+  }
+}
@@ -0,0 +1,441 @@
+package com.googlecode.transmuter.type;
+
+/**
+ * Holds the loops behind {@link TypeToken.ValueType#castArray(Object)}: one for each pair of numeric primitive types 
+ * (and {@code char}), each converting elements exactly as Java's primitive casts do.
+ * <p>
+ * The loops are kept as plain counted loops over the arrays, with no checks or calls inside, so that the JIT compiler 
+ * may unroll them or, where the platform supports it, vectorize them.
+ * 
+ * @author Humberto S. N. dos Anjos
+ */
+final class PrimitiveArrays {
+  private PrimitiveArrays() { /* empty block */ }
+  
+  static byte[] toBytes(Object array) {
+    if(array instanceof byte[])
+      return ((byte[]) array).clone();
+    
+    if(array instanceof char[]) {
+      char[] from = (char[]) array;
+      byte[] to = new byte[from.length];
+      for(int i = 0; i < from.length; i++)
+        to[i] = (byte) from[i];
+      
+      return to;
+    }
+    
+    if(array instanceof short[]) {
+      short[] from = (short[]) array;
+      byte[] to = new byte[from.length];
+      for(int i = 0; i < from.length; i++)
+        to[i] = (byte) from[i];
+      
+      return to;
+    }
+    
+    if(array instanceof int[]) {
+      int[] from = (int[]) array;
+      byte[] to = new byte[from.length];
+      for(int i = 0; i < from.length; i++)
+        to[i] = (byte) from[i];
+      
+      return to;
+    }
+    
+    if(array instanceof long[]) {
+      long[] from = (long[]) array;
+      byte[] to = new byte[from.length];
+      for(int i = 0; i < from.length; i++)
+        to[i] = (byte) from[i];
+      
+      return to;
+    }
+    
+    if(array instanceof float[]) {
+      float[] from = (float[]) array;
+      byte[] to = new byte[from.length];
+      for(int i = 0; i < from.length; i++)
+        to[i] = (byte) from[i];
+      
+      return to;
+    }
+    
+    if(array instanceof double[]) {
+      double[] from = (double[]) array;
+      byte[] to = new byte[from.length];
+      for(int i = 0; i < from.length; i++)
+        to[i] = (byte) from[i];
+      
+      return to;
+    }
+    
+    throw new ClassCastException(array + " is not an array of numbers or chars!");
+  }
+  
+  static char[] toChars(Object array) {
+    if(array instanceof byte[]) {
+      byte[] from = (byte[]) array;
+      char[] to = new char[from.length];
+      for(int i = 0; i < from.length; i++)
+        to[i] = (char) from[i];
+      
+      return to;
+    }
+    
+    if(array instanceof char[])
+      return ((char[]) array).clone();
+    
+    if(array instanceof short[]) {
+      short[] from = (short[]) array;
+      char[] to = new char[from.length];
+      for(int i = 0; i < from.length; i++)
+        to[i] = (char) from[i];
+      
+      return to;
+    }
+    
+    if(array instanceof int[]) {
+      int[] from = (int[]) array;
+      char[] to = new char[from.length];
+      for(int i = 0; i < from.length; i++)
+        to[i] = (char) from[i];
+      
+      return to;
+    }
+    
+    if(array instanceof long[]) {
+      long[] from = (long[]) array;
+      char[] to = new char[from.length];
+      for(int i = 0; i < from.length; i++)
+        to[i] = (char) from[i];
+      
+      return to;
+    }
+    
+    if(array instanceof float[]) {
+      float[] from = (float[]) array;
+      char[] to = new char[from.length];
+      for(int i = 0; i < from.length; i++)
+        to[i] = (char) from[i];
+      
+      return to;
+    }
+    
+    if(array instanceof double[]) {
+      double[] from = (double[]) array;
+      char[] to = new char[from.length];
+      for(int i = 0; i < from.length; i++)
+        to[i] = (char) from[i];
+      
+      return to;
+    }
+    
+    throw new ClassCastException(array + " is not an array of numbers or chars!");
+  }
+  
+  static short[] toShorts(Object array) {
+    if(array instanceof byte[]) {
+      byte[] from = (byte[]) array;
+      short[] to = new short[from.length];
+      for(int i = 0; i < from.length; i++)
+        to[i] = from[i];
+      
+      return to;
+    }
+    
+    if(array instanceof char[]) {
+      char[] from = (char[]) array;
+      short[] to = new short[from.length];
+      for(int i = 0; i < from.length; i++)
+        to[i] = (short) from[i];
+      
+      return to;
+    }
+    
+    if(array instanceof short[])
+      return ((short[]) array).clone();
+    
+    if(array instanceof int[]) {
+      int[] from = (int[]) array;
+      short[] to = new short[from.length];
+      for(int i = 0; i < from.length; i++)
+        to[i] = (short) from[i];
+      
+      return to;
+    }
+    
+    if(array instanceof long[]) {
+      long[] from = (long[]) array;
+      short[] to = new short[from.length];
+      for(int i = 0; i < from.length; i++)
+        to[i] = (short) from[i];
+      
+      return to;
+    }
+    
+    if(array instanceof float[]) {
+      float[] from = (float[]) array;
+      short[] to = new short[from.length];
+      for(int i = 0; i < from.length; i++)
+        to[i] = (short) from[i];
+      
+      return to;
+    }
+    
+    if(array instanceof double[]) {
+      double[] from = (double[]) array;
+      short[] to = new short[from.length];
+      for(int i = 0; i < from.length; i++)
+        to[i] = (short) from[i];
+      
+      return to;
+    }
+    
+    throw new ClassCastException(array + " is not an array of numbers or chars!");
+  }
+  
+  static int[] toInts(Object array) {
+    if(array instanceof byte[]) {
+      byte[] from = (byte[]) array;
+      int[] to = new int[from.length];
+      for(int i = 0; i < from.length; i++)
+        to[i] = from[i];
+      
+      return to;
+    }
+    
+    if(array instanceof char[]) {
+      char[] from = (char[]) array;
+      int[] to = new int[from.length];
+      for(int i = 0; i < from.length; i++)
+        to[i] = from[i];
+      
+      return to;
+    }
+    
+    if(array instanceof short[]) {
+      short[] from = (short[]) array;
+      int[] to = new int[from.length];
+      for(int i = 0; i < from.length; i++)
+        to[i] = from[i];
+      
+      return to;
+    }
+    
+    if(array instanceof int[])
+      return ((int[]) array).clone();
+    
+    if(array instanceof long[]) {
+      long[] from = (long[]) array;
+      int[] to = new int[from.length];
+      for(int i = 0; i < from.length; i++)
+        to[i] = (int) from[i];
+      
+      return to;
+    }
+    
+    if(array instanceof float[]) {
+      float[] from = (float[]) array;
+      int[] to = new int[from.length];
+      for(int i = 0; i < from.length; i++)
+        to[i] = (int) from[i];
+      
+      return to;
+    }
+    
+    if(array instanceof double[]) {
+      double[] from = (double[]) array;
+      int[] to = new int[from.length];
+      for(int i = 0; i < from.length; i++)
+        to[i] = (int) from[i];
+      
+      return to;
+    }
+    
+    throw new ClassCastException(array + " is not an array of numbers or chars!");
+  }
+  
+  static long[] toLongs(Object array) {
+    if(array instanceof byte[]) {
+      byte[] from = (byte[]) array;
+      long[] to = new long[from.length];
+      for(int i = 0; i < from.length; i++)
+        to[i] = from[i];
+      
+      return to;
+    }
+    
+    if(array instanceof char[]) {
+      char[] from = (char[]) array;
+      long[] to = new long[from.length];
+      for(int i = 0; i < from.length; i++)
+        to[i] = from[i];
+      
+      return to;
+    }
+    
+    if(array instanceof short[]) {
+      short[] from = (short[]) array;
+      long[] to = new long[from.length];
+      for(int i = 0; i < from.length; i++)
+        to[i] = from[i];
+      
+      return to;
+    }
+    
+    if(array instanceof int[]) {
+      int[] from = (int[]) array;
+      long[] to = new long[from.length];
+      for(int i = 0; i < from.length; i++)
+        to[i] = from[i];
+      
+      return to;
+    }
+    
+    if(array instanceof long[])
+      return ((long[]) array).clone();
+    
+    if(array instanceof float[]) {
+      float[] from = (float[]) array;
+      long[] to = new long[from.length];
+      for(int i = 0; i < from.length; i++)
+        to[i] = (long) from[i];
+      
+      return to;
+    }
+    
+    if(array instanceof double[]) {
+      double[] from = (double[]) array;
+      long[] to = new long[from.length];
+      for(int i = 0; i < from.length; i++)
+        to[i] = (long) from[i];
+      
+      return to;
+    }
+    
+    throw new ClassCastException(array + " is not an array of numbers or chars!");
+  }
+  
+  static float[] toFloats(Object array) {
+    if(array instanceof byte[]) {
+      byte[] from = (byte[]) array;
+      float[] to = new float[from.length];
+      for(int i = 0; i < from.length; i++)
+        to[i] = from[i];
+      
+      return to;
+    }
+    
+    if(array instanceof char[]) {
+      char[] from = (char[]) array;
+      float[] to = new float[from.length];
+      for(int i = 0; i < from.length; i++)
+        to[i] = from[i];
+      
+      return to;
+    }
+    
+    if(array instanceof short[]) {
+      short[] from = (short[]) array;
+      float[] to = new float[from.length];
+      for(int i = 0; i < from.length; i++)
+        to[i] = from[i];
+      
+      return to;
+    }
+    
+    if(array instanceof int[]) {
+      int[] from = (int[]) array;
+      float[] to = new float[from.length];
+      for(int i = 0; i < from.length; i++)
+        to[i] = from[i];
+      
+      return to;
+    }
+    
+    if(array instanceof long[]) {
+      long[] from = (long[]) array;
+      float[] to = new float[from.length];
+      for(int i = 0; i < from.length; i++)
+        to[i] = from[i];
+      
+      return to;
+    }
+    
+    if(array instanceof float[])
+      return ((float[]) array).clone();
+    
+    if(array instanceof double[]) {
+      double[] from = (double[]) array;
+      float[] to = new float[from.length];
+      for(int i = 0; i < from.length; i++)
+        to[i] = (float) from[i];
+      
+      return to;
+    }
+    
+    throw new ClassCastException(array + " is not an array of numbers or chars!");
+  }
+  
+  static double[] toDoubles(Object array) {
+    if(array instanceof byte[]) {
+      byte[] from = (byte[]) array;
+      double[] to = new double[from.length];
+      for(int i = 0; i < from.length; i++)
+        to[i] = from[i];
+      
+      return to;
+    }
+    
+    if(array instanceof char[]) {
+      char[] from = (char[]) array;
+      double[] to = new double[from.length];
+      for(int i = 0; i < from.length; i++)
+        to[i] = from[i];
+      
+      return to;
+    }
+    
+    if(array instanceof short[]) {
+      short[] from = (short[]) array;
+      double[] to = new double[from.length];
+      for(int i = 0; i < from.length; i++)
+        to[i] = from[i];
+      
+      return to;
+    }
+    
+    if(array instanceof int[]) {
+      int[] from = (int[]) array;
+      double[] to = new double[from.length];
+      for(int i = 0; i < from.length; i++)
+        to[i] = from[i];
+      
+      return to;
+    }
+    
+    if(array instanceof long[]) {
+      long[] from = (long[]) array;
+      double[] to = new double[from.length];
+      for(int i = 0; i < from.length; i++)
+        to[i] = from[i];
+      
+      return to;
+    }
+    
+    if(array instanceof float[]) {
+      float[] from = (float[]) array;
+      double[] to = new double[from.length];
+      for(int i = 0; i < from.length; i++)
+        to[i] = from[i];
+      
+      return to;
+    }
+    
+    if(array instanceof double[])
+      return ((double[]) array).clone();
+    
+    throw new ClassCastException(array + " is not an array of numbers or chars!");
+  }
+}
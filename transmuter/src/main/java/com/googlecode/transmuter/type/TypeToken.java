@@ -23,6 +23,9 @@ package com.googlecode.transmuter.type;
 import com.googlecode.transmuter.type.exception.MissingTypeParameterException;
 import com.googlecode.transmuter.type.exception.UnexpectedTypeException;
 
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
 import java.lang.reflect.*;
 import java.util.HashMap;
 import java.util.Map;
@@ -45,12 +48,31 @@ import static com.googlecode.transmuter.util.ObjectUtils.nonNull;
  * Also implements {@link #isAssignableFrom(Type)} to check type-safe
  * assignability.
  *
+ * <p>The type tokens returned by {@link #get(Type)} and {@link #get(Class)} are
+ * canonical: equal types get the very same instance, for as long as it's in
+ * use somewhere. So {@link #getType()} may return a type which is equal to,
+ * but not the same instance as, the one given to {@code get}. Type tokens made
+ * through subclassing are not canonical, and so are still compared by their
+ * types.
+ *
  * @author Bob Lee
  * @author Sven Mawson
  * @author Humberto S. N. dos Anjos
  * @param <T> a generic type
  */
 public abstract class TypeToken<T> {
+  // the canonical type tokens, spread over segments which are locked separately, and only to add or purge tokens. 
+  // The pool refers to the tokens weakly and to their types not at all, so it never keeps a type (or the class 
+  // loader behind it) from being unloaded; only a token in use does. Must come before any type token is made
+  private static final Segment[] POOL = new Segment[16];
+  static {
+    for(int i = 0; i < POOL.length; i++)
+      POOL[i] = new Segment();
+  }
+  
+  // where the references to collected type tokens show up, to be purged from the pool
+  private static final ReferenceQueue<TypeToken<?>> COLLECTED = new ReferenceQueue<TypeToken<?>>();
+  
   /** A type token instance representing the {@link Object} class. */
   public static final TypeToken<Object> OBJECT;
   /** A type token instance representing the {@link String} class. */
@@ -103,6 +125,14 @@ public abstract class TypeToken<T> {
         protected Boolean castToThis(Object value) {
           throw new ClassCastException(value + " is not a boolean!");
         }
+        
+        @Override
+        protected Object castArrayToThis(Object array) {
+          if(array instanceof boolean[])
+            return ((boolean[]) array).clone();
+          
+          throw new ClassCastException(array + " is not a boolean array!");
+        }
       };
       BYTE = new ValueType<Byte>(byte.class, Byte.class) {
         @Override
@@ -117,6 +147,11 @@ public abstract class TypeToken<T> {
           
           return ((Number) value).byteValue();
         }
+        
+        @Override
+        protected Object castArrayToThis(Object array) {
+          return PrimitiveArrays.toBytes(array);
+        }
       };
       CHARACTER = new ValueType<Character>(char.class, Character.class) {
         @Override
@@ -128,6 +163,11 @@ public abstract class TypeToken<T> {
           
           return (char) ((Number) value).intValue();
         }
+        
+        @Override
+        protected Object castArrayToThis(Object array) {
+          return PrimitiveArrays.toChars(array);
+        }
       };
       DOUBLE = new ValueType<Double>(double.class, Double.class) {
         @Override
@@ -142,6 +182,11 @@ public abstract class TypeToken<T> {
           
           return ((Number) value).doubleValue();
         }
+        
+        @Override
+        protected Object castArrayToThis(Object array) {
+          return PrimitiveArrays.toDoubles(array);
+        }
       };
       FLOAT = new ValueType<Float>(float.class, Float.class) {
         @Override
@@ -156,6 +201,11 @@ public abstract class TypeToken<T> {
           
           return ((Number) value).floatValue();
         }
+        
+        @Override
+        protected Object castArrayToThis(Object array) {
+          return PrimitiveArrays.toFloats(array);
+        }
       };
       INTEGER = new ValueType<Integer>(int.class, Integer.class) {
         @Override
@@ -170,6 +220,11 @@ public abstract class TypeToken<T> {
           
           return ((Number) value).intValue();
         }
+        
+        @Override
+        protected Object castArrayToThis(Object array) {
+          return PrimitiveArrays.toInts(array);
+        }
       };
       LONG = new ValueType<Long>(long.class, Long.class) {
         @Override
@@ -184,6 +239,11 @@ public abstract class TypeToken<T> {
           
           return ((Number) value).longValue(); 
         }
+        
+        @Override
+        protected Object castArrayToThis(Object array) {
+          return PrimitiveArrays.toLongs(array);
+        }
       };
       SHORT = new ValueType<Short>(short.class, Short.class) {
         @Override
@@ -198,6 +258,11 @@ public abstract class TypeToken<T> {
           
           return ((Number) value).shortValue(); 
         }
+        
+        @Override
+        protected Object castArrayToThis(Object array) {
+          return PrimitiveArrays.toShorts(array);
+        }
       };
       VOID = new ValueType<Void>(void.class, Void.class) {
         @Override
@@ -268,6 +333,37 @@ public abstract class TypeToken<T> {
      */
     protected abstract T castToThis(Object value);
     
+    /**
+     * Casts every element of the given array to this value type, as Java's primitive casts would, and returns them in 
+     * a new array of the primitive type represented by this instance. Nothing is boxed along the way; there is a 
+     * specialized loop for each pair of primitive types.
+     * <p>
+     * Only numeric and {@code char} arrays may be cast, except that a {@code boolean} array may be 
+     * {@linkplain #BOOLEAN cast} to a copy of itself.
+     * 
+     * 
+     * @param array an array of primitives.
+     * @return a new array of this instance's primitive type, e.g. {@code long[]} for {@link #LONG}.
+     * @throws IllegalArgumentException if {@code array} is {@code null}.
+     * @throws ClassCastException if {@code array} is not an array of primitives which can be cast to this value type.
+     */
+    public Object castArray(Object array) {
+      return castArrayToThis(nonNull(array, "array"));
+    }
+    
+    /**
+     * Casts the elements of the given non-null array to this value type, returning them in a new array. Called by 
+     * {@link #castArray(Object) castArray}; the default implementation casts nothing.
+     * 
+     * @param array a non-null object.
+     * @return a new array of this instance's primitive type.
+     * @throws ClassCastException if {@code array}'s elements cannot be cast to this value type.
+     * @see TypeToken.ValueType#castArray(Object)
+     */
+    protected Object castArrayToThis(Object array) {
+      throw new ClassCastException(array + " cannot be cast to an array of " + primitive + "!");
+    }
+    
     /**
      * Checks if the given type's matching value type is the same as this instance.
      * 
@@ -496,7 +592,7 @@ public abstract class TypeToken<T> {
    * Gets type token from super class's type parameter.
    */
   static TypeToken<?> fromSuperclassTypeParameter(Class<?> subclass) {
-    return new SimpleTypeToken<Object>(subclass);
+    return get(subclass);
   }
 
   private static Class<?> getRawType(Type type) {
@@ -539,7 +635,9 @@ public abstract class TypeToken<T> {
   }
 
   /**
-   * Gets underlying {@code Type} instance.
+   * Gets underlying {@code Type} instance. For a canonical type token, this is 
+   * the type it was first made with, which is equal to (but not necessarily 
+   * the same instance as) any other type it was later gotten with.
    * @return the underlying {@code Type} instance.
    */
   public Type getType() {
@@ -733,7 +831,7 @@ public abstract class TypeToken<T> {
   }
 
   /**
-   * Gets type token for the given {@code Type} instance.
+   * Gets the canonical type token for the given {@code Type} instance.
    * @param type a {@code Type} instance
    * @return the corresponding type token.
    */
@@ -741,20 +839,144 @@ public abstract class TypeToken<T> {
     if(type == null)
       return null;
     
-    return new SimpleTypeToken<Object>(type);
+    return intern(type);
   }
 
   /**
-   * Gets type token for the given {@code Class} instance.
+   * Gets the canonical type token for the given {@code Class} instance.
    * @param type a {@code Class} instance
    * @param <T> {@code type}'s type
    * @return the corresponding type token.
    */
+  @SuppressWarnings("unchecked")
   public static <T> TypeToken<T> get(Class<T> type) {
     if(type == null)
       return null;
     
-    return new SimpleTypeToken<T>(type);
+    return (TypeToken<T>) intern(type);
+  }
+  
+  /**
+   * Returns the canonical type token for the given type, making it if there 
+   * isn't one. A token already pooled is found without locking or 
+   * allocating anything; making a new one locks only the segment it goes to.
+   */
+  private static TypeToken<?> intern(Type type) {
+    purge();
+    
+    int hash = type.hashCode();
+    hash ^= (hash >>> 16);
+    Segment segment = POOL[(hash >>> 28) & (POOL.length - 1)];
+    
+    TypeToken<?> token = segment.get(type, hash);
+    return (token != null) ? token : segment.intern(type, hash);
+  }
+  
+  /**
+   * Removes the entries of collected type tokens from the pool. Cheap 
+   * enough to be done on every {@link #intern(Type) intern}, since there's 
+   * usually nothing to poll.
+   */
+  private static void purge() {
+    for(Reference<?> collected; (collected = COLLECTED.poll()) != null; ) {
+      Entry entry = (Entry) collected;
+      entry.segment.remove(entry);
+    }
+  }
+  
+  /**
+   * A hash table of canonical type tokens. Lookups take no locks, and may 
+   * race with changes; a lookup which misses because of that is retried 
+   * under the lock, so no token is ever made twice.
+   */
+  private static final class Segment {
+    private volatile Entry[] table = new Entry[16];
+    private int count;
+    
+    TypeToken<?> get(Type type, int hash) {
+      Entry[] tab = table;
+      for(Entry e = tab[hash & (tab.length - 1)]; e != null; e = e.next) {
+        TypeToken<?> token = e.get();
+        if(e.hash == hash && token != null && (token.type == type || token.type.equals(type)))
+          return token;
+      }
+      
+      return null;
+    }
+    
+    synchronized TypeToken<?> intern(Type type, int hash) {
+      TypeToken<?> token = get(type, hash);
+      if(token != null)
+        return token;
+      
+      Entry[] tab = table;
+      if(count >= tab.length - (tab.length >>> 2))
+        tab = resize(tab);
+      
+      token = new SimpleTypeToken<Object>(type);
+      int i = hash & (tab.length - 1);
+      tab[i] = new Entry(token, hash, this, tab[i]);
+      count++;
+      
+      table = tab; // publishes the new entry
+      return token;
+    }
+    
+    synchronized void remove(Entry entry) {
+      Entry[] tab = table;
+      int i = entry.hash & (tab.length - 1);
+      
+      Entry previous = null;
+      for(Entry e = tab[i]; e != null; previous = e, e = e.next) {
+        if(e != entry)
+          continue;
+        
+        if(previous == null)
+          tab[i] = e.next;
+        else
+          previous.next = e.next;
+        
+        count--;
+        table = tab;
+        return;
+      }
+    }
+    
+    /* (non-Javadoc)
+     * Moves all entries to a table twice as big. Lookups running meanwhile may miss, but never loop.
+     */
+    private Entry[] resize(Entry[] tab) {
+      Entry[] bigger = new Entry[tab.length << 1];
+      for(Entry head : tab) {
+        for(Entry e = head, next; e != null; e = next) {
+          next = e.next;
+          
+          int i = e.hash & (bigger.length - 1);
+          e.next = bigger[i];
+          bigger[i] = e;
+        }
+      }
+      
+      return bigger;
+    }
+  }
+  
+  /**
+   * An entry in the pool, which refers weakly to a canonical type token, and 
+   * shows up in {@link TypeToken#COLLECTED} to be removed once the token is 
+   * collected.
+   */
+  private static final class Entry extends WeakReference<TypeToken<?>> {
+    final int hash;
+    final Segment segment;
+    volatile Entry next;
+    
+    Entry(TypeToken<?> token, int hash, Segment segment, Entry next) {
+      super(token, COLLECTED);
+      this.hash = hash;
+      this.segment = segment;
+      this.next = next;
+    }
   }
   
   /**
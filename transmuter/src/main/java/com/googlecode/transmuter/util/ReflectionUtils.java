@@ -2,9 +2,12 @@ package com.googlecode.transmuter.util;
 
 import com.googlecode.transmuter.converter.exception.MethodOwnerTypeIncompatibilityException;
 
+import java.lang.reflect.Array;
 import java.lang.reflect.Method;
 import java.lang.reflect.Modifier;
 import java.lang.reflect.Type;
+import java.util.LinkedHashSet;
+import java.util.Set;
 
 import static com.googlecode.gentyref.GenericTypeReflector.*;
 import static com.googlecode.transmuter.util.ObjectUtils.isEmpty;
@@ -162,4 +165,49 @@ public final class ReflectionUtils {
     
     return instance.getClass();
   }
+  
+  /**
+   * Returns all classes which the given class is assignable to, i.e. all classes {@code c} for which 
+   * {@code c.isAssignableFrom(cls)} holds. That is {@code cls} itself, all its superclasses and superinterfaces, and, 
+   * if {@code cls} is an array class, all the array classes it is covariant with.
+   * <p>
+   * Primitive types are assignable only to themselves, so autoboxing is not considered here.
+   * 
+   * @param cls a class object.
+   * @return all classes which {@code cls} is assignable to, starting with {@code cls} itself. Empty if {@code cls} is 
+   * {@code null}.
+   */
+  public static Set<Class<?>> getAssignableClasses(Class<?> cls) {
+    Set<Class<?>> classes = new LinkedHashSet<Class<?>>();
+    
+    if(cls != null)
+      collectAssignableClasses(cls, classes);
+    
+    return classes;
+  }
+  
+  private static void collectAssignableClasses(Class<?> cls, Set<Class<?>> classes) {
+    if(! classes.add(cls))
+      return;
+    
+    if(cls.isArray()) {
+      // arrays are covariant with the arrays of their component's supertypes...
+      for(Class<?> component : getAssignableClasses(cls.getComponentType()))
+        classes.add(Array.newInstance(component, 0).getClass());
+      
+      // ...and are also Objects, Cloneables and Serializables
+      classes.add(Object.class);
+      classes.add(Cloneable.class);
+      classes.add(java.io.Serializable.class);
+      return;
+    }
+    
+    for(Class<?> i : cls.getInterfaces())
+      collectAssignableClasses(i, classes);
+    
+    if(cls.getSuperclass() != null)
+      collectAssignableClasses(cls.getSuperclass(), classes);
+    else if(cls.isInterface()) // interfaces are Objects too
+      classes.add(Object.class);
+  }
 }
@@ -0,0 +1,394 @@
+package com.googlecode.transmuter.util;
+
+import java.lang.reflect.Array;
+import java.lang.reflect.GenericArrayType;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.lang.reflect.WildcardType;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static com.googlecode.transmuter.util.ObjectUtils.areEqual;
+import static com.googlecode.transmuter.util.ObjectUtils.hashCodeOf;
+import static com.googlecode.transmuter.util.ObjectUtils.nonNull;
+
+/**
+ * Contains utility methods to write fully resolved types as strings, and to read them back.
+ * This class is not meant to be inherited from or instantiated.
+ * <p>
+ * A descriptor is built as follows:
+ * <ul>
+ * <li>primitive types are written as in the JVM, with a single letter: {@code I} for {@code int}, {@code V} for
+ * {@code void}, and so on;</li>
+ * <li>other classes and interfaces are written as {@code L}, the class name, and {@code ;}, like
+ * {@code Ljava.util.Map$Entry;};</li>
+ * <li>array classes are written as {@code [} and their component type, like {@code [I} or
+ * {@code [Ljava.lang.String;};</li>
+ * <li>parameterized types are written as {@code P}, their owner type (or {@code N} if there isn't one), their raw
+ * type and their type arguments between {@code <} and {@code >}, like {@code PNLjava.util.List;<Ljava.lang.String;>};
+ * </li>
+ * <li>wildcard types are written as {@code ?}, their upper bounds and their lower bounds, each group between
+ * {@code <} and {@code >}, like {@code ?<Ljava.lang.Number;><>};</li>
+ * <li>generic array types are written as {@code A} and their component type.</li>
+ * </ul>
+ * Type variables have no descriptors, since they only make sense next to their declarations.
+ * <p>
+ * The types read from descriptors are equal to the ones the reflection API returns, and have the same hash codes.
+ *
+ * @author Humberto S. N. dos Anjos
+ */
+public final class TypeDescriptors {
+  private static final Map<Class<?>, Character> PRIMITIVE_CODES = new HashMap<Class<?>, Character>();
+  private static final Map<Character, Class<?>> PRIMITIVES = new HashMap<Character, Class<?>>();
+
+  static {
+    primitive(boolean.class, 'Z');
+    primitive(byte.class, 'B');
+    primitive(char.class, 'C');
+    primitive(short.class, 'S');
+    primitive(int.class, 'I');
+    primitive(long.class, 'J');
+    primitive(float.class, 'F');
+    primitive(double.class, 'D');
+    primitive(void.class, 'V');
+  }
+
+  // ensuring non-instantiability and non-inheritability
+  private TypeDescriptors() { /* empty block */ }
+
+  /**
+   * Returns the descriptor of the given type.
+   *
+   * @param type a fully resolved type.
+   * @return the descriptor of the given type.
+   * @throws IllegalArgumentException if {@code type} is null, or has type variables or some other kind of type
+   * without a descriptor.
+   */
+  public static String descriptorOf(Type type) throws IllegalArgumentException {
+    StringBuilder sb = new StringBuilder();
+    write(nonNull(type, "type"), sb);
+    return sb.toString();
+  }
+
+  /**
+   * Returns the type described by the given descriptor, loading its classes with the given class loader.
+   *
+   * @param descriptor a type descriptor.
+   * @param loader the class loader used to find the classes in the descriptor.
+   * @return the type described by the given descriptor.
+   * @throws ClassNotFoundException if some class in the descriptor could not be found.
+   * @throws IllegalArgumentException if one of the arguments is null, or {@code descriptor} is malformed.
+   */
+  public static Type typeOf(String descriptor, ClassLoader loader)
+  throws ClassNotFoundException, IllegalArgumentException {
+    Reader reader = new Reader(nonNull(descriptor, "descriptor"), nonNull(loader, "loader"));
+    Type type = reader.read();
+
+    if(reader.position != descriptor.length())
+      throw reader.malformed();
+
+    return type;
+  }
+
+  // helper methods
+  /* (non-Javadoc)
+   * Registers a primitive type and its code.
+   */
+  private static void primitive(Class<?> type, char code) {
+    PRIMITIVE_CODES.put(type, code);
+    PRIMITIVES.put(code, type);
+  }
+
+  /* (non-Javadoc)
+   * Appends the descriptor of the given type to sb.
+   */
+  private static void write(Type type, StringBuilder sb) {
+    if(type instanceof Class<?>) {
+      Class<?> cls = (Class<?>) type;
+
+      if(cls.isPrimitive())
+        sb.append(PRIMITIVE_CODES.get(cls));
+      else if(cls.isArray())
+        write(cls.getComponentType(), sb.append('['));
+      else
+        sb.append('L').append(cls.getName()).append(';');
+    } else if(type instanceof ParameterizedType) {
+      ParameterizedType parameterized = (ParameterizedType) type;
+
+      sb.append('P');
+      if(parameterized.getOwnerType() != null)
+        write(parameterized.getOwnerType(), sb);
+      else
+        sb.append('N');
+
+      write(parameterized.getRawType(), sb);
+      write(parameterized.getActualTypeArguments(), sb);
+    } else if(type instanceof WildcardType) {
+      WildcardType wildcard = (WildcardType) type;
+
+      sb.append('?');
+      write(wildcard.getUpperBounds(), sb);
+      write(wildcard.getLowerBounds(), sb);
+    } else if(type instanceof GenericArrayType) {
+      write(((GenericArrayType) type).getGenericComponentType(), sb.append('A'));
+    } else {
+      throw new IllegalArgumentException("no descriptor for " + type);
+    }
+  }
+
+  /* (non-Javadoc)
+   * Appends the descriptors of the given types to sb, between angle brackets.
+   */
+  private static void write(Type[] types, StringBuilder sb) {
+    sb.append('<');
+    for(Type type : types)
+      write(type, sb);
+    sb.append('>');
+  }
+
+  /* (non-Javadoc)
+   * Reads types from a descriptor, keeping track of the current position.
+   */
+  private static class Reader {
+    final String descriptor;
+    final ClassLoader loader;
+    int position;
+
+    Reader(String descriptor, ClassLoader loader) {
+      this.descriptor = descriptor;
+      this.loader = loader;
+    }
+
+    Type read() throws ClassNotFoundException {
+      char code = next();
+      switch(code) {
+        case 'L':
+          int end = descriptor.indexOf(';', position);
+          if(end < 0)
+            throw malformed();
+
+          String name = descriptor.substring(position, end);
+          position = end + 1;
+          return Class.forName(name, false, loader);
+        case '[':
+          return Array.newInstance(readClass(), 0).getClass();
+        case 'P':
+          Type ownerType = null;
+          if(peek() == 'N')
+            position++;
+          else
+            ownerType = read();
+
+          return new ParameterizedTypeImpl(ownerType, readClass(), readAll());
+        case '?':
+          return new WildcardTypeImpl(readAll(), readAll());
+        case 'A':
+          return new GenericArrayTypeImpl(read());
+        default:
+          Class<?> primitive = PRIMITIVES.get(code);
+          if(primitive == null)
+            throw malformed();
+
+          return primitive;
+      }
+    }
+
+    Class<?> readClass() throws ClassNotFoundException {
+      Type type = read();
+      if(! (type instanceof Class<?>))
+        throw malformed();
+
+      return (Class<?>) type;
+    }
+
+    Type[] readAll() throws ClassNotFoundException {
+      if(next() != '<')
+        throw malformed();
+
+      List<Type> types = new ArrayList<Type>();
+      while(peek() != '>')
+        types.add(read());
+
+      position++;
+      return types.toArray(new Type[types.size()]);
+    }
+
+    char next() {
+      char c = peek();
+      position++;
+      return c;
+    }
+
+    char peek() {
+      if(position >= descriptor.length())
+        throw malformed();
+
+      return descriptor.charAt(position);
+    }
+
+    IllegalArgumentException malformed() {
+      return new IllegalArgumentException("malformed descriptor at " + position + ": " + descriptor);
+    }
+  }
+
+  /* (non-Javadoc)
+   * The types below follow the equals() and hashCode() contracts of the JDK's own implementations, so that they can
+   * be used interchangeably with what the reflection API returns.
+   */
+  private static class ParameterizedTypeImpl implements ParameterizedType {
+    private final Type ownerType;
+    private final Class<?> rawType;
+    private final Type[] actualTypeArguments;
+
+    ParameterizedTypeImpl(Type ownerType, Class<?> rawType, Type[] actualTypeArguments) {
+      this.ownerType = ownerType;
+      this.rawType = rawType;
+      this.actualTypeArguments = actualTypeArguments;
+    }
+
+    @Override
+    public Type getOwnerType() {
+      return ownerType;
+    }
+
+    @Override
+    public Type getRawType() {
+      return rawType;
+    }
+
+    @Override
+    public Type[] getActualTypeArguments() {
+      return actualTypeArguments.clone();
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if(o == this)
+        return true;
+
+      if(! (o instanceof ParameterizedType))
+        return false;
+
+      ParameterizedType other = (ParameterizedType) o;
+      return areEqual(ownerType, other.getOwnerType())
+          && areEqual(rawType, other.getRawType())
+          && Arrays.equals(actualTypeArguments, other.getActualTypeArguments());
+    }
+
+    @Override
+    public int hashCode() {
+      return Arrays.hashCode(actualTypeArguments) ^ hashCodeOf(ownerType) ^ hashCodeOf(rawType);
+    }
+
+    @Override
+    public String toString() {
+      StringBuilder sb = new StringBuilder();
+      if(ownerType != null)
+        sb.append(typeName(ownerType)).append('$').append(rawType.getSimpleName());
+      else
+        sb.append(rawType.getName());
+
+      if(actualTypeArguments.length > 0) {
+        sb.append('<');
+        for(int i = 0; i < actualTypeArguments.length; i++)
+          sb.append((i > 0) ? ", " : "").append(typeName(actualTypeArguments[i]));
+        sb.append('>');
+      }
+
+      return sb.toString();
+    }
+  }
+
+  private static class WildcardTypeImpl implements WildcardType {
+    private final Type[] upperBounds;
+    private final Type[] lowerBounds;
+
+    WildcardTypeImpl(Type[] upperBounds, Type[] lowerBounds) {
+      this.upperBounds = upperBounds;
+      this.lowerBounds = lowerBounds;
+    }
+
+    @Override
+    public Type[] getUpperBounds() {
+      return upperBounds.clone();
+    }
+
+    @Override
+    public Type[] getLowerBounds() {
+      return lowerBounds.clone();
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if(o == this)
+        return true;
+
+      if(! (o instanceof WildcardType))
+        return false;
+
+      WildcardType other = (WildcardType) o;
+      return Arrays.equals(upperBounds, other.getUpperBounds())
+          && Arrays.equals(lowerBounds, other.getLowerBounds());
+    }
+
+    @Override
+    public int hashCode() {
+      return Arrays.hashCode(lowerBounds) ^ Arrays.hashCode(upperBounds);
+    }
+
+    @Override
+    public String toString() {
+      if(lowerBounds.length > 0)
+        return "? super " + typeName(lowerBounds[0]);
+
+      if(upperBounds.length == 0 || Object.class.equals(upperBounds[0]))
+        return "?";
+
+      return "? extends " + typeName(upperBounds[0]);
+    }
+  }
+
+  private static class GenericArrayTypeImpl implements GenericArrayType {
+    private final Type genericComponentType;
+
+    GenericArrayTypeImpl(Type genericComponentType) {
+      this.genericComponentType = genericComponentType;
+    }
+
+    @Override
+    public Type getGenericComponentType() {
+      return genericComponentType;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      return (o == this)
+          || (o instanceof GenericArrayType
+              && areEqual(genericComponentType, ((GenericArrayType) o).getGenericComponentType()));
+    }
+
+    @Override
+    public int hashCode() {
+      return hashCodeOf(genericComponentType);
+    }
+
+    @Override
+    public String toString() {
+      return typeName(genericComponentType) + "[]";
+    }
+  }
+
+  /* (non-Javadoc)
+   * Returns a readable name for the given type.
+   */
+  private static String typeName(Type type) {
+    if(! (type instanceof Class<?>))
+      return String.valueOf(type);
+
+    Class<?> cls = (Class<?>) type;
+    return cls.isArray() ? typeName(cls.getComponentType()) + "[]" : cls.getName();
+  }
+}
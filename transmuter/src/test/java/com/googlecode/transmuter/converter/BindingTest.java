@@ -210,6 +210,39 @@ public class BindingTest {
     }
   }
   
+  @Test
+  public void bind() {
+    final List<Object[]> calls = new ArrayList<Object[]>();
+    
+    Binding binding = new Binding(string, substringMethod) {
+      @Override
+      protected Invoker bind(Object instance, Method method) {
+        final Invoker reflective = super.bind(instance, method);
+        
+        return new Invoker() {
+          @Override
+          public Object invoke(Object... args) throws Exception {
+            calls.add(args);
+            return reflective.invoke(args);
+          }
+        };
+      }
+    };
+    
+    assertEquals("012", binding.invoke(0, 3));
+    assertEquals(1, calls.size());
+    
+    try {
+      binding.invoke(-1, 9);
+      fail();
+    } catch(InvocationException e) {
+      TestUtils.assertType(InvocationTargetException.class, e.getCause());
+    }
+    
+    assertEquals(2, calls.size());
+    assertNotNull(substring.getInvoker());
+  }
+  
   @Test
   public void getDeclaringType() throws SecurityException, NoSuchMethodException {
     assertEquals(String.class, substring.getInstanceClass());
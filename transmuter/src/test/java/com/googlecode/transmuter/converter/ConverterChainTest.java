@@ -0,0 +1,58 @@
+package com.googlecode.transmuter.converter;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.fail;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.Test;
+
+import com.googlecode.transmuter.converter.exception.InvocationException;
+import com.googlecode.transmuter.fixture.MultipleConverter;
+import com.googlecode.transmuter.fixture.StringConverter;
+import com.googlecode.transmuter.type.TypeToken;
+import com.googlecode.transmuter.util.exception.ObjectInstantiationException;
+
+public class ConverterChainTest {
+  @Test
+  public void invoke() throws SecurityException, NoSuchMethodException {
+    Converter stringify = new Converter(new StringConverter(), StringConverter.class.getMethod("stringify", Object.class));
+    Converter listify = new Converter(new MultipleConverter(), MultipleConverter.class.getMethod("convert", String.class));
+    
+    ConverterChain chain = new ConverterChain(Arrays.asList(stringify, listify));
+    
+    assertEquals(new ConverterType(TypeToken.OBJECT, new TypeToken<List<String>>() { /**/ }), chain.getType());
+    assertEquals(Arrays.asList(stringify, listify), chain.getConverters());
+    assertEquals(Arrays.asList("1"), chain.invoke(1));
+    assertEquals(2, chain.getCost());
+    
+    assertEquals(chain, new ConverterChain(new ArrayList<Converter>(Arrays.asList(stringify, listify))));
+    assertEquals(chain.hashCode(), new ConverterChain(Arrays.asList(stringify, listify)).hashCode());
+    assertFalse(chain.equals(new ConverterChain(Arrays.asList(stringify))));
+    
+    try {
+      chain.invoke(1, 2);
+      fail();
+    } catch(InvocationException e) {
+      // empty block
+    }
+  }
+  
+  @SuppressWarnings("unchecked")
+  @Test
+  public void invalid() {
+    for(List<Converter> converters : Arrays.asList(null, Collections.<Converter>emptyList(), 
+        Collections.<Converter>singletonList(null))) {
+      try {
+        new ConverterChain(converters);
+        fail();
+      } catch(ObjectInstantiationException e) {
+        // empty block
+      }
+    }
+  }
+}
@@ -0,0 +1,206 @@
+package com.googlecode.transmuter.converter;
+
+import com.googlecode.transmuter.fixture.*;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.jar.JarEntry;
+import java.util.jar.JarOutputStream;
+
+import static com.googlecode.transmuter.TestUtils.*;
+import static org.junit.Assert.*;
+
+public class ConverterScannerTest {
+  private ExecutorService executor;
+  private File jar;
+
+  @Before
+  public void setUp() {
+    executor = Executors.newFixedThreadPool(2);
+  }
+
+  @After
+  public void tearDown() {
+    executor.shutdownNow();
+
+    if(jar != null)
+      jar.delete();
+  }
+
+  @Test
+  public void scanDirectory() throws Exception {
+    File testClasses = rootOf(MultipleConverter.class);
+
+    ConverterScanner.Result result = new ConverterScanner().scan(Arrays.asList(testClasses));
+
+    assertTrue(result.getErrors().isEmpty());
+    assertEquals(Collections.singleton(testClasses), result.getElapsedTimes().keySet());
+    assertTrue(result.getElapsedTimes().get(testClasses) > 0);
+
+    // what reflection says, class by class
+    List<String> expected = new ArrayList<String>();
+    for(String className : classNamesIn(testClasses, ""))
+      if(isConverterSource(Class.forName(className, false, getClass().getClassLoader())))
+        expected.add(className);
+
+    assertMatchingCollections(expected, result.getClassNames());
+    assertEquals(expected.size(), result.getClassNames().size());
+
+    assertTrue(result.getClassNames().contains(MultipleConverter.class.getName()));
+    assertTrue(result.getClassNames().contains(FlawedConverter.class.getName())); // it's up to the provider to complain
+    assertTrue(result.getClassNames().contains(InheritedConverter.class.getName()));
+    assertFalse(result.getClassNames().contains(getClass().getName()));
+
+    // nested classes are taken as declared in the source code
+    assertTrue(result.getClassNames().contains(NestedConverters.Public.class.getName()));
+    assertFalse(result.getClassNames().contains(NestedConverters.class.getName() + "$Protected"));
+    assertFalse(result.getClassNames().contains("com.googlecode.transmuter.fixture.HiddenConverters$Public"));
+  }
+
+  @Test
+  public void scanInterrupted() throws Exception {
+    File testClasses = rootOf(MultipleConverter.class);
+
+    // in the calling thread
+    Thread.currentThread().interrupt();
+    try {
+      new ConverterScanner().scan(Arrays.asList(testClasses));
+      fail();
+    } catch(InterruptedException e) {
+      assertFalse(Thread.currentThread().isInterrupted());
+    }
+
+    // in some other thread, which has no one to throw to
+    Thread.currentThread().interrupt();
+    ConverterScanner.RootScan scan = new ConverterScanner.RootScan(testClasses).call();
+    assertTrue(Thread.interrupted());
+
+    assertEquals(1, scan.errors.size());
+    assertEquals(InterruptedIOException.class, scan.errors.get(0).getClass());
+  }
+
+  @Test
+  public void scanJar() throws Exception {
+    jar = File.createTempFile("converters", ".jar");
+    JarOutputStream out = new JarOutputStream(new FileOutputStream(jar));
+    try {
+      for(Class<?> cls : Arrays.<Class<?>>asList(
+          MultipleConverter.class, Widener.class, InheritedConverter.class, Object.class))
+        putClass(out, cls);
+
+      out.putNextEntry(new JarEntry("com/googlecode/transmuter/fixture/"));
+      out.putNextEntry(new JarEntry("com/googlecode/transmuter/fixture/Broken.class"));
+      out.write(new byte[] { (byte) 0xCA, (byte) 0xFE, (byte) 0xBA, (byte) 0xBE, 0, 0 });
+      out.putNextEntry(new JarEntry("README"));
+      out.write("not a class".getBytes("UTF-8"));
+    } finally {
+      out.close();
+    }
+
+    File missing = new File(jar.getPath() + ".missing");
+    List<File> roots = Arrays.asList(jar, missing);
+
+    ConverterScanner.Result result = new ConverterScanner().scan(roots);
+
+    assertEquals(
+        Arrays.asList(MultipleConverter.class.getName(), Widener.class.getName(), InheritedConverter.class.getName()),
+        result.getClassNames());
+    assertEquals(roots, new ArrayList<File>(result.getElapsedTimes().keySet()));
+    assertEquals(2, result.getErrors().size()); // the broken class and the missing jar
+
+    // the results feed a provider
+    List<Converter> converters = new ArrayList<Converter>();
+    for(Converter converter : new Converts.IndexProvider(result.getClassNames(), null))
+      converters.add(converter);
+
+    assertEquals(2 + 3 + 3, converters.size());
+
+    // running in parallel changes nothing
+    ConverterScanner.Result parallel = new ConverterScanner(executor).scan(roots);
+    assertEquals(result.getClassNames(), parallel.getClassNames());
+    assertEquals(result.getElapsedTimes().keySet(), parallel.getElapsedTimes().keySet());
+    assertEquals(result.getErrors().size(), parallel.getErrors().size());
+  }
+
+  @Test
+  public void scanNothing() throws InterruptedException {
+    ConverterScanner.Result result = new ConverterScanner(executor).scan(new ArrayList<File>());
+
+    assertTrue(result.getClassNames().isEmpty());
+    assertTrue(result.getElapsedTimes().isEmpty());
+    assertTrue(result.getErrors().isEmpty());
+
+    try {
+      new ConverterScanner().scan(null);
+      fail();
+    } catch(IllegalArgumentException e) {
+      // empty block
+    }
+  }
+
+  // helper methods
+  private static boolean isConverterSource(Class<?> cls) {
+    if(! Modifier.isPublic(cls.getModifiers()) || Modifier.isAbstract(cls.getModifiers()) || cls.isInterface())
+      return false;
+
+    for(Class<?> c = cls.getDeclaringClass(); c != null; c = c.getDeclaringClass())
+      if(! Modifier.isPublic(c.getModifiers()))
+        return false;
+
+    try {
+      cls.getConstructor();
+    } catch(NoSuchMethodException e) {
+      return false;
+    }
+
+    for(Method method : cls.getMethods())
+      if(method.isAnnotationPresent(Converts.class))
+        return true;
+
+    return false;
+  }
+
+  private static File rootOf(Class<?> cls) throws Exception {
+    return new File(cls.getProtectionDomain().getCodeSource().getLocation().toURI());
+  }
+
+  private static List<String> classNamesIn(File directory, String packagePrefix) {
+    List<String> classNames = new ArrayList<String>();
+    for(File file : directory.listFiles()) {
+      String name = file.getName();
+      if(file.isDirectory())
+        classNames.addAll(classNamesIn(file, packagePrefix + name + "."));
+      else if(name.endsWith(".class"))
+        classNames.add(packagePrefix + name.substring(0, name.length() - ".class".length()));
+    }
+
+    return classNames;
+  }
+
+  private static void putClass(JarOutputStream out, Class<?> cls) throws IOException {
+    String name = cls.getName().replace('.', '/') + ".class";
+    out.putNextEntry(new JarEntry(name));
+
+    InputStream in = cls.getClassLoader() != null
+                   ? cls.getClassLoader().getResourceAsStream(name)
+                   : ClassLoader.getSystemResourceAsStream(name);
+    try {
+      byte[] buffer = new byte[4096];
+      for(int read; (read = in.read(buffer)) >= 0;)
+        out.write(buffer, 0, read);
+    } finally {
+      in.close();
+    }
+  }
+}
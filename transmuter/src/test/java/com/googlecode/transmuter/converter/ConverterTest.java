@@ -1,13 +1,21 @@
 package com.googlecode.transmuter.converter;
 
+import com.googlecode.transmuter.converter.exception.ConverterTypeIncompatibleWithConverterException;
+import com.googlecode.transmuter.converter.exception.InvocationException;
+import com.googlecode.transmuter.fixture.GenericConverter;
+import com.googlecode.transmuter.fixture.Widener;
 import com.googlecode.transmuter.util.exception.ObjectInstantiationException;
 import org.junit.Before;
 import org.junit.Test;
 
+import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
+import java.util.Arrays;
 
 import static com.googlecode.transmuter.TestUtils.extractMethod;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 
 public class ConverterTest {
@@ -33,6 +41,148 @@ public class ConverterTest {
     assertEquals(new ConverterType(Object.class, String.class), valueOf.getType());
   }
   
+  public static class Costs {
+    @Converts
+    public String usual(Object o) {
+      return "usual";
+    }
+    
+    @Converts(cost = 3)
+    public String expensive(Object o) {
+      return "expensive";
+    }
+    
+    @Converts(cost = 0)
+    public String free(Object o) {
+      return "free";
+    }
+  }
+  
+  @Test
+  public void getCost() throws SecurityException, NoSuchMethodException {
+    Costs costs = new Costs();
+    
+    assertEquals(Converts.DEFAULT_COST, matches.getCost());
+    assertEquals(Converts.DEFAULT_COST, new Converter(costs, extractMethod(Costs.class, "usual", Object.class)).getCost());
+    assertEquals(3, new Converter(costs, extractMethod(Costs.class, "expensive", Object.class)).getCost());
+    
+    try {
+      new Converter(costs, extractMethod(Costs.class, "free", Object.class));
+      fail();
+    } catch(ObjectInstantiationException e) {
+      assertEquals(1, e.getCauses().size());
+      assertEquals(IllegalArgumentException.class, e.getCauses().iterator().next().getClass());
+    }
+  }
+  
+  @Test
+  public void isPrimitive() throws SecurityException, NoSuchMethodException {
+    Widener widener = new Widener();
+    
+    assertTrue(new Converter(widener, extractMethod(Widener.class, "convertToLong", int.class)).isPrimitive());
+    assertTrue(new Converter(widener, extractMethod(Widener.class, "convertToDouble", int.class)).isPrimitive());
+    assertFalse(new Converter(widener, extractMethod(Widener.class, "convertToDouble", long.class)).isPrimitive());
+    
+    assertFalse(matches.isPrimitive());
+    assertFalse(valueOf.isPrimitive());
+  }
+  
+  @Test
+  public void invokePrimitive() throws SecurityException, NoSuchMethodException {
+    Converter widen = new Converter(new Widener(), extractMethod(Widener.class, "convertToLong", int.class));
+    assertEquals(3L, widen.invoke(3));
+    
+    // arguments are widened like Method.invoke does
+    assertEquals(3L, widen.invoke((byte) 3));
+    assertEquals(3L, widen.invoke((short) 3));
+    assertEquals(97L, widen.invoke('a'));
+    
+    for(Object[] args : new Object[][] { { 3L }, { 3.0f }, { 3.0 }, { true }, { "3" }, { null }, { 3, 4 }, {} }) {
+      try {
+        widen.invoke(args);
+        fail();
+      } catch(InvocationException e) {
+        assertEquals(IllegalArgumentException.class, e.getCause().getClass());
+      }
+    }
+    
+    Converter toInt = new Converter(new PrimitiveConverter.DoubleToInt() {
+      @SuppressWarnings("unused") // just to make Eclipse happy
+      @Converts
+      public int convertToInt(double from) {
+        return (int) (from * 2);
+      }
+    }, extractMethod(PrimitiveConverter.DoubleToInt.class, "convertToInt", double.class));
+    
+    assertEquals(3, toInt.invoke(1.5));
+    assertEquals(3, toInt.invoke(1.5f));
+    assertEquals(6, toInt.invoke(3L));
+    assertEquals(6, toInt.invoke(3));
+    assertEquals(6, toInt.invoke((byte) 3));
+    
+    Converter fail = new Converter(new PrimitiveConverter.LongToInt() {
+      @SuppressWarnings("unused") // just to make Eclipse happy
+      @Converts
+      public int convertToInt(long from) {
+        throw new ArithmeticException("overflow");
+      }
+    }, extractMethod(PrimitiveConverter.LongToInt.class, "convertToInt", long.class));
+    
+    try {
+      fail.invoke(3L);
+      fail();
+    } catch(InvocationException e) {
+      assertEquals(InvocationTargetException.class, e.getCause().getClass());
+      assertEquals(ArithmeticException.class, e.getCause().getCause().getClass());
+    }
+  }
+  
+  @Test
+  public void constructorWithTrustedType() throws SecurityException, NoSuchMethodException {
+    ConverterType type = new ConverterType(String.class, boolean.class);
+    Converter trusted = new Converter(string, matchesMethod, type);
+    
+    assertTrue(type == trusted.getType());
+    assertEquals(matches, trusted);
+    assertEquals(true, trusted.invoke("\\d+"));
+    
+    try {
+      new Converter(string, matchesMethod, null);
+      fail();
+    } catch(ObjectInstantiationException e) {
+      assertEquals(IllegalArgumentException.class, e.getCauses().iterator().next().getClass());
+    }
+    
+    // everything else is still checked
+    try {
+      new Converter(null, matchesMethod, type);
+      fail();
+    } catch(ObjectInstantiationException e) {
+      // empty block
+    }
+    
+    // narrower types than the erased signature's are fine, since generic types are erased to their bounds
+    Method convert = extractMethod(GenericConverter.class, "convert", Object.class);
+    new Converter(new GenericConverter<Integer, Number>(), convert, new ConverterType(Integer.class, Number.class));
+    new Converter(null, valueOfMethod, new ConverterType(Integer.class, String.class));
+    new Converter(string, matchesMethod, new ConverterType(String.class, Boolean.class));
+    
+    // but types which plainly don't fit the method are not
+    for(ConverterType wrong : Arrays.asList(
+        new ConverterType(Integer.class, boolean.class), 
+        new ConverterType(String.class, int.class),
+        new ConverterType(Object.class, boolean.class))) {
+      try {
+        new Converter(string, matchesMethod, wrong);
+        fail(String.valueOf(wrong));
+      } catch(ObjectInstantiationException e) {
+        assertEquals(1, e.getCauses().size());
+        assertEquals(ConverterTypeIncompatibleWithConverterException.class, 
+            e.getCauses().iterator().next().getClass());
+      }
+    }
+  }
+  
   @Test
   public void constructorWithInvalidMethod() throws SecurityException, NoSuchMethodException {
     Method substringMethod = extractMethod(String.class, "substring", int.class, int.class);
@@ -222,6 +222,39 @@ public class EagerProviderTest {
       
       assertEquals(5, causes.size());
     }
+    
+    // the scan results are cached, but the errors still show up
+    try {
+      new Converts.EagerProvider(new FlawedConverter());
+      fail();
+    } catch(ConverterProviderException e) {
+      assertEquals(5, e.getCauses().size());
+    }
+  }
+  
+  @Test
+  public void sameClassProviders() throws SecurityException, NoSuchMethodException {
+    MultipleConverter first = new MultipleConverter();
+    MultipleConverter second = new MultipleConverter();
+    
+    List<Converter> firstConverters = toList(new Converts.EagerProvider(first));
+    List<Converter> secondConverters = toList(new Converts.EagerProvider(second));
+    
+    // the class was scanned only once...
+    assertTrue(ConverterMethods.of(MultipleConverter.class) == ConverterMethods.of(MultipleConverter.class));
+    assertEquals(2, ConverterMethods.of(MultipleConverter.class).size());
+    
+    // ...but each instance got its own converters
+    assertMatchingCollections(Arrays.asList(
+        new Converter(second, extractMethod(MultipleConverter.class, "converter", double.class)),
+        new Converter(second, extractMethod(MultipleConverter.class, "convert", String.class))),
+      secondConverters);
+    
+    for(int i = 0; i < firstConverters.size(); i++) {
+      assertTrue(first == firstConverters.get(i).getInstance());
+      assertTrue(second == secondConverters.get(i).getInstance());
+      assertTrue(firstConverters.get(i).getType() == secondConverters.get(i).getType());
+    }
   }
   
   @Test
@@ -0,0 +1,144 @@
+package com.googlecode.transmuter.converter;
+
+import com.googlecode.transmuter.converter.exception.ConverterProviderException;
+import com.googlecode.transmuter.fixture.*;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.lang.reflect.Method;
+import java.net.URL;
+import java.util.*;
+
+import static com.googlecode.transmuter.TestUtils.*;
+import static org.junit.Assert.*;
+
+public class IndexProviderTest {
+  @Test
+  public void indexProvider() throws IOException, SecurityException, NoSuchMethodException {
+    ClassLoader loader = loaderWith(
+        "# converters\n" +
+        MultipleConverter.class.getName() + "\n" +
+        "\n" +
+        "  " + StringConverter.class.getName() + "  # with a comment\n",
+        StringConverter.class.getName()); // listed again in another index
+
+    Converts.IndexProvider provider = new Converts.IndexProvider(loader);
+
+    List<Method> methods = new ArrayList<Method>();
+    for(Converter converter : provider)
+      methods.add(converter.getMethod());
+
+    assertMatchingCollections(Arrays.asList(
+          extractMethod(MultipleConverter.class, "converter", double.class),
+          extractMethod(MultipleConverter.class, "convert", String.class),
+          extractMethod(StringConverter.class, "stringify", Object.class)),
+        methods);
+    assertEquals(3, methods.size());
+  }
+
+  @Test
+  public void emptyIndexProvider() throws IOException {
+    assertFalse(new Converts.IndexProvider(loaderWith()).iterator().hasNext());
+    assertFalse(new Converts.IndexProvider(loaderWith("# nothing here\n")).iterator().hasNext());
+
+    // no index files in the test classpath
+    assertFalse(new Converts.IndexProvider().iterator().hasNext());
+    assertFalse(new Converts.IndexProvider(null).iterator().hasNext());
+  }
+
+  @Test
+  public void flawedIndexProvider() throws IOException {
+    ClassLoader loader = loaderWith(
+        "no.such.Converter\n" +
+        FlawedConverter.class.getName() + "\n" +
+        Integer.class.getName() + "\n" + // no no-arg constructor
+        StringConverter.class.getName() + "\n");
+
+    try {
+      new Converts.IndexProvider(loader);
+      fail();
+    } catch(ConverterProviderException e) {
+      List<Class<?>> causes = new ArrayList<Class<?>>();
+      for(Exception cause : e.getCauses())
+        causes.add(cause.getClass());
+
+      assertEquals(1 + 5 + 1, causes.size());
+      assertTrue(causes.contains(ClassNotFoundException.class));
+      assertTrue(causes.contains(NoSuchMethodException.class));
+    }
+  }
+
+  @Test
+  public void generatedProviders() throws IOException, SecurityException, NoSuchMethodException {
+    int made = IndexedConverter_ConverterProvider.made;
+
+    List<Converter> converters = new ArrayList<Converter>();
+    for(Converter converter : new Converts.IndexProvider(loaderWith(IndexedConverter.class.getName())))
+      converters.add(converter);
+
+    assertEquals(made + 1, IndexedConverter_ConverterProvider.made);
+    assertEquals(1, converters.size());
+    assertEquals(extractMethod(IndexedConverter.class, "convert", Integer.class), converters.get(0).getMethod());
+    assertEquals(new ConverterType(Integer.class, String.class), converters.get(0).getType());
+
+    // what the generated provider throws is reported like anything else
+    try {
+      new Converts.IndexProvider(loaderWith(IndexedConverter.Nested.class.getName()));
+      fail();
+    } catch(ConverterProviderException e) {
+      assertEquals(1, e.getCauses().size());
+      assertEquals(IllegalStateException.class, e.getCauses().iterator().next().getClass());
+    }
+
+    // classes without generated providers are scanned as usual
+    assertEquals(made + 1, IndexedConverter_ConverterProvider.made);
+    assertTrue(new Converts.IndexProvider(loaderWith(StringConverter.class.getName())).iterator().hasNext());
+  }
+
+  @Test
+  public void immutableIndexProvider() throws IOException {
+    Iterator<Converter> iterator = new Converts.IndexProvider(loaderWith(StringConverter.class.getName())).iterator();
+    iterator.next();
+
+    try {
+      iterator.remove();
+      fail();
+    } catch(UnsupportedOperationException e) {
+      // empty block
+    }
+  }
+
+  // helper methods
+  /* (non-Javadoc)
+   * Returns a class loader which sees the given contents as index files, and nothing else.
+   */
+  private static ClassLoader loaderWith(String... indexes) throws IOException {
+    final List<URL> urls = new ArrayList<URL>();
+    for(String index : indexes) {
+      File file = File.createTempFile("converters", ".index");
+      file.deleteOnExit();
+
+      Writer writer = new OutputStreamWriter(new FileOutputStream(file), "UTF-8");
+      try {
+        writer.write(index);
+      } finally {
+        writer.close();
+      }
+
+      urls.add(file.toURI().toURL());
+    }
+
+    return new ClassLoader(IndexProviderTest.class.getClassLoader()) {
+      @Override
+      public Enumeration<URL> getResources(String name) throws IOException {
+        return Converts.IndexProvider.INDEX.equals(name)
+             ? Collections.enumeration(urls)
+             : super.getResources(name);
+      }
+    };
+  }
+}
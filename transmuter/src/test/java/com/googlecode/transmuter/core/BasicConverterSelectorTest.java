@@ -7,6 +7,7 @@ import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
@@ -145,4 +146,48 @@ public class BasicConverterSelectorTest {
       assertEquals(compatibleType, e.getConverterType());
     }
   }
+  
+  @Test
+  public void noCompatibleConvertersMessage() {
+    final int max = NoCompatibleConvertersFoundException.MAX_CONVERTERS_IN_MESSAGE;
+    
+    try {
+      selector.getConverterFor(unknownType, Collections.nCopies(max + 2, stringify));
+      fail();
+    } catch (NoCompatibleConvertersFoundException e) {
+      assertEquals(max, CollectionUtils.toList(e.getConverters()).size());
+      assertEquals(max + 2, e.getConverterCount());
+      assertTrue(e.getMessage().startsWith("No compatible converters found for " + unknownType + " in [" + stringify));
+      assertTrue(e.getMessage().endsWith(", and 2 more]"));
+    }
+    
+    try {
+      selector.getConverterFor(unknownType, Arrays.asList(stringify, equals));
+      fail();
+    } catch (NoCompatibleConvertersFoundException e) {
+      assertEquals(
+          "No compatible converters found for " + unknownType + " in " + Arrays.asList(stringify, equals), 
+          e.getMessage());
+    }
+  }
+  
+  @Test
+  public void noCompatibleConvertersAfterChanges() {
+    final List<Converter> converters = new ArrayList<Converter>(Arrays.asList(stringify, equals));
+    
+    try {
+      selector.getConverterFor(unknownType, converters);
+      fail();
+    } catch (NoCompatibleConvertersFoundException e) {
+      // the converters checked change before the message is built
+      converters.clear();
+      converters.add(equals);
+      
+      assertEquals(Arrays.asList(stringify, equals), CollectionUtils.toList(e.getConverters()));
+      assertEquals(2, e.getConverterCount());
+      assertEquals(
+          "No compatible converters found for " + unknownType + " in " + Arrays.asList(stringify, equals), 
+          e.getMessage());
+    }
+  }
 }
@@ -0,0 +1,283 @@
+package com.googlecode.transmuter.core;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import com.googlecode.transmuter.converter.Converter;
+import com.googlecode.transmuter.converter.ConverterChain;
+import com.googlecode.transmuter.converter.ConverterType;
+import com.googlecode.transmuter.converter.Converts;
+import com.googlecode.transmuter.core.exception.NoCompatibleConvertersFoundException;
+import com.googlecode.transmuter.core.exception.TooManyConvertersFoundException;
+import com.googlecode.transmuter.core.util.ConverterMap;
+
+public class ChainingConverterSelectorTest {
+  public static class Money {
+    final BigDecimal amount;
+    
+    public Money(BigDecimal amount) {
+      this.amount = amount;
+    }
+  }
+  
+  public static class Decimals {
+    @Converts
+    public BigDecimal parse(String s) {
+      return new BigDecimal(s);
+    }
+    
+    @Converts
+    public Money money(BigDecimal amount) {
+      return new Money(amount);
+    }
+    
+    @Converts
+    public String format(Money money) {
+      return "$" + money.amount;
+    }
+  }
+  
+  public static class Integers {
+    @Converts
+    public Integer parse(String s) {
+      return Integer.valueOf(s);
+    }
+    
+    @Converts
+    public Money money(Integer amount) {
+      return new Money(new BigDecimal(amount));
+    }
+  }
+  
+  public static class ExpensiveIntegers {
+    @Converts
+    public Integer parse(String s) {
+      return Integer.valueOf(s);
+    }
+    
+    @Converts(cost = 5)
+    public Money money(Integer amount) {
+      return new Money(new BigDecimal(amount));
+    }
+  }
+  
+  public static class Shortcut {
+    @Converts(cost = 4)
+    public Money money(String s) {
+      return new Money(new BigDecimal(s).negate());
+    }
+  }
+  
+  public interface Priced { /* marker */ }
+  
+  public interface Named { /* marker */ }
+  
+  public static class Item implements Priced, Named { /* both */ }
+  
+  public static class Items {
+    @Converts
+    public Item parse(String s) {
+      return new Item();
+    }
+    
+    @Converts
+    public Money price(Priced priced) {
+      return new Money(BigDecimal.ONE);
+    }
+    
+    @Converts
+    public Money name(Named named) {
+      return new Money(BigDecimal.TEN);
+    }
+  }
+  
+  private ChainingConverterSelector selector;
+  private ConverterMap map;
+  
+  @Before
+  public void setUp() {
+    selector = new ChainingConverterSelector();
+    map = new ConverterMap();
+    
+    for(Converter c : new Converts.EagerProvider(new Decimals()))
+      map.put(c.getType(), c);
+  }
+  
+  @Test
+  public void chain() {
+    // single converters don't need chains
+    Converter parse = selector.getConverterFor(new ConverterType(String.class, BigDecimal.class), map);
+    assertTrue(! (parse instanceof ConverterChain));
+    
+    Converter converter = selector.getConverterFor(new ConverterType(String.class, Money.class), map);
+    assertTrue(converter instanceof ConverterChain);
+    assertEquals(2, ((ConverterChain) converter).getConverters().size());
+    assertEquals(new ConverterType(String.class, Money.class), converter.getType());
+    assertEquals(new BigDecimal("1.5"), ((Money) converter.invoke("1.5")).amount);
+    
+    // three converters, which is the default maximum
+    converter = selector.getConverterFor(new ConverterType(String.class, String.class), map);
+    assertEquals(3, ((ConverterChain) converter).getConverters().size());
+    assertEquals("$2.50", converter.invoke("2.50"));
+    
+    // also from an iterable
+    List<Converter> converters = new ArrayList<Converter>(map.values());
+    converter = selector.getConverterFor(new ConverterType(String.class, Money.class), converters);
+    assertEquals(new BigDecimal("3"), ((Money) converter.invoke("3")).amount);
+  }
+  
+  @Test
+  public void selectorOnlyBreaksTies() {
+    final List<ConverterType> failed = new ArrayList<ConverterType>();
+    selector = new ChainingConverterSelector(new BasicConverterSelector() {
+      @Override
+      public Converter getConverterFor(ConverterType type, Map<? extends ConverterType, ? extends Converter> map) {
+        try {
+          return super.getConverterFor(type, map);
+        } catch(RuntimeException e) {
+          failed.add(type);
+          throw e;
+        }
+      }
+    }, ChainingConverterSelector.DEFAULT_MAX_LENGTH);
+    
+    // the only failure is the one which starts the search
+    Converter converter = selector.getConverterFor(new ConverterType(String.class, String.class), map);
+    assertEquals(3, ((ConverterChain) converter).getConverters().size());
+    assertEquals(Arrays.asList(new ConverterType(String.class, String.class)), failed);
+    
+    // even when nothing is found
+    failed.clear();
+    try {
+      selector.getConverterFor(new ConverterType(Money.class, Integer.class), map);
+      fail();
+    } catch(NoCompatibleConvertersFoundException e) {
+      assertEquals(Arrays.asList(new ConverterType(Money.class, Integer.class)), failed);
+    }
+  }
+  
+  @Test
+  public void maxLength() {
+    selector = new ChainingConverterSelector(new BasicConverterSelector(), 2);
+    assertEquals(2, selector.getMaxLength());
+    
+    selector.getConverterFor(new ConverterType(String.class, Money.class), map);
+    try {
+      selector.getConverterFor(new ConverterType(String.class, String.class), map);
+      fail();
+    } catch(NoCompatibleConvertersFoundException e) {
+      assertEquals(new ConverterType(String.class, String.class), e.getConverterType());
+    }
+    
+    try {
+      new ChainingConverterSelector(new BasicConverterSelector(), 0);
+      fail();
+    } catch(IllegalArgumentException e) {
+      // empty block
+    }
+    
+    try {
+      new ChainingConverterSelector(null, 2);
+      fail();
+    } catch(IllegalArgumentException e) {
+      // empty block
+    }
+  }
+  
+  @Test
+  public void noChain() {
+    try {
+      selector.getConverterFor(new ConverterType(Money.class, Integer.class), map);
+      fail();
+    } catch(NoCompatibleConvertersFoundException e) {
+      // empty block
+    }
+  }
+  
+  @Test
+  public void tooManyChains() {
+    for(Converter c : new Converts.EagerProvider(new Integers()))
+      map.put(c.getType(), c);
+    
+    // String -> BigDecimal -> Money or String -> Integer -> Money?
+    try {
+      selector.getConverterFor(new ConverterType(String.class, Money.class), map);
+      fail();
+    } catch(TooManyConvertersFoundException e) {
+      assertEquals(2, e.getConverters().size());
+    }
+  }
+  
+  @Test
+  public void tooManyLastLinks() {
+    map.clear();
+    for(Converter c : new Converts.EagerProvider(new Items()))
+      map.put(c.getType(), c);
+    
+    // String -> Item, and then Priced -> Money or Named -> Money?
+    try {
+      selector.getConverterFor(new ConverterType(String.class, Money.class), map);
+      fail();
+    } catch(TooManyConvertersFoundException e) {
+      assertEquals(2, e.getConverters().size());
+      for(Converter converter : e.getConverters())
+        assertEquals(2, ((ConverterChain) converter).getConverters().size());
+    }
+  }
+  
+  @Test
+  public void cheapestChain() {
+    for(Converter c : new Converts.EagerProvider(new ExpensiveIntegers()))
+      map.put(c.getType(), c);
+    
+    // String -> BigDecimal -> Money costs 2, String -> Integer -> Money costs 6
+    Converter converter = selector.getConverterFor(new ConverterType(String.class, Money.class), map);
+    assertEquals(2, converter.getCost());
+    assertEquals(BigDecimal.class, ((ConverterChain) converter).getConverters().get(0).getType().getToType().getRawType());
+    
+    // a longer chain wins if it is cheaper: String -> BigDecimal -> Money -> String costs 3
+    map.remove(new ConverterType(BigDecimal.class, Money.class));
+    map.put(new ConverterType(String.class, Money.class), new Converts.EagerProvider(new Shortcut()).iterator().next());
+    
+    converter = selector.getConverterFor(new ConverterType(Integer.class, String.class), map);
+    assertEquals(6, converter.getCost()); // Integer -> Money -> String; no BigDecimal -> Money anymore
+    assertEquals("$7", converter.invoke(7));
+    
+    converter = selector.getConverterFor(new ConverterType(String.class, String.class), map);
+    assertEquals(5, converter.getCost()); // String -> Money (the shortcut) -> String
+    assertEquals("$-1", converter.invoke("1"));
+  }
+  
+  @Test
+  public void transmuter() {
+    Transmuter t = new Transmuter(selector);
+    t.register(map.values());
+    
+    assertEquals("$1", t.convert("1", String.class));
+    assertEquals("$2", t.convert("2", String.class));
+    assertEquals(1, t.getConverterCache().getMissCount());
+    
+    // chains break when a link goes away
+    t.unregister(BigDecimal.class, Money.class);
+    try {
+      t.convert("3", Money.class);
+      fail();
+    } catch(NoCompatibleConvertersFoundException e) {
+      // empty block
+    }
+    
+    // and are found again when a link comes back
+    t.register(new Converts.EagerProvider(new Integers()));
+    assertEquals(new BigDecimal("4"), t.convert("4", Money.class).amount);
+  }
+}
@@ -0,0 +1,137 @@
+package com.googlecode.transmuter.core;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import com.googlecode.transmuter.converter.ConverterType;
+import com.googlecode.transmuter.converter.Converts;
+import com.googlecode.transmuter.core.exception.ConverterRegistrationException;
+import com.googlecode.transmuter.core.exception.NoCompatibleConvertersFoundException;
+import com.googlecode.transmuter.core.exception.TooManyConvertersFoundException;
+import com.googlecode.transmuter.core.util.CopyOnWriteConverterMap;
+import com.googlecode.transmuter.fixture.FlawedConverter;
+import com.googlecode.transmuter.fixture.MultipleConverter;
+import com.googlecode.transmuter.fixture.StringConverter;
+
+public class ConcurrentTransmuterTest {
+  private ConcurrentTransmuter t;
+  
+  @Before
+  public void setUp() {
+    t = new ConcurrentTransmuter();
+  }
+  
+  @Test
+  public void registerConvertAndUnregister() {
+    assertTrue(t.getConverterMap() instanceof CopyOnWriteConverterMap);
+    
+    t.register(new Converts.EagerProvider(new StringConverter()));
+    t.register(new Converts.EagerProvider(new MultipleConverter()));
+    
+    assertEquals(3, t.getConverterMap().size());
+    assertEquals(t.getConverterMap().getVersion(), t.getConverterMapVersion());
+    assertEquals("1", t.convert(1, String.class));
+    assertEquals("double: 2.0", t.convert(2.0, String.class));
+    assertEquals("1", t.convert(1, String.class));
+    assertEquals(1, t.getConverterCache().getHitCount());
+    
+    t.unregister(new ConverterType(Object.class, String.class));
+    
+    assertFalse(t.isRegistered(Object.class, String.class));
+    try {
+      t.convert(1, String.class);
+      fail();
+    } catch(NoCompatibleConvertersFoundException e) {
+      assertEquals(new ConverterType(Integer.class, String.class), e.getConverterType());
+    }
+  }
+  
+  @Test
+  public void failedRegistrationChangesNothing() {
+    t.register(new Converts.EagerProvider(new StringConverter()));
+    
+    try {
+      t.register(new Converts.LazyProvider(new FlawedConverter()));
+      fail();
+    } catch(ConverterRegistrationException e) {
+      // empty block
+    }
+    
+    assertEquals(1, t.getConverterMap().size());
+  }
+  
+  @Test
+  public void convertWhileRegistering() throws InterruptedException {
+    t.register(new Converts.EagerProvider(new MultipleConverter()));
+    
+    final int readers = 4;
+    final AtomicBoolean done = new AtomicBoolean(false);
+    final CountDownLatch started = new CountDownLatch(readers);
+    final List<Throwable> errors = Collections.synchronizedList(new ArrayList<Throwable>());
+    
+    List<Thread> threads = new ArrayList<Thread>();
+    for(int i = 0; i < readers; i++) {
+      threads.add(new Thread() {
+        @Override
+        public void run() {
+          started.countDown();
+          
+          try {
+            while(! done.get()) {
+              assertEquals("double: 2.0", t.convert(2.0, String.class));
+              
+              // StringConverter comes and goes, but is never half-registered
+              try {
+                assertEquals("1", t.convert(1, String.class));
+              } catch(NoCompatibleConvertersFoundException e) {
+                // not registered right now
+              }
+            }
+          } catch(Throwable e) {
+            errors.add(e);
+          }
+        }
+      });
+    }
+    
+    for(Thread thread : threads)
+      thread.start();
+    
+    started.await();
+    for(int i = 0; i < 200; i++) {
+      t.register(new Converts.EagerProvider(new StringConverter()));
+      t.unregister(new ConverterType(Object.class, String.class));
+    }
+    done.set(true);
+    
+    for(Thread thread : threads)
+      thread.join();
+    
+    assertTrue(errors.toString(), errors.isEmpty());
+  }
+  
+  @Test(expected = TooManyConvertersFoundException.class)
+  public void tooManyConverters() {
+    t.register(new Converts.EagerProvider(new StringConverter()));
+    t.register(new Converts.EagerProvider(new Object() {
+      @SuppressWarnings("unused") // just to make Eclipse happy
+      @Converts
+      public String stringify(Number n) {
+        return n.toString();
+      }
+    }));
+    
+    t.convert(1, String.class);
+  }
+}
@@ -0,0 +1,110 @@
+package com.googlecode.transmuter.core;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import com.googlecode.transmuter.converter.ConverterType;
+import com.googlecode.transmuter.converter.Converts;
+import com.googlecode.transmuter.core.exception.NoCompatibleConvertersFoundException;
+import com.googlecode.transmuter.core.exception.TooManyConvertersFoundException;
+import com.googlecode.transmuter.fixture.MultipleConverter;
+import com.googlecode.transmuter.fixture.StringConverter;
+import com.googlecode.transmuter.type.TypeToken;
+
+public class ConversionHandleTest {
+  private Transmuter t;
+  
+  @Before
+  public void setUp() {
+    t = new Transmuter();
+    t.register(new Converts.EagerProvider(new MultipleConverter()));
+  }
+  
+  @Test
+  public void convert() {
+    ConversionHandle<Double, String> handle = t.handleFor(double.class, String.class);
+    
+    assertEquals(new ConverterType(double.class, String.class), handle.getConverterType());
+    assertTrue(t == handle.getTransmuter());
+    assertEquals("double: 1.0", handle.convert(1.0));
+    assertEquals("double: 2.5", handle.convert(2.5));
+    
+    ConversionHandle<String, List<String>> listHandle = 
+        t.handleFor(TypeToken.STRING, new TypeToken<List<String>>() { /**/ });
+    assertEquals(Arrays.asList("a"), listHandle.convert("a"));
+  }
+  
+  @Test
+  public void reresolve() {
+    t.register(new Converts.EagerProvider(new StringConverter()));
+    
+    ConversionHandle<Integer, String> handle = t.handleFor(Integer.class, String.class);
+    assertEquals("1", handle.convert(1));
+    
+    // the picked converter goes away
+    t.unregister(Object.class, String.class);
+    try {
+      handle.convert(1);
+      fail();
+    } catch(NoCompatibleConvertersFoundException e) {
+      assertEquals(handle.getConverterType(), e.getConverterType());
+    }
+    
+    // ...and comes back
+    t.register(new Converts.EagerProvider(new StringConverter()));
+    assertEquals("2", handle.convert(2));
+    
+    // other changes may make it ambiguous
+    t.register(new Converts.EagerProvider(new Object() {
+      @SuppressWarnings("unused") // just to make Eclipse happy
+      @Converts
+      public String convert(Number n) {
+        return "number";
+      }
+    }));
+    
+    try {
+      handle.convert(3);
+      fail();
+    } catch(TooManyConvertersFoundException e) {
+      // empty block
+    }
+  }
+  
+  @Test
+  public void frozen() {
+    ConversionHandle<Double, String> handle = t.freeze().handleFor(double.class, String.class);
+    
+    assertEquals("double: 1.0", handle.convert(1.0));
+    assertEquals(handle.getConverter(), handle.getConverter());
+  }
+  
+  @Test(expected = NoCompatibleConvertersFoundException.class)
+  public void noCompatibleConverters() {
+    t.handleFor(Integer.class, String.class);
+  }
+  
+  @Test
+  public void nulls() {
+    try {
+      t.handleFor(null, TypeToken.STRING);
+      fail();
+    } catch(IllegalArgumentException e) {
+      // empty block
+    }
+    
+    try {
+      t.handleFor(TypeToken.STRING, TypeToken.get(void.class));
+      fail();
+    } catch(IllegalArgumentException e) {
+      // empty block
+    }
+  }
+}
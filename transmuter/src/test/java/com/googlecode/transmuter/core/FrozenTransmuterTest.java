@@ -0,0 +1,133 @@
+package com.googlecode.transmuter.core;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import com.googlecode.transmuter.converter.ConverterType;
+import com.googlecode.transmuter.converter.Converts;
+import com.googlecode.transmuter.core.exception.NoCompatibleConvertersFoundException;
+import com.googlecode.transmuter.fixture.MultipleConverter;
+import com.googlecode.transmuter.fixture.StringConverter;
+import com.googlecode.transmuter.type.TypeToken;
+
+public class FrozenTransmuterTest {
+  private Transmuter t;
+  
+  @Before
+  public void setUp() {
+    t = new Transmuter();
+    t.register(new Converts.EagerProvider(new MultipleConverter()));
+  }
+  
+  @Test
+  public void freeze() {
+    FrozenTransmuter frozen = t.freeze();
+    
+    assertTrue(frozen == frozen.freeze());
+    assertEquals(t.getConverterMap(), frozen.getConverterMap());
+    assertTrue(frozen.getConverterMap().isFrozen());
+    assertEquals(frozen.getConverterMap().getVersion(), frozen.getConverterMapVersion());
+    assertEquals(2, frozen.getDispatchTable().size());
+    
+    // exact matches skip the cache altogether
+    assertEquals("double: 1.0", frozen.convert(1.0, String.class));
+    assertEquals("double: 2.0", frozen.convert(2.0, double.class, String.class));
+    assertEquals(Arrays.asList("a"), frozen.convert("a", TypeToken.STRING, new TypeToken<List<String>>() { /**/ }));
+    assertEquals(0, frozen.getConverterCache().getHitCount());
+    assertEquals(0, frozen.getConverterCache().getMissCount());
+    
+    // plain classes are dispatched by class, again and again
+    assertEquals("double: 3.0", frozen.convert(3.0, String.class));
+    assertEquals("double: 4.0", frozen.convert(4.0, String.class));
+    assertEquals(0, frozen.getConverterCache().getHitCount());
+    
+    // changes in the original don't reach the frozen copy
+    t.register(new Converts.EagerProvider(new StringConverter()));
+    assertEquals(3, t.getConverterMap().size());
+    assertEquals(2, frozen.getConverterMap().size());
+    
+    try {
+      frozen.convert(1, String.class);
+      fail();
+    } catch(NoCompatibleConvertersFoundException e) {
+      assertEquals(new ConverterType(Integer.class, String.class), e.getConverterType());
+    }
+  }
+  
+  @Test
+  public void refreeze() {
+    FrozenTransmuter frozen = t.freeze();
+    
+    t.register(new Converts.EagerProvider(new Object() {
+      @SuppressWarnings("unused") // just to make Eclipse happy
+      @Converts
+      public String print(Integer i) {
+        return "int: " + i;
+      }
+    }));
+    
+    // a new registration needs a new freeze, with a new dispatch table
+    FrozenTransmuter refrozen = t.freeze();
+    assertEquals(2, frozen.getDispatchTable().size());
+    assertEquals(3, refrozen.getDispatchTable().size());
+    
+    assertEquals("int: 1", refrozen.convert(1, String.class));
+    assertEquals("double: 1.0", refrozen.convert(1.0, String.class));
+    assertEquals(0, refrozen.getConverterCache().getHitCount());
+    assertEquals(0, refrozen.getConverterCache().getMissCount());
+  }
+  
+  @Test
+  public void compatibleConverters() {
+    t.register(new Converts.EagerProvider(new StringConverter()));
+    FrozenTransmuter frozen = t.freeze();
+    
+    // not an exact match, so it is searched for once and then cached
+    assertEquals("1", frozen.convert(1, String.class));
+    assertEquals("2", frozen.convert(2, String.class));
+    assertEquals(1, frozen.getConverterCache().getHitCount());
+    assertEquals(1, frozen.getConverterCache().getMissCount());
+  }
+  
+  @Test
+  public void immutable() {
+    FrozenTransmuter frozen = t.freeze();
+    
+    try {
+      frozen.register(new Converts.EagerProvider(new StringConverter()));
+      fail();
+    } catch(UnsupportedOperationException e) {
+      // empty block
+    }
+    
+    try {
+      frozen.unregister(double.class, String.class);
+      fail();
+    } catch(UnsupportedOperationException e) {
+      // empty block
+    }
+    
+    try {
+      frozen.getConverterMap().clear();
+      fail();
+    } catch(UnsupportedOperationException e) {
+      // empty block
+    }
+    
+    assertTrue(frozen.isRegistered(double.class, String.class));
+    assertFalse(frozen.isRegistered(Object.class, String.class));
+  }
+  
+  @Test(expected = IllegalArgumentException.class)
+  public void nullConverters() {
+    new FrozenTransmuter(null);
+  }
+}
@@ -0,0 +1,183 @@
+package com.googlecode.transmuter.core;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import com.googlecode.transmuter.converter.Converter;
+import com.googlecode.transmuter.converter.ConverterType;
+import com.googlecode.transmuter.converter.Converts;
+import com.googlecode.transmuter.core.exception.NoCompatibleConvertersFoundException;
+import com.googlecode.transmuter.core.exception.TooManyConvertersFoundException;
+import com.googlecode.transmuter.core.util.ConverterMap;
+
+public class MostSpecificConverterSelectorTest {
+  public static class Stringifiers {
+    @Converts
+    public String object(Object o) {
+      return "object";
+    }
+    
+    @Converts
+    public String number(Number n) {
+      return "number";
+    }
+    
+    @Converts
+    public String serializable(Serializable s) {
+      return "serializable";
+    }
+    
+    @Converts
+    public String charSequence(CharSequence s) {
+      return "charSequence";
+    }
+  }
+  
+  public static class ExpensiveCharSequence {
+    @Converts(cost = 10)
+    public String charSequence(CharSequence s) {
+      return "expensive";
+    }
+  }
+  
+  private MostSpecificConverterSelector selector;
+  private List<Converter> converters;
+  private ConverterMap map;
+  
+  @Before
+  public void setUp() {
+    selector = new MostSpecificConverterSelector();
+    converters = new ArrayList<Converter>();
+    map = new ConverterMap();
+    
+    for(Converter c : new Converts.EagerProvider(new Stringifiers())) {
+      converters.add(c);
+      map.put(c.getType(), c);
+    }
+  }
+  
+  @Test
+  public void mostSpecific() {
+    ConverterType integerType = new ConverterType(Integer.class, String.class);
+    ConverterType stringType = new ConverterType(String.class, String.class);
+    
+    // Integer is a Number and Serializable, but Number is Serializable
+    assertEquals("number", selector.getConverterFor(integerType, map).invoke(1));
+    assertEquals("object", selector.getConverterFor(new ConverterType(Thread.class, String.class), map).invoke(1));
+    
+    // String is Serializable and a CharSequence, which are unrelated
+    try {
+      selector.getConverterFor(stringType, map);
+      fail();
+    } catch(TooManyConvertersFoundException e) {
+      assertEquals(2, e.getConverters().size());
+    }
+    
+    map.remove(new ConverterType(CharSequence.class, String.class));
+    assertEquals("serializable", selector.getConverterFor(stringType, map).invoke(""));
+    
+    // exact matches are still exact
+    assertEquals("object", selector.getConverterFor(new ConverterType(Object.class, String.class), map).invoke(1));
+  }
+  
+  @Test
+  public void cheapest() {
+    ConverterType stringType = new ConverterType(String.class, String.class);
+    ConverterType charSequenceType = new ConverterType(CharSequence.class, String.class);
+    
+    // Serializable and CharSequence are unrelated, but one of them costs more now
+    map.remove(charSequenceType);
+    map.put(charSequenceType, new Converts.EagerProvider(new ExpensiveCharSequence()).iterator().next());
+    
+    assertEquals("serializable", selector.getConverterFor(stringType, map).invoke(""));
+    assertEquals("serializable", selector.getConverterFor(stringType, new ArrayList<Converter>(map.values())).invoke(""));
+  }
+  
+  @Test
+  public void iterableAndPlainMap() {
+    ConverterType stringType = new ConverterType(String.class, String.class);
+    Map<ConverterType, Converter> plainMap = new HashMap<ConverterType, Converter>(map);
+    
+    for(Object source : Arrays.asList(converters, plainMap)) {
+      assertEquals("number", pick(new ConverterType(Integer.class, String.class), source).invoke(1));
+      
+      try {
+        pick(stringType, source);
+        fail();
+      } catch(TooManyConvertersFoundException e) {
+        assertEquals(2, e.getConverters().size());
+      }
+    }
+    
+    for(Converter c : converters) {
+      if(c.getType().equals(new ConverterType(CharSequence.class, String.class))) {
+        converters.remove(c);
+        plainMap.remove(c.getType());
+        break;
+      }
+    }
+    
+    for(Object source : Arrays.asList(converters, plainMap))
+      assertEquals("serializable", pick(stringType, source).invoke(""));
+  }
+  
+  @Test
+  public void noCompatibleConverters() {
+    try {
+      selector.getConverterFor(new ConverterType(Object.class, Integer.class), map);
+      fail();
+    } catch(NoCompatibleConvertersFoundException e) {
+      // empty block
+    }
+  }
+  
+  @Test
+  public void transmuter() {
+    map.remove(new ConverterType(CharSequence.class, String.class));
+    
+    Transmuter t = new Transmuter(selector);
+    t.register(map.values());
+    
+    assertTrue(selector == t.getConverterSelector());
+    assertEquals("number", t.convert(1, String.class));
+    assertEquals("number", t.convert(2L, String.class));
+    assertEquals("serializable", t.convert("", String.class));
+    
+    FrozenTransmuter frozen = t.freeze();
+    assertTrue(selector == frozen.getConverterSelector());
+    assertEquals("number", frozen.convert(1, String.class));
+    
+    ConcurrentTransmuter concurrent = new ConcurrentTransmuter(selector);
+    concurrent.register(map.values());
+    assertEquals("number", concurrent.convert(1, String.class));
+    
+    // the basic selector would give up
+    Transmuter basic = new Transmuter();
+    basic.register(map.values());
+    try {
+      basic.convert(1, String.class);
+      fail();
+    } catch(TooManyConvertersFoundException e) {
+      // empty block
+    }
+  }
+  
+  @SuppressWarnings("unchecked")
+  private Converter pick(ConverterType type, Object source) {
+    if(source instanceof Map)
+      return selector.getConverterFor(type, (Map<ConverterType, Converter>) source);
+    
+    return selector.getConverterFor(type, (List<Converter>) source);
+  }
+}
@@ -0,0 +1,361 @@
+package com.googlecode.transmuter.core;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.URISyntaxException;
+import java.security.CodeSource;
+import java.security.ProtectionDomain;
+import java.security.cert.Certificate;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import com.googlecode.transmuter.converter.Converter;
+import com.googlecode.transmuter.converter.ConverterType;
+import com.googlecode.transmuter.converter.Converts;
+import com.googlecode.transmuter.core.exception.StaleSnapshotException;
+import com.googlecode.transmuter.fixture.MultipleConverter;
+import com.googlecode.transmuter.fixture.MultipleValidConverter;
+import com.googlecode.transmuter.fixture.StringArrayToListStringConverter;
+import com.googlecode.transmuter.fixture.StringConverter;
+import com.googlecode.transmuter.fixture.Widener;
+import com.googlecode.transmuter.type.TypeToken;
+
+public class RegistrySnapshotTest {
+  private static final ClassLoader LOADER = RegistrySnapshotTest.class.getClassLoader();
+
+  private Transmuter t;
+  private File file;
+
+  @Before
+  public void setUp() throws IOException {
+    t = new Transmuter();
+    for(Object source : Arrays.asList(
+        new MultipleConverter(), new MultipleValidConverter(), new StringArrayToListStringConverter(), new Widener()))
+      t.register(new Converts.EagerProvider(source));
+
+    file = File.createTempFile("registry", ".snapshot");
+    file.deleteOnExit();
+  }
+
+  @Test
+  public void saveAndLoad() throws IOException {
+    RegistrySnapshot.save(t, file);
+
+    List<Converter> converters = RegistrySnapshot.load(file, LOADER);
+    assertEquals(t.getConverterMap().size(), converters.size());
+
+    Map<ConverterType, Converter> loaded = new HashMap<ConverterType, Converter>();
+    for(Converter converter : converters) {
+      Converter original = t.getConverterMap().get(converter.getType());
+
+      assertEquals(original.getMethod(), converter.getMethod());
+      assertEquals(original.getInstanceClass(), converter.getInstanceClass());
+      assertEquals(original.isPrimitive(), converter.isPrimitive());
+      assertNotSame(original.getInstance(), converter.getInstance());
+
+      loaded.put(converter.getType(), converter);
+    }
+    assertEquals(t.getConverterMap().keySet(), loaded.keySet());
+
+    // converters which shared an instance still do
+    Converter converter = loaded.get(new ConverterType(double.class, String.class));
+    Converter convert = loaded.get(new ConverterType(TypeToken.STRING, new TypeToken<List<String>>() { /**/ }));
+    assertSame(converter.getInstance(), convert.getInstance());
+
+    // and they work like the originals
+    Transmuter restored = new Transmuter();
+    restored.register(converters);
+
+    assertEquals(Arrays.asList("a"), restored.convert("a", new TypeToken<List<String>>() { /**/ }));
+    assertEquals(1L, restored.convertToLong(1));
+  }
+
+  @Test
+  public void saveAndLoadEmpty() throws IOException {
+    RegistrySnapshot.save(new Transmuter(), file);
+    assertTrue(RegistrySnapshot.load(file).isEmpty());
+  }
+
+  @Test
+  public void saveOverLoaded() throws IOException {
+    File dir = File.createTempFile("snapshots", "");
+    assertTrue(dir.delete() && dir.mkdir());
+    dir.deleteOnExit();
+
+    File saved = new File(dir, "registry.snapshot");
+    saved.deleteOnExit();
+
+    RegistrySnapshot.save(new Transmuter(), saved);
+    assertTrue(RegistrySnapshot.load(saved, LOADER).isEmpty());
+
+    // the usual recovery: save again over the file just loaded
+    RegistrySnapshot.save(t, saved);
+    assertEquals(t.getConverterMap().size(), RegistrySnapshot.load(saved, LOADER).size());
+
+    // and no temporary files are left behind
+    assertEquals(Arrays.asList(saved.getName()), Arrays.asList(dir.list()));
+  }
+
+  @Test
+  public void loadStale() throws Exception {
+    String name = StringConverter.class.getName();
+    File dir = copyClassFile(StringConverter.class);
+
+    Transmuter copied = new Transmuter();
+    copied.register(new Converts.EagerProvider(new DirectoryClassLoader(dir, name).loadClass(name).newInstance()));
+    RegistrySnapshot.save(copied, file);
+
+    assertEquals(1, RegistrySnapshot.load(file, new DirectoryClassLoader(dir, name)).size());
+
+    // the class is now found somewhere else
+    try {
+      RegistrySnapshot.load(file, LOADER);
+      fail();
+    } catch(StaleSnapshotException e) {
+      assertTrue(e.getMessage().contains(name));
+    }
+
+    // the class was recompiled
+    File classFile = new File(dir, name.replace('.', '/') + ".class");
+    byte[] contents = read(classFile);
+    int i = new String(contents, "ISO-8859-1").indexOf("StringConverter!");
+    contents[i + "StringConverter".length()] = '?';
+    write(classFile, contents);
+
+    try {
+      RegistrySnapshot.load(file, new DirectoryClassLoader(dir, name));
+      fail();
+    } catch(StaleSnapshotException e) {
+      assertTrue(e.getMessage().contains(name));
+    }
+
+    // and now it's gone
+    assertTrue(classFile.delete());
+
+    try {
+      RegistrySnapshot.load(file, new DirectoryClassLoader(dir, name));
+      fail();
+    } catch(StaleSnapshotException e) {
+      assertTrue(e.getMessage().contains(name));
+    }
+  }
+
+  @Test
+  public void loadCorrupt() throws IOException {
+    for(byte[] contents : Arrays.asList(new byte[0], new byte[] { 1, 2, 3, 4, 5, 6, 7, 8 })) {
+      write(file, contents);
+
+      try {
+        RegistrySnapshot.load(file, LOADER);
+        fail();
+      } catch(StaleSnapshotException e) {
+        fail();
+      } catch(IOException e) {
+        // empty block
+      }
+    }
+
+    // a truncated snapshot
+    RegistrySnapshot.save(t, file);
+    byte[] contents = read(file);
+    write(file, Arrays.copyOf(contents, contents.length / 2));
+
+    try {
+      RegistrySnapshot.load(file, LOADER);
+      fail();
+    } catch(StaleSnapshotException e) {
+      fail();
+    } catch(IOException e) {
+      // empty block
+    }
+  }
+
+  @Test
+  public void saveUnsupported() throws IOException {
+    Transmuter anonymous = new Transmuter();
+    anonymous.register(new Converts.EagerProvider(new Object() {
+      @SuppressWarnings("unused") // just to make Eclipse happy
+      @Converts
+      public String toText(Object o) {
+        return String.valueOf(o);
+      }
+    }));
+
+    try {
+      RegistrySnapshot.save(anonymous, file);
+      fail();
+    } catch(IllegalArgumentException e) {
+      // empty block
+    }
+
+    try {
+      RegistrySnapshot.save(null, file);
+      fail();
+    } catch(IllegalArgumentException e) {
+      // empty block
+    }
+
+    try {
+      RegistrySnapshot.save(t, null);
+      fail();
+    } catch(IllegalArgumentException e) {
+      // empty block
+    }
+  }
+
+  public static class Counter {
+    private int count;
+
+    @Converts
+    public String count(Integer i) {
+      return i + " (" + (++count) + ")";
+    }
+  }
+
+  public static class SubCounter extends Counter { /* inherits the state */ }
+
+  public static class Cached {
+    private transient Map<Integer, String> cache = new HashMap<Integer, String>();
+
+    @Converts
+    public String convert(Integer i) {
+      if(! cache.containsKey(i))
+        cache.put(i, String.valueOf(i));
+
+      return cache.get(i);
+    }
+  }
+
+  @Test
+  public void saveStateful() throws IOException {
+    for(Object source : Arrays.asList(new Counter(), new SubCounter())) {
+      Transmuter stateful = new Transmuter();
+      stateful.register(new Converts.EagerProvider(source));
+
+      try {
+        RegistrySnapshot.save(stateful, file);
+        fail();
+      } catch(IllegalArgumentException e) {
+        assertTrue(e.getMessage().contains("count"));
+      }
+    }
+
+    // transient state is the instance's own business
+    Transmuter cached = new Transmuter();
+    cached.register(new Converts.EagerProvider(new Cached()));
+    RegistrySnapshot.save(cached, file);
+
+    Transmuter restored = new Transmuter();
+    restored.register(RegistrySnapshot.load(file, LOADER));
+    assertEquals("42", restored.convert(42, String.class));
+  }
+
+  @Test
+  public void loadWithNull() throws IOException {
+    try {
+      RegistrySnapshot.load(null);
+      fail();
+    } catch(IllegalArgumentException e) {
+      // empty block
+    }
+
+    try {
+      RegistrySnapshot.load(file, null);
+      fail();
+    } catch(IllegalArgumentException e) {
+      // empty block
+    }
+  }
+
+  // helper methods
+  /* (non-Javadoc)
+   * Returns the contents of the given file.
+   */
+  private static byte[] read(File file) throws IOException {
+    byte[] contents = new byte[(int) file.length()];
+    InputStream in = new FileInputStream(file);
+    try {
+      assertEquals(contents.length, in.read(contents));
+    } finally {
+      in.close();
+    }
+
+    return contents;
+  }
+
+  /* (non-Javadoc)
+   * Overwrites the given file with the given contents.
+   */
+  private static void write(File file, byte[] contents) throws IOException {
+    OutputStream out = new FileOutputStream(file);
+    try {
+      out.write(contents);
+    } finally {
+      out.close();
+    }
+  }
+
+  /* (non-Javadoc)
+   * Copies the class file of the given class to a new directory, returning it.
+   */
+  private static File copyClassFile(Class<?> cls) throws IOException, URISyntaxException {
+    File dir = File.createTempFile("classes", "");
+    assertTrue(dir.delete() && dir.mkdir());
+    dir.deleteOnExit();
+
+    String name = cls.getName().replace('.', '/') + ".class";
+    File copy = new File(dir, name);
+    assertTrue(copy.getParentFile().mkdirs());
+    write(copy, read(new File(LOADER.getResource(name).toURI())));
+
+    return dir;
+  }
+
+  /* (non-Javadoc)
+   * Loads the given class from the given directory, and everything else from the test classpath.
+   */
+  private static class DirectoryClassLoader extends ClassLoader {
+    private final File dir;
+    private final String className;
+
+    DirectoryClassLoader(File dir, String className) {
+      super(LOADER);
+      this.dir = dir;
+      this.className = className;
+    }
+
+    @Override
+    protected synchronized Class<?> loadClass(String name, boolean resolve) throws ClassNotFoundException {
+      if(! className.equals(name))
+        return super.loadClass(name, resolve);
+
+      Class<?> cls = findLoadedClass(name);
+      if(cls != null)
+        return cls;
+
+      try {
+        byte[] contents = read(new File(dir, name.replace('.', '/') + ".class"));
+        CodeSource source = new CodeSource(dir.toURI().toURL(), (Certificate[]) null);
+        return defineClass(name, contents, 0, contents.length, new ProtectionDomain(source, null));
+      } catch(IOException e) {
+        throw new ClassNotFoundException(name, e);
+      }
+    }
+  }
+}
@@ -0,0 +1,114 @@
+package com.googlecode.transmuter.core;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import com.googlecode.transmuter.converter.ConverterType;
+import com.googlecode.transmuter.converter.Converts;
+import com.googlecode.transmuter.converter.exception.InvocationException;
+import com.googlecode.transmuter.core.ConversionResult.Status;
+import com.googlecode.transmuter.type.TypeToken;
+
+public class TransmuterConvertAllTest {
+  private Transmuter t;
+  
+  @Before
+  public void setUp() {
+    t = new Transmuter();
+    t.register(new Converts.EagerProvider(new Object() {
+      @SuppressWarnings("unused") // just to make Eclipse happy
+      @Converts
+      public Integer parse(String s) {
+        return Integer.valueOf(s);
+      }
+      
+      @SuppressWarnings("unused") // just to make Eclipse happy
+      @Converts
+      public Integer round(Double d) {
+        return (int) Math.round(d);
+      }
+    }));
+  }
+  
+  @SuppressWarnings("unchecked")
+  @Test
+  public void convertAll() {
+    BatchResult<Integer> result = t.convertAll(Arrays.asList("1", 2.2, "3", 4.6), Integer.class);
+    
+    assertFalse(result.hasFailures());
+    assertEquals(4, result.size());
+    assertEquals(Arrays.asList(1, 2, 3, 5), result.getValues());
+    assertTrue(result.getFailures().isEmpty());
+    
+    // one search per runtime class
+    assertEquals(2, t.getConverterCache().getMissCount());
+    
+    assertEquals(Arrays.asList(1, 2), t.convertAll(new Object[] { "1", 2.0 }, Integer.class).getValues());
+    assertEquals(Arrays.asList(1, 2), t.convertAll(new Object[] { "1", 2.0 }, TypeToken.get(Integer.class)).getValues());
+    
+    assertTrue(t.convertAll(Collections.emptyList(), Integer.class).getValues().isEmpty());
+    assertTrue(t.convertAll(new Object[0], Integer.class).getValues().isEmpty());
+  }
+  
+  @SuppressWarnings("unchecked")
+  @Test
+  public void failures() {
+    BatchResult<Integer> result = t.convertAll(Arrays.asList("1", 'c', null, "four", 5.0, 'c'), Integer.class);
+    
+    assertTrue(result.hasFailures());
+    assertEquals(6, result.size());
+    assertEquals(Arrays.asList(1, null, null, null, 5, null), result.getValues());
+    assertEquals(Arrays.asList(1, 2, 3, 5), Arrays.asList(result.getFailures().keySet().toArray()));
+    
+    ConversionResult<Integer> failure = result.getFailures().get(1);
+    assertEquals(Status.NO_COMPATIBLE_CONVERTERS, failure.getStatus());
+    assertEquals(new ConverterType(Character.class, Integer.class), failure.getConverterType());
+    assertEquals(failure, result.getFailures().get(5));
+    
+    assertEquals(Status.INVALID_INPUT, result.getFailures().get(2).getStatus());
+    
+    failure = result.getFailures().get(3);
+    assertEquals(Status.INVOCATION_FAILED, failure.getStatus());
+    assertTrue(failure.getCause() instanceof InvocationException);
+  }
+  
+  @Test
+  public void nulls() {
+    try {
+      t.convertAll((List<?>) null, Integer.class);
+      fail();
+    } catch(IllegalArgumentException e) {
+      // empty block
+    }
+    
+    try {
+      t.convertAll((Object[]) null, Integer.class);
+      fail();
+    } catch(IllegalArgumentException e) {
+      // empty block
+    }
+    
+    try {
+      t.convertAll(Collections.emptyList(), (Class<?>) null);
+      fail();
+    } catch(IllegalArgumentException e) {
+      // empty block
+    }
+    
+    try {
+      t.convertAll(Collections.emptyList(), TypeToken.get(void.class));
+      fail();
+    } catch(IllegalArgumentException e) {
+      // empty block
+    }
+  }
+}
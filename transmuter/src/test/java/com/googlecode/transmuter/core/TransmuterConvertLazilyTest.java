@@ -0,0 +1,156 @@
+package com.googlecode.transmuter.core;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import com.googlecode.transmuter.converter.Converts;
+import com.googlecode.transmuter.converter.exception.InvocationException;
+import com.googlecode.transmuter.core.exception.NoCompatibleConvertersFoundException;
+import com.googlecode.transmuter.type.TypeToken;
+
+public class TransmuterConvertLazilyTest {
+  private Transmuter t;
+  private int parsed;
+  
+  @Before
+  public void setUp() {
+    parsed = 0;
+    
+    t = new Transmuter();
+    t.register(new Converts.EagerProvider(new Object() {
+      @SuppressWarnings("unused") // just to make Eclipse happy
+      @Converts
+      public Integer parse(String s) {
+        parsed++;
+        return Integer.valueOf(s);
+      }
+    }));
+  }
+  
+  @Test
+  public void convertLazily() {
+    List<Object> from = new ArrayList<Object>(Arrays.asList("1", "2", "3"));
+    
+    Iterator<Integer> iterator = t.convertLazily(from.iterator(), Integer.class);
+    assertEquals(0, parsed);
+    
+    assertTrue(iterator.hasNext());
+    assertEquals(Integer.valueOf(1), iterator.next());
+    assertEquals(1, parsed);
+    
+    assertEquals(Integer.valueOf(2), iterator.next());
+    iterator.remove();
+    assertEquals(Arrays.asList("1", "3"), from);
+    
+    assertEquals(Integer.valueOf(3), iterator.next());
+    assertFalse(iterator.hasNext());
+    
+    // one search per runtime class
+    assertEquals(1, t.getConverterCache().getMissCount());
+    
+    // a view, which converts anew every time
+    Iterable<Integer> view = t.convertLazily(from, TypeToken.get(Integer.class));
+    from.add("4");
+    
+    List<Integer> result = new ArrayList<Integer>();
+    for(Integer i : view)
+      result.add(i);
+    
+    assertEquals(Arrays.asList(1, 3, 4), result);
+  }
+  
+  @SuppressWarnings("unchecked")
+  @Test
+  public void failures() {
+    Iterator<Integer> iterator = t.convertLazily(Arrays.asList("1", 'c', null, "four", "5").iterator(), Integer.class);
+    
+    assertEquals(Integer.valueOf(1), iterator.next());
+    
+    try {
+      iterator.next();
+      fail();
+    } catch(NoCompatibleConvertersFoundException e) {
+      // empty block
+    }
+    
+    try {
+      iterator.next();
+      fail();
+    } catch(IllegalArgumentException e) {
+      // empty block
+    }
+    
+    try {
+      iterator.next();
+      fail();
+    } catch(InvocationException e) {
+      // empty block
+    }
+    
+    // failures don't stop the iteration
+    assertEquals(Integer.valueOf(5), iterator.next());
+  }
+  
+  @Test
+  public void registrationsChanged() {
+    Iterator<String> iterator = t.convertLazily(Arrays.asList(1, 2).iterator(), String.class);
+    
+    try {
+      iterator.next();
+      fail();
+    } catch(NoCompatibleConvertersFoundException e) {
+      // empty block
+    }
+    
+    t.register(new Converts.EagerProvider(new Object() {
+      @SuppressWarnings("unused") // just to make Eclipse happy
+      @Converts
+      public String print(Integer i) {
+        return "int: " + i;
+      }
+    }));
+    
+    assertEquals("int: 2", iterator.next());
+  }
+  
+  @Test
+  public void nulls() {
+    try {
+      t.convertLazily((Iterator<?>) null, Integer.class);
+      fail();
+    } catch(IllegalArgumentException e) {
+      // empty block
+    }
+    
+    try {
+      t.convertLazily((Iterable<?>) null, Integer.class);
+      fail();
+    } catch(IllegalArgumentException e) {
+      // empty block
+    }
+    
+    try {
+      t.convertLazily(Arrays.asList(1).iterator(), (Class<?>) null);
+      fail();
+    } catch(IllegalArgumentException e) {
+      // empty block
+    }
+    
+    try {
+      t.convertLazily(Arrays.asList(1), TypeToken.get(void.class));
+      fail();
+    } catch(IllegalArgumentException e) {
+      // empty block
+    }
+  }
+}
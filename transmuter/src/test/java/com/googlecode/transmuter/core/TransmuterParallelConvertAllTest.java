@@ -0,0 +1,133 @@
+package com.googlecode.transmuter.core;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.googlecode.transmuter.converter.Converts;
+import com.googlecode.transmuter.core.ConversionResult.Status;
+import com.googlecode.transmuter.type.TypeToken;
+
+public class TransmuterParallelConvertAllTest {
+  private static final TypeToken<Integer> INTEGER = TypeToken.get(Integer.class);
+  
+  private Transmuter t;
+  private ExecutorService executor;
+  
+  @Before
+  public void setUp() {
+    t = new ConcurrentTransmuter();
+    t.register(new Converts.EagerProvider(new Object() {
+      @SuppressWarnings("unused") // just to make Eclipse happy
+      @Converts
+      public Integer parse(String s) {
+        return Integer.valueOf(s);
+      }
+      
+      @SuppressWarnings("unused") // just to make Eclipse happy
+      @Converts
+      public Integer round(Double d) {
+        return (int) Math.round(d);
+      }
+    }));
+    
+    executor = Executors.newFixedThreadPool(4);
+  }
+  
+  @After
+  public void tearDown() {
+    executor.shutdownNow();
+  }
+  
+  @Test
+  public void parallelConvertAll() throws InterruptedException {
+    List<Object> from = new ArrayList<Object>();
+    for(int i = 0; i < 10000; i++)
+      from.add((i % 3 == 0) ? (Object) Double.valueOf(i) : String.valueOf(i));
+    
+    // failures in several tasks
+    from.set(17, 'c');
+    from.set(5000, null);
+    from.set(9999, "nine thousand nine hundred ninety-nine");
+    
+    BatchResult<Integer> expected = t.convertAll(from, INTEGER);
+    
+    for(int threshold : Arrays.asList(1, 7, 100, 10000, 20000)) {
+      BatchResult<Integer> result = t.parallelConvertAll(from, INTEGER, executor, threshold);
+      
+      assertEquals(expected.getValues(), result.getValues());
+      assertEquals(expected.getFailures().keySet(), result.getFailures().keySet());
+      assertEquals(Status.NO_COMPATIBLE_CONVERTERS, result.getFailures().get(17).getStatus());
+      assertEquals(Status.INVALID_INPUT, result.getFailures().get(5000).getStatus());
+      assertEquals(Status.INVOCATION_FAILED, result.getFailures().get(9999).getStatus());
+    }
+    
+    assertEquals(expected.getValues(), t.parallelConvertAll(from, INTEGER, executor).getValues());
+    assertEquals(expected.getValues(), t.parallelConvertAll(from.toArray(), INTEGER, executor).getValues());
+  }
+  
+  @SuppressWarnings("unchecked")
+  @Test
+  public void small() throws InterruptedException {
+    BatchResult<Integer> result = t.parallelConvertAll(Arrays.asList("1", 2.0), INTEGER, executor);
+    
+    assertFalse(result.hasFailures());
+    assertEquals(Arrays.asList(1, 2), result.getValues());
+    
+    assertTrue(t.parallelConvertAll(Collections.emptyList(), INTEGER, executor, 1).getValues().isEmpty());
+    
+    // below the threshold, the executor isn't used at all
+    executor.shutdown();
+    assertEquals(Arrays.asList(1, 2), t.parallelConvertAll(new Object[] { "1", 2.0 }, INTEGER, executor).getValues());
+  }
+  
+  @Test
+  public void invalidArguments() throws InterruptedException {
+    try {
+      t.parallelConvertAll((List<?>) null, INTEGER, executor);
+      fail();
+    } catch(IllegalArgumentException e) {
+      // empty block
+    }
+    
+    try {
+      t.parallelConvertAll((Object[]) null, INTEGER, executor);
+      fail();
+    } catch(IllegalArgumentException e) {
+      // empty block
+    }
+    
+    try {
+      t.parallelConvertAll(Collections.emptyList(), TypeToken.get(void.class), executor);
+      fail();
+    } catch(IllegalArgumentException e) {
+      // empty block
+    }
+    
+    try {
+      t.parallelConvertAll(Collections.emptyList(), INTEGER, null);
+      fail();
+    } catch(IllegalArgumentException e) {
+      // empty block
+    }
+    
+    try {
+      t.parallelConvertAll(Collections.emptyList(), INTEGER, executor, 0);
+      fail();
+    } catch(IllegalArgumentException e) {
+      // empty block
+    }
+  }
+}
@@ -0,0 +1,139 @@
+package com.googlecode.transmuter.core;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.googlecode.transmuter.converter.Converts;
+import com.googlecode.transmuter.core.exception.ConverterCollisionException;
+import com.googlecode.transmuter.core.exception.ConverterRegistrationException;
+import com.googlecode.transmuter.fixture.FlawedConverter;
+import com.googlecode.transmuter.fixture.MultipleConverter;
+import com.googlecode.transmuter.fixture.MultipleValidConverter;
+import com.googlecode.transmuter.fixture.StringConverter;
+
+public class TransmuterParallelRegisterTest {
+  private Transmuter t;
+  private ExecutorService executor;
+
+  @Before
+  public void setUp() {
+    t = new Transmuter();
+    executor = Executors.newFixedThreadPool(4);
+  }
+
+  @After
+  public void tearDown() {
+    executor.shutdownNow();
+  }
+
+  @Test
+  public void parallelRegister() throws InterruptedException {
+    List<Object> sources = Arrays.asList(
+        new MultipleConverter(), null, new StringConverter(), new MultipleValidConverter(), new Object());
+
+    Transmuter expected = new Transmuter();
+    for(Object source : sources)
+      expected.register(new Converts.EagerProvider(source));
+
+    t.parallelRegister(sources, executor);
+    assertEquals(expected.getConverterMap(), t.getConverterMap());
+
+    // nothing to register
+    Transmuter empty = new Transmuter();
+    empty.parallelRegister(Collections.emptyList(), executor);
+    assertTrue(empty.getConverterMap().isEmpty());
+  }
+
+  @Test
+  public void parallelRegisterWithFlawedSources() throws InterruptedException {
+    List<Object> sources = new ArrayList<Object>();
+    for(int i = 0; i < 10; i++)
+      sources.add((i % 5 == 0) ? new FlawedConverter() : new MultipleValidConverter());
+
+    sources.set(1, new MultipleConverter());
+    sources.set(2, new StringConverter());
+
+    try {
+      t.parallelRegister(sources, executor);
+      fail();
+    } catch(ConverterRegistrationException e) {
+      // all errors are bundled up, as if the sources were scanned one after another
+      assertEquals(2 * 5, e.getCauses().size());
+    }
+
+    assertTrue(t.getConverterMap().isEmpty());
+  }
+
+  @Test
+  public void parallelRegisterWithCollisions() throws InterruptedException {
+    final Object otherStringConverter = new Object() {
+      @SuppressWarnings("unused") // just to make Eclipse happy
+      @Converts
+      public String toText(Object o) {
+        return String.valueOf(o);
+      }
+    };
+    
+    t.register(new Converts.EagerProvider(new StringConverter()));
+
+    try {
+      t.parallelRegister(Arrays.asList(new MultipleConverter(), otherStringConverter), executor);
+      fail();
+    } catch(ConverterRegistrationException e) {
+      assertEquals(1, e.getCauses().size());
+      assertEquals(ConverterCollisionException.class, e.getCauses().iterator().next().getClass());
+    }
+
+    // nothing from MultipleConverter got in
+    assertEquals(1, t.getConverterMap().size());
+
+    // collisions between the sources themselves count too
+    try {
+      new Transmuter().parallelRegister(Arrays.asList(new StringConverter(), otherStringConverter), executor);
+      fail();
+    } catch(ConverterRegistrationException e) {
+      assertEquals(ConverterCollisionException.class, e.getCauses().iterator().next().getClass());
+    }
+  }
+
+  @Test
+  public void parallelRegisterWithNull() throws InterruptedException {
+    try {
+      t.parallelRegister(null, executor);
+      fail();
+    } catch(IllegalArgumentException e) {
+      // empty block
+    }
+
+    try {
+      t.parallelRegister(Arrays.asList(new StringConverter()), null);
+      fail();
+    } catch(IllegalArgumentException e) {
+      // empty block
+    }
+
+    assertTrue(t.getConverterMap().isEmpty());
+  }
+
+  @Test
+  public void parallelRegisterOnFrozenTransmuter() throws InterruptedException {
+    try {
+      t.freeze().parallelRegister(Arrays.asList(new StringConverter()), executor);
+      fail();
+    } catch(UnsupportedOperationException e) {
+      // empty block
+    }
+  }
+}
@@ -0,0 +1,186 @@
+package com.googlecode.transmuter.core;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.lang.reflect.InvocationTargetException;
+import java.util.Arrays;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import com.googlecode.transmuter.converter.ConverterType;
+import com.googlecode.transmuter.converter.Converts;
+import com.googlecode.transmuter.converter.PrimitiveArrayConverters;
+import com.googlecode.transmuter.converter.PrimitiveConverter;
+import com.googlecode.transmuter.converter.exception.InvocationException;
+import com.googlecode.transmuter.core.exception.NoCompatibleConvertersFoundException;
+import com.googlecode.transmuter.fixture.Widener;
+
+public class TransmuterPrimitiveTest {
+  private Transmuter t;
+  
+  @Before
+  public void setUp() {
+    t = new Transmuter();
+    t.register(new Converts.EagerProvider(new Widener()));
+  }
+  
+  @Test
+  public void primitiveConverters() {
+    assertEquals(3L, t.convertToLong(3));
+    assertEquals(3.5, t.convertToDouble(3), 0.0);
+    
+    // the same converters work boxed too
+    assertEquals(Long.valueOf(3), t.convert(3, Long.class));
+    assertEquals(Double.valueOf(3.5), t.convert(3, Double.class));
+  }
+  
+  @Test
+  public void primitiveArrays() {
+    t.register(new Converts.EagerProvider(new PrimitiveArrayConverters()));
+    
+    long[] longs = t.convert(new int[] { 1, -2, Integer.MAX_VALUE }, long[].class);
+    assertTrue(Arrays.equals(new long[] { 1L, -2L, Integer.MAX_VALUE }, longs));
+    
+    int[] ints = t.convert(new double[] { 1.9, -2.9, 1e20 }, int[].class);
+    assertTrue(Arrays.equals(new int[] { 1, -2, Integer.MAX_VALUE }, ints));
+    
+    char[] chars = t.convert(new byte[] { 97, -1 }, char[].class);
+    assertTrue(Arrays.equals(new char[] { 'a', '\uffff' }, chars));
+    
+    // one converter for each pair of different array types, and none for anything else
+    Transmuter arrays = new Transmuter();
+    arrays.register(new Converts.EagerProvider(new PrimitiveArrayConverters()));
+    assertEquals(7 * 6, arrays.getConverterMap().size());
+    
+    for(Object from : new Object[] { new long[0], new boolean[] { true }, new Long[] { 1L }, "1" }) {
+      try {
+        t.convert(from, long[].class);
+        fail();
+      } catch(NoCompatibleConvertersFoundException e) {
+        // empty block
+      }
+    }
+  }
+  
+  @Test
+  public void boxedConverters() {
+    // not a primitive converter, so it's invoked as usual
+    assertEquals(3.25, t.convertToDouble(3L), 0.0);
+    
+    t.register(new Converts.EagerProvider(new Object() {
+      @SuppressWarnings("unused") // just to make Eclipse happy
+      @Converts
+      public int truncate(double d) {
+        return (int) d;
+      }
+      
+      @SuppressWarnings("unused") // just to make Eclipse happy
+      @Converts
+      public Integer narrow(Long l) {
+        return (l != null && l.longValue() < Integer.MAX_VALUE) ? l.intValue() : null;
+      }
+      
+      @SuppressWarnings("unused") // just to make Eclipse happy
+      @Converts
+      public long round(double d) {
+        return Math.round(d);
+      }
+    }));
+    
+    assertEquals(3, t.convertToInt(3.9));
+    assertEquals(4L, t.convertToLong(3.9));
+    assertEquals(5, t.convertToInt(5L));
+    
+    try {
+      t.convertToInt(Long.MAX_VALUE);
+      fail();
+    } catch(InvocationException e) {
+      assertEquals(NullPointerException.class, e.getCause().getClass());
+    }
+  }
+  
+  @Test
+  public void throwingPrimitiveConverter() {
+    final IllegalStateException thrown = new IllegalStateException();
+    
+    t = new Transmuter();
+    t.register(new Converts.EagerProvider(new PrimitiveConverter.IntToLong() {
+      @Override
+      @Converts
+      public long convertToLong(int from) {
+        throw thrown;
+      }
+    }));
+    assertTrue(t.getConverterMap().get(new ConverterType(int.class, long.class)).isPrimitive());
+    
+    // wrapped the same way whether it's called directly or not
+    try {
+      t.convertToLong(3);
+      fail();
+    } catch(InvocationException e) {
+      assertEquals(InvocationTargetException.class, e.getCause().getClass());
+      assertSame(thrown, e.getCause().getCause());
+    }
+    
+    try {
+      t.convert(3, Long.class);
+      fail();
+    } catch(InvocationException e) {
+      assertEquals(InvocationTargetException.class, e.getCause().getClass());
+      assertSame(thrown, e.getCause().getCause());
+    }
+  }
+  
+  @Test
+  public void errorThrowingPrimitiveConverter() {
+    final Error thrown = new Error();
+    
+    t = new Transmuter();
+    t.register(new Converts.EagerProvider(new PrimitiveConverter.DoubleToInt() {
+      @Override
+      @Converts
+      public int convertToInt(double from) {
+        throw thrown;
+      }
+    }));
+    assertTrue(t.getConverterMap().get(new ConverterType(double.class, int.class)).isPrimitive());
+    
+    // errors are wrapped too, as Method.invoke would
+    try {
+      t.convertToInt(3.5);
+      fail();
+    } catch(InvocationException e) {
+      assertEquals(InvocationTargetException.class, e.getCause().getClass());
+      assertSame(thrown, e.getCause().getCause());
+    }
+    
+    try {
+      t.convert(3.5, Integer.class);
+      fail();
+    } catch(InvocationException e) {
+      assertEquals(InvocationTargetException.class, e.getCause().getClass());
+      assertSame(thrown, e.getCause().getCause());
+    }
+  }
+  
+  @Test
+  public void noConverters() {
+    try {
+      t.convertToInt(3.0);
+      fail();
+    } catch(NoCompatibleConvertersFoundException e) {
+      // empty block
+    }
+    
+    try {
+      t.convertToLong(3.0);
+      fail();
+    } catch(NoCompatibleConvertersFoundException e) {
+      // empty block
+    }
+  }
+}
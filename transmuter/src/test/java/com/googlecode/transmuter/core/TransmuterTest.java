@@ -11,6 +11,7 @@ import static org.junit.Assert.fail;
 import java.io.Serializable;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
 import java.util.List;
 
 import org.junit.Before;
@@ -104,4 +105,122 @@ public class TransmuterTest {
                 extractMethod(converter.getClass(), "toString", Serializable.class))));
     }
   }
+  
+  @Test
+  public void convertByClass() {
+    t.register(new Converts.EagerProvider(new MultipleValidConverter()));
+    
+    assertEquals("1", t.convert(1, String.class));
+    assertEquals(0, t.getConverterCache().getHitCount());
+    assertEquals(1, t.getConverterCache().getMissCount());
+    
+    // cached by class now
+    assertEquals("2", t.convert(2, String.class));
+    assertEquals("3", t.convert(3, String.class));
+    assertEquals(2, t.getConverterCache().getHitCount());
+    assertEquals(1, t.getConverterCache().getMissCount());
+    
+    // registering invalidates these too
+    t.unregister(Serializable.class, String.class);
+    try {
+      t.convert(4, String.class);
+      fail();
+    } catch(NoCompatibleConvertersFoundException e) {
+      assertEquals(new ConverterType(Integer.class, String.class), e.getConverterType());
+    }
+    
+    // nulls still complain
+    try {
+      t.convert(null, String.class);
+      fail();
+    } catch(IllegalArgumentException e) {
+      // empty block
+    }
+    
+    try {
+      t.convert(1, (Class<?>) null);
+      fail();
+    } catch(IllegalArgumentException e) {
+      // empty block
+    }
+  }
+  
+  @Test
+  public void converterCache() {
+    t.register(new Converts.EagerProvider(new MultipleValidConverter()));
+    
+    final ConverterType serializableType = new ConverterType(Serializable.class, String.class);
+    final ConverterType integerType = new ConverterType(Integer.class, String.class);
+    
+    Converter serializable = t.getConverterFor(serializableType);
+    assertEquals(0, t.getConverterCache().getHitCount());
+    assertEquals(1, t.getConverterCache().getMissCount());
+    
+    assertEquals(serializable, t.getConverterFor(serializableType));
+    assertEquals(serializable, t.getConverterFor(integerType));
+    assertEquals(serializable, t.getConverterFor(integerType));
+    assertEquals(2, t.getConverterCache().getHitCount());
+    assertEquals(2, t.getConverterCache().getMissCount());
+    assertEquals(2, t.getConverterCache().size());
+    
+    // registering invalidates the cache
+    t.register(new Converts.EagerProvider(new MultipleConverter()));
+    assertEquals(serializable, t.getConverterFor(integerType));
+    assertEquals(3, t.getConverterCache().getMissCount());
+    
+    // and so does unregistering
+    t.unregister(serializableType);
+    try {
+      t.getConverterFor(integerType);
+      fail();
+    } catch(NoCompatibleConvertersFoundException e) {
+      assertEquals(integerType, e.getConverterType());
+    }
+    assertEquals(4, t.getConverterCache().getMissCount());
+    
+    // and changing the map directly
+    t.getConverterMap().put(serializableType, serializable);
+    assertEquals(serializable, t.getConverterFor(integerType));
+    assertEquals(5, t.getConverterCache().getMissCount());
+    
+    t.getConverterMap().values().remove(serializable);
+    try {
+      t.getConverterFor(integerType);
+      fail();
+    } catch(NoCompatibleConvertersFoundException e) {
+      assertEquals(integerType, e.getConverterType());
+    }
+  }
+  
+  @Test
+  public void noCompatibleConvertersCached() {
+    t.register(new Converts.EagerProvider(new MultipleValidConverter()));
+    
+    final ConverterType unknownType = new ConverterType(Object.class, Integer.class);
+    for(int i = 0; i < 3; i++) {
+      try {
+        t.getConverterFor(unknownType);
+        fail();
+      } catch(NoCompatibleConvertersFoundException e) {
+        assertEquals(unknownType, e.getConverterType());
+        TestUtils.assertMatchingCollections(
+            t.getConverterMap().values(), 
+            (Collection<?>) e.getConverters());
+      }
+    }
+    
+    assertEquals(2, t.getConverterCache().getHitCount());
+    assertEquals(1, t.getConverterCache().getMissCount());
+    
+    // registering a compatible converter must be noticed
+    t.register(new Converts.EagerProvider(new Object() {
+      @SuppressWarnings("unused") // just to make Eclipse happy
+      @Converts
+      public Integer hash(Object o) {
+        return o.hashCode();
+      }
+    }));
+    
+    assertEquals(unknownType, t.getConverterFor(unknownType).getType());
+  }
 }
@@ -0,0 +1,177 @@
+package com.googlecode.transmuter.core;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import com.googlecode.transmuter.converter.ConverterType;
+import com.googlecode.transmuter.converter.Converts;
+import com.googlecode.transmuter.converter.exception.InvocationException;
+import com.googlecode.transmuter.core.ConversionResult.Status;
+import com.googlecode.transmuter.core.exception.NoCompatibleConvertersFoundException;
+import com.googlecode.transmuter.core.exception.TooManyConvertersFoundException;
+import com.googlecode.transmuter.fixture.MultipleConverter;
+import com.googlecode.transmuter.fixture.MultipleValidConverter;
+import com.googlecode.transmuter.type.TypeToken;
+
+public class TransmuterTryConvertTest {
+  private static final TypeToken<ArrayList<String>> ARRAYLIST_OF_STRING = new TypeToken<ArrayList<String>>() { /**/ };
+  
+  private Transmuter t;
+
+  @Before
+  public void setUp() {
+    t = new Transmuter();
+    t.register(new Converts.EagerProvider(new MultipleConverter()));
+  }
+  
+  @Test
+  public void success() {
+    ConversionResult<String> result = t.tryConvert(1.0, String.class);
+    
+    assertTrue(result.isSuccessful());
+    assertEquals(Status.SUCCESS, result.getStatus());
+    assertEquals("double: 1.0", result.getValue());
+    assertEquals("double: 1.0", result.getValueOr("nope"));
+    assertEquals(new ConverterType(Double.class, String.class), result.getConverterType());
+    assertNull(result.getCause());
+    
+    assertEquals("double: 2.0", t.tryConvert(2.0, TypeToken.STRING).getValue());
+    assertEquals("double: 3.0", t.tryConvert(3.0, TypeToken.get(double.class), TypeToken.STRING).getValue());
+    assertEquals(Arrays.asList("a"), t.tryConvert("a", new TypeToken<List<String>>() { /**/ }).getValue());
+  }
+  
+  @Test
+  public void noCompatibleConverters() {
+    ConversionResult<String> result = t.tryConvert(1, String.class);
+    
+    assertFalse(result.isSuccessful());
+    assertEquals(Status.NO_COMPATIBLE_CONVERTERS, result.getStatus());
+    assertNull(result.getValue());
+    assertEquals("nope", result.getValueOr("nope"));
+    assertTrue(result.getCause() instanceof NoCompatibleConvertersFoundException);
+    
+    // the second time around, nothing is thrown
+    result = t.tryConvert(2, String.class);
+    assertEquals(Status.NO_COMPATIBLE_CONVERTERS, result.getStatus());
+    assertNull(result.getCause());
+    
+    result = t.tryConvert(3, TypeToken.get(Integer.class), TypeToken.STRING);
+    assertEquals(Status.NO_COMPATIBLE_CONVERTERS, result.getStatus());
+    assertNull(result.getCause());
+    
+    // but a change in the registered converters may change things
+    t.register(new Converts.EagerProvider(new MultipleValidConverter()));
+    assertEquals("4", t.tryConvert(4, String.class).getValue());
+  }
+  
+  @Test
+  public void tooManyConverters() {
+    t.register(new Converts.EagerProvider(new MultipleValidConverter()));
+    
+    // both List<String> and Serializable will do
+    ArrayList<String> list = new ArrayList<String>();
+    
+    ConversionResult<String> result = t.tryConvert(list, ARRAYLIST_OF_STRING, TypeToken.STRING);
+    assertEquals(Status.TOO_MANY_CONVERTERS, result.getStatus());
+    assertTrue(result.getCause() instanceof TooManyConvertersFoundException);
+    
+    result = t.tryConvert(list, ARRAYLIST_OF_STRING, TypeToken.STRING);
+    assertEquals(Status.TOO_MANY_CONVERTERS, result.getStatus());
+    assertNull(result.getCause());
+    assertFalse(t.canConvert(ARRAYLIST_OF_STRING, TypeToken.STRING));
+    
+    // the ambiguity is cached for convert as well
+    try {
+      t.convert(list, ARRAYLIST_OF_STRING, TypeToken.STRING);
+      fail();
+    } catch(TooManyConvertersFoundException e) {
+      assertEquals(2, e.getConverters().size());
+    }
+  }
+  
+  @Test
+  public void invocationFailed() {
+    t.register(new Converts.EagerProvider(new Object() {
+      @SuppressWarnings("unused") // just to make Eclipse happy
+      @Converts
+      public Integer parse(String s) {
+        return Integer.valueOf(s);
+      }
+    }));
+    
+    assertEquals(Integer.valueOf(1), t.tryConvert("1", Integer.class).getValue());
+    
+    ConversionResult<Integer> result = t.tryConvert("one", Integer.class);
+    assertEquals(Status.INVOCATION_FAILED, result.getStatus());
+    assertTrue(result.getCause() instanceof InvocationException);
+    assertEquals(Integer.valueOf(-1), result.getValueOr(-1));
+  }
+  
+  @Test
+  public void canConvert() {
+    assertTrue(t.canConvert(double.class, String.class));
+    assertTrue(t.canConvert(TypeToken.get(Double.class), TypeToken.STRING));
+    assertTrue(t.canConvert(new ConverterType(TypeToken.STRING, new TypeToken<List<String>>() { /**/ })));
+    
+    assertFalse(t.canConvert(int.class, String.class));
+    assertFalse(t.canConvert(int.class, String.class));
+    assertEquals(3, t.getConverterCache().getMissCount()); // double and Double are the same here
+    
+    // nulls and voids
+    assertFalse(t.canConvert(null, String.class));
+    assertFalse(t.canConvert(double.class, void.class));
+    assertFalse(t.canConvert(TypeToken.STRING, null));
+    assertFalse(t.canConvert(null));
+  }
+  
+  @Test
+  public void nulls() {
+    try {
+      t.tryConvert(null, String.class);
+      fail();
+    } catch(IllegalArgumentException e) {
+      // empty block
+    }
+    
+    try {
+      t.tryConvert(1.0, (Class<?>) null);
+      fail();
+    } catch(IllegalArgumentException e) {
+      // empty block
+    }
+    
+    try {
+      t.tryConvert(1.0, TypeToken.get(double.class), TypeToken.get(void.class));
+      fail();
+    } catch(IllegalArgumentException e) {
+      // empty block
+    }
+  }
+  
+  @Test
+  public void result() {
+    try {
+      ConversionResult.failure(Status.SUCCESS, null, null);
+      fail();
+    } catch(IllegalArgumentException e) {
+      // empty block
+    }
+    
+    try {
+      ConversionResult.failure(null, null, null);
+      fail();
+    } catch(IllegalArgumentException e) {
+      // empty block
+    }
+  }
+}
@@ -0,0 +1,154 @@
+package com.googlecode.transmuter.core.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import com.googlecode.transmuter.converter.Converter;
+import com.googlecode.transmuter.converter.ConverterType;
+import com.googlecode.transmuter.fixture.StringConverter;
+
+public class ConverterCacheTest {
+  private ConverterCache cache;
+  private ConverterType converterType;
+  private Converter converter;
+  
+  @Before
+  public void setUp() throws SecurityException, NoSuchMethodException {
+    cache = new ConverterCache();
+    converterType = new ConverterType(Object.class, String.class);
+    converter = new Converter(new StringConverter(), StringConverter.class.getMethod("stringify", Object.class));
+  }
+  
+  @Test
+  public void getAndPut() {
+    assertNull(cache.get(converterType, 1));
+    assertEquals(0, cache.getHitCount());
+    assertEquals(1, cache.getMissCount());
+    
+    cache.put(converterType, converter, 1);
+    
+    assertEquals(1, cache.size());
+    assertEquals(converter, cache.get(converterType, 1));
+    assertEquals(converter, cache.get(new ConverterType(Object.class, String.class), 1));
+    assertEquals(2, cache.getHitCount());
+    assertEquals(1, cache.getMissCount());
+  }
+  
+  @Test
+  public void getAndPutByClass() {
+    assertNull(cache.get(Integer.class, String.class, 1));
+    assertEquals(0, cache.getHitCount());
+    assertEquals(0, cache.getMissCount()); // left for get(ConverterType, long)
+    
+    cache.put(Integer.class, String.class, converter, 1);
+    
+    assertEquals(converter, cache.get(Integer.class, String.class, 1));
+    assertNull(cache.get(String.class, Integer.class, 1));
+    assertNull(cache.get(Integer.class, Object.class, 1));
+    assertEquals(1, cache.getHitCount());
+    assertEquals(0, cache.size()); // nothing stored by converter type
+    
+    // newer versions invalidate these too
+    assertNull(cache.get(Integer.class, String.class, 2));
+    cache.put(Integer.class, String.class, converter, 1);
+    assertNull(cache.get(Integer.class, String.class, 2));
+    
+    cache.put(Integer.class, String.class, converter, 2);
+    cache.clear();
+    assertNull(cache.get(Integer.class, String.class, 2));
+    
+    // nulls are ignored
+    cache.put(null, String.class, converter, 2);
+    cache.put(Integer.class, null, converter, 2);
+    cache.put(Integer.class, String.class, null, 2);
+    assertNull(cache.get(null, String.class, 2));
+    assertNull(cache.get(Integer.class, String.class, 2));
+  }
+  
+  @Test
+  public void ambiguous() {
+    List<Converter> converters = Arrays.asList(converter, converter);
+    assertNull(cache.getAmbiguous(converterType, 1));
+    
+    cache.putAmbiguous(converterType, converters, 1);
+    
+    assertEquals(converters, cache.getAmbiguous(converterType, 1));
+    assertFalse(cache.isMissing(converterType, 1));
+    assertNull(cache.get(converterType, 1));
+    assertEquals(1, cache.getHitCount());
+    
+    assertNull(cache.getAmbiguous(converterType, 2));
+    
+    cache.putAmbiguous(null, converters, 2);
+    cache.putAmbiguous(converterType, null, 2);
+    assertEquals(0, cache.size());
+  }
+  
+  @Test
+  public void newerVersionInvalidates() {
+    cache.put(converterType, converter, 1);
+    
+    assertNull(cache.get(converterType, 2));
+    assertEquals(0, cache.size());
+    
+    // stale resolutions are ignored
+    cache.put(converterType, converter, 1);
+    assertEquals(0, cache.size());
+    assertNull(cache.get(converterType, 1));
+    
+    cache.put(converterType, converter, 2);
+    assertEquals(converter, cache.get(converterType, 2));
+  }
+  
+  @Test
+  public void missing() {
+    assertFalse(cache.isMissing(converterType, 1));
+    
+    cache.putMissing(converterType, 1);
+    
+    assertTrue(cache.isMissing(converterType, 1));
+    assertNull(cache.get(converterType, 1));
+    assertEquals(1, cache.getHitCount());
+    assertEquals(0, cache.getMissCount());
+    
+    // a newer version may have compatible converters
+    assertFalse(cache.isMissing(converterType, 2));
+    
+    cache.put(converterType, converter, 2);
+    assertEquals(converter, cache.get(converterType, 2));
+    assertFalse(cache.isMissing(converterType, 2));
+    
+    cache.putMissing(null, 2);
+    assertFalse(cache.isMissing(null, 2));
+  }
+  
+  @Test
+  public void clear() {
+    cache.put(converterType, converter, 1);
+    assertEquals(converter, cache.get(converterType, 1));
+    
+    cache.clear();
+    
+    assertEquals(0, cache.size());
+    assertNull(cache.get(converterType, 1));
+    assertEquals(1, cache.getHitCount());
+    assertEquals(1, cache.getMissCount());
+  }
+  
+  @Test
+  public void nulls() {
+    cache.put(null, converter, 1);
+    cache.put(converterType, null, 1);
+    
+    assertEquals(0, cache.size());
+    assertNull(cache.get(null, 1));
+  }
+}
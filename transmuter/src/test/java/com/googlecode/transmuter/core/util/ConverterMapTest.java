@@ -11,17 +11,21 @@ import java.io.Serializable;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 
 import org.junit.Before;
 import org.junit.Test;
 
+import com.googlecode.transmuter.TestUtils;
 import com.googlecode.transmuter.converter.Converter;
 import com.googlecode.transmuter.converter.ConverterType;
 import com.googlecode.transmuter.converter.Converts;
+import com.googlecode.transmuter.converter.exception.ConverterTypeIncompatibleWithConverterException;
 import com.googlecode.transmuter.core.exception.ConverterCollisionException;
 import com.googlecode.transmuter.core.util.ConverterMap;
+import com.googlecode.transmuter.fixture.MultipleConverter;
 import com.googlecode.transmuter.fixture.MultipleValidConverter;
 import com.googlecode.transmuter.fixture.StringConverter;
 import com.googlecode.transmuter.type.TypeToken;
@@ -133,4 +137,246 @@ public class ConverterMapTest {
     assertNull(map.get(null));
     assertNull(map.get(new ConverterType(Object.class, Integer.class)));
   }
+  
+  @Test
+  public void version() throws SecurityException, NoSuchMethodException {
+    final MultipleValidConverter converter = new MultipleValidConverter();
+    final ConverterType serializableType = new ConverterType(Serializable.class, String.class);
+    final Converter serializable = new Converter(
+        converter, 
+        extractMethod(converter.getClass(), "toString", Serializable.class));
+    
+    long version = map.getVersion();
+    assertFalse(version == new ConverterMap().getVersion());
+    
+    // redundant operations change nothing
+    map.remove(serializableType);
+    map.putAll(null);
+    assertEquals(version, map.getVersion());
+    
+    map.put(serializableType, serializable);
+    assertFalse(version == map.getVersion());
+    
+    version = map.getVersion();
+    map.put(serializableType, serializable);
+    assertEquals(version, map.getVersion());
+    
+    map.remove(serializableType);
+    assertFalse(version == map.getVersion());
+    
+    // removals through the views count too
+    map.put(serializableType, serializable);
+    version = map.getVersion();
+    
+    Iterator<ConverterType> keys = map.keySet().iterator();
+    keys.next();
+    keys.remove();
+    
+    assertTrue(map.isEmpty());
+    assertFalse(version == map.getVersion());
+    
+    map.put(serializableType, serializable);
+    version = map.getVersion();
+    
+    assertTrue(map.values().remove(serializable));
+    assertTrue(map.isEmpty());
+    assertFalse(version == map.getVersion());
+    
+    map.put(serializableType, serializable);
+    version = map.getVersion();
+    
+    map.entrySet().clear();
+    assertTrue(map.isEmpty());
+    assertFalse(version == map.getVersion());
+    
+    version = map.getVersion();
+    map.clear();
+    assertFalse(version == map.getVersion());
+  }
+  
+  @Test
+  public void setValueThroughEntry() throws SecurityException, NoSuchMethodException {
+    final StringConverter converter = new StringConverter();
+    final ConverterType converterType = new ConverterType(Object.class, String.class);
+    map.put(converterType, new Converter(converter, StringConverter.class.getMethod("stringify", Object.class)));
+    
+    long version = map.getVersion();
+    Map.Entry<ConverterType, Converter> entry = map.entrySet().iterator().next();
+    
+    Converter equals = new Converter(converter, StringConverter.class.getMethod("equals", Object.class));
+    try {
+      entry.setValue(equals);
+      fail();
+    } catch(ConverterTypeIncompatibleWithConverterException e) {
+      // equals returns boolean, not String
+    }
+    
+    assertEquals(version, map.getVersion());
+    
+    Converter stringify = new Converter(new StringConverter(), StringConverter.class.getMethod("stringify", Object.class));
+    entry.setValue(stringify);
+    
+    assertEquals(stringify, map.get(converterType));
+    assertFalse(version == map.getVersion());
+  }
+  
+  @Test
+  public void getAssignableTypes() {
+    for(Object source : Arrays.asList(new MultipleValidConverter(), new MultipleConverter(), new StringConverter()))
+      for(Converter c : new Converts.EagerProvider(source))
+        map.put(c.getType(), c);
+    
+    final List<ConverterType> types = Arrays.asList(
+        new ConverterType(ARRAYLIST_OF_STRING, TypeToken.STRING),
+        new ConverterType(LIST_OF_STRING, TypeToken.STRING),
+        new ConverterType(Integer.class, String.class),
+        new ConverterType(double.class, String.class),
+        new ConverterType(Double.class, String.class),
+        new ConverterType(int.class, String.class),
+        new ConverterType(String[].class, String.class),
+        new ConverterType(TypeToken.STRING, ARRAYLIST_OF_STRING),
+        new ConverterType(Object.class, Object.class),
+        new ConverterType(Object.class, Integer.class));
+    
+    for(ConverterType type : types) {
+      List<ConverterType> expected = new ArrayList<ConverterType>();
+      for(ConverterType key : map.keySet())
+        if(key.isAssignableFrom(type))
+          expected.add(key);
+      
+      TestUtils.assertMatchingCollections(expected, map.getAssignableTypes(type));
+      assertEquals(expected.size(), map.getAssignableTypes(type).size());
+    }
+    
+    assertTrue(map.getAssignableTypes(null).isEmpty());
+    assertEquals(3, map.getAssignableTypes(new ConverterType(ARRAYLIST_OF_STRING, TypeToken.STRING)).size());
+    
+    // the index follows the map's changes
+    map.remove(new ConverterType(Object.class, String.class));
+    assertEquals(2, map.getAssignableTypes(new ConverterType(ARRAYLIST_OF_STRING, TypeToken.STRING)).size());
+    
+    map.clear();
+    assertTrue(map.getAssignableTypes(new ConverterType(ARRAYLIST_OF_STRING, TypeToken.STRING)).isEmpty());
+  }
+  
+  @Test
+  public void getGeneralizations() {
+    for(Object source : Arrays.asList(new MultipleValidConverter(), new StringConverter()))
+      for(Converter c : new Converts.EagerProvider(source))
+        map.put(c.getType(), c);
+    
+    final ConverterType listType = new ConverterType(LIST_OF_STRING, TypeToken.STRING);
+    final ConverterType serializableType = new ConverterType(Serializable.class, String.class);
+    final ConverterType objectType = new ConverterType(Object.class, String.class);
+    
+    TestUtils.assertMatchingCollections(Arrays.asList(objectType), map.getGeneralizations(listType));
+    TestUtils.assertMatchingCollections(Arrays.asList(objectType), map.getGeneralizations(serializableType));
+    assertTrue(map.getGeneralizations(objectType).isEmpty());
+    
+    // memoized until the next change
+    assertTrue(map.getGeneralizations(listType) == map.getGeneralizations(listType));
+    
+    // only keys have generalizations
+    assertTrue(map.getGeneralizations(new ConverterType(Integer.class, String.class)).isEmpty());
+    assertTrue(map.getGeneralizations(null).isEmpty());
+    
+    map.remove(objectType);
+    assertTrue(map.getGeneralizations(listType).isEmpty());
+  }
+  
+  @Test
+  public void freeze() throws SecurityException, NoSuchMethodException {
+    final ConverterType converterType = new ConverterType(Object.class, String.class);
+    final Converter stringify = new Converter(new StringConverter(), StringConverter.class.getMethod("stringify", Object.class));
+    map.put(converterType, stringify);
+    
+    assertFalse(map.isFrozen());
+    assertTrue(map == map.freeze());
+    assertTrue(map.isFrozen());
+    
+    final long version = map.getVersion();
+    for(Runnable modification : Arrays.asList(
+        new Runnable() { public void run() { map.put(converterType, stringify); } },
+        new Runnable() { public void run() { map.putAll(new HashMap<ConverterType, Converter>()); } },
+        new Runnable() { public void run() { map.remove(converterType); } },
+        new Runnable() { public void run() { map.clear(); } },
+        new Runnable() { public void run() { map.keySet().clear(); } },
+        new Runnable() { public void run() { map.values().clear(); } },
+        new Runnable() { public void run() { map.entrySet().iterator().next().setValue(stringify); } })) {
+      try {
+        modification.run();
+        fail();
+      } catch(UnsupportedOperationException e) {
+        // empty block
+      }
+    }
+    
+    assertEquals(version, map.getVersion());
+    assertEquals(stringify, map.get(converterType));
+    
+    // copies can be modified
+    ConverterMap copy = new ConverterMap(map);
+    assertFalse(copy.isFrozen());
+    assertEquals(map, copy);
+    
+    copy.remove(converterType);
+    assertTrue(copy.isEmpty());
+    assertEquals(1, map.size());
+  }
+  
+  @Test
+  public void getTypesFrom() throws SecurityException, NoSuchMethodException {
+    ConverterType stringify = new ConverterType(Object.class, String.class);
+    ConverterType doubleToString = new ConverterType(double.class, String.class);
+    map.put(stringify, new Converter(new StringConverter(), StringConverter.class.getMethod("stringify", Object.class)));
+    map.put(doubleToString, 
+        new Converter(new MultipleConverter(), MultipleConverter.class.getMethod("converter", double.class)));
+    
+    TestUtils.assertMatchingCollections(
+        Arrays.asList(stringify, doubleToString), map.getTypesFrom(TypeToken.get(Double.class)));
+    TestUtils.assertMatchingCollections(Arrays.asList(stringify), map.getTypesFrom(TypeToken.get(Integer.class)));
+    assertTrue(map.getTypesFrom(null).isEmpty());
+  }
+  
+  @Test
+  public void copy() throws SecurityException, NoSuchMethodException {
+    final List<ConverterType> validated = new ArrayList<ConverterType>();
+    ConverterMap counting = new ConverterMap() {
+      private static final long serialVersionUID = 1L;
+
+      @Override
+      protected boolean validatePut(ConverterType converterType, Converter converter) {
+        validated.add(converterType);
+        return super.validatePut(converterType, converter);
+      }
+    };
+    
+    ConverterType converterType = new ConverterType(Object.class, String.class);
+    Converter stringify = new Converter(new StringConverter(), StringConverter.class.getMethod("stringify", Object.class));
+    counting.put(converterType, stringify);
+    counting.freeze();
+    assertEquals(1, validated.size());
+    
+    // the copy is unfrozen, with the same mappings but a different version
+    ConverterMap copy = counting.copy();
+    assertEquals(1, validated.size());
+    assertFalse(copy.isFrozen());
+    assertEquals(counting, copy);
+    assertFalse(counting.getVersion() == copy.getVersion());
+    assertEquals(Arrays.asList(converterType), copy.getAssignableTypes(new ConverterType(Integer.class, String.class)));
+    
+    // and new mappings are still validated
+    Converter other = new Converter(new MultipleConverter(), MultipleConverter.class.getMethod("converter", double.class));
+    try {
+      copy.put(converterType, other);
+      fail();
+    } catch(ConverterTypeIncompatibleWithConverterException e) {
+      assertEquals(2, validated.size());
+    }
+    
+    copy.remove(converterType);
+    assertTrue(copy.isEmpty());
+    assertEquals(1, counting.size());
+    assertTrue(counting.isFrozen());
+  }
 }
@@ -0,0 +1,139 @@
+package com.googlecode.transmuter.core.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import com.googlecode.transmuter.converter.Converter;
+import com.googlecode.transmuter.converter.ConverterType;
+import com.googlecode.transmuter.core.exception.ConverterCollisionException;
+import com.googlecode.transmuter.fixture.MultipleConverter;
+import com.googlecode.transmuter.fixture.StringConverter;
+
+public class CopyOnWriteConverterMapTest {
+  private CopyOnWriteConverterMap map;
+  
+  private ConverterType stringifyType;
+  private Converter stringify;
+  private ConverterType doubleType;
+  private Converter doubleConverter;
+  
+  @Before
+  public void setUp() throws SecurityException, NoSuchMethodException {
+    map = new CopyOnWriteConverterMap();
+    
+    stringifyType = new ConverterType(Object.class, String.class);
+    stringify = new Converter(new StringConverter(), StringConverter.class.getMethod("stringify", Object.class));
+    doubleType = new ConverterType(double.class, String.class);
+    doubleConverter = new Converter(new MultipleConverter(), MultipleConverter.class.getMethod("converter", double.class));
+  }
+  
+  @Test
+  public void snapshots() {
+    ConverterMap empty = map.getSnapshot();
+    assertTrue(empty.isFrozen());
+    assertTrue(empty.isEmpty());
+    
+    assertNull(map.put(stringifyType, stringify));
+    
+    ConverterMap first = map.getSnapshot();
+    assertTrue(first.isFrozen());
+    assertEquals(stringify, map.get(stringifyType));
+    assertEquals(1, map.size());
+    assertTrue(empty.isEmpty()); // old snapshots don't change
+    assertFalse(empty.getVersion() == map.getVersion());
+    
+    // redundant puts change nothing
+    assertEquals(stringify, map.put(stringifyType, stringify));
+    assertTrue(first == map.getSnapshot());
+    
+    // neither do removals of nonexistent keys
+    assertNull(map.remove(doubleType));
+    assertTrue(first == map.getSnapshot());
+    
+    assertEquals(stringify, map.remove(stringifyType));
+    assertTrue(map.isEmpty());
+    assertEquals(1, first.size());
+  }
+  
+  @Test
+  public void atomicPutAll() {
+    map.put(stringifyType, stringify);
+    ConverterMap before = map.getSnapshot();
+    
+    Map<ConverterType, Converter> temp = new HashMap<ConverterType, Converter>();
+    temp.put(doubleType, doubleConverter);
+    temp.put(stringifyType, doubleConverter);
+    
+    try {
+      map.putAll(temp);
+      fail();
+    } catch(RuntimeException e) {
+      // either a collision or an incompatibility, whichever comes first
+    }
+    
+    assertTrue(before == map.getSnapshot());
+    assertFalse(map.containsKey(doubleType));
+    
+    temp.remove(stringifyType);
+    map.putAll(temp);
+    
+    assertEquals(2, map.size());
+    assertEquals(doubleConverter, map.get(doubleType));
+  }
+  
+  @Test
+  public void collision() throws SecurityException, NoSuchMethodException {
+    map.put(stringifyType, stringify);
+    
+    try {
+      map.put(stringifyType, new Converter(new Object() {
+        @SuppressWarnings("unused") // just to make Eclipse happy
+        public String stringify(Object o) {
+          return "";
+        }
+      }, StringConverter.class.getMethod("stringify", Object.class)));
+      fail();
+    } catch(RuntimeException e) {
+      // the anonymous object is not a StringConverter
+    }
+    
+    try {
+      map.put(stringifyType, new Converter(new StringConverter() {
+        @Override
+        public boolean equals(Object o) {
+          return false;
+        }
+      }, StringConverter.class.getMethod("stringify", Object.class)));
+      fail();
+    } catch(ConverterCollisionException e) {
+      assertEquals(stringifyType, e.getConverterType());
+    }
+  }
+  
+  @Test
+  public void readOnlyViews() {
+    map.put(stringifyType, stringify);
+    
+    try {
+      map.keySet().clear();
+      fail();
+    } catch(UnsupportedOperationException e) {
+      // empty block
+    }
+    
+    assertEquals(1, map.size());
+    
+    map.clear();
+    assertTrue(map.isEmpty());
+    assertTrue(map.getSnapshot().isFrozen());
+  }
+}
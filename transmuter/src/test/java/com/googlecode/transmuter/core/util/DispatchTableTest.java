@@ -0,0 +1,92 @@
+package com.googlecode.transmuter.core.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Test;
+
+import com.googlecode.transmuter.converter.Converter;
+import com.googlecode.transmuter.converter.ConverterType;
+import com.googlecode.transmuter.fixture.MultipleConverter;
+import com.googlecode.transmuter.fixture.StringConverter;
+import com.googlecode.transmuter.type.TypeToken;
+
+public class DispatchTableTest {
+  @Test
+  public void get() throws SecurityException, NoSuchMethodException {
+    Converter stringify = new Converter(new StringConverter(), StringConverter.class.getMethod("stringify", Object.class));
+    Class<?>[] classes = { 
+        Object.class, String.class, Integer.class, Double.class, Boolean.class, Character.class, 
+        Object[].class, String[].class, Number.class, CharSequence.class };
+    
+    // plenty of keys, so some are bound to collide
+    Map<ConverterType, Converter> map = new HashMap<ConverterType, Converter>();
+    for(Class<?> from : classes)
+      for(Class<?> to : classes)
+        if(to.isAssignableFrom(String.class))
+          map.put(new ConverterType(from, to), stringify);
+    
+    DispatchTable table = new DispatchTable(map);
+    assertEquals(map.size(), table.size());
+    
+    for(ConverterType type : map.keySet()) {
+      assertTrue(table.containsKey(type));
+      assertEquals(stringify, table.get(new ConverterType(type.getFromType(), type.getToType())));
+    }
+    
+    // primitives and wrappers are equal converter types
+    assertEquals(stringify, table.get(new ConverterType(int.class, String.class)));
+    
+    assertNull(table.get(new ConverterType(String.class, Integer.class)));
+    assertNull(table.get(null));
+    assertFalse(table.containsKey(new ConverterType(Thread.class, String.class)));
+  }
+  
+  @Test
+  public void getByClass() throws SecurityException, NoSuchMethodException {
+    Converter stringify = new Converter(new StringConverter(), StringConverter.class.getMethod("stringify", Object.class));
+    Converter toList = new Converter(new MultipleConverter(), MultipleConverter.class.getMethod("convert", String.class));
+    
+    Map<ConverterType, Converter> map = new HashMap<ConverterType, Converter>();
+    map.put(new ConverterType(Object.class, String.class), stringify);
+    map.put(new ConverterType(double.class, String.class), stringify);
+    map.put(new ConverterType(TypeToken.STRING, new TypeToken<List<String>>() { /**/ }), toList);
+    
+    DispatchTable table = new DispatchTable(map);
+    
+    assertEquals(stringify, table.get(Object.class, String.class));
+    
+    // primitives and wrappers are laid out both ways
+    assertEquals(stringify, table.get(double.class, String.class));
+    assertEquals(stringify, table.get(Double.class, String.class));
+    
+    // only exact pairs of plain classes
+    assertNull(table.get(String.class, List.class));
+    assertNull(table.get(Integer.class, String.class));
+    assertNull(table.get(String.class, Object.class));
+    assertNull(table.get(null, String.class));
+    assertNull(table.get(Object.class, null));
+    assertNull(new DispatchTable(null).get(Object.class, String.class));
+  }
+  
+  @Test
+  public void empty() {
+    assertEquals(0, new DispatchTable(null).size());
+    assertEquals(0, new DispatchTable(new HashMap<ConverterType, Converter>()).size());
+    assertNull(new DispatchTable(null).get(new ConverterType(Object.class, String.class)));
+  }
+  
+  @Test(expected = IllegalArgumentException.class)
+  public void nullMapping() {
+    Map<ConverterType, Converter> map = new HashMap<ConverterType, Converter>();
+    map.put(new ConverterType(Object.class, String.class), null);
+    
+    new DispatchTable(map);
+  }
+}
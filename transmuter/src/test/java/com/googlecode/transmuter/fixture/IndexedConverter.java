@@ -0,0 +1,17 @@
+package com.googlecode.transmuter.fixture;
+
+import com.googlecode.transmuter.converter.Converts;
+
+public class IndexedConverter {
+  @Converts
+  public String convert(Integer i) {
+    return String.valueOf(i);
+  }
+  
+  public static class Nested {
+    @Converts
+    public String convert(Integer i) {
+      return String.valueOf(i);
+    }
+  }
+}
@@ -0,0 +1,26 @@
+package com.googlecode.transmuter.fixture;
+
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+
+import com.googlecode.transmuter.converter.Converter;
+import com.googlecode.transmuter.converter.ConverterType;
+
+// stands in for the provider the annotation processor would generate, counting how many were made
+public class IndexedConverter_ConverterProvider implements Iterable<Converter> {
+  public static int made;
+  
+  private final List<Converter> converters;
+  
+  public IndexedConverter_ConverterProvider(IndexedConverter source) throws NoSuchMethodException {
+    made++;
+    converters = Collections.singletonList(new Converter(
+        source, IndexedConverter.class.getMethod("convert", Integer.class), new ConverterType(Integer.class, String.class)));
+  }
+  
+  @Override
+  public Iterator<Converter> iterator() {
+    return converters.iterator();
+  }
+}
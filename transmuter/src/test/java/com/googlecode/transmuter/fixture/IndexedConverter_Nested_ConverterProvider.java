@@ -0,0 +1,18 @@
+package com.googlecode.transmuter.fixture;
+
+import java.util.Iterator;
+
+import com.googlecode.transmuter.converter.Converter;
+import com.googlecode.transmuter.converter.exception.ConverterProviderException;
+
+// stands in for a generated provider which fails
+public class IndexedConverter_Nested_ConverterProvider implements Iterable<Converter> {
+  public IndexedConverter_Nested_ConverterProvider(IndexedConverter.Nested source) {
+    throw new ConverterProviderException(new IllegalStateException("generated provider failed"));
+  }
+  
+  @Override
+  public Iterator<Converter> iterator() {
+    throw new UnsupportedOperationException();
+  }
+}
@@ -0,0 +1,5 @@
+package com.googlecode.transmuter.fixture;
+
+public class InheritedConverter extends Widener {
+  // inherits all its converter methods
+}
@@ -0,0 +1,31 @@
+package com.googlecode.transmuter.fixture;
+
+import com.googlecode.transmuter.converter.Converts;
+
+public class NestedConverters {
+  public static class Public {
+    @Converts
+    public String convert(Integer i) {
+      return String.valueOf(i);
+    }
+  }
+  
+  // public in its class file, as far as the JVM is concerned
+  protected static class Protected {
+    public Protected() { /* empty block */ }
+    
+    @Converts
+    public String convert(Integer i) {
+      return String.valueOf(i);
+    }
+  }
+}
+
+class HiddenConverters {
+  public static class Public {
+    @Converts
+    public String convert(Integer i) {
+      return String.valueOf(i);
+    }
+  }
+}
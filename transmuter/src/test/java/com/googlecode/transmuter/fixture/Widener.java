@@ -0,0 +1,21 @@
+package com.googlecode.transmuter.fixture;
+
+import com.googlecode.transmuter.converter.Converts;
+import com.googlecode.transmuter.converter.PrimitiveConverter;
+
+public class Widener implements PrimitiveConverter.IntToLong, PrimitiveConverter.IntToDouble {
+  @Converts
+  public long convertToLong(int from) {
+    return from;
+  }
+  
+  @Converts
+  public double convertToDouble(int from) {
+    return from + 0.5;
+  }
+  
+  @Converts
+  public double convertToDouble(long from) { // not from PrimitiveConverter.LongToDouble
+    return from + 0.25;
+  }
+}
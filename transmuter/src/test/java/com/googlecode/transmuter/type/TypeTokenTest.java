@@ -0,0 +1,139 @@
+package com.googlecode.transmuter.type;
+
+import com.googlecode.transmuter.util.TypeDescriptors;
+import org.junit.Test;
+
+import java.lang.ref.WeakReference;
+import java.lang.reflect.Array;
+import java.lang.reflect.Type;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.util.*;
+import java.util.concurrent.*;
+
+import static org.junit.Assert.*;
+
+public class TypeTokenTest {
+  private static final ClassLoader LOADER = TypeTokenTest.class.getClassLoader();
+
+  @Test
+  public void canonicalClassTokens() {
+    assertSame(TypeToken.OBJECT, TypeToken.get(Object.class));
+    assertSame(TypeToken.STRING, TypeToken.get((Type) String.class));
+    assertSame(TypeToken.get(int.class), TypeToken.ValueType.INTEGER.primitive);
+    assertSame(TypeToken.get(Integer.class), TypeToken.ValueType.INTEGER.wrapper);
+
+    // enough classes to fill up the recently interned tokens a few times over
+    List<Class<?>> classes = new ArrayList<Class<?>>();
+    for(Class<?> base : Arrays.<Class<?>>asList(Object.class, String.class, Integer.class, Thread.class)) {
+      Class<?> cls = base;
+      for(int i = 0; i < 250; i++)
+        classes.add(cls = Array.newInstance(cls, 0).getClass());
+    }
+
+    List<TypeToken<?>> tokens = new ArrayList<TypeToken<?>>();
+    for(Class<?> cls : classes)
+      tokens.add(TypeToken.get(cls));
+
+    for(int i = 0; i < classes.size(); i++)
+      assertSame(tokens.get(i), TypeToken.get(classes.get(i)));
+
+    assertNull(TypeToken.get((Type) null));
+    assertNull(TypeToken.get((Class<?>) null));
+  }
+
+  @Test
+  public void canonicalParameterizedTokens() throws ClassNotFoundException {
+    TypeToken<Map<String, List<? extends Number>>> anonymous =
+      new TypeToken<Map<String, List<? extends Number>>>() { /**/ };
+
+    // equal types from different implementations
+    Type type = anonymous.getType();
+    Type other = TypeDescriptors.typeOf(TypeDescriptors.descriptorOf(type), LOADER);
+    assertNotSame(type, other);
+
+    TypeToken<?> token = TypeToken.get(type);
+    assertSame(token, TypeToken.get(other));
+
+    // which keeps the first type it was gotten with
+    assertSame(type, token.getType());
+    assertSame(type, TypeToken.get(other).getType());
+    assertEquals(other, TypeToken.get(other).getType());
+
+    // tokens made through subclassing aren't canonical, but are still equal
+    assertNotSame(anonymous, token);
+    assertEquals(anonymous, token);
+    assertEquals(token, anonymous);
+    assertEquals(anonymous.hashCode(), token.hashCode());
+  }
+
+  @Test
+  public void unusedTokensAreCollected() throws ClassNotFoundException {
+    Type type = TypeDescriptors.typeOf("PNLjava.util.Map;<Ljava.lang.Thread;[[Ljava.lang.Thread;>", LOADER);
+    WeakReference<TypeToken<?>> reference = new WeakReference<TypeToken<?>>(TypeToken.get(type));
+    WeakReference<Type> typeReference = new WeakReference<Type>(type);
+    type = null;
+
+    for(int i = 0; i < 10 && reference.get() != null; i++)
+      System.gc();
+
+    assertNull(reference.get());
+
+    // and their types are released on a later miss
+    for(int i = 0; i < 10 && typeReference.get() != null; i++) {
+      TypeToken.get(TypeDescriptors.typeOf("PNLjava.util.List;<Ljava.lang.Thread;>", LOADER));
+      System.gc();
+    }
+
+    assertNull(typeReference.get());
+  }
+
+  @Test
+  public void unusedClassesAreUnloadable() throws Exception {
+    // a class of its own, from a loader no one else knows about
+    URL root = TypeTokenTest.class.getProtectionDomain().getCodeSource().getLocation();
+    ClassLoader loader = new URLClassLoader(new URL[] { root }, null);
+    Class<?> cls = loader.loadClass(TypeTokenTest.class.getName());
+    assertNotSame(TypeTokenTest.class, cls);
+    
+    WeakReference<TypeToken<?>> reference = new WeakReference<TypeToken<?>>(TypeToken.get(cls));
+    WeakReference<Class<?>> classReference = new WeakReference<Class<?>>(cls);
+    assertSame(reference.get(), TypeToken.get(cls));
+    loader = null;
+    cls = null;
+    
+    // with nothing interned afterwards
+    for(int i = 0; i < 10 && classReference.get() != null; i++)
+      System.gc();
+    
+    assertNull(reference.get());
+    assertNull(classReference.get());
+  }
+  
+  @Test
+  public void concurrentInterning() throws Exception {
+    final Type type = TypeDescriptors.typeOf("PNLjava.util.Map;<Ljava.lang.Thread;[Ljava.lang.Short;>", LOADER);
+    final CountDownLatch start = new CountDownLatch(1);
+
+    ExecutorService executor = Executors.newFixedThreadPool(4);
+    try {
+      List<Future<TypeToken<?>>> futures = new ArrayList<Future<TypeToken<?>>>();
+      for(int i = 0; i < 4; i++) {
+        futures.add(executor.submit(new Callable<TypeToken<?>>() {
+          @Override
+          public TypeToken<?> call() throws Exception {
+            start.await();
+            return TypeToken.get(TypeDescriptors.typeOf(TypeDescriptors.descriptorOf(type), LOADER));
+          }
+        }));
+      }
+
+      start.countDown();
+      TypeToken<?> token = futures.get(0).get();
+      for(Future<TypeToken<?>> future : futures)
+        assertSame(token, future.get());
+    } finally {
+      executor.shutdown();
+    }
+  }
+}
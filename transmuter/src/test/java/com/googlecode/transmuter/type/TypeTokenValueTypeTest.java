@@ -4,7 +4,9 @@ import com.googlecode.transmuter.type.TypeToken.ValueType;
 import com.googlecode.transmuter.util.ObjectUtils;
 import org.junit.Test;
 
+import java.lang.reflect.Array;
 import java.lang.reflect.Type;
+import java.util.Arrays;
 
 import static com.googlecode.transmuter.type.TypeToken.ValueType.*;
 import static org.junit.Assert.*;
@@ -606,4 +608,67 @@ public class TypeTokenValueTypeTest {
       // empty block
     }
   }
+  
+  @Test
+  public void testCastingArrays() {
+    final Object[] arrays = {
+      new byte[] { -128, -1, 0, 1, 127 },
+      new char[] { 0, 'a', 255, 65535 },
+      new short[] { -32768, -129, 0, 300, 32767 },
+      new int[] { Integer.MIN_VALUE, -129, 0, 65537, Integer.MAX_VALUE },
+      new long[] { Long.MIN_VALUE, -129, 0, 1L << 40, Long.MAX_VALUE },
+      new float[] { Float.NEGATIVE_INFINITY, -129.7f, 0.5f, 1e20f, Float.NaN },
+      new double[] { Double.NEGATIVE_INFINITY, -129.7, 0.5, 1e20, Double.NaN },
+    };
+    
+    // castArray must agree with cast, element by element
+    for(ValueType<?> valueType : new ValueType<?>[] { BYTE, CHARACTER, DOUBLE, FLOAT, INTEGER, LONG, SHORT }) {
+      for(Object array : arrays) {
+        Object cast = valueType.castArray(array);
+        
+        assertEquals(valueType.primitive.getRawType(), cast.getClass().getComponentType());
+        assertEquals(Array.getLength(array), Array.getLength(cast));
+        assertFalse(array == cast);
+        
+        for(int i = 0; i < Array.getLength(array); i++)
+          assertEquals(valueType.cast(Array.get(array, i)), Array.get(cast, i));
+      }
+      
+      for(Object invalid : new Object[] { new boolean[0], new Integer[0], new Object() }) {
+        try {
+          valueType.castArray(invalid);
+          fail();
+        } catch(ClassCastException e) {
+          // empty block
+        }
+      }
+      
+      try {
+        valueType.castArray(null);
+        fail();
+      } catch(IllegalArgumentException e) {
+        // empty block
+      }
+    }
+    
+    final boolean[] booleans = { true, false };
+    assertTrue(Arrays.equals(booleans, (boolean[]) BOOLEAN.castArray(booleans)));
+    assertFalse(booleans == BOOLEAN.castArray(booleans));
+    
+    for(Object array : arrays) {
+      try {
+        BOOLEAN.castArray(array);
+        fail();
+      } catch(ClassCastException e) {
+        // empty block
+      }
+      
+      try {
+        VOID.castArray(array);
+        fail();
+      } catch(ClassCastException e) {
+        // empty block
+      }
+    }
+  }
 }
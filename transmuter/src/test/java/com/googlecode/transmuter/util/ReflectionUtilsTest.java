@@ -107,4 +107,40 @@ public class ReflectionUtilsTest {
       assertEquals(Object.class, e.getOwnerType());
     }
   }
+  
+  @Test
+  public void testGetAssignableClasses() {
+    assertTrue(getAssignableClasses(null).isEmpty());
+    
+    assertEquals(
+        new HashSet<Class<?>>(Arrays.<Class<?>>asList(int.class)), 
+        getAssignableClasses(int.class));
+    
+    Set<Class<?>> classes = getAssignableClasses(ArrayList.class);
+    assertEquals(ArrayList.class, classes.iterator().next());
+    assertTrue(classes.containsAll(Arrays.<Class<?>>asList(
+        AbstractList.class, AbstractCollection.class, Object.class, 
+        List.class, Collection.class, Iterable.class, RandomAccess.class)));
+    
+    classes = getAssignableClasses(Runnable.class);
+    assertEquals(
+        new HashSet<Class<?>>(Arrays.<Class<?>>asList(Runnable.class, Object.class)), 
+        classes);
+    
+    classes = getAssignableClasses(String[][].class);
+    assertTrue(classes.containsAll(Arrays.<Class<?>>asList(
+        String[][].class, CharSequence[][].class, Object[][].class, Object[].class, 
+        Cloneable[].class, Object.class, Cloneable.class, java.io.Serializable.class)));
+    assertFalse(classes.contains(String[].class));
+    
+    classes = getAssignableClasses(int[].class);
+    assertEquals(
+        new HashSet<Class<?>>(Arrays.<Class<?>>asList(int[].class, Object.class, Cloneable.class, java.io.Serializable.class)), 
+        classes);
+    
+    // must agree with Class.isAssignableFrom
+    for(Class<?> cls : Arrays.<Class<?>>asList(Integer.class, HashMap.class, String[].class, List[][].class))
+      for(Class<?> superclass : getAssignableClasses(cls))
+        assertTrue(superclass + " from " + cls, superclass.isAssignableFrom(cls));
+  }
 }
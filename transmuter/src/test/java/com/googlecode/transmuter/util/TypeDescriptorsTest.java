@@ -0,0 +1,104 @@
+package com.googlecode.transmuter.util;
+
+import com.googlecode.transmuter.type.TypeToken;
+import org.junit.Test;
+
+import java.io.Serializable;
+import java.lang.reflect.Type;
+import java.util.*;
+
+import static com.googlecode.transmuter.util.TypeDescriptors.*;
+import static org.junit.Assert.*;
+
+public class TypeDescriptorsTest {
+  private static final ClassLoader LOADER = TypeDescriptorsTest.class.getClassLoader();
+
+  @Test
+  public void testDescriptorOf() {
+    assertEquals("I", descriptorOf(int.class));
+    assertEquals("V", descriptorOf(void.class));
+    assertEquals("Ljava.lang.String;", descriptorOf(String.class));
+    assertEquals("Ljava.util.Map$Entry;", descriptorOf(Map.Entry.class));
+    assertEquals("[[I", descriptorOf(int[][].class));
+    assertEquals("[Ljava.lang.String;", descriptorOf(String[].class));
+    assertEquals("PNLjava.util.List;<Ljava.lang.String;>",
+        descriptorOf(new TypeToken<List<String>>() { /**/ }.getType()));
+    assertEquals("PLjava.util.Map;Ljava.util.Map$Entry;<Ljava.lang.String;[I>",
+        descriptorOf(new TypeToken<Map.Entry<String, int[]>>() { /**/ }.getType()));
+    assertEquals("APNLjava.util.List;<?<Ljava.lang.Object;><Ljava.lang.String;>>",
+        descriptorOf(new TypeToken<List<? super String>[]>() { /**/ }.getType()));
+  }
+
+  @Test
+  public void testDescriptorOfWithoutDescriptor() {
+    try {
+      descriptorOf(null);
+      fail();
+    } catch(IllegalArgumentException e) {
+      // empty block
+    }
+
+    try {
+      descriptorOf(List.class.getTypeParameters()[0]);
+      fail();
+    } catch(IllegalArgumentException e) {
+      // empty block
+    }
+  }
+
+  @Test
+  public void testTypeOf() throws ClassNotFoundException {
+    for(Type type : Arrays.asList(
+        boolean.class, double[].class, Object.class, String[][].class, Map.Entry.class,
+        new TypeToken<List<String>>() { /**/ }.getType(),
+        new TypeToken<Map<String, List<? extends Number>>>() { /**/ }.getType(),
+        new TypeToken<Map.Entry<Class<?>, int[]>>() { /**/ }.getType(),
+        new TypeToken<List<? super Serializable>[][]>() { /**/ }.getType())) {
+      Type read = typeOf(descriptorOf(type), LOADER);
+
+      // interchangeable with the reflection API's types
+      assertEquals(type, read);
+      assertEquals(read, type);
+      assertEquals(type.hashCode(), read.hashCode());
+      assertEquals(descriptorOf(type), descriptorOf(read));
+      assertEquals(ReflectionUtils.getTypeName(type), ReflectionUtils.getTypeName(read));
+    }
+  }
+
+  @Test
+  public void testTypeOfWithMalformedDescriptors() throws ClassNotFoundException {
+    for(String descriptor : Arrays.asList("", "X", "Ljava.lang.String", "II", "[", "PNLjava.util.List;",
+                                          "?<>", "Ljava.lang.String;>")) {
+      try {
+        typeOf(descriptor, LOADER);
+        fail(descriptor);
+      } catch(IllegalArgumentException e) {
+        // empty block
+      }
+    }
+
+    try {
+      typeOf(null, LOADER);
+      fail();
+    } catch(IllegalArgumentException e) {
+      // empty block
+    }
+
+    try {
+      typeOf("I", null);
+      fail();
+    } catch(IllegalArgumentException e) {
+      // empty block
+    }
+  }
+
+  @Test
+  public void testTypeOfWithMissingClasses() {
+    try {
+      typeOf("PNLjava.util.List;<Lno.such.Class;>", LOADER);
+      fail();
+    } catch(ClassNotFoundException e) {
+      // empty block
+    }
+  }
+}